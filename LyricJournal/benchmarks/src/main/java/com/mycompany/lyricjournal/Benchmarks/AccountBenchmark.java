@@ -0,0 +1,88 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.lyricjournal.Benchmarks;
+
+/**
+ *
+ * @author Kalli-Ann
+ */
+
+// Account Benchmark - UserManager.registerUser and validateLogin
+
+
+import com.mycompany.lyricjournal.Controller.*;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/*
+ * Measures registering a new account and logging in, with `accounts` accounts already
+ * in users.log (written directly, so setting up a million accounts does not hash a
+ * million passwords)
+ *
+ * Both operations hash a password with the configured PBKDF2 work factor, which usually
+ * dominates - compare runs with -jvmArgsAppend -Dlyricjournal.pbkdf2.iterations=<n>
+ * to see the account lookup itself. Login throttling is off so repeated logins are
+ * never delayed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class AccountBenchmark {
+    private static final String PASSWORD = "benchmark-password";
+
+    @Param({"1000", "100000", "1000000"})
+    public int accounts;
+
+    private Path directory;
+    private UserManager manager;
+    private String[] usernames;
+    private int nextLogin;
+    private long nextRegistration;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("lyricjournal-bench");
+        String hash = PasswordHasher.hash(PASSWORD);
+        Map<String, String> existing = new HashMap<>();
+        usernames = new String[accounts];
+        for (int i = 0; i < accounts; i++) {
+            usernames[i] = "member" + i;
+            existing.put(usernames[i], hash);
+        }
+        try (UserDirectory users = UserDirectory.open(directory.resolve("users.log"), directory.resolve("users.idx"))) {
+            users.importAll(existing);
+        }
+        manager = new UserManager(directory); // opens the prepared files
+        manager.setLoginThrottle(null);
+        manager.preload();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        manager.close(); // releases the files before they are deleted
+        BenchmarkData.deleteTree(directory);
+    }
+
+    @Benchmark
+    public boolean registerUser() {
+        return manager.registerUser("newmember" + nextRegistration++, PASSWORD);
+    }
+
+    @Benchmark
+    public boolean validateLogin() {
+        // spread the logins over the accounts so lookups do not all hit one cached entry
+        String username = usernames[nextLogin];
+        nextLogin = (nextLogin + 7919) % accounts;
+        return manager.validateLogin(username, PASSWORD);
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.lyricjournal.Benchmarks;
+
+/**
+ *
+ * @author Kalli-Ann
+ */
+
+// Add Entry Benchmark - User.addEntry
+
+
+import com.mycompany.lyricjournal.Model.*;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/*
+ * Measures appending entries to a journal that already holds `entries` entries
+ *
+ * Every iteration starts again from a journal of exactly that size and times one batch of
+ * BATCH adds, so the score (time per batch) includes the occasional growth of the backing
+ * array - the cost that depends on journal size. The added entries are built beforehand.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 20, batchSize = AddEntryBenchmark.BATCH)
+@Measurement(iterations = 20, batchSize = AddEntryBenchmark.BATCH)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class AddEntryBenchmark {
+    static final int BATCH = 10_000;
+
+    @Param({"1000", "100000", "1000000"})
+    public int entries;
+
+    private LyricEntry[] existing;
+    private LyricEntry[] added;
+    private int next;
+    private User user;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        existing = BenchmarkData.entries(entries, 42);
+        added = BenchmarkData.entries(BATCH, 7);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetJournal() {
+        user = new User("addbench", "password");
+        for (LyricEntry entry : existing) {
+            user.addEntry(entry);
+        }
+        next = 0;
+    }
+
+    @Benchmark
+    public User addEntry() {
+        user.addEntry(added[next++ % BATCH]);
+        return user;
+    }
+}
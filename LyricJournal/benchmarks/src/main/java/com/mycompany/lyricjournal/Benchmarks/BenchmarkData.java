@@ -0,0 +1,117 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.lyricjournal.Benchmarks;
+
+/**
+ *
+ * @author Kalli-Ann
+ */
+
+// Benchmark data - builds journals of a given size
+
+
+import com.mycompany.lyricjournal.Model.*;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.SplittableRandom;
+
+/*
+ * Deterministic journals for the benchmarks, so every run measures the same data
+ *
+ * Entries look like real ones:
+ * - lyric excerpts of 1 to 12 lines, 4 to 9 words each (about 30 to 600 characters)
+ * - a note on roughly every third entry
+ * - artists and titles drawn from a limited pool, so searches for an artist hit
+ *   many entries, while a rare word hits few
+ * - dates spread over the last ten years
+ *
+ * Example: User user = BenchmarkData.user("bench", 100_000);
+ */
+final class BenchmarkData {
+    // common lyric words - "love" hits a large share of entries, "zephyr" almost none
+    private static final String[] WORDS = {
+        "love", "heart", "night", "baby", "time", "dream", "fire", "rain", "light", "dance",
+        "the", "you", "me", "we", "and", "never", "always", "tonight", "forever", "home",
+        "road", "sky", "stars", "gone", "feel", "hold", "run", "away", "falling", "alone",
+        "tears", "smile", "world", "river", "summer", "cold", "golden", "wild", "free", "young",
+        "remember", "morning", "shadow", "ocean", "burning", "whisper", "silver", "broken", "dreams", "again"
+    };
+    private static final String RARE_WORD = "zephyr";
+    private static final String[] ARTIST_WORDS = {
+        "The", "Midnight", "Velvet", "Echo", "Lights", "Rivers", "Kings", "Neon", "Paper", "Wolves"
+    };
+    private static final int ARTISTS = 2_000;
+
+    private BenchmarkData() {
+    }
+
+    /*
+     * Creates a user with the given number of entries
+     */
+    static User user(String username, int entries) {
+        User user = new User(username, "password");
+        LyricEntry[] generated = entries(entries, 42);
+        for (LyricEntry entry : generated) {
+            user.addEntry(entry);
+        }
+        return user;
+    }
+
+    /*
+     * Creates entries from a seed (same seed, same entries)
+     */
+    static LyricEntry[] entries(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        LyricEntry[] entries = new LyricEntry[count];
+        for (int i = 0; i < count; i++) {
+            entries[i] = entry(random, i);
+        }
+        return entries;
+    }
+
+    /*
+     * Deletes a directory created for a benchmark, with everything in it
+     */
+    static void deleteTree(Path directory) throws IOException {
+        if (directory == null || !Files.exists(directory)) {
+            return;
+        }
+        try (java.util.stream.Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(java.util.Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private static LyricEntry entry(SplittableRandom random, int i) {
+        // skew towards popular artists: the square of a uniform number favours low indexes
+        double skew = random.nextDouble();
+        int artist = (int) (skew * skew * ARTISTS);
+        String artistName = ARTIST_WORDS[artist % ARTIST_WORDS.length] + " "
+                + ARTIST_WORDS[(artist / ARTIST_WORDS.length) % ARTIST_WORDS.length] + " " + artist;
+        String title = capitalize(WORDS[random.nextInt(WORDS.length)]) + " " + capitalize(WORDS[random.nextInt(WORDS.length)]);
+
+        StringBuilder lyric = new StringBuilder();
+        int lines = 1 + random.nextInt(12);
+        for (int line = 0; line < lines; line++) {
+            int words = 4 + random.nextInt(6);
+            for (int w = 0; w < words; w++) {
+                lyric.append(w == 0 ? "" : " ").append(WORDS[random.nextInt(WORDS.length)]);
+            }
+            lyric.append('\n');
+        }
+        if (random.nextInt(10_000) == 0) {
+            lyric.append(RARE_WORD);
+        }
+        String note = random.nextInt(3) == 0 ? "reminds me of " + WORDS[random.nextInt(WORDS.length)] : "";
+        String date = java.time.LocalDate.of(2016, 1, 1).plusDays(random.nextInt(3650)).toString();
+        return new LyricEntry(title, artistName, lyric.toString(), note, date);
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.lyricjournal.Benchmarks;
+
+/**
+ *
+ * @author Kalli-Ann
+ */
+
+// Benchmark launcher - main class of benchmarks.jar
+
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.*;
+
+/*
+ * Runs the JMH benchmarks with the GC profiler always attached, so every result comes
+ * with its allocation rate (gc.alloc.rate, gc.alloc.rate.norm = bytes per operation)
+ *
+ * Accepts the usual JMH command line, e.g.
+ * java -jar target/benchmarks.jar                          // everything
+ * java -jar target/benchmarks.jar Search -p entries=100000 // one benchmark, one size
+ * java -jar target/benchmarks.jar -rf json -rff results.json
+ */
+public class BenchmarkMain {
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp()) {
+            commandLine.showHelp();
+            return;
+        }
+        if (commandLine.shouldList()) {
+            new Runner(commandLine).list();
+            return;
+        }
+        Options options = new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.lyricjournal.Benchmarks;
+
+/**
+ *
+ * @author Kalli-Ann
+ */
+
+// Persistence Benchmark - UserDataController.saveUser and loadUserEntries
+
+
+import com.mycompany.lyricjournal.Controller.*;
+import com.mycompany.lyricjournal.Model.*;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/*
+ * Measures writing a whole journal to JSON and reading it back
+ *
+ * storage:
+ * disk   - a temporary directory (includes the file system and page cache)
+ * memory - the in-memory file system (serialization cost only)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class PersistenceBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int entries;
+
+    @Param({"disk", "memory"})
+    public String storage;
+
+    private User user;
+    private Path directory;
+    private UserDataController journals;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        if ("memory".equals(storage)) {
+            journals = new UserDataController(Storage.newInMemoryRoot());
+        } else {
+            directory = Files.createTempDirectory("lyricjournal-bench");
+            journals = new UserDataController(directory);
+        }
+        user = BenchmarkData.user("persistbench", entries);
+        journals.saveUser(user); // loadUserEntries needs a journal to read
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkData.deleteTree(directory);
+    }
+
+    @Benchmark
+    public User saveUser() {
+        journals.saveUser(user);
+        return user;
+    }
+
+    @Benchmark
+    public User loadUserEntries() {
+        User loaded = new User("persistbench", "password");
+        journals.loadUserEntries(loaded);
+        return loaded;
+    }
+}
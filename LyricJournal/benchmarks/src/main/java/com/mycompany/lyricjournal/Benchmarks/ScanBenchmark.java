@@ -0,0 +1,117 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.lyricjournal.Benchmarks;
+
+/**
+ *
+ * @author Kalli-Ann
+ */
+
+// Scan Benchmark - iterating getEntries() against the columnar snapshot
+
+
+import com.mycompany.lyricjournal.Controller.UserDataController;
+import com.mycompany.lyricjournal.Model.*;
+
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/*
+ * Full scans over one journal, each done two ways: walking the LyricEntry objects from
+ * getEntries(), and over the ColumnarJournal snapshot
+ *
+ * search* - brute-force keyword search (zephyr: almost no hits, pure scanning; love: many hits)
+ * stats*  - entries per artist, date range and lyric volume (what the stats command reports)
+ * export* - every entry written as journal JSON to a discarding writer
+ * buildSnapshot - the cost of making the snapshot, paid again after each change
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ScanBenchmark {
+    @Param({"10000", "100000", "1000000"})
+    public int entries;
+
+    @Param({"zephyr", "love"})
+    public String keyword;
+
+    private User user;
+    private ColumnarJournal snapshot;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        user = BenchmarkData.user("scanbench", entries);
+        snapshot = user.getColumnarSnapshot();
+    }
+
+    @Benchmark
+    public List<LyricEntry> searchObjects() {
+        return user.searchEntries(keyword);
+    }
+
+    @Benchmark
+    public int[] searchColumnar() {
+        return snapshot.search(keyword);
+    }
+
+    @Benchmark
+    public long statsObjects() {
+        Map<String, Integer> artists = new HashMap<>();
+        long lyricChars = 0;
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        for (LyricEntry entry : user.getEntries()) {
+            artists.merge(entry.getArtist(), 1, Integer::sum);
+            lyricChars += entry.getLyricText().length();
+            long day = entry.getDate().toEpochDay();
+            first = Math.min(first, day);
+            last = Math.max(last, day);
+        }
+        return artists.size() + lyricChars + first + last;
+    }
+
+    @Benchmark
+    public long statsColumnar() {
+        int[] perArtist = snapshot.artistEntryCounts();
+        int[] range = snapshot.dayRange();
+        return perArtist.length + snapshot.lyricChars() + range[0] + range[1];
+    }
+
+    @Benchmark
+    public void exportObjects() throws IOException {
+        try (JsonWriter writer = new JsonWriter(Writer.nullWriter())) {
+            writer.beginArray();
+            for (LyricEntry entry : user.getEntries()) {
+                UserDataController.writeEntry(writer, entry);
+            }
+            writer.endArray();
+        }
+    }
+
+    @Benchmark
+    public void exportColumnar() throws IOException {
+        try (JsonWriter writer = new JsonWriter(Writer.nullWriter())) {
+            writer.beginArray();
+            for (int row = 0; row < snapshot.size(); row++) {
+                UserDataController.writeEntry(writer, snapshot.entry(row));
+            }
+            writer.endArray();
+        }
+    }
+
+    @Benchmark
+    public ColumnarJournal buildSnapshot() {
+        return ColumnarJournal.of(user.getEntries());
+    }
+}
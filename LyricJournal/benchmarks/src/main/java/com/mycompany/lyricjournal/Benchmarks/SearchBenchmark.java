@@ -0,0 +1,53 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.lyricjournal.Benchmarks;
+
+/**
+ *
+ * @author Kalli-Ann
+ */
+
+// Search Benchmark - User.searchEntries
+
+
+import com.mycompany.lyricjournal.Model.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/*
+ * Measures one full search over a journal
+ *
+ * keyword:
+ * love   - common word, matches a large share of entries (result list is big)
+ * zephyr - rare word, matches about one entry in 10,000 (pure scanning cost)
+ * Neon   - artist word, matches the artist field first
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class SearchBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int entries;
+
+    @Param({"love", "zephyr", "Neon"})
+    public String keyword;
+
+    private User user;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        user = BenchmarkData.user("searchbench", entries);
+    }
+
+    @Benchmark
+    public List<LyricEntry> searchEntries() {
+        return user.searchEntries(keyword);
+    }
+}
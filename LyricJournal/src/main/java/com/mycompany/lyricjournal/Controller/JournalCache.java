@@ -0,0 +1,446 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.lyricjournal.Controller;
+
+/**
+ *
+ * @author Kalli-Ann
+ */
+
+// JournalCache Controller Class
+
+// Bounded cache of loaded journals for serving many users from one process
+
+
+import com.mycompany.lyricjournal.Model.*;
+
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/*
+ * JournalCache keeps recently used journals (User objects) in memory so that requests
+ * do not reload {username}_lyrics.json every time, while bounding the memory used.
+ *
+ * - Size bound: each journal weighs its entry count (+1); when the total passes
+ *   maxWeight, the least recently used journals are evicted.
+ * - Idle expiry: journals not used for idleTimeout are evicted by a background sweep.
+ * - Write-back: changes made through write() mark the journal dirty; dirty journals are
+ *   saved on eviction, by the background sweep (every flushInterval) and on close().
+ *   A journal that fails to save stays resident and dirty (it is not evicted), the sweep
+ *   keeps retrying, the next write() to it saves first and fails if that still fails, and
+ *   flush() / close() throw after trying every journal - changes are never dropped silently.
+ * - Concurrent requests for a journal that is not loaded share a single load.
+ * - stats() reports hits, misses, load time, evictions, write-backs and failed write-backs.
+ * - Off-heap mode (offHeap = true, or -Dlyricjournal.offHeap=true) gives each loaded user
+ *   a LyricArena: lyric texts and notes live outside the Java heap, and the whole arena is
+ *   released when the journal is evicted, so heap size and GC pauses do not grow with
+ *   the amount of text held.
+ * - In lazy mode (UserDataController.setLazyBodies) the journal file a user's entries read
+ *   their text from is closed when the journal is evicted.
+ *
+ * All access to one journal is serialized on its User object, so callers must go
+ * through read() / write() rather than keeping the User.
+ *
+ * Example usage:
+ * JournalCache cache = new JournalCache(journals, 100_000, Duration.ofMinutes(10), Duration.ofSeconds(5));
+ * int count = cache.read("john", user -> user.getEntries().size());
+ * cache.write("john", user -> { user.addEntry(entry); return null; });
+ */
+public class JournalCache implements AutoCloseable {
+    private final UserDataController journals; // where the journals are loaded from and saved to
+    private final long maxWeight;           // total entry budget
+    private final long idleNanos;           // evict journals unused for this long
+    private final boolean offHeap;          // keep lyric texts and notes in a LyricArena per user
+    private final ConcurrentHashMap<String, CompletableFuture<Slot>> slots = new ConcurrentHashMap<>();
+    private final AtomicLong weight = new AtomicLong();   // sum of resident slot weights
+    private final Object evictionLock = new Object();     // one evicting thread at a time
+    private final ScheduledExecutorService maintenance;
+
+    // metrics
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder writeBacks = new LongAdder();
+    private final LongAdder writeBackFailures = new LongAdder();
+
+    // one resident journal
+    private static final class Slot {
+        final User user;
+        volatile long lastAccess = System.nanoTime();
+        long weight;          // entry count + 1 (guarded by user)
+        boolean dirty;        // changed since last save (guarded by user)
+        boolean saveFailed;   // the last save attempt failed (guarded by user)
+        volatile boolean evicted; // removed from the cache - must not be changed any more (set under user)
+        boolean released;         // evicted with its arena or journal file closed - text unreadable (guarded by user)
+
+        Slot(User user) {
+            this.user = user;
+            this.weight = user.getEntries().size() + 1L;
+        }
+    }
+
+    /*
+     * Creates a cache and starts its background sweep
+     *
+     * Inputs:
+     *
+     * journals - loads and saves the journals (input: non-null UserDataController)
+     * maxWeight - total number of entries to keep in memory (input: long > 0)
+     * idleTimeout - evict journals not used for this long (input: Duration)
+     * flushInterval - how often dirty journals are saved and idle ones expired (input: Duration)
+     *
+     * Off-heap mode follows -Dlyricjournal.offHeap (default false)
+     */
+    public JournalCache(UserDataController journals, long maxWeight, java.time.Duration idleTimeout,
+                        java.time.Duration flushInterval) {
+        this(journals, maxWeight, idleTimeout, flushInterval, Boolean.getBoolean("lyricjournal.offHeap"));
+    }
+
+    /*
+     * Creates a cache and starts its background sweep
+     *
+     * Inputs:
+     *
+     * journals, maxWeight, idleTimeout, flushInterval - as above
+     * offHeap - keep each user's lyric texts and notes in a LyricArena (input: boolean)
+     */
+    public JournalCache(UserDataController journals, long maxWeight, java.time.Duration idleTimeout,
+                        java.time.Duration flushInterval, boolean offHeap) {
+        this.journals = journals;
+        this.maxWeight = maxWeight;
+        this.idleNanos = idleTimeout.toNanos();
+        this.offHeap = offHeap;
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal-cache");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, flushInterval.toMillis());
+        maintenance.scheduleWithFixedDelay(this::sweep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /*
+     * Runs a read-only operation on a user's journal, loading it if needed
+     *
+     * Inputs:
+     *
+     * username - journal owner (input: String, same spelling as the journal file)
+     * reader - operation to run while holding the journal (input: Function<User, T>)
+     *
+     * Output: returns whatever the reader returns (output: T)
+     */
+    public <T> T read(String username, Function<User, T> reader) {
+        while (true) {
+            Slot slot = slot(username);
+            synchronized (slot.user) {
+                if (slot.released) {
+                    continue; // its arena or journal file was closed - read the reloaded journal
+                }
+                return reader.apply(slot.user); // an evicted slot was saved first, so reading it is still correct
+            }
+        }
+    }
+
+    /*
+     * Runs an operation that changes a user's journal and marks it for write-back
+     * If the operation throws, the journal is not marked dirty
+     * If the journal's last write-back failed it is saved first; if that fails again the
+     * change is not made and UncheckedIOException is thrown
+     *
+     * Output: returns whatever the writer returns (output: T)
+     */
+    public <T> T write(String username, Function<User, T> writer) {
+        while (true) {
+            Slot slot = slot(username);
+            T result;
+            synchronized (slot.user) {
+                if (slot.evicted) {
+                    continue; // lost a race with eviction - use the reloaded journal
+                }
+                if (slot.saveFailed) {
+                    save(slot); // do not pile up changes that cannot be saved
+                }
+                result = writer.apply(slot.user);
+                slot.dirty = true;
+                long newWeight = slot.user.getEntries().size() + 1L;
+                weight.addAndGet(newWeight - slot.weight);
+                slot.weight = newWeight;
+            }
+            evictIfNeeded(); // outside the journal lock - eviction locks other journals
+            return result;
+        }
+    }
+
+    /*
+     * Saves every dirty journal now (journals stay cached)
+     * Throws UncheckedIOException if any journal could not be saved - the others are still
+     * saved, and the failed ones stay dirty for the next attempt
+     */
+    public void flush() {
+        UncheckedIOException failure = null;
+        for (CompletableFuture<Slot> future : slots.values()) {
+            Slot slot = future.getNow(null);
+            if (slot != null) {
+                synchronized (slot.user) {
+                    try {
+                        save(slot);
+                    } catch (UncheckedIOException e) {
+                        if (failure == null) {
+                            failure = e;
+                        } else {
+                            failure.addSuppressed(e);
+                        }
+                    }
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /*
+     * Gets a snapshot of the cache metrics
+     */
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), loadNanos.sum(), evictions.sum(),
+                         expirations.sum(), writeBacks.sum(), writeBackFailures.sum(), slots.size(), weight.get());
+    }
+
+    /*
+     * Stops the background sweep and saves every dirty journal
+     * Throws UncheckedIOException if any journal could not be saved (see flush)
+     */
+    @Override
+    public void close() {
+        maintenance.shutdown();
+        flush();
+    }
+
+    // finds or loads a journal; concurrent misses for the same user share one load
+    private Slot slot(String username) {
+        while (true) {
+            CompletableFuture<Slot> future = slots.get(username);
+            if (future == null) {
+                CompletableFuture<Slot> created = new CompletableFuture<>();
+                future = slots.putIfAbsent(username, created);
+                if (future == null) {
+                    return load(username, created);
+                }
+            }
+            hits.increment(); // resident, or being loaded by another thread
+            Slot slot;
+            try {
+                slot = future.join();
+            } catch (CompletionException e) {
+                continue; // the other thread's load failed and was removed - try again
+            }
+            if (slot.evicted) {
+                slots.remove(username, future); // being evicted - load a fresh copy
+                continue;
+            }
+            slot.lastAccess = System.nanoTime();
+            return slot;
+        }
+    }
+
+    private Slot load(String username, CompletableFuture<Slot> future) {
+        misses.increment();
+        long begin = System.nanoTime();
+        User user = new User(username, ""); // passwords are checked by UserManager, not kept here
+        if (offHeap) {
+            user.setArena(new LyricArena());
+        }
+        try {
+            journals.loadUserEntries(user);
+            Slot slot = new Slot(user);
+            loadNanos.add(System.nanoTime() - begin);
+            weight.addAndGet(slot.weight);
+            future.complete(slot);
+            evictIfNeeded();
+            return slot;
+        } catch (RuntimeException e) {
+            if (!future.isDone()) {         // the journal never became visible
+                if (user.getArena() != null) {
+                    user.getArena().release();
+                }
+                user.setBodySource(null);
+            }
+            slots.remove(username, future);
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    // evicts least recently used journals until the total weight fits
+    private void evictIfNeeded() {
+        if (weight.get() <= maxWeight) {
+            return;
+        }
+        synchronized (evictionLock) {
+            if (weight.get() <= maxWeight) {
+                return;
+            }
+            // snapshot access times first - they keep changing while we sort
+            List<Candidate> resident = new ArrayList<>();
+            for (Map.Entry<String, CompletableFuture<Slot>> entry : slots.entrySet()) {
+                Slot slot = entry.getValue().getNow(null);
+                if (slot != null) {
+                    resident.add(new Candidate(entry.getKey(), entry.getValue(), slot.lastAccess));
+                }
+            }
+            resident.sort(Comparator.comparingLong(candidate -> candidate.lastAccess));
+            // keep the most recently used journal even if it alone is over budget
+            for (int i = 0; i < resident.size() - 1 && weight.get() > maxWeight; i++) {
+                try {
+                    if (evict(resident.get(i).username, resident.get(i).future)) {
+                        evictions.increment();
+                    }
+                } catch (UncheckedIOException e) {
+                    // it stays resident and dirty; try the next least recently used one
+                    System.err.println("Journal cache could not evict " + resident.get(i).username + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    // eviction candidate with its access time at the moment of the snapshot
+    private static final class Candidate {
+        final String username;
+        final CompletableFuture<Slot> future;
+        final long lastAccess;
+
+        Candidate(String username, CompletableFuture<Slot> future, long lastAccess) {
+            this.username = username;
+            this.future = future;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    // background work: expire idle journals and save dirty ones
+    private void sweep() {
+        long now = System.nanoTime();
+        for (Map.Entry<String, CompletableFuture<Slot>> entry : slots.entrySet()) {
+            Slot slot = entry.getValue().getNow(null);
+            if (slot == null) {
+                continue;
+            }
+            // keep sweeping (and the sweep scheduled) if one journal fails to save
+            try {
+                if (now - slot.lastAccess > idleNanos) {
+                    if (evict(entry.getKey(), entry.getValue())) {
+                        expirations.increment();
+                    }
+                } else {
+                    synchronized (slot.user) {
+                        save(slot);
+                    }
+                }
+            } catch (RuntimeException e) {
+                System.err.println("Journal cache sweep failed for " + entry.getKey() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // saves (if dirty) and removes one journal; returns false if someone else evicted it
+    // a journal that cannot be saved is not removed - the exception is thrown instead
+    private boolean evict(String username, CompletableFuture<Slot> future) {
+        Slot slot = future.getNow(null);
+        synchronized (slot.user) {
+            if (slot.evicted) {
+                return false;
+            }
+            save(slot);            // write back before anyone can load the journal again (throws if it fails)
+            slot.evicted = true;
+            // nobody reads an evicted journal's text any more
+            if (slot.user.getArena() != null) {
+                slot.user.getArena().release();
+                slot.released = true;
+            }
+            if (slot.user.getBodySource() != null) {
+                slot.user.setBodySource(null); // closes the journal lazy entries read from
+                slot.released = true;
+            }
+        }
+        slots.remove(username, future);
+        weight.addAndGet(-slot.weight);
+        return true;
+    }
+
+    // caller holds slot.user; on failure the slot stays dirty and the exception is thrown
+    private void save(Slot slot) {
+        if (slot.dirty) {
+            try {
+                journals.saveUser(slot.user);
+            } catch (UncheckedIOException e) {
+                slot.saveFailed = true;
+                writeBackFailures.increment();
+                throw e;
+            }
+            slot.dirty = false;
+            slot.saveFailed = false;
+            writeBacks.increment();
+        }
+    }
+
+    /*
+     * Snapshot of cache metrics
+     *
+     * hits / misses - lookups served from memory / that had to load the journal
+     * loadNanos - total time spent loading journals
+     * evictions - journals removed to stay within the size bound
+     * expirations - journals removed after being idle
+     * writeBacks - dirty journals saved (on eviction, sweep or close)
+     * writeBackFailures - attempts to save a dirty journal that failed (it stayed dirty)
+     * size / weight - resident journals and their total entry count
+     */
+    public static final class Stats {
+        public final long hits;
+        public final long misses;
+        public final long loadNanos;
+        public final long evictions;
+        public final long expirations;
+        public final long writeBacks;
+        public final long writeBackFailures;
+        public final int size;
+        public final long weight;
+
+        Stats(long hits, long misses, long loadNanos, long evictions, long expirations,
+              long writeBacks, long writeBackFailures, int size, long weight) {
+            this.hits = hits;
+            this.misses = misses;
+            this.loadNanos = loadNanos;
+            this.evictions = evictions;
+            this.expirations = expirations;
+            this.writeBacks = writeBacks;
+            this.writeBackFailures = writeBackFailures;
+            this.size = size;
+            this.weight = weight;
+        }
+
+        // fraction of lookups served from memory (0 when there were none)
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+        // average journal load time in milliseconds
+        public double averageLoadMillis() {
+            return misses == 0 ? 0 : loadNanos / 1e6 / misses;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("hits=%d misses=%d hitRate=%.3f avgLoadMs=%.2f evictions=%d expirations=%d writeBacks=%d writeBackFailures=%d size=%d weight=%d",
+                    hits, misses, hitRate(), averageLoadMillis(), evictions, expirations, writeBacks, writeBackFailures, size, weight);
+        }
+    }
+}
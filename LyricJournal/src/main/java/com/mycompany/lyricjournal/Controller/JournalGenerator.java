@@ -0,0 +1,345 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.lyricjournal.Controller;
+
+/**
+ *
+ * @author Kalli-Ann
+ */
+
+// JournalGenerator Controller Class
+
+// Produces large, realistic synthetic journals for scale testing
+
+
+import com.google.gson.stream.JsonWriter;
+import com.mycompany.lyricjournal.Model.LyricEntry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+/*
+ * JournalGenerator makes seeded, repeatable journals: the same seed and username always
+ * give the same entries, on any machine.
+ *
+ * Distributions:
+ * - artists: Zipf popularity (rank r is picked with weight 1/r^exponent), so a few artists
+ *   fill much of a journal and most appear once or twice - like a real listening history
+ * - lyrics: 1 to 40 lines, log-normally distributed (most excerpts are a few lines,
+ *   some are whole verses), with repeated chorus lines
+ * - text: English plus accented Latin (Spanish, French, Portuguese, German), Cyrillic,
+ *   Japanese, Korean and the occasional emoji outside the Basic Multilingual Plane
+ * - notes: on about 40% of entries
+ * - dates: non-decreasing, with random gaps and bursts, spread over the date range
+ * - journal sizes (journalSizes): Zipf as well - a few heavy users, many light ones
+ *
+ * Entries are produced one at a time and handed to a consumer, so any storage format can
+ * be filled without holding the journal in memory (writeJson streams gigabytes in
+ * constant memory). Artist names are derived from their rank, not stored.
+ *
+ * Example usage:
+ * JournalGenerator generator = new JournalGenerator(42);
+ * generator.forEach("john", 1_000_000, entry -> index.add(entry));
+ * generator.writeJournal(journals, "john", 5_000_000); // replaces john_lyrics.json
+ */
+public final class JournalGenerator {
+    // --------------------------------------------------------------- vocabulary by language
+    private static final String[][] WORDS = {
+        // English (most common)
+        {"love", "heart", "night", "baby", "time", "dream", "fire", "rain", "light", "dance",
+         "never", "always", "tonight", "forever", "home", "road", "sky", "stars", "gone", "feel",
+         "hold", "run", "away", "falling", "alone", "tears", "smile", "world", "river", "summer",
+         "cold", "golden", "wild", "free", "young", "remember", "morning", "shadow", "ocean", "burning",
+         "you", "me", "we", "and", "the", "my", "your", "in", "of", "to"},
+        // Spanish / Portuguese
+        {"corazón", "canción", "mañana", "noche", "amor", "sueño", "corazão", "saudade", "está",
+         "también", "así", "pasión", "canção", "você", "mí", "tú", "más", "día", "vida", "luz"},
+        // French / German
+        {"été", "cœur", "rêve", "première", "déjà", "fenêtre", "mère", "château", "où", "très",
+         "über", "schön", "Mädchen", "Träume", "für", "grün", "Grüße", "weiß", "hören", "Nächte"},
+        // Cyrillic
+        {"любовь", "ночь", "сердце", "мечта", "звезда", "город", "весна", "небо", "песня", "душа"},
+        // Japanese
+        {"愛", "夜", "夢", "星", "空", "さくら", "君", "ありがとう", "涙", "心", "光", "約束"},
+        // Korean
+        {"사랑", "밤", "꿈", "별", "하늘", "너", "마음", "눈물", "노래", "기억"}
+    };
+    // how often a lyric is mostly in each language (English dominates)
+    private static final double[] LANGUAGE_SHARE = {0.70, 0.10, 0.08, 0.04, 0.05, 0.03};
+    private static final String[] EMOJI = {"🎵", "🎶", "❤️", "✨", "🔥", "🌙", "💔"};
+    private static final String[][] NAME_PARTS = {
+        {"The", "Midnight", "Velvet", "Echo", "Lights", "Rivers", "Kings", "Neon", "Paper", "Wolves", "Silver", "Hollow"},
+        {"Los", "Café", "Niños", "José", "Sofía", "Corazón", "Estrellas", "João", "Brasil", "Tropicália"},
+        {"Les", "Étoiles", "Amélie", "Zoë", "Chloé", "Bêtes", "Müller", "Björk", "Sigur", "Rós"},
+        {"Кино", "Звери", "Мумий", "Тролль", "Сплин", "Ночные"},
+        {"椎名", "林檎", "宇多田", "ヒカル", "星野", "源", "米津", "玄師"},
+        {"아이유", "빅뱅", "방탄", "소년단", "검정", "치마"}
+    };
+    private static final String[] NOTE_STARTS = {
+        "reminds me of", "heard this on", "favourite line about", "always think of", "sang this with", "first heard it in"
+    };
+
+    // --------------------------------------------------------------- configuration
+    private final long seed;
+    private final double exponent;
+    private final double[] cumulative;   // Zipf cumulative weights per artist rank (normalized to 1)
+    private final LocalDate firstDate;
+    private final int days;
+
+    /*
+     * Creates a generator with defaults: 5,000 artists, Zipf exponent 1.0,
+     * dates over the ten years starting 2016-01-01
+     *
+     * Input: seed - same seed, same journals (input: long)
+     */
+    public JournalGenerator(long seed) {
+        this(seed, 5_000, 1.0, LocalDate.of(2016, 1, 1), 3_653);
+    }
+
+    /*
+     * Creates a generator
+     *
+     * Inputs:
+     *
+     * seed - same seed, same journals (input: long)
+     * artists - number of distinct artists (input: int > 0)
+     * exponent - Zipf exponent; 0 is uniform, larger is more skewed (input: double >= 0)
+     * firstDate - earliest dateAdded (input: LocalDate)
+     * days - length of the date range in days (input: int > 0)
+     */
+    public JournalGenerator(long seed, int artists, double exponent, LocalDate firstDate, int days) {
+        if (artists <= 0 || days <= 0 || exponent < 0) {
+            throw new IllegalArgumentException("artists and days must be positive, exponent not negative");
+        }
+        this.seed = seed;
+        this.exponent = exponent;
+        this.cumulative = zipfTable(artists, exponent);
+        this.firstDate = firstDate;
+        this.days = days;
+    }
+
+    /*
+     * Generates a journal and passes each entry to the consumer, oldest first
+     *
+     * Inputs:
+     *
+     * username - whose journal; different users get different journals (input: String)
+     * count - number of entries (input: long >= 0)
+     * sink - receives the entries one at a time (input: Consumer<LyricEntry>)
+     *
+     * Example: generator.forEach("john", 1000, user::addEntry);
+     */
+    public void forEach(String username, long count, Consumer<LyricEntry> sink) {
+        SplittableRandom random = new SplittableRandom(mix(seed, username.hashCode()));
+        // gaps between entries are exponential, so the dates come in bursts and quiet spells
+        double meanGap = count == 0 ? 0 : (double) days / count;
+        double day = random.nextDouble() * meanGap;
+        for (long i = 0; i < count; i++) {
+            int dayIndex = (int) Math.min(days - 1, day);
+            sink.accept(entry(random, firstDate.plusDays(dayIndex).toString()));
+            day += -Math.log(1.0 - random.nextDouble()) * meanGap;
+        }
+    }
+
+    /*
+     * Streams a generated journal as a JSON array in journal format (same as saveUser writes)
+     *
+     * Inputs:
+     *
+     * username - whose journal (input: String)
+     * count - number of entries (input: long >= 0)
+     * out - destination; flushed but not closed (input: Writer)
+     *
+     * Output: returns the number of entries written (output: long)
+     */
+    public long writeJson(String username, long count, Writer out) throws IOException {
+        JsonWriter writer = new JsonWriter(out);
+        writer.beginArray();
+        try {
+            forEach(username, count, entry -> {
+                try {
+                    UserDataController.writeEntry(writer, entry);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e); // lambdas cannot throw IOException
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.endArray();
+        writer.flush();
+        return count;
+    }
+
+    /*
+     * Replaces a user's journal file with a generated one (written to a temporary file first,
+     * then moved into place, so a failure leaves the old journal intact)
+     *
+     * Inputs:
+     *
+     * journals - where the journal is kept (input: UserDataController)
+     * username - whose journal (input: String)
+     * count - number of entries (input: long >= 0)
+     *
+     * Output: returns the size of the new journal in bytes (output: long)
+     */
+    public long writeJournal(UserDataController journals, String username, long count) throws IOException {
+        Path journal = journals.getJournalPath(username);
+        Path temp = journal.resolveSibling(journal.getFileName() + ".tmp");
+        try (Writer out = UserDataController.openWriter(temp)) {
+            writeJson(username, count, out);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, journal, StandardCopyOption.REPLACE_EXISTING);
+        return Files.size(journal);
+    }
+
+    /*
+     * Splits a total number of entries over several users, Zipf-distributed (user 0 largest)
+     *
+     * Inputs:
+     *
+     * users - number of users (input: int > 0)
+     * totalEntries - entries across all journals (input: long >= 0)
+     *
+     * Output: entries per user, summing to totalEntries (output: long[])
+     */
+    public long[] journalSizes(int users, long totalEntries) {
+        double[] table = zipfTable(users, exponent);
+        long[] sizes = new long[users];
+        long assigned = 0;
+        for (int i = 0; i < users; i++) {
+            long upTo = Math.round(table[i] * totalEntries);
+            sizes[i] = upTo - assigned;
+            assigned = upTo;
+        }
+        sizes[0] += totalEntries - assigned; // rounding remainder
+        return sizes;
+    }
+
+    /*
+     * Gets the display name of the artist at a popularity rank (0 = most popular)
+     * Names are derived from the rank and seed, so they need no storage
+     */
+    public String artistName(int rank) {
+        SplittableRandom random = new SplittableRandom(mix(seed, rank));
+        String[] parts = NAME_PARTS[language(random)];
+        int words = 1 + random.nextInt(3);
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                name.append(' ');
+            }
+            name.append(parts[random.nextInt(parts.length)]);
+        }
+        // ranks keep names distinct; popular artists get short ones
+        return rank < 100 ? name.toString() : name.append(' ').append(rank).toString();
+    }
+
+    // --------------------------------------------------------------- one entry
+
+    private LyricEntry entry(SplittableRandom random, String date) {
+        int artist = sampleArtist(random);
+        // the lyric mostly uses the artist's language; title words come from the same pool
+        int language = new SplittableRandom(mix(seed, artist)).nextInt(2) == 0 ? 0 : language(random);
+        String[] words = WORDS[language];
+
+        String title = capitalize(words[random.nextInt(words.length)])
+                + (random.nextInt(3) == 0 ? "" : " " + words[random.nextInt(words.length)]);
+
+        // log-normal line count: median about 4 lines, long tail up to 40
+        int lines = (int) Math.max(1, Math.min(40, Math.round(Math.exp(1.4 + 0.8 * random.nextGaussian()))));
+        StringBuilder lyric = new StringBuilder(lines * 40);
+        String chorus = null;
+        for (int line = 0; line < lines; line++) {
+            if (line > 0) {
+                lyric.append('\n');
+            }
+            if (chorus != null && random.nextInt(4) == 0) {
+                lyric.append(chorus); // repeated chorus line
+                continue;
+            }
+            int start = lyric.length();
+            int count = 3 + random.nextInt(7);
+            for (int w = 0; w < count; w++) {
+                // mostly the lyric's language, with English words mixed in
+                String[] pool = random.nextInt(8) == 0 ? WORDS[0] : words;
+                lyric.append(w == 0 ? "" : " ").append(pool[random.nextInt(pool.length)]);
+            }
+            if (random.nextInt(40) == 0) {
+                lyric.append(' ').append(EMOJI[random.nextInt(EMOJI.length)]);
+            }
+            if (chorus == null && random.nextInt(3) == 0) {
+                chorus = lyric.substring(start);
+            }
+        }
+
+        String note = "";
+        if (random.nextInt(10) < 4) {
+            note = NOTE_STARTS[random.nextInt(NOTE_STARTS.length)] + " " + words[random.nextInt(words.length)];
+        }
+        return new LyricEntry(title, artistName(artist), lyric.toString(), note, date);
+    }
+
+    // Zipf rank by binary search over the cumulative weights
+    private int sampleArtist(SplittableRandom random) {
+        double u = random.nextDouble();
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cumulative[middle] < u) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int language(SplittableRandom random) {
+        double u = random.nextDouble();
+        for (int i = 0; i < LANGUAGE_SHARE.length - 1; i++) {
+            u -= LANGUAGE_SHARE[i];
+            if (u < 0) {
+                return i;
+            }
+        }
+        return LANGUAGE_SHARE.length - 1;
+    }
+
+    private static double[] zipfTable(int n, double exponent) {
+        double[] table = new double[n];
+        double total = 0;
+        for (int rank = 0; rank < n; rank++) {
+            total += 1.0 / Math.pow(rank + 1, exponent);
+            table[rank] = total;
+        }
+        for (int rank = 0; rank < n; rank++) {
+            table[rank] /= total;
+        }
+        table[n - 1] = 1.0; // guard against rounding
+        return table;
+    }
+
+    // independent random streams per (seed, key) - SplitMix64 finalizer
+    private static long mix(long seed, long key) {
+        long z = seed * 0x9E3779B97F4A7C15L + key;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static String capitalize(String word) {
+        return word.substring(0, 1).toUpperCase() + word.substring(1);
+    }
+}
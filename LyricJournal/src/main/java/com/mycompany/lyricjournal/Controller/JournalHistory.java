@@ -0,0 +1,309 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.lyricjournal.Controller;
+
+/**
+ *
+ * @author Kalli-Ann
+ */
+
+// JournalHistory Controller Class
+
+// Records add, edit and delete operations so they can be undone and redone
+
+
+import com.mycompany.lyricjournal.Model.*;
+import java.util.Objects;
+
+/*
+ * JournalHistory performs journal mutations for one user session and keeps an undo/redo log.
+ * Commands live in a fixed-size ring buffer - once it is full the oldest command is dropped,
+ * so memory stays bounded no matter how long the session runs.
+ * Commands store deltas only: an edit keeps just the fields that changed, add/delete keep the
+ * affected entry reference (never a copy).
+ * Every change, undo and redo is saved through the session's UserDataController, like normal edits.
+ *
+ * Example usage:
+ * JournalHistory history = new JournalHistory(currentUser, journals);
+ * history.addEntry(new LyricEntry("Title", "Artist", "Lyrics", "Note"));
+ * history.undo(); // entry removed again and saved
+ * history.redo(); // entry restored and saved
+ */
+public class JournalHistory {
+    // default number of commands kept for undo
+    public static final int DEFAULT_CAPACITY = 100;
+
+    private final User user;        // user whose journal is modified
+    private final UserDataController journals; // saves the journal after every change
+    private final Command[] ring;   // ring buffer of recorded commands
+    private int oldest;             // ring index of the oldest recorded command
+    private int size;               // number of commands in the ring
+    private int applied;            // number of commands currently applied (undo position)
+
+    /*
+     * Creates a history with the default capacity
+     *
+     * Inputs:
+     *
+     * user - User whose entries are modified (input: non-null User)
+     * journals - where the user's journal is saved (input: non-null UserDataController)
+     */
+    public JournalHistory(User user, UserDataController journals) {
+        this(user, journals, DEFAULT_CAPACITY);
+    }
+
+    /*
+     * Creates a history keeping at most capacity commands
+     *
+     * Inputs:
+     *
+     * user - User whose entries are modified (input: non-null User)
+     * journals - where the user's journal is saved (input: non-null UserDataController)
+     * capacity - maximum number of undoable commands (input: int > 0)
+     */
+    public JournalHistory(User user, UserDataController journals, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.user = user;
+        this.journals = journals;
+        this.ring = new Command[capacity];
+    }
+
+    /*
+     * Adds a new entry at the end of the journal and records it
+     * Input: entry - LyricEntry to add (input: non-null LyricEntry)
+     * Output: Entry added, saved, and undoable
+     */
+    public void addEntry(LyricEntry entry) {
+        execute(new AddCommand(user.getEntries().size(), entry));
+    }
+
+    /*
+     * Replaces an entry with an edited version and records only the changed fields
+     *
+     * Inputs:
+     *
+     * index - position of the entry being edited (input: 0 <= index < size)
+     * updated - entry holding the new values (input: non-null LyricEntry, same date)
+     * Output: Entry replaced and saved; nothing recorded if no field changed
+     */
+    public void editEntry(int index, LyricEntry updated) {
+        EditCommand command = EditCommand.diff(index, user.getEntries().get(index), updated);
+        if (command != null) {
+            execute(command);
+        }
+    }
+
+    /*
+     * Deletes the entry at index and records it
+     * Input: index - position of the entry to delete (input: 0 <= index < size)
+     * Output: Entry removed, saved, and undoable
+     */
+    public void deleteEntry(int index) {
+        execute(new DeleteCommand(index, user.getEntries().get(index)));
+    }
+
+    /*
+     * Reverts the most recent applied command
+     * returns true if something was undone, false if there is nothing to undo
+     */
+    public boolean undo() {
+        if (!canUndo()) {
+            return false;
+        }
+        applied--;
+        ring[slot(applied)].revert(user);
+        journals.saveUser(user);
+        return true;
+    }
+
+    /*
+     * Re-applies the most recently undone command
+     * returns true if something was redone, false if there is nothing to redo
+     */
+    public boolean redo() {
+        if (!canRedo()) {
+            return false;
+        }
+        ring[slot(applied)].apply(user);
+        applied++;
+        journals.saveUser(user);
+        return true;
+    }
+
+    /*
+     * returns true if there is a command to undo
+     */
+    public boolean canUndo() {
+        return applied > 0;
+    }
+
+    /*
+     * returns true if there is an undone command to redo
+     */
+    public boolean canRedo() {
+        return applied < size;
+    }
+
+    /*
+     * Applies a command, records it, and saves
+     * Any undone commands are discarded (a new change ends the redo chain)
+     * When the ring is full, the oldest command is overwritten
+     * If the save fails (UncheckedIOException) the change stays applied and undoable
+     */
+    private void execute(Command command) {
+        command.apply(user);
+
+        // drop the redo tail
+        for (int i = applied; i < size; i++) {
+            ring[slot(i)] = null;
+        }
+        size = applied;
+
+        if (size == ring.length) {
+            // ring full - forget the oldest command
+            ring[oldest] = null;
+            oldest = (oldest + 1) % ring.length;
+            size--;
+        }
+        ring[slot(size)] = command;
+        size++;
+        applied = size;
+
+        journals.saveUser(user);
+    }
+
+    // maps a logical position (0 = oldest) to a ring index
+    private int slot(int position) {
+        return (oldest + position) % ring.length;
+    }
+
+    /*
+     * A recorded journal mutation that can be applied and reverted
+     */
+    private abstract static class Command {
+        final int index; // position in the entry list the command works on
+
+        Command(int index) {
+            this.index = index;
+        }
+
+        abstract void apply(User user);
+
+        abstract void revert(User user);
+    }
+
+    // adding an entry - keeps the added entry reference
+    private static final class AddCommand extends Command {
+        private final LyricEntry entry;
+
+        AddCommand(int index, LyricEntry entry) {
+            super(index);
+            this.entry = entry;
+        }
+
+        @Override
+        void apply(User user) {
+            user.insertEntry(index, entry);
+        }
+
+        @Override
+        void revert(User user) {
+            user.removeEntry(index);
+        }
+    }
+
+    // deleting an entry - keeps the removed entry reference so undo can reinsert it
+    private static final class DeleteCommand extends Command {
+        private final LyricEntry entry;
+
+        DeleteCommand(int index, LyricEntry entry) {
+            super(index);
+            this.entry = entry;
+        }
+
+        @Override
+        void apply(User user) {
+            user.removeEntry(index);
+        }
+
+        @Override
+        void revert(User user) {
+            user.insertEntry(index, entry);
+        }
+    }
+
+    // editing an entry - keeps old/new values of the changed fields only (null = unchanged)
+    private static final class EditCommand extends Command {
+        private static final int TITLE = 0, ARTIST = 1, LYRIC = 2, NOTE = 3;
+
+        private final String[] before; // previous values, null where unchanged
+        private final String[] after;  // new values, null where unchanged
+
+        private EditCommand(int index, String[] before, String[] after) {
+            super(index);
+            this.before = before;
+            this.after = after;
+        }
+
+        /*
+         * Builds an edit command from the field differences between two entries
+         * returns null if the entries have the same values
+         */
+        static EditCommand diff(int index, LyricEntry current, LyricEntry updated) {
+            String[] oldValues = fields(current);
+            String[] newValues = fields(updated);
+            boolean changed = false;
+            for (int i = 0; i < oldValues.length; i++) {
+                if (Objects.equals(oldValues[i], newValues[i])) {
+                    oldValues[i] = null; // unchanged - store nothing
+                    newValues[i] = null;
+                } else {
+                    changed = true;
+                }
+            }
+            return changed ? new EditCommand(index, oldValues, newValues) : null;
+        }
+
+        @Override
+        void apply(User user) {
+            user.setEntry(index, patch(user.getEntries().get(index), after));
+        }
+
+        @Override
+        void revert(User user) {
+            user.setEntry(index, patch(user.getEntries().get(index), before));
+        }
+
+        // creates a new entry from base with the non-null values replaced (date preserved)
+        // only the fields that are kept are read from base - each getter decodes a new String
+        private static LyricEntry patch(LyricEntry base, String[] values) {
+            String[] merged = new String[values.length];
+            for (int i = 0; i < merged.length; i++) {
+                merged[i] = values[i] != null ? values[i] : field(base, i);
+            }
+            return new LyricEntry(merged[TITLE], merged[ARTIST], merged[LYRIC], merged[NOTE], base.getDateAdded());
+        }
+
+        // every field once (diff compares them all)
+        private static String[] fields(LyricEntry entry) {
+            String[] values = new String[NOTE + 1];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = field(entry, i);
+            }
+            return values;
+        }
+
+        private static String field(LyricEntry entry, int field) {
+            switch (field) {
+                case TITLE: return entry.getSongTitle();
+                case ARTIST: return entry.getArtist();
+                case LYRIC: return entry.getLyricText();
+                default: return entry.getUserNote();
+            }
+        }
+    }
+}
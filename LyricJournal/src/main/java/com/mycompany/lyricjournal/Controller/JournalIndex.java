@@ -0,0 +1,312 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.lyricjournal.Controller;
+
+/**
+ *
+ * @author Kalli-Ann
+ */
+
+// JournalIndex Controller Class
+
+// Sidecar index that lets a journal load without reading its lyric texts and notes
+
+
+import com.mycompany.lyricjournal.Diagnostics.Metrics;
+import com.mycompany.lyricjournal.Model.*;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * A journal index ("{username}_lyrics.idx", next to the journal) holds, per entry, the
+ * title, artist and date plus the byte range of the entry in the journal file. Loading
+ * from it reads a few dozen bytes per entry, however long the lyrics are; each entry's
+ * lyric text and note are read from its byte range the first time they are needed
+ * (LazyLyricEntry). The journal file stays the only copy of the text.
+ *
+ * File layout (DataOutputStream, big-endian):
+ *   int magic "LJIX", int version
+ *   long journal size, long journal last-modified millis   - the journal this index describes
+ *   int entry count
+ *   per entry: text title, text artist, text date, long start of the entry
+ *   long end of the last entry
+ *   (text = int byte length, -1 for null, then UTF-8 bytes)
+ *
+ * UserDataController writes the index after each save in lazy mode. An index whose
+ * size or last-modified time does not match the journal (the journal was written by
+ * something else, or the index is older) is ignored and the journal is loaded in full.
+ *
+ * Bodies are read through a channel opened when the journal is loaded. saveUser
+ * replaces the journal by moving a new file over it, so the channel keeps reading the
+ * file the byte ranges belong to. The channel is the Loaded.bodies source: the User the
+ * entries are given to holds it (User.setBodySource) and closes it when its entries are
+ * reloaded or the user is dropped (JournalCache eviction, logout).
+ *
+ * Example usage:
+ * JournalIndex.Loaded loaded = JournalIndex.read(journal, journals.getIndexPath("john"));
+ * if (loaded == null) { ... load the journal in full ... }
+ * user.replaceEntries(loaded.entries);
+ * user.setBodySource(loaded.bodies);
+ */
+public final class JournalIndex {
+    private static final int MAGIC = 0x4C4A4958;   // "LJIX"
+    private static final int VERSION = 1;
+    private static final Gson gson = new Gson();
+
+    // entries whose bodies were read from a journal file (see Metrics)
+    private static final LongAdder BODIES_READ = Metrics.counter("journal.bodiesRead");
+
+    private JournalIndex() {
+    }
+
+    /*
+     * Writes the index of a journal that was just written
+     *
+     * Inputs:
+     *
+     * journal - the journal file (input: existing Path)
+     * index - index file to create or replace (input: Path)
+     * entries - the entries in the journal, in file order (input: List<LyricEntry>, no nulls)
+     * bounds - byte offsets in the journal: entry i lies between bounds[i] and bounds[i + 1]
+     *          (input: long[entries.size() + 1])
+     *
+     * Throws IOException if the index cannot be written (the journal is not affected)
+     */
+    static void write(Path journal, Path index, List<LyricEntry> entries, long[] bounds) throws IOException {
+        Path temp = index.resolveSibling(index.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(Files.size(journal));
+            out.writeLong(Files.getLastModifiedTime(journal).toMillis());
+            out.writeInt(entries.size());
+            for (int i = 0; i < entries.size(); i++) {
+                LyricEntry entry = entries.get(i);
+                writeText(out, entry.getSongTitle());
+                writeText(out, entry.getArtist());
+                writeText(out, entry.getDateAdded());
+                out.writeLong(bounds[i]);
+            }
+            out.writeLong(bounds[entries.size()]);
+        }
+        UserDataController.replace(temp, index);
+    }
+
+    /*
+     * Entries loaded from an index and the open source their bodies are read from
+     * bodies must be closed once the entries are no longer used (User.setBodySource does it)
+     */
+    public static final class Loaded {
+        public final List<LyricEntry> entries;
+        public final LyricBodySource bodies;
+
+        Loaded(List<LyricEntry> entries, LyricBodySource bodies) {
+            this.entries = entries;
+            this.bodies = bodies;
+        }
+    }
+
+    /*
+     * Loads a journal's entries from its index, with lyric texts and notes left on disk
+     *
+     * Inputs:
+     *
+     * journal - the journal file (input: Path)
+     * index - its index file (input: Path)
+     *
+     * Output: LazyLyricEntry objects in journal order with their open body source, or null
+     * if there is no index, it belongs to another version of the journal, or it cannot be
+     * read - nothing is left open then (output: Loaded or null)
+     */
+    public static Loaded read(Path journal, Path index) {
+        if (!Files.exists(index) || !Files.exists(journal)) {
+            return null;
+        }
+        FileChannel channel = null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(index)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                System.err.println("Ignoring journal index " + index + ": unknown format");
+                return null;
+            }
+            long size = in.readLong();
+            long modified = in.readLong();
+            channel = FileChannel.open(journal, StandardOpenOption.READ);
+            if (channel.size() != size || Files.getLastModifiedTime(journal).toMillis() != modified) {
+                channel.close();
+                return null; // the journal changed since the index was written
+            }
+
+            int count = in.readInt();
+            long[] bounds = new long[count + 1];
+            List<LyricEntry> entries = new ArrayList<>(count);
+            Bodies bodies = new Bodies(channel, bounds);
+            for (int row = 0; row < count; row++) {
+                String songTitle = readText(in);
+                String artist = readText(in);
+                String dateAdded = readText(in);
+                bounds[row] = in.readLong();
+                entries.add(new LazyLyricEntry(songTitle, artist, dateAdded, bodies, row));
+            }
+            bounds[count] = in.readLong();
+            for (int row = 0; row < count; row++) {
+                if (bounds[row] < 0 || bounds[row] >= bounds[row + 1]) {
+                    throw new IOException("entry " + row + " has no bytes");
+                }
+            }
+            if (bounds[count] > size) {
+                throw new IOException("entries end past the journal");
+            }
+            return new Loaded(entries, bodies);
+        } catch (IOException e) {
+            System.err.println("Ignoring journal index " + index + ": " + e.getMessage());
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException closing) {
+                    // nothing more to do
+                }
+            }
+            return null;
+        }
+    }
+
+    private static void writeText(DataOutputStream out, String text) throws IOException {
+        if (text == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readText(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // reads an entry's bytes from the journal and parses its lyric text and note
+    private static final class Bodies implements LyricBodySource {
+        private final FileChannel channel;   // open until the owning User closes it
+        private final long[] bounds;
+
+        Bodies(FileChannel channel, long[] bounds) {
+            this.channel = channel;
+            this.bounds = bounds;
+        }
+
+        @Override
+        public String[] read(int row) throws IOException {
+            long start = bounds[row];
+            ByteBuffer buffer = ByteBuffer.allocate((int) (bounds[row + 1] - start));
+            while (buffer.hasRemaining()) {
+                // positional reads do not move the channel, so threads can read at once
+                if (channel.read(buffer, start + buffer.position()) < 0) {
+                    throw new EOFException("journal ended in entry " + row);
+                }
+            }
+            // the range is the entry's JSON object, after the comma and indent before it
+            String json = new String(buffer.array(), StandardCharsets.UTF_8);
+            int open = json.indexOf('{');
+            try {
+                LyricEntry entry = open < 0 ? null : gson.fromJson(json.substring(open), LyricEntry.class);
+                if (entry == null) {
+                    throw new IOException("no entry at row " + row);
+                }
+                BODIES_READ.increment();
+                return new String[] {entry.getLyricText(), entry.getUserNote()};
+            } catch (JsonParseException e) {
+                throw new IOException("entry " + row + " cannot be parsed: " + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();    // later reads fail with ClosedChannelException
+        }
+    }
+
+    /*
+     * Writer that passes text through and counts the UTF-8 bytes it will take, so the
+     * position of each entry in the journal file is known while it is written
+     * (characters that cannot be encoded count as the one '?' byte they are replaced with)
+     */
+    static final class ByteCounter extends Writer {
+        private final Writer out;
+        private long position;
+        private boolean highSurrogate;   // last character was the first half of a pair
+
+        ByteCounter(Writer out, long position) {
+            this.out = out;
+            this.position = position;
+        }
+
+        long position() {
+            return position;
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            count((char) c);
+            out.write(c);
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) throws IOException {
+            for (int i = offset; i < offset + length; i++) {
+                count(chars[i]);
+            }
+            out.write(chars, offset, length);
+        }
+
+        @Override
+        public void write(String text, int offset, int length) throws IOException {
+            for (int i = offset; i < offset + length; i++) {
+                count(text.charAt(i));
+            }
+            out.write(text, offset, length);
+        }
+
+        private void count(char c) {
+            if (highSurrogate && Character.isLowSurrogate(c)) {
+                position += 3;       // the pair is 4 bytes, 1 was counted for its first half
+                highSurrogate = false;
+                return;
+            }
+            highSurrogate = Character.isHighSurrogate(c);
+            if (c < 0x80 || Character.isSurrogate(c)) {
+                position += 1;
+            } else if (c < 0x800) {
+                position += 2;
+            } else {
+                position += 3;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
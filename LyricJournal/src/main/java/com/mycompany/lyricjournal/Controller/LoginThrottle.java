@@ -0,0 +1,300 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.lyricjournal.Controller;
+
+/**
+ *
+ * @author Kalli-Ann
+ */
+
+// LoginThrottle Controller Class
+
+// Limits repeated failed logins per username and per source
+
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/*
+ * LoginThrottle tracks failed login attempts and tells UserManager when to refuse
+ * further attempts without checking the password.
+ *
+ * Two rules:
+ * - per username: after maxFailures consecutive failures, each further failure locks the
+ *   username for baseDelay * 2^(failures - maxFailures), capped at maxDelay
+ *   (exponential backoff). A successful login clears the username.
+ * - per source (e.g. client IP): at most sourceLimit failures per sliding window,
+ *   which stops one client from spraying many usernames.
+ *
+ * When the source is known, the username lockout is kept per username and source: a
+ * client that guesses wrong locks the account for itself only, so nobody can lock a real
+ * user out by failing logins under that name from elsewhere. Guessing one password from
+ * many sources is still bounded by every source's window. Without a source (the desktop
+ * application) the lockout is per username. Unknown usernames are throttled exactly like
+ * real ones, so lockouts do not tell which accounts exist.
+ *
+ * The sliding window is approximated with two fixed buckets (current and previous
+ * window, the previous one weighted by how much of it still overlaps the window).
+ *
+ * State is kept in immutable records in one ConcurrentHashMap. Checks are plain
+ * lock-free reads; updates replace one record atomically (compute), which locks only that
+ * key's bin, so different usernames and sources do not contend. Nothing is swept in the
+ * background: counts and lockouts decay lazily from their timestamps when read, a record
+ * found expired on read is dropped, and every write also examines the next few records of
+ * a round-robin scan and drops the expired ones. As a write adds at most one record and
+ * examines SWEEP_PER_WRITE, the map stays proportional to the records still in effect.
+ * Records are only ever removed if unchanged (remove(key, record)), so a failure recorded
+ * concurrently is never lost.
+ *
+ * Example usage:
+ * LoginThrottle throttle = new LoginThrottle(5, 100, Duration.ofMinutes(1), Duration.ofSeconds(1), Duration.ofMinutes(15));
+ * if (throttle.retryAfterMillis("john", "10.0.0.7") > 0) { // refuse }
+ */
+public final class LoginThrottle {
+    private static final int SWEEP_PER_WRITE = 2;          // records examined for expiry per write
+
+    private final int maxFailures;      // consecutive failures per username before backoff starts
+    private final int sourceLimit;      // failures per window per source
+    private final long windowNanos;
+    private final long baseDelayNanos;
+    private final long maxDelayNanos;
+    private final LongSupplier clock;   // System::nanoTime outside of tests
+
+    private final ConcurrentHashMap<String, Attempts> records = new ConcurrentHashMap<>();
+    private final ReentrantLock sweepLock = new ReentrantLock(); // one writer advances the scan at a time
+    private Iterator<Map.Entry<String, Attempts>> sweep;         // round-robin expiry scan, guarded by sweepLock
+
+    /*
+     * Attempt history for one username or source (immutable - replaced on every change)
+     *
+     * windowStart - start of the current bucket
+     * previous / current - failures in the previous and current bucket
+     * consecutive - failures since the last success (or quiet window)
+     * lastFailure - time of the last failure
+     * lockedUntil - no attempts allowed before this time
+     */
+    private static final class Attempts {
+        final long windowStart;
+        final int previous;
+        final int current;
+        final int consecutive;
+        final long lastFailure;
+        final long lockedUntil;
+
+        Attempts(long windowStart, int previous, int current, int consecutive, long lastFailure, long lockedUntil) {
+            this.windowStart = windowStart;
+            this.previous = previous;
+            this.current = current;
+            this.consecutive = consecutive;
+            this.lastFailure = lastFailure;
+            this.lockedUntil = lockedUntil;
+        }
+    }
+
+    /*
+     * Creates a throttle
+     *
+     * Inputs:
+     *
+     * maxFailures - consecutive failures allowed per username before backoff (input: int)
+     * sourceLimit - failures allowed per source within one window (input: int)
+     * window - sliding window length; also how long a quiet username takes to be forgiven (input: Duration)
+     * baseDelay - first lockout after maxFailures is reached; doubles with each failure (input: Duration)
+     * maxDelay - longest lockout (input: Duration)
+     */
+    public LoginThrottle(int maxFailures, int sourceLimit, Duration window, Duration baseDelay, Duration maxDelay) {
+        this(maxFailures, sourceLimit, window, baseDelay, maxDelay, System::nanoTime);
+    }
+
+    /*
+     * Creates a throttle with its own clock (nanoseconds), so tests can move time forward
+     */
+    public LoginThrottle(int maxFailures, int sourceLimit, Duration window, Duration baseDelay,
+                         Duration maxDelay, LongSupplier clock) {
+        this.maxFailures = maxFailures;
+        this.sourceLimit = sourceLimit;
+        this.windowNanos = window.toNanos();
+        this.baseDelayNanos = baseDelay.toNanos();
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.clock = clock;
+    }
+
+    /*
+     * Creates a throttle configured from system properties (defaults in brackets):
+     * lyricjournal.login.maxFailures [5], lyricjournal.login.sourceLimit [100],
+     * lyricjournal.login.windowSeconds [60], lyricjournal.login.baseDelayMillis [1000],
+     * lyricjournal.login.maxDelaySeconds [900]
+     */
+    public static LoginThrottle fromSystemProperties() {
+        return new LoginThrottle(
+                Integer.getInteger("lyricjournal.login.maxFailures", 5),
+                Integer.getInteger("lyricjournal.login.sourceLimit", 100),
+                Duration.ofSeconds(Long.getLong("lyricjournal.login.windowSeconds", 60)),
+                Duration.ofMillis(Long.getLong("lyricjournal.login.baseDelayMillis", 1000)),
+                Duration.ofSeconds(Long.getLong("lyricjournal.login.maxDelaySeconds", 900)));
+    }
+
+    /*
+     * Tells how long the caller must wait before another attempt is allowed
+     * Lock-free - only reads the current records
+     *
+     * Inputs:
+     *
+     * username - account name (input: String, already lowercased)
+     * source - where the attempt comes from, e.g. an IP address (input: String, null if unknown)
+     *
+     * Output: returns 0 if an attempt is allowed now, otherwise milliseconds to wait (output: long)
+     */
+    public long retryAfterMillis(String username, String source) {
+        long now = clock.getAsLong();
+        long wait = lockoutWait(get(userKey(username, source), now), now);
+        if (source != null) {
+            wait = Math.max(wait, windowWait(get(sourceKey(source), now), now));
+        }
+        return wait == 0 ? 0 : Math.max(1, wait / 1_000_000);
+    }
+
+    /*
+     * Records a failed attempt for the username and the source
+     */
+    public void recordFailure(String username, String source) {
+        long now = clock.getAsLong();
+        update(userKey(username, source), now, true);
+        if (source != null) {
+            update(sourceKey(source), now, false); // sources are limited by the window only
+        }
+    }
+
+    /*
+     * Records a successful login - clears the username's failures (from this source)
+     * (the source keeps its window so one valid account cannot reset a spraying client)
+     */
+    public void recordSuccess(String username, String source) {
+        String key = userKey(username, source);
+        Attempts seen = records.get(key);   // common case: nothing recorded - lock-free read, no write
+        if (seen != null) {
+            records.remove(key, seen);      // a failure recorded since then is kept
+        }
+    }
+
+    /*
+     * Gets the number of usernames and sources currently tracked (for diagnostics)
+     */
+    public int trackedKeys() {
+        return records.size();
+    }
+
+    // ---------------------------------------------------------------- rules
+
+    // remaining exponential-backoff lockout
+    private static long lockoutWait(Attempts attempts, long now) {
+        return attempts == null ? 0 : Math.max(0, attempts.lockedUntil - now);
+    }
+
+    // time until the source's sliding-window estimate drops below the limit (approximated
+    // by the end of the current bucket, when the previous bucket stops counting fully)
+    private long windowWait(Attempts attempts, long now) {
+        if (attempts == null) {
+            return 0;
+        }
+        Attempts rolled = roll(attempts, now);
+        double overlap = 1.0 - (double) (now - rolled.windowStart) / windowNanos;
+        double estimate = rolled.current + rolled.previous * overlap;
+        if (estimate < sourceLimit) {
+            return 0;
+        }
+        return Math.max(1, rolled.windowStart + windowNanos - now);
+    }
+
+    // records one failure for a key; backoff - whether consecutive failures lock the key
+    private void update(String key, long now, boolean backoff) {
+        records.compute(key, (k, old) -> {
+            Attempts rolled = old == null ? new Attempts(now, 0, 0, 0, now, now) : roll(old, now);
+            // a quiet window forgives earlier failures
+            int consecutive = now - rolled.lastFailure > windowNanos ? 1 : rolled.consecutive + 1;
+            long lockedUntil = rolled.lockedUntil;
+            if (backoff && consecutive >= maxFailures) {
+                int doublings = Math.min(consecutive - maxFailures, 30);
+                long delay = Math.min(maxDelayNanos, baseDelayNanos << doublings);
+                if (delay < 0) {
+                    delay = maxDelayNanos; // shift overflow
+                }
+                lockedUntil = Math.max(lockedUntil, now + delay);
+            }
+            return new Attempts(rolled.windowStart, rolled.previous, rolled.current + 1, consecutive, now, lockedUntil);
+        });
+        sweep(now);
+    }
+
+    // moves the buckets forward to the window that contains now
+    private Attempts roll(Attempts attempts, long now) {
+        long elapsed = now - attempts.windowStart;
+        if (elapsed < windowNanos) {
+            return attempts;
+        }
+        if (elapsed < 2 * windowNanos) {
+            return new Attempts(attempts.windowStart + windowNanos, attempts.current, 0,
+                                attempts.consecutive, attempts.lastFailure, attempts.lockedUntil);
+        }
+        long windows = elapsed / windowNanos;
+        return new Attempts(attempts.windowStart + windows * windowNanos, 0, 0,
+                            attempts.consecutive, attempts.lastFailure, attempts.lockedUntil);
+    }
+
+    // whether a record no longer affects any decision: not locked, and its failures are
+    // older than both window buckets and the quiet period that forgives them
+    private boolean expired(Attempts record, long now) {
+        return now - record.lastFailure > 2 * windowNanos && record.lockedUntil <= now;
+    }
+
+    // examines the next SWEEP_PER_WRITE records of the round-robin scan and drops expired ones
+    // skipped if another writer is sweeping - it does the same work
+    private void sweep(long now) {
+        if (!sweepLock.tryLock()) {
+            return;
+        }
+        try {
+            for (int i = 0; i < SWEEP_PER_WRITE; i++) {
+                if (sweep == null || !sweep.hasNext()) {
+                    sweep = records.entrySet().iterator();  // weakly consistent - never throws
+                    if (!sweep.hasNext()) {
+                        return;
+                    }
+                }
+                Map.Entry<String, Attempts> entry = sweep.next();
+                if (expired(entry.getValue(), now)) {
+                    records.remove(entry.getKey(), entry.getValue());
+                }
+            }
+        } finally {
+            sweepLock.unlock();
+        }
+    }
+
+    // ---------------------------------------------------------------- keys
+
+    // current record for a key; one found expired is dropped instead (lazy expiry)
+    private Attempts get(String key, long now) {
+        Attempts record = records.get(key);
+        if (record != null && expired(record, now)) {
+            records.remove(key, record);
+            return null;
+        }
+        return record;
+    }
+
+    // username lockouts are kept per source when the source is known (see above)
+    private static String userKey(String username, String source) {
+        return source == null ? "u:" + username : "u:" + username + '\u0000' + source;
+    }
+
+    private static String sourceKey(String source) {
+        return "s:" + source;
+    }
+}
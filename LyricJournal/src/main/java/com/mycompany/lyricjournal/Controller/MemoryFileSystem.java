@@ -0,0 +1,1008 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.lyricjournal.Controller;
+
+/**
+ *
+ * @author Kalli-Ann
+ */
+
+// MemoryFileSystem Controller Class
+
+// java.nio.file filesystem kept entirely in memory (for tests and benchmarks)
+
+
+import java.io.IOException;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.nio.file.attribute.*;
+import java.nio.file.spi.FileSystemProvider;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * MemoryFileSystem is a small in-memory implementation of java.nio.file.FileSystem.
+ * Files and directories live in a tree of nodes on the heap, so code written against
+ * Path / Files / FileChannel runs unchanged without touching the disk - tests can run
+ * isolated from the real users.log and journals, and benchmarks avoid disk-I/O noise.
+ *
+ * Supported: directories, regular files, byte channels and FileChannel (positional
+ * reads and writes, truncate, append), basic attributes, directory listing, copy,
+ * move (always atomic) and delete. Not supported: links, file locks, memory mapping,
+ * watch services, file stores and permissions - those calls throw IOException, as they
+ * do for a file system that cannot provide them, so callers handle them like any other
+ * I/O failure (user principal lookup and unknown attribute views throw
+ * UnsupportedOperationException, which is what their contracts specify).
+ * Paths use "/" and are case-sensitive.
+ *
+ * Each filesystem is independent. Its files stay in memory while anything refers to the
+ * filesystem or one of its paths (e.g. a controller's storage root); after that it is garbage
+ * collected. The registry that resolves "lyricmem://<id>/..." URIs holds filesystems
+ * weakly, so it does not keep them alive; close() removes one from it at once.
+ *
+ * Example usage:
+ * FileSystem fs = MemoryFileSystem.create();
+ * Files.writeString(fs.getPath("/notes.txt"), "hello");
+ */
+public final class MemoryFileSystem extends FileSystem {
+    private static final Provider PROVIDER = new Provider();
+    private static final AtomicLong IDS = new AtomicLong();
+    // open filesystems by id, for URIs - weak, so a filesystem nobody uses can be collected
+    private static final Map<String, Registration> OPEN = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<MemoryFileSystem> COLLECTED = new ReferenceQueue<>();
+
+    private final String id;
+    private final Directory root = new Directory();
+    private final Object treeLock = new Object();   // guards the directory tree (not file contents)
+    private volatile boolean open = true;
+
+    private MemoryFileSystem(String id) {
+        this.id = id;
+    }
+
+    /*
+     * Creates a new, empty in-memory filesystem
+     *
+     * Output: returns the filesystem; use getPath("/") for its root (output: FileSystem)
+     */
+    public static FileSystem create() {
+        // forget filesystems collected since the last call
+        for (Registration gone; (gone = (Registration) COLLECTED.poll()) != null; ) {
+            OPEN.remove(gone.id, gone);
+        }
+        MemoryFileSystem fs = new MemoryFileSystem("fs" + IDS.incrementAndGet());
+        OPEN.put(fs.id, new Registration(fs));
+        return fs;
+    }
+
+    // registry entry that does not keep its filesystem alive
+    private static final class Registration extends WeakReference<MemoryFileSystem> {
+        final String id;
+
+        Registration(MemoryFileSystem fs) {
+            super(fs, COLLECTED);
+            this.id = fs.id;
+        }
+    }
+
+    // ---------------------------------------------------------------- FileSystem
+
+    @Override
+    public FileSystemProvider provider() {
+        return PROVIDER;
+    }
+
+    // drops every file (channels already open keep their file until closed)
+    @Override
+    public void close() {
+        open = false;
+        OPEN.remove(id);
+        synchronized (treeLock) {
+            root.children.clear();
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return false;
+    }
+
+    @Override
+    public String getSeparator() {
+        return "/";
+    }
+
+    @Override
+    public Iterable<Path> getRootDirectories() {
+        return List.of(new MemoryPath(this, true, new String[0]));
+    }
+
+    @Override
+    public Iterable<FileStore> getFileStores() {
+        return List.of();
+    }
+
+    @Override
+    public Set<String> supportedFileAttributeViews() {
+        return Set.of("basic");
+    }
+
+    @Override
+    public Path getPath(String first, String... more) {
+        StringBuilder joined = new StringBuilder(first);
+        for (String part : more) {
+            if (!part.isEmpty()) {
+                joined.append('/').append(part);
+            }
+        }
+        String text = joined.toString();
+        List<String> names = new ArrayList<>();
+        for (String name : text.split("/")) {
+            if (!name.isEmpty()) {
+                names.add(name);
+            }
+        }
+        return new MemoryPath(this, text.startsWith("/"), names.toArray(new String[0]));
+    }
+
+    @Override
+    public PathMatcher getPathMatcher(String syntaxAndPattern) {
+        int colon = syntaxAndPattern.indexOf(':');
+        if (colon < 0 || !syntaxAndPattern.substring(0, colon).equals("regex")) {
+            throw new UnsupportedOperationException("Only regex: patterns are supported");
+        }
+        java.util.regex.Pattern pattern = java.util.regex.Pattern.compile(syntaxAndPattern.substring(colon + 1));
+        return path -> pattern.matcher(path.toString()).matches();
+    }
+
+    @Override
+    public UserPrincipalLookupService getUserPrincipalLookupService() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public WatchService newWatchService() throws IOException {
+        throw new IOException("watch services are not supported by the in-memory file system");
+    }
+
+    // ---------------------------------------------------------------- tree
+
+    private abstract static class Node {
+        volatile long modified = System.currentTimeMillis();
+        final long created = modified;
+    }
+
+    private static final class Directory extends Node {
+        final Map<String, Node> children = new TreeMap<>();
+    }
+
+    // file contents - guarded by the FileNode itself
+    private static final class FileNode extends Node {
+        byte[] data = new byte[0];
+        long size;
+
+        synchronized long size() {
+            return size;
+        }
+    }
+
+    // finds the node for an absolute path, or null (caller holds treeLock)
+    private Node lookup(MemoryPath path) {
+        Node node = root;
+        for (String name : path.absolute().names) {
+            if (!(node instanceof Directory)) {
+                return null;
+            }
+            node = ((Directory) node).children.get(name);
+            if (node == null) {
+                return null;
+            }
+        }
+        return node;
+    }
+
+    // finds the parent directory of a path, failing if it does not exist (caller holds treeLock)
+    private Directory parentOf(MemoryPath path) throws IOException {
+        MemoryPath absolute = path.absolute();
+        if (absolute.names.length == 0) {
+            throw new FileSystemException(path.toString(), null, "root has no parent");
+        }
+        Node parent = lookup(absolute.parentPath());
+        if (!(parent instanceof Directory)) {
+            throw new NoSuchFileException(path.toString(), null, "parent directory does not exist");
+        }
+        return (Directory) parent;
+    }
+
+    private static String nameOf(MemoryPath path) {
+        MemoryPath absolute = path.absolute();
+        return absolute.names[absolute.names.length - 1];
+    }
+
+    // ---------------------------------------------------------------- paths
+
+    private static final class MemoryPath implements Path {
+        final MemoryFileSystem fs;
+        final boolean isAbsolute;
+        final String[] names;
+
+        MemoryPath(MemoryFileSystem fs, boolean isAbsolute, String[] names) {
+            this.fs = fs;
+            this.isAbsolute = isAbsolute;
+            this.names = names;
+        }
+
+        MemoryPath absolute() {
+            return isAbsolute ? this : new MemoryPath(fs, true, names);  // working directory is "/"
+        }
+
+        MemoryPath parentPath() {
+            return new MemoryPath(fs, isAbsolute, Arrays.copyOf(names, Math.max(0, names.length - 1)));
+        }
+
+        @Override
+        public FileSystem getFileSystem() {
+            return fs;
+        }
+
+        @Override
+        public boolean isAbsolute() {
+            return isAbsolute;
+        }
+
+        @Override
+        public Path getRoot() {
+            return isAbsolute ? new MemoryPath(fs, true, new String[0]) : null;
+        }
+
+        @Override
+        public Path getFileName() {
+            return names.length == 0 ? null : new MemoryPath(fs, false, new String[] {names[names.length - 1]});
+        }
+
+        @Override
+        public Path getParent() {
+            if (names.length == 0 || (names.length == 1 && !isAbsolute)) {
+                return null;
+            }
+            return parentPath();
+        }
+
+        @Override
+        public int getNameCount() {
+            return names.length;
+        }
+
+        @Override
+        public Path getName(int index) {
+            return new MemoryPath(fs, false, new String[] {names[index]});
+        }
+
+        @Override
+        public Path subpath(int beginIndex, int endIndex) {
+            return new MemoryPath(fs, false, Arrays.copyOfRange(names, beginIndex, endIndex));
+        }
+
+        @Override
+        public boolean startsWith(Path other) {
+            MemoryPath prefix = check(other);
+            if (prefix.isAbsolute != isAbsolute || prefix.names.length > names.length) {
+                return false;
+            }
+            for (int i = 0; i < prefix.names.length; i++) {
+                if (!prefix.names[i].equals(names[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public boolean endsWith(Path other) {
+            MemoryPath suffix = check(other);
+            if (suffix.isAbsolute) {
+                return equals(suffix);
+            }
+            if (suffix.names.length > names.length) {
+                return false;
+            }
+            int offset = names.length - suffix.names.length;
+            for (int i = 0; i < suffix.names.length; i++) {
+                if (!suffix.names[i].equals(names[offset + i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Path normalize() {
+            Deque<String> stack = new ArrayDeque<>();
+            for (String name : names) {
+                if (name.equals(".")) {
+                    continue;
+                }
+                if (name.equals("..") && !stack.isEmpty() && !stack.peekLast().equals("..")) {
+                    stack.removeLast();
+                } else if (!(name.equals("..") && isAbsolute)) {
+                    stack.addLast(name);
+                }
+            }
+            return new MemoryPath(fs, isAbsolute, stack.toArray(new String[0]));
+        }
+
+        @Override
+        public Path resolve(Path other) {
+            MemoryPath child = check(other);
+            if (child.isAbsolute) {
+                return child;
+            }
+            String[] joined = Arrays.copyOf(names, names.length + child.names.length);
+            System.arraycopy(child.names, 0, joined, names.length, child.names.length);
+            return new MemoryPath(fs, isAbsolute, joined);
+        }
+
+        @Override
+        public Path resolve(String other) {
+            return resolve(fs.getPath(other));
+        }
+
+        @Override
+        public Path relativize(Path other) {
+            MemoryPath target = check(other);
+            if (target.isAbsolute != isAbsolute) {
+                throw new IllegalArgumentException("Cannot relativize between absolute and relative paths");
+            }
+            int common = 0;
+            while (common < names.length && common < target.names.length && names[common].equals(target.names[common])) {
+                common++;
+            }
+            List<String> result = new ArrayList<>();
+            for (int i = common; i < names.length; i++) {
+                result.add("..");
+            }
+            result.addAll(Arrays.asList(target.names).subList(common, target.names.length));
+            return new MemoryPath(fs, false, result.toArray(new String[0]));
+        }
+
+        @Override
+        public URI toUri() {
+            return URI.create(PROVIDER.getScheme() + "://" + fs.id + absolute().toString());
+        }
+
+        @Override
+        public Path toAbsolutePath() {
+            return absolute();
+        }
+
+        @Override
+        public Path toRealPath(LinkOption... options) throws IOException {
+            Path real = absolute().normalize();
+            PROVIDER.checkAccess(real);
+            return real;
+        }
+
+        @Override
+        public WatchKey register(WatchService watcher, WatchEvent.Kind<?>[] events, WatchEvent.Modifier... modifiers)
+                throws IOException {
+            throw new FileSystemException(toString(), null, "watch services are not supported");
+        }
+
+        @Override
+        public int compareTo(Path other) {
+            return toString().compareTo(other.toString());
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof MemoryPath && ((MemoryPath) other).fs == fs
+                    && ((MemoryPath) other).isAbsolute == isAbsolute
+                    && Arrays.equals(((MemoryPath) other).names, names);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(names) * 31 + (isAbsolute ? 1 : 0);
+        }
+
+        @Override
+        public String toString() {
+            String joined = String.join("/", names);
+            return isAbsolute ? "/" + joined : joined;
+        }
+
+        private MemoryPath check(Path other) {
+            if (!(other instanceof MemoryPath) || ((MemoryPath) other).fs != fs) {
+                throw new ProviderMismatchException();
+            }
+            return (MemoryPath) other;
+        }
+    }
+
+    // ---------------------------------------------------------------- provider
+
+    private static final class Provider extends FileSystemProvider {
+        @Override
+        public String getScheme() {
+            return "lyricmem";
+        }
+
+        @Override
+        public FileSystem newFileSystem(URI uri, Map<String, ?> env) {
+            return create();
+        }
+
+        @Override
+        public FileSystem getFileSystem(URI uri) {
+            Registration registration = OPEN.get(uri.getHost());
+            MemoryFileSystem fs = registration == null ? null : registration.get();
+            if (fs == null) {
+                throw new FileSystemNotFoundException(uri.toString());
+            }
+            return fs;
+        }
+
+        @Override
+        public Path getPath(URI uri) {
+            return getFileSystem(uri).getPath(uri.getPath());
+        }
+
+        @Override
+        public SeekableByteChannel newByteChannel(Path path, Set<? extends OpenOption> options,
+                                                  FileAttribute<?>... attrs) throws IOException {
+            return newFileChannel(path, options, attrs);
+        }
+
+        @Override
+        public FileChannel newFileChannel(Path path, Set<? extends OpenOption> options,
+                                          FileAttribute<?>... attrs) throws IOException {
+            MemoryPath file = (MemoryPath) path;
+            MemoryFileSystem fs = file.fs;
+            boolean write = options.contains(StandardOpenOption.WRITE) || options.contains(StandardOpenOption.APPEND);
+            boolean read = options.contains(StandardOpenOption.READ) || !write;
+            FileNode node;
+            synchronized (fs.treeLock) {
+                Node existing = fs.lookup(file);
+                if (existing instanceof Directory) {
+                    throw new FileSystemException(path.toString(), null, "is a directory");
+                }
+                if (existing != null && options.contains(StandardOpenOption.CREATE_NEW)) {
+                    throw new FileAlreadyExistsException(path.toString());
+                }
+                if (existing == null) {
+                    if (!write || !(options.contains(StandardOpenOption.CREATE) || options.contains(StandardOpenOption.CREATE_NEW))) {
+                        throw new NoSuchFileException(path.toString());
+                    }
+                    existing = new FileNode();
+                    fs.parentOf(file).children.put(nameOf(file), existing);
+                }
+                node = (FileNode) existing;
+            }
+            if (write && options.contains(StandardOpenOption.TRUNCATE_EXISTING)) {
+                synchronized (node) {
+                    node.size = 0;
+                    node.modified = System.currentTimeMillis();
+                }
+            }
+            return new MemoryChannel(node, read, write, options.contains(StandardOpenOption.APPEND));
+        }
+
+        @Override
+        public DirectoryStream<Path> newDirectoryStream(Path dir, DirectoryStream.Filter<? super Path> filter) throws IOException {
+            MemoryPath directory = (MemoryPath) dir;
+            List<Path> entries = new ArrayList<>();
+            synchronized (directory.fs.treeLock) {
+                Node node = directory.fs.lookup(directory);
+                if (node == null) {
+                    throw new NoSuchFileException(dir.toString());
+                }
+                if (!(node instanceof Directory)) {
+                    throw new NotDirectoryException(dir.toString());
+                }
+                for (String name : ((Directory) node).children.keySet()) {
+                    entries.add(dir.resolve(name));
+                }
+            }
+            List<Path> accepted = new ArrayList<>();
+            for (Path entry : entries) {
+                if (filter == null || filter.accept(entry)) {
+                    accepted.add(entry);
+                }
+            }
+            return new DirectoryStream<Path>() {
+                @Override
+                public Iterator<Path> iterator() {
+                    return accepted.iterator();
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+        }
+
+        @Override
+        public void createDirectory(Path dir, FileAttribute<?>... attrs) throws IOException {
+            MemoryPath directory = (MemoryPath) dir;
+            synchronized (directory.fs.treeLock) {
+                if (directory.fs.lookup(directory) != null) {
+                    throw new FileAlreadyExistsException(dir.toString());
+                }
+                directory.fs.parentOf(directory).children.put(nameOf(directory), new Directory());
+            }
+        }
+
+        @Override
+        public void delete(Path path) throws IOException {
+            MemoryPath file = (MemoryPath) path;
+            synchronized (file.fs.treeLock) {
+                Node node = file.fs.lookup(file);
+                if (node == null) {
+                    throw new NoSuchFileException(path.toString());
+                }
+                if (node instanceof Directory && !((Directory) node).children.isEmpty()) {
+                    throw new DirectoryNotEmptyException(path.toString());
+                }
+                file.fs.parentOf(file).children.remove(nameOf(file));
+            }
+        }
+
+        @Override
+        public void copy(Path source, Path target, CopyOption... options) throws IOException {
+            MemoryPath from = (MemoryPath) source;
+            MemoryPath to = (MemoryPath) target;
+            synchronized (from.fs.treeLock) {
+                Node node = from.fs.lookup(from);
+                if (node == null) {
+                    throw new NoSuchFileException(source.toString());
+                }
+                Node copy;
+                if (node instanceof Directory) {
+                    copy = new Directory(); // like the default provider: directories are copied empty
+                } else {
+                    FileNode original = (FileNode) node;
+                    FileNode file = new FileNode();
+                    synchronized (original) {
+                        file.data = Arrays.copyOf(original.data, (int) original.size);
+                        file.size = original.size;
+                    }
+                    copy = file;
+                }
+                place(to, copy, options);
+            }
+        }
+
+        @Override
+        public void move(Path source, Path target, CopyOption... options) throws IOException {
+            MemoryPath from = (MemoryPath) source;
+            MemoryPath to = (MemoryPath) target;
+            synchronized (from.fs.treeLock) {  // the whole move happens under one lock, so it is atomic
+                Node node = from.fs.lookup(from);
+                if (node == null) {
+                    throw new NoSuchFileException(source.toString());
+                }
+                if (from.absolute().equals(to.absolute())) {
+                    return;
+                }
+                place(to, node, options);
+                from.fs.parentOf(from).children.remove(nameOf(from));
+            }
+        }
+
+        // puts a node at target, honouring REPLACE_EXISTING (caller holds treeLock)
+        private void place(MemoryPath target, Node node, CopyOption... options) throws IOException {
+            Directory parent = target.fs.parentOf(target);
+            Node existing = parent.children.get(nameOf(target));
+            if (existing != null) {
+                if (!Arrays.asList(options).contains(StandardCopyOption.REPLACE_EXISTING)) {
+                    throw new FileAlreadyExistsException(target.toString());
+                }
+                if (existing instanceof Directory && !((Directory) existing).children.isEmpty()) {
+                    throw new DirectoryNotEmptyException(target.toString());
+                }
+            }
+            parent.children.put(nameOf(target), node);
+        }
+
+        @Override
+        public boolean isSameFile(Path path, Path other) throws IOException {
+            if (path.equals(other)) {
+                return true;
+            }
+            if (!(other instanceof MemoryPath) || ((MemoryPath) other).fs != ((MemoryPath) path).fs) {
+                return false;
+            }
+            MemoryPath first = (MemoryPath) path;
+            synchronized (first.fs.treeLock) {
+                Node node = first.fs.lookup(first);
+                return node != null && node == first.fs.lookup((MemoryPath) other);
+            }
+        }
+
+        @Override
+        public boolean isHidden(Path path) {
+            Path name = path.getFileName();
+            return name != null && name.toString().startsWith(".");
+        }
+
+        @Override
+        public FileStore getFileStore(Path path) throws IOException {
+            throw new FileSystemException(path.toString(), null, "file stores are not supported");
+        }
+
+        @Override
+        public void checkAccess(Path path, AccessMode... modes) throws IOException {
+            MemoryPath file = (MemoryPath) path;
+            synchronized (file.fs.treeLock) {
+                if (file.fs.lookup(file) == null) {
+                    throw new NoSuchFileException(path.toString());
+                }
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <V extends FileAttributeView> V getFileAttributeView(Path path, Class<V> type, LinkOption... options) {
+            if (type != BasicFileAttributeView.class) {
+                return null;
+            }
+            return (V) new BasicFileAttributeView() {
+                @Override
+                public String name() {
+                    return "basic";
+                }
+
+                @Override
+                public BasicFileAttributes readAttributes() throws IOException {
+                    return Provider.this.readAttributes(path, BasicFileAttributes.class);
+                }
+
+                @Override
+                public void setTimes(FileTime lastModifiedTime, FileTime lastAccessTime, FileTime createTime) throws IOException {
+                    if (lastModifiedTime != null) {
+                        node(path).modified = lastModifiedTime.toMillis();
+                    }
+                }
+            };
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <A extends BasicFileAttributes> A readAttributes(Path path, Class<A> type, LinkOption... options) throws IOException {
+            if (type != BasicFileAttributes.class) {
+                throw new UnsupportedOperationException(type.getName());
+            }
+            Node node = node(path);
+            long size = node instanceof FileNode ? ((FileNode) node).size() : 0;
+            return (A) new Attributes(node, size);
+        }
+
+        @Override
+        public Map<String, Object> readAttributes(Path path, String attributes, LinkOption... options) throws IOException {
+            BasicFileAttributes basic = readAttributes(path, BasicFileAttributes.class);
+            Map<String, Object> values = new HashMap<>();
+            values.put("size", basic.size());
+            values.put("isDirectory", basic.isDirectory());
+            values.put("isRegularFile", basic.isRegularFile());
+            values.put("isSymbolicLink", false);
+            values.put("isOther", false);
+            values.put("lastModifiedTime", basic.lastModifiedTime());
+            values.put("lastAccessTime", basic.lastAccessTime());
+            values.put("creationTime", basic.creationTime());
+            values.put("fileKey", null);
+            String wanted = attributes.startsWith("basic:") ? attributes.substring(6) : attributes;
+            if (wanted.equals("*")) {
+                return values;
+            }
+            Map<String, Object> selected = new HashMap<>();
+            for (String name : wanted.split(",")) {
+                selected.put(name, values.get(name));
+            }
+            return selected;
+        }
+
+        @Override
+        public void setAttribute(Path path, String attribute, Object value, LinkOption... options) throws IOException {
+            if (attribute.equals("lastModifiedTime") || attribute.equals("basic:lastModifiedTime")) {
+                node(path).modified = ((FileTime) value).toMillis();
+                return;
+            }
+            throw new UnsupportedOperationException(attribute);
+        }
+
+        private Node node(Path path) throws IOException {
+            MemoryPath file = (MemoryPath) path;
+            synchronized (file.fs.treeLock) {
+                Node node = file.fs.lookup(file);
+                if (node == null) {
+                    throw new NoSuchFileException(path.toString());
+                }
+                return node;
+            }
+        }
+    }
+
+    private static final class Attributes implements BasicFileAttributes {
+        private final Node node;
+        private final long size;
+
+        Attributes(Node node, long size) {
+            this.node = node;
+            this.size = size;
+        }
+
+        @Override
+        public FileTime lastModifiedTime() {
+            return FileTime.fromMillis(node.modified);
+        }
+
+        @Override
+        public FileTime lastAccessTime() {
+            return lastModifiedTime();
+        }
+
+        @Override
+        public FileTime creationTime() {
+            return FileTime.fromMillis(node.created);
+        }
+
+        @Override
+        public boolean isRegularFile() {
+            return node instanceof FileNode;
+        }
+
+        @Override
+        public boolean isDirectory() {
+            return node instanceof Directory;
+        }
+
+        @Override
+        public boolean isSymbolicLink() {
+            return false;
+        }
+
+        @Override
+        public boolean isOther() {
+            return false;
+        }
+
+        @Override
+        public long size() {
+            return size;
+        }
+
+        @Override
+        public Object fileKey() {
+            return null;
+        }
+    }
+
+    // ---------------------------------------------------------------- channel
+
+    // FileChannel over a FileNode; a file stays readable through open channels after delete/replace
+    private static final class MemoryChannel extends FileChannel {
+        private final FileNode node;
+        private final boolean readable;
+        private final boolean writable;
+        private final boolean append;
+        private long position;
+
+        MemoryChannel(FileNode node, boolean readable, boolean writable, boolean append) {
+            this.node = node;
+            this.readable = readable;
+            this.writable = writable;
+            this.append = append;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            synchronized (node) {
+                int read = read(dst, position);
+                if (read > 0) {
+                    position += read;
+                }
+                return read;
+            }
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            long total = 0;
+            for (int i = offset; i < offset + length; i++) {
+                int read = read(dsts[i]);
+                if (read < 0) {
+                    return total == 0 ? -1 : total;
+                }
+                total += read;
+                if (dsts[i].hasRemaining()) {
+                    break;
+                }
+            }
+            return total;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            synchronized (node) {
+                if (append) {
+                    position = node.size;
+                }
+                int written = write(src, position);
+                position += written;
+                return written;
+            }
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            long total = 0;
+            for (int i = offset; i < offset + length; i++) {
+                total += write(srcs[i]);
+            }
+            return total;
+        }
+
+        @Override
+        public long position() throws IOException {
+            ensureOpen();
+            synchronized (node) {
+                return position;
+            }
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            ensureOpen();
+            if (newPosition < 0) {
+                throw new IllegalArgumentException("negative position");
+            }
+            synchronized (node) {
+                position = newPosition;
+            }
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            ensureOpen();
+            return node.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            ensureOpen();
+            if (!writable) {
+                throw new NonWritableChannelException();
+            }
+            synchronized (node) {
+                if (size < node.size) {
+                    node.size = size;
+                    node.modified = System.currentTimeMillis();
+                }
+                position = Math.min(position, size);
+            }
+            return this;
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            ensureOpen(); // nothing to flush - data is already "stored"
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(count, 1 << 16));
+            long transferred = 0;
+            while (transferred < count) {
+                buffer.clear().limit((int) Math.min(buffer.capacity(), count - transferred));
+                int read = read(buffer, position + transferred);
+                if (read <= 0) {
+                    break;
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    target.write(buffer);
+                }
+                transferred += read;
+            }
+            return transferred;
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(count, 1 << 16));
+            long transferred = 0;
+            while (transferred < count) {
+                buffer.clear().limit((int) Math.min(buffer.capacity(), count - transferred));
+                int read = src.read(buffer);
+                if (read <= 0) {
+                    break;
+                }
+                buffer.flip();
+                transferred += write(buffer, position + transferred);
+            }
+            return transferred;
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            ensureOpen();
+            if (!readable) {
+                throw new NonReadableChannelException();
+            }
+            synchronized (node) {
+                if (position >= node.size) {
+                    return dst.hasRemaining() ? -1 : 0;
+                }
+                int count = (int) Math.min(dst.remaining(), node.size - position);
+                dst.put(node.data, (int) position, count);
+                return count;
+            }
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            ensureOpen();
+            if (!writable) {
+                throw new NonWritableChannelException();
+            }
+            synchronized (node) {
+                int count = src.remaining();
+                long end = position + count;
+                if (end > Integer.MAX_VALUE - 8) {
+                    throw new IOException("in-memory files are limited to 2 GB");
+                }
+                if (end > node.data.length) {
+                    // grow geometrically so appends stay amortized O(1)
+                    node.data = Arrays.copyOf(node.data, (int) Math.min(Integer.MAX_VALUE - 8,
+                            Math.max(end, node.data.length * 2L)));
+                }
+                if (position > node.size) {
+                    Arrays.fill(node.data, (int) node.size, (int) position, (byte) 0); // gap reads as zeros
+                }
+                src.get(node.data, (int) position, count);
+                node.size = Math.max(node.size, end);
+                node.modified = System.currentTimeMillis();
+                return count;
+            }
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            throw new IOException("memory mapping is not supported");
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            throw new IOException("file locks are not supported");
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            throw new IOException("file locks are not supported");
+        }
+
+        @Override
+        protected void implCloseChannel() {
+        }
+
+        private void ensureOpen() throws IOException {
+            if (!isOpen()) {
+                throw new ClosedChannelException();
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.lyricjournal.Controller;
+
+/**
+ *
+ * @author Kalli-Ann
+ */
+
+// PasswordHasher Controller Class
+
+// Salted, adaptive password hashing (PBKDF2) with constant-time verification
+
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/*
+ * PasswordHasher turns passwords into salted PBKDF2-HMAC-SHA256 hashes for the user directory.
+ * The work factor (iteration count) is stored inside every hash, so it can be raised
+ * later without breaking existing accounts - older hashes are upgraded on the next login.
+ * Comparisons use MessageDigest.isEqual, which takes the same time wherever the bytes differ.
+ *
+ * Stored format: pbkdf2-sha256$<iterations>$<base64 salt>$<base64 hash>
+ *
+ * The work factor is tunable with -Dlyricjournal.pbkdf2.iterations=<n> (default 210000).
+ * A verification costs tens of milliseconds, so callers on the Swing thread should
+ * run it on a worker thread (see LoginRegistrationGUI).
+ *
+ * Example usage:
+ * String stored = PasswordHasher.hash("secret");
+ * boolean ok = PasswordHasher.verify("secret", stored); // true
+ */
+public final class PasswordHasher {
+    private static final String PREFIX = "pbkdf2-sha256$";     // marks hashed records
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;                  // 128-bit random salt
+    private static final int HASH_BITS = 256;                  // derived key length
+    private static final int MIN_ITERATIONS = 1_000;           // floor for the tunable work factor
+
+    // current work factor - new hashes and upgrades use this value
+    private static final int ITERATIONS = Math.max(MIN_ITERATIONS,
+            Integer.getInteger("lyricjournal.pbkdf2.iterations", 210_000));
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private PasswordHasher() {
+    }
+
+    /*
+     * Hashes a password with a fresh random salt and the current work factor
+     *
+     * Input: password - plaintext password (input: non-null String)
+     * Output: returns the encoded hash to store (output: String in the stored format)
+     *
+     * Example: PasswordHasher.hash("pass123") // "pbkdf2-sha256$210000$...$..."
+     */
+    public static String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        byte[] hash = derive(password, salt, ITERATIONS);
+        Base64.Encoder base64 = Base64.getEncoder().withoutPadding();
+        return PREFIX + ITERATIONS + "$" + base64.encodeToString(salt) + "$" + base64.encodeToString(hash);
+    }
+
+    /*
+     * Checks a password against a stored record in constant time
+     * Legacy plaintext records (from before hashing) are compared in constant time as well
+     *
+     * Inputs:
+     *
+     * password - password attempt (input: String, null never matches)
+     * stored - stored record from the user directory (input: hashed or legacy plaintext String)
+     *
+     * Output: returns true if the password matches (output: boolean)
+     */
+    public static boolean verify(String password, String stored) {
+        if (password == null || stored == null) {
+            return false;
+        }
+        if (!isHashed(stored)) {
+            // legacy plaintext record - still avoid an early-exit comparison
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8),
+                                         stored.getBytes(StandardCharsets.UTF_8));
+        }
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4) {
+            return false; // corrupted record
+        }
+        try {
+            int iterations = Integer.parseInt(parts[1]);
+            byte[] salt = Base64.getDecoder().decode(parts[2]);
+            byte[] expected = Base64.getDecoder().decode(parts[3]);
+            return MessageDigest.isEqual(derive(password, salt, iterations), expected);
+        } catch (IllegalArgumentException e) {
+            return false; // bad number or base64 - treat as non-matching
+        }
+    }
+
+    /*
+     * Tells whether a stored record should be replaced after a successful login
+     * True for legacy plaintext records and for hashes made with a lower work factor
+     *
+     * Input: stored - stored record from the user directory (input: String)
+     * Output: returns true if the record should be re-hashed (output: boolean)
+     */
+    public static boolean needsRehash(String stored) {
+        if (!isHashed(stored)) {
+            return true;
+        }
+        String[] parts = stored.split("\\$");
+        try {
+            return parts.length != 4 || Integer.parseInt(parts[1]) < ITERATIONS;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    /*
+     * Tells whether a stored record is a hash (as opposed to a legacy plaintext password)
+     */
+    public static boolean isHashed(String stored) {
+        return stored != null && stored.startsWith(PREFIX);
+    }
+
+    /*
+     * Gets the current work factor
+     * returns the PBKDF2 iteration count used for new hashes (output: int)
+     */
+    public static int getIterations() {
+        return ITERATIONS;
+    }
+
+    // runs PBKDF2 - the expensive part of hashing and verification
+    private static byte[] derive(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            // PBKDF2WithHmacSHA256 is required on every Java platform
+            throw new IllegalStateException(ALGORITHM + " not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
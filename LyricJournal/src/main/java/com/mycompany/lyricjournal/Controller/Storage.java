@@ -0,0 +1,72 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.lyricjournal.Controller;
+
+/**
+ *
+ * @author Kalli-Ann
+ */
+
+// Storage Controller Class
+
+// Decides where account and journal files live
+
+
+import java.nio.file.*;
+
+/*
+ * Storage picks the directory a UserManager and UserDataController resolve all of their
+ * files against. Each controller is given its root when it is created and keeps it, so
+ * controllers with different roots - e.g. two tests running in parallel - never see each
+ * other's files. The root is a java.nio.file.Path, so it also selects the FileSystem:
+ * a directory on disk for the application, or an in-memory filesystem (MemoryFileSystem)
+ * for tests and benchmarks that must not touch the real data files.
+ *
+ * Only the application entry points (Main) read the root from system properties:
+ * -Dlyricjournal.home=<dir>      store files in <dir> (default: the working directory)
+ * -Dlyricjournal.storage=memory  store files in a fresh in-memory filesystem
+ *
+ * Example usage:
+ * Path root = Storage.newInMemoryRoot();     // tests: nothing is written to disk
+ * UserManager users = new UserManager(root);
+ * UserDataController journals = new UserDataController(root);
+ */
+public final class Storage {
+
+    private Storage() {
+    }
+
+    /*
+     * Gets the root configured by system properties (see above), creating its directory
+     * Meant for the application entry points; everything else is handed its root
+     *
+     * Output: returns the root (output: Path)
+     */
+    public static Path defaultRoot() {
+        if ("memory".equals(System.getProperty("lyricjournal.storage"))) {
+            return newInMemoryRoot();
+        }
+        Path root = Paths.get(System.getProperty("lyricjournal.home", ""));
+        try {
+            Files.createDirectories(root.toAbsolutePath());
+        } catch (java.io.IOException e) {
+            System.err.println("Error creating storage directory: " + e.getMessage());
+        }
+        return root;
+    }
+
+    /*
+     * Creates a root in a new, empty in-memory filesystem
+     * The files live as long as the filesystem: close it (root.getFileSystem().close())
+     * to drop them, or let it become unreachable
+     *
+     * Output: returns the new root (output: Path)
+     *
+     * Example: Path root = Storage.newInMemoryRoot();
+     */
+    public static Path newInMemoryRoot() {
+        return MemoryFileSystem.create().getPath("/");
+    }
+}
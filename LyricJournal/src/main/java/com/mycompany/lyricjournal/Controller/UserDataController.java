@@ -15,21 +15,47 @@ package com.mycompany.lyricjournal.Controller;
 
 
 import com.mycompany.lyricjournal.Model.*;
+import com.mycompany.lyricjournal.Diagnostics.JournalEvents;
+import com.mycompany.lyricjournal.Diagnostics.LatencyHistogram;
+import com.mycompany.lyricjournal.Diagnostics.Metrics;
 import com.google.gson.*;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import java.io.*;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 
 /*
  * UserDataController manages the data for user's lyric entries.
- * Provides static methods to save and load lyric collections to/from JSON files.
- * Each user has a separate JSON file named "{username}_lyrics.json".
+ * Provides methods to save and load lyric collections to/from JSON files.
+ * Each user has a separate JSON file named "{username}_lyrics.json" in the storage root
+ * the controller was created with (see Storage).
  * Uses Gson library for efficient JSON serialization/deserialization.
+ * Save and load times, bytes read and written, and journal sizes are recorded in Metrics;
+ * each save and load is also a flight recorder event (JournalEvents).
+ *
+ * Lazy mode (setLazyBodies(true), or -Dlyricjournal.lazyBodies=true) keeps lyric texts and
+ * notes on disk: each save also writes a JournalIndex, and loading from it reads only the
+ * titles, artists and dates - the cost of a login follows the number of entries, not the
+ * length of their lyrics. Bodies are read when first needed (LazyLyricEntry), through a
+ * journal the User keeps open; call user.setBodySource(null) when the user is dropped.
+ * The mode is set per controller; its default comes from the system property.
+ *
+ * A user with a LyricArena (User.setArena, used by JournalCache with -Dlyricjournal.offHeap=true)
+ * is loaded into ArenaLyricEntry objects instead: the journal is streamed and each entry's
+ * lyric text and note are copied off-heap as it is read.
  * 
  * Example usage:
- * UserDataController.saveUser(currentUser);      // save all entries to file
- * UserDataController.loadUserEntries(currentUser); // load entries from file
+ * UserDataController journals = new UserDataController(Storage.defaultRoot());
+ * journals.saveUser(currentUser);      // save all entries to file
+ * journals.loadUserEntries(currentUser); // load entries from file
  */
 public class UserDataController {
     // static Gson instance with pretty printing for readable JSON files
@@ -37,31 +63,129 @@ public class UserDataController {
     private static final Gson gson = new GsonBuilder()
             .setPrettyPrinting()  // format JSON with indentation and line breaks
             .create();
+    
+    // a journal file is a JSON array of entries; TypeToken keeps the element type,
+    // which Java's type erasure would otherwise lose
+    private static final Type ENTRY_LIST_TYPE = new TypeToken<List<LyricEntry>>() {}.getType();
+    
+    // always-on measurements (see Metrics)
+    private static final LatencyHistogram SAVE_TIME = Metrics.timer("journal.save");
+    private static final LatencyHistogram LOAD_TIME = Metrics.timer("journal.load");
+    private static final LongAdder BYTES_WRITTEN = Metrics.counter("journal.bytesWritten");
+    private static final LongAdder BYTES_READ = Metrics.counter("journal.bytesRead");
+    
+    private final Path root;    // directory the journal files are kept in
+    private volatile boolean lazyBodies = Boolean.getBoolean("lyricjournal.lazyBodies");
+
+    /*
+     * Constructor: Creates a controller for the journals kept in a storage root
+     * 
+     * Input: root - directory holding the journal files (input: existing directory Path on any FileSystem)
+     * 
+     * Example: UserDataController journals = new UserDataController(Storage.newInMemoryRoot());
+     */
+    public UserDataController(Path root) {
+        this.root = root;
+    }
+
+    /*
+     * Gets the directory the journal files are kept in
+     */
+    public Path getRoot() {
+        return root;
+    }
+
+    /*
+     * Turns lazy mode on or off (see above); applies to the following saves and loads
+     * Input: lazy - true to load journals through their index (input: boolean)
+     */
+    public void setLazyBodies(boolean lazy) {
+        lazyBodies = lazy;
+    }
+
+    /*
+     * Gets whether journals are loaded with their lyric texts and notes left on disk
+     */
+    public boolean isLazyBodies() {
+        return lazyBodies;
+    }
 
     /*
      * Saves all of a user's lyric entries to their personal JSON file
      * Creates or overwrites the user's data file with current entries
      * File naming convention: "{username}_lyrics.json"
+     * The new file is written next to the old one and moved over it, so a failed save
+     * leaves the previous journal intact (and lazy entries keep reading the file they came from)
      * 
      * Input: user - User object containing entries to save (input: User with populated entries list)
      * Output: Creates/updates JSON file with serialized lyric entries
+     * Throws UncheckedIOException if the journal cannot be written - the changes are then
+     * only in memory and the caller must keep them (a failed index write is only logged)
      * 
      * Example: 
      * User user = new User("john", "password");
      * user.addEntry(new LyricEntry("Title", "Artist", "Lyrics", "Note"));
-     * UserDataController.saveUser(user); // creates "john_lyrics.json"
+     * journals.saveUser(user); // creates "john_lyrics.json"
      */
-    public static void saveUser(User user) {
+    public void saveUser(User user) {
         // generate filename based on username for data separation
-        String filename = user.getUsername() + "_lyrics.json";
+        Path file = getJournalPath(user.getUsername());
+        long start = System.nanoTime();
+        JournalEvents.JournalSave event = new JournalEvents.JournalSave();
+        event.begin();
         
-        // use try-with-resources for automatic file closure
-        try (FileWriter writer = new FileWriter(filename)) {
-            // serialize only the entries ArrayList (not entire User object)
-            // this keeps the JSON file focused and reduces storage requirements
-            gson.toJson(user.getEntries(), writer);
-        } catch (IOException e) {
-            e.printStackTrace();
+        // one snapshot of the entries: edits made while saving go to the next save
+        List<LyricEntry> entries = user.getEntries();
+        
+        // byte offset of each entry in the file, for the journal index
+        long[] bounds = new long[entries.size() + 1];
+        boolean indexable = true;
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        boolean saved = false;
+        try {
+            // use try-with-resources for automatic file closure
+            try (Writer writer = openWriter(temp)) {
+                // serialize only the entries list (not entire User object), one entry at a time
+                // this keeps the JSON file focused and reduces storage requirements
+                JournalIndex.ByteCounter counted = new JournalIndex.ByteCounter(writer, 0);
+                JsonWriter json = gson.newJsonWriter(counted);
+                json.beginArray();
+                bounds[0] = counted.position();
+                for (int i = 0; i < entries.size(); i++) {
+                    LyricEntry entry = entries.get(i);
+                    writeEntry(json, entry);
+                    bounds[i + 1] = counted.position();
+                    indexable &= entry != null;
+                }
+                json.endArray();
+                json.flush();
+            }
+            replace(temp, file);
+            saved = true;
+            
+            if (lazyBodies && indexable) {
+                JournalIndex.write(file, getIndexPath(user.getUsername()), entries, bounds);
+            }
+        } catch (IOException | JsonIOException e) {
+            if (!saved) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // the next save overwrites it
+                }
+                IOException cause = e instanceof IOException ? (IOException) e : new IOException(e.getMessage(), e);
+                throw new UncheckedIOException("Error saving journal of " + user.getUsername(), cause);
+            }
+            // the journal is saved; without a matching index the next load reads it in full
+            System.err.println("Error writing journal index of " + user.getUsername() + ": " + e.getMessage());
+        }
+        SAVE_TIME.recordSince(start);
+        Metrics.recordEntries(user.getUsername(), entries.size());
+        if (event.shouldCommit()) {
+            event.username = user.getUsername();
+            event.entries = entries.size();
+            event.bytes = sizeOf(file);
+            event.commit();
         }
     }
 
@@ -69,48 +193,283 @@ public class UserDataController {
      * Loads lyric entries from JSON file into a User object
      * Replaces any existing entries in the User's collection
      * Creates empty collection if file doesn't exist
+     * In lazy mode the entries come from the journal index when it matches the journal, and
+     * the user holds the open journal they read from (User.setBodySource) until the next load
+     * or until it is dropped; otherwise the journal is read in full (the next save writes the index)
+     * Loading never writes: a journal is only rewritten by saveUser
+     * If the user has an arena, the lyric texts and notes are loaded into it (lazy mode is not used)
      * 
      * Input: user - User object to populate with loaded entries (input: User object, entries will be replaced)
-     * Output: User's entries ArrayList is populated with loaded data
+     * Output: User's entries are replaced by the loaded data
      * 
      * Example:
      * User user = new User("john", "password");
-     * UserDataController.loadUserEntries(user); // loads from "john_lyrics.json"
-     * ArrayList<LyricEntry> entries = user.getEntries(); // now contains loaded entries
+     * journals.loadUserEntries(user); // loads from "john_lyrics.json"
+     * List<LyricEntry> entries = user.getEntries(); // now contains loaded entries
      */
-    public static void loadUserEntries(User user) {
+    public void loadUserEntries(User user) {
         // generate filename matching the save format
-        String filename = user.getUsername() + "_lyrics.json";
-        File file = new File(filename);
+        Path file = getJournalPath(user.getUsername());
         
         // handle case where user has no saved data yet (first time use)
-        if (!file.exists()) {
+        if (!Files.exists(file)) {
             return; // exit gracefully - user will have empty entries list
         }
 
         // attempt to load and deserialize the JSON file
-        try (FileReader reader = new FileReader(file)) {
-            // use TypeToken to handle generic ArrayList<LyricEntry> deserialization
-            // required because of Java's type erasure with generics
-            Type entryListType = new TypeToken<ArrayList<LyricEntry>>() {}.getType();
-            
-            // deserialize JSON back into ArrayList<LyricEntry>
-            ArrayList<LyricEntry> entries = gson.fromJson(reader, entryListType);
-            
-            // validate that deserialization was successful
-            if (entries != null) {
-                // clear existing entries to prevent duplicates on repeated loads
-                // ArrayList.clear() is O(n)
-                user.getEntries().clear();
+        long start = System.nanoTime();
+        JournalEvents.JournalLoad event = new JournalEvents.JournalLoad();
+        event.begin();
+        LyricArena arena = user.getArena();
+        JournalIndex.Loaded lazy = lazyBodies && arena == null
+                ? JournalIndex.read(file, getIndexPath(user.getUsername())) : null;
+        if (arena != null) {
+            loadIntoArena(user, file, arena);
+        } else if (lazy != null) {
+            user.replaceEntries(lazy.entries);
+            user.setBodySource(lazy.bodies); // closes the journal the previous entries read from
+        } else {
+            try (Reader reader = openReader(file)) {
+                // deserialize JSON back into a list of entries
+                List<LyricEntry> entries = gson.fromJson(reader, ENTRY_LIST_TYPE);
                 
-                // add each loaded entry using the User's addEntry method
-                // this maintains proper encapsulation and any future validation logic
-                for (LyricEntry entry : entries) {
-                    user.addEntry(entry);  // O(n) worst case
+                // validate that deserialization was successful
+                if (entries != null) {
+                    // replace existing entries in one step (no duplicates on repeated loads,
+                    // and readers never see a half-loaded journal)
+                    user.replaceEntries(entries);
+                    user.setBodySource(null); // nothing reads a previous journal any more
                 }
+            } catch (IOException e) {
+                e.printStackTrace();
             }
+        }
+        LOAD_TIME.recordSince(start);
+        Metrics.recordEntries(user.getUsername(), user.getEntries().size());
+        if (event.shouldCommit()) {
+            event.username = user.getUsername();
+            event.entries = user.getEntries().size();
+            event.bytes = sizeOf(file);
+            event.commit();
+        }
+    }
+
+    // streams the journal, copying each entry's text into the arena; if it cannot be read
+    // the user's entries stay as they were and the copies made so far are freed
+    private static void loadIntoArena(User user, Path file, LyricArena arena) {
+        List<LyricEntry> entries = new ArrayList<>();
+        boolean loaded = false;
+        try (Reader reader = openReader(file)) {
+            readEntries(reader, entry -> entries.add(entry == null ? null : ArenaLyricEntry.copyOf(entry, arena)));
+            user.replaceEntries(entries);
+            user.setBodySource(null);
+            loaded = true;
         } catch (IOException e) {
             e.printStackTrace();
+        } finally {
+            if (!loaded) {
+                for (LyricEntry entry : entries) {
+                    if (entry instanceof ArenaLyricEntry) {
+                        ((ArenaLyricEntry) entry).free();
+                    }
+                }
+            }
+        }
+    }
+
+    /*
+     * Gets the journal file for a username, resolved against the storage root
+     * File naming convention: "{username}_lyrics.json"
+     * 
+     * Input: username - account name (input: non-null String)
+     * Output: Path of the user's journal (may not exist yet)
+     * 
+     * Example: journals.getJournalPath("john") // john_lyrics.json
+     */
+    public Path getJournalPath(String username) {
+        return root.resolve(username + "_lyrics.json");
+    }
+
+    /*
+     * Gets the journal index file for a username (written next to the journal in lazy mode)
+     * 
+     * Input: username - account name (input: non-null String)
+     * Output: Path of the user's journal index (may not exist)
+     * 
+     * Example: journals.getIndexPath("john") // john_lyrics.idx
+     */
+    public Path getIndexPath(String username) {
+        return root.resolve(username + "_lyrics.idx");
+    }
+
+    /*
+     * Streams a user's journal entry by entry without loading the whole list
+     * Used by the command-line tools to process journals larger than memory
+     * 
+     * Inputs:
+     *
+     * username - account whose journal to read (input: non-null String)
+     * action - called once per entry in file order (input: Consumer<LyricEntry>)
+     * 
+     * Output: returns false if the user has no journal file, true otherwise
+     * Throws IOException (or JsonParseException) if the file cannot be read or parsed
+     * 
+     * Example:
+     * journals.forEachEntry("john", entry -> System.out.println(entry.getSongTitle()));
+     */
+    public boolean forEachEntry(String username, Consumer<LyricEntry> action) throws IOException {
+        Path file = getJournalPath(username);
+        if (!Files.exists(file)) {
+            return false;
+        }
+        try (Reader reader = openReader(file)) {
+            readEntries(reader, action);
+        }
+        return true;
+    }
+
+    /*
+     * Moves a finished file over the one it replaces, atomically where the filesystem can
+     * 
+     * Inputs:
+     *
+     * source - the new file (input: existing Path)
+     * target - file to replace (input: Path in the same directory)
+     */
+    static void replace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
         }
     }
+
+    // file size for flight recorder events (-1 if unavailable)
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /*
+     * Opens a journal file for writing (creates or truncates it)
+     * Journals are written as plain UTF-8 (no byte order mark, as JSON requires), so every
+     * character survives whatever the platform charset is
+     * Bytes written are counted in journal.bytesWritten
+     * 
+     * Input: file - journal or temporary file (input: Path on any FileSystem)
+     * Output: buffered Writer, to be closed by the caller (output: Writer)
+     */
+    public static Writer openWriter(Path file) throws IOException {
+        OutputStream counted = new FilterOutputStream(Files.newOutputStream(file)) {
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+                BYTES_WRITTEN.increment();
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                out.write(bytes, offset, length);  // FilterOutputStream would write byte by byte
+                BYTES_WRITTEN.add(length);
+            }
+        };
+        return new BufferedWriter(new OutputStreamWriter(counted, StandardCharsets.UTF_8));
+    }
+
+    /*
+     * Opens a journal file for reading
+     * Journals are UTF-8; malformed input is replaced, like FileReader, instead of failing
+     * (a leading byte order mark, as some editors write, is skipped by Gson)
+     * Bytes read are counted in journal.bytesRead
+     * 
+     * Input: file - journal file (input: Path on any FileSystem)
+     * Output: buffered Reader, to be closed by the caller (output: Reader)
+     */
+    public static Reader openReader(Path file) throws IOException {
+        InputStream counted = new FilterInputStream(Files.newInputStream(file)) {
+            @Override
+            public int read() throws IOException {
+                int b = in.read();
+                if (b >= 0) {
+                    BYTES_READ.increment();
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] bytes, int offset, int length) throws IOException {
+                int read = in.read(bytes, offset, length);
+                if (read > 0) {
+                    BYTES_READ.add(read);
+                }
+                return read;
+            }
+        };
+        return new BufferedReader(new InputStreamReader(counted, StandardCharsets.UTF_8));
+    }
+
+    /*
+     * Streams entries from any reader holding a JSON array in journal format
+     * 
+     * Inputs:
+     *
+     * reader - source of a JSON array of lyric entries (input: open Reader, not closed here)
+     * action - called once per entry in array order (input: Consumer<LyricEntry>)
+     * 
+     * Throws IOException (or JsonParseException) if the input is not a valid journal array
+     */
+    public static void readEntries(Reader reader, Consumer<LyricEntry> action) throws IOException {
+        JsonReader json = new JsonReader(reader);
+        if (json.peek() == JsonToken.NULL) {
+            return; // "null" is what an empty journal used to be saved as
+        }
+        json.beginArray();
+        while (json.hasNext()) {
+            // deserialize one entry at a time - memory stays constant
+            action.accept(gson.fromJson(json, LyricEntry.class));
+        }
+        json.endArray();
+    }
+
+    /*
+     * Writes a single entry to an open JSON writer (array handling is left to the caller)
+     * Uses the same serialization as saveUser so exported files can be loaded again
+     * 
+     * Inputs:
+     *
+     * writer - JsonWriter positioned inside an array (input: open JsonWriter)
+     * entry - entry to serialize (input: non-null LyricEntry)
+     */
+    public static void writeEntry(JsonWriter writer, LyricEntry entry) throws IOException {
+        gson.toJson(entry, LyricEntry.class, writer);
+    }
+
+    /*
+     * Checks an entry against the journal's integrity rules
+     * Shared by the command-line check and compact commands and the HTTP server
+     * - song title, artist and lyric text must not be blank (the note is optional),
+     *   the same fields AddLyricPanel and EditLyricDialog require
+     * - dateAdded must be a valid yyyy-MM-dd date
+     *
+     * Input: entry - entry to check (input: LyricEntry, may be null)
+     * Output: returns a description of the first problem, or null if the entry is valid (output: String)
+     *
+     * Example: UserDataController.entryProblem(new LyricEntry("Song", " ", "Lyrics", "")) // "missing artist"
+     */
+    public static String entryProblem(LyricEntry entry) {
+        if (entry == null) return "null entry";
+        if (isBlank(entry.getSongTitle())) return "missing song title";
+        if (isBlank(entry.getArtist())) return "missing artist";
+        if (isBlank(entry.getLyricText())) return "missing lyric text";
+        if (entry.getDateAdded() == null) return "missing date";
+        if (entry.getDate() == null) return "invalid date: " + entry.getDateAdded();
+        return null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,634 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.lyricjournal.Controller;
+
+/**
+ *
+ * @author Kalli-Ann
+ */
+
+// UserDirectory Controller Class
+
+// Append-only account log with an on-disk hash index
+
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*
+ * UserDirectory stores accounts (username -> password hash) in two files:
+ *
+ * <name>.log - append-only records. A registration appends one record; a password
+ *              change appends a newer record for the same user (the old one becomes dead).
+ *              Layout: header [magic, version, generation], then records
+ *              [int length][UTF-8 "username\0hash"].
+ * <name>.idx - open-addressing hash table over the log. Each slot holds the record
+ *              offset and the username hash; the header records which log generation
+ *              and how much of the log it covers.
+ *
+ * Registration and lookup are O(1) file operations - nothing is loaded up front, and
+ * nothing is rewritten on each change. The index doubles when half full, and the log is
+ * compacted (dead records dropped) once dead records outnumber live ones.
+ * If the index is missing, stale or from another log generation, it is rebuilt from the log.
+ *
+ * Thread safety: lookups of recently used accounts are served from a concurrent cache
+ * without locking; disk lookups share a read lock; changes are serialized by a write lock.
+ *
+ * Example usage:
+ * UserDirectory directory = UserDirectory.open(Paths.get("users.log"), Paths.get("users.idx"));
+ * directory.insert("john", PasswordHasher.hash("secret"));
+ * String stored = directory.find("john");
+ */
+public class UserDirectory implements Closeable {
+    private static final int LOG_MAGIC = 0x4C4A554C;      // "LJUL"
+    private static final int INDEX_MAGIC = 0x4C4A5549;    // "LJUI"
+    private static final int VERSION = 1;
+    private static final int LOG_HEADER = 16;             // magic, version, generation
+    private static final int INDEX_HEADER = 40;           // magic, version, generation, capacity, used, dead, indexed length
+    private static final int SLOT_BYTES = 12;             // long (offset + 1, 0 = empty), int hash
+    private static final int INITIAL_CAPACITY = 1024;     // slots in a new index (power of two)
+    private static final int COMPACT_MIN_DEAD = 1024;     // don't compact tiny logs
+    private static final int CACHE_LIMIT = 10_000;        // max cached accounts
+
+    private final Path logPath;
+    private final Path indexPath;
+    private FileChannel log;
+    private FileChannel index;
+
+    // index header state (guarded by lock)
+    private long generation;   // identifies the current log file
+    private int capacity;      // number of index slots (power of two)
+    private int used;          // live accounts
+    private long dead;         // superseded records in the log
+    private long logLength;    // end of the last record
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, String> cache = new ConcurrentHashMap<>(); // recently used accounts
+
+    private UserDirectory(Path logPath, Path indexPath) {
+        this.logPath = logPath;
+        this.indexPath = indexPath;
+    }
+
+    /*
+     * Opens (or creates) a directory stored in the given log and index files
+     * Only the file headers are read - accounts stay on disk until looked up
+     *
+     * Inputs:
+     *
+     * logPath - append-only record file (input: Path, created if missing)
+     * indexPath - hash index file (input: Path, rebuilt if missing or stale)
+     *
+     * Output: returns an open UserDirectory (output: UserDirectory)
+     * Throws IOException if the files cannot be opened
+     */
+    public static UserDirectory open(Path logPath, Path indexPath) throws IOException {
+        UserDirectory directory = new UserDirectory(logPath, indexPath);
+        directory.openFiles();
+        return directory;
+    }
+
+    /*
+     * Looks up the stored password hash for a username
+     *
+     * Input: username - account name (input: String, already lowercased by the caller)
+     * Output: returns the stored hash, or null if there is no such account
+     */
+    public String find(String username) throws IOException {
+        String cached = cache.get(username);
+        if (cached != null) {
+            return cached; // lock-free fast path
+        }
+        lock.readLock().lock();
+        try {
+            int slot = findSlot(username, hash(username));
+            if (slot < 0) {
+                return null;
+            }
+            String stored = readRecord(slotOffset(slot))[1];
+            remember(username, stored);
+            return stored;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /*
+     * Adds an account if the username is free - one record append plus one index slot write
+     *
+     * Inputs:
+     *
+     * username - account name (input: String, already lowercased)
+     * stored - password hash to store (input: non-null String)
+     *
+     * Output: returns true if added, false if the username already exists
+     */
+    public boolean insert(String username, String stored) throws IOException {
+        lock.writeLock().lock();
+        try {
+            int hash = hash(username);
+            if (findSlot(username, hash) >= 0) {
+                return false;
+            }
+            long offset = appendRecord(username, stored);
+            writeSlot(freeSlot(hash), offset, hash);
+            used++;
+            writeHeader();
+            remember(username, stored);
+
+            if (used * 2L > capacity) {
+                resizeIndex(capacity * 2); // keep probe chains short - amortized O(1)
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /*
+     * Replaces an account's stored hash only if it still has the expected value
+     * (compare-and-set, used for password migration)
+     *
+     * Output: returns true if replaced, false if the account is missing or was changed
+     */
+    public boolean replace(String username, String expected, String stored) throws IOException {
+        lock.writeLock().lock();
+        try {
+            int slot = findSlot(username, hash(username));
+            if (slot < 0 || !readRecord(slotOffset(slot))[1].equals(expected)) {
+                return false;
+            }
+            long offset = appendRecord(username, stored);
+            writeSlot(slot, offset, hash(username));
+            dead++;
+            writeHeader();
+            remember(username, stored);
+
+            if (dead >= COMPACT_MIN_DEAD && dead > used) {
+                compact(); // periodic compaction - the log is mostly superseded records
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /*
+     * Lists all usernames by walking the index (reads one record per account)
+     * Output: returns every live username (output: List<String>, unordered)
+     */
+    public List<String> usernames() throws IOException {
+        lock.readLock().lock();
+        try {
+            List<String> names = new ArrayList<>(used);
+            ByteBuffer slots = readSlots();
+            for (int slot = 0; slot < capacity; slot++) {
+                long stored = slots.getLong(slot * SLOT_BYTES);
+                if (stored != 0) {
+                    names.add(readRecord(stored - 1)[0]);
+                }
+            }
+            return names;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /*
+     * Gets the number of live accounts
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return used;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /*
+     * Rewrites the log with live records only and rebuilds the index for it
+     * Runs automatically when dead records outnumber live ones; can also be called directly
+     *
+     * Output: returns the number of bytes reclaimed (output: long)
+     */
+    public long compact() throws IOException {
+        lock.writeLock().lock();
+        try {
+            long before = logLength;
+            long newGeneration = generation + 1;
+            Path tempLog = logPath.resolveSibling(logPath.getFileName() + ".tmp");
+
+            // copy live records in slot order, remembering their new offsets
+            long[] offsets = new long[capacity];
+            int[] hashes = new int[capacity];
+            ByteBuffer slots = readSlots();
+            try (FileChannel out = FileChannel.open(tempLog, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                writeFully(out, logHeader(newGeneration), 0);
+                long position = LOG_HEADER;
+                for (int slot = 0; slot < capacity; slot++) {
+                    long stored = slots.getLong(slot * SLOT_BYTES);
+                    if (stored == 0) {
+                        continue;
+                    }
+                    ByteBuffer record = readRawRecord(stored - 1);
+                    int length = record.remaining();
+                    writeFully(out, record, position);
+                    offsets[slot] = position + 1;
+                    hashes[slot] = slots.getInt(slot * SLOT_BYTES + 8);
+                    position += length;
+                }
+                logLength = position;
+            }
+
+            // swap in the new log, then write a matching index
+            log.close();
+            Files.move(tempLog, logPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log = FileChannel.open(logPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            generation = newGeneration;
+            dead = 0;
+            writeIndex(capacity, offsets, hashes);
+            return before - logLength;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /*
+     * Adds many accounts at once, building the index a single time at the end
+     * Used to import a legacy users.json file
+     *
+     * Input: accounts - username -> stored hash (input: Map, names already lowercased)
+     */
+    public void importAll(Map<String, String> accounts) throws IOException {
+        lock.writeLock().lock();
+        try {
+            for (Map.Entry<String, String> account : accounts.entrySet()) {
+                if (findSlot(account.getKey(), hash(account.getKey())) < 0) {
+                    appendRecord(account.getKey(), account.getValue());
+                }
+            }
+            rebuildIndex();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            log.close();
+            index.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ---------------------------------------------------------------- opening and recovery
+
+    private void openFiles() throws IOException {
+        boolean newLog = !Files.exists(logPath);
+        log = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (newLog || log.size() < LOG_HEADER) {
+            generation = System.currentTimeMillis();
+            writeFully(log, logHeader(generation), 0);
+            log.truncate(LOG_HEADER);
+        } else {
+            ByteBuffer header = ByteBuffer.allocate(LOG_HEADER);
+            readFully(log, header, 0);
+            if (header.getInt(0) != LOG_MAGIC) {
+                throw new IOException(logPath + " is not a user log");
+            }
+            generation = header.getLong(8);
+        }
+
+        index = FileChannel.open(indexPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (!readIndexHeader()) {
+            rebuildIndex(); // missing, damaged or belongs to another log generation
+        } else if (logLength < log.size()) {
+            replayTail();   // records appended after the last index update (e.g. after a crash)
+        }
+    }
+
+    // reads the index header; returns false if it cannot be trusted
+    private boolean readIndexHeader() throws IOException {
+        if (index.size() < INDEX_HEADER) {
+            return false;
+        }
+        ByteBuffer header = ByteBuffer.allocate(INDEX_HEADER);
+        readFully(index, header, 0);
+        int indexCapacity = header.getInt(16);
+        long indexedLength = header.getLong(32);
+        if (header.getInt(0) != INDEX_MAGIC || header.getInt(4) != VERSION
+                || header.getLong(8) != generation
+                || Integer.bitCount(indexCapacity) != 1
+                || index.size() < INDEX_HEADER + (long) indexCapacity * SLOT_BYTES
+                || indexedLength > log.size()) {
+            return false;
+        }
+        capacity = indexCapacity;
+        used = header.getInt(20);
+        dead = header.getLong(24);
+        logLength = indexedLength;
+        return true;
+    }
+
+    // indexes log records the index does not cover yet
+    private void replayTail() throws IOException {
+        long position = logLength;
+        long end = log.size();
+        while (position < end) {
+            ByteBuffer length = ByteBuffer.allocate(4);
+            if (!readFully(log, length, position)) {
+                break; // torn record at the end - ignore it
+            }
+            long next = position + 4 + length.getInt(0);
+            if (next > end) {
+                break;
+            }
+            String[] record = readRecord(position);
+            int hash = hash(record[0]);
+            int slot = findSlot(record[0], hash);
+            if (slot >= 0) {
+                writeSlot(slot, position, hash);
+                dead++;
+            } else {
+                writeSlot(freeSlot(hash), position, hash);
+                used++;
+            }
+            position = next;
+            logLength = position;
+            if (used * 2L > capacity) {
+                writeHeader();
+                resizeIndex(capacity * 2);
+            }
+        }
+        log.truncate(logLength); // drop a torn tail so the next append starts cleanly
+        writeHeader();
+    }
+
+    // builds a fresh index by scanning the whole log
+    private void rebuildIndex() throws IOException {
+        int newCapacity = INITIAL_CAPACITY;
+        long[] offsets = new long[newCapacity];
+        int[] hashes = new int[newCapacity];
+        int count = 0;
+        long superseded = 0;
+
+        long position = LOG_HEADER;
+        long end = log.size();
+        while (position + 4 <= end) {
+            ByteBuffer length = ByteBuffer.allocate(4);
+            readFully(log, length, position);
+            long next = position + 4 + length.getInt(0);
+            if (next > end) {
+                break; // torn record
+            }
+            String name = readRecord(position)[0];
+            int hash = hash(name);
+
+            // find an existing slot for this name (a later record supersedes it)
+            int mask = newCapacity - 1;
+            int slot = hash & mask;
+            while (offsets[slot] != 0
+                    && !(hashes[slot] == hash && readRecord(offsets[slot] - 1)[0].equals(name))) {
+                slot = (slot + 1) & mask;
+            }
+            if (offsets[slot] != 0) {
+                superseded++;
+            } else {
+                count++;
+            }
+            offsets[slot] = position + 1;
+            hashes[slot] = hash;
+            position = next;
+
+            if (count * 2L > newCapacity) {
+                // grow the in-memory table while scanning
+                long[][] grown = rehash(offsets, hashes, newCapacity * 2);
+                newCapacity *= 2;
+                offsets = grown[0];
+                hashes = toInts(grown[1]);
+            }
+        }
+        log.truncate(position);
+        logLength = position;
+        used = count;
+        dead = superseded;
+        writeIndex(newCapacity, offsets, hashes);
+    }
+
+    // doubles (or otherwise changes) the index size by re-inserting every slot
+    private void resizeIndex(int newCapacity) throws IOException {
+        ByteBuffer slots = readSlots();
+        long[] offsets = new long[capacity];
+        int[] hashes = new int[capacity];
+        for (int slot = 0; slot < capacity; slot++) {
+            offsets[slot] = slots.getLong(slot * SLOT_BYTES);
+            hashes[slot] = slots.getInt(slot * SLOT_BYTES + 8);
+        }
+        long[][] grown = rehash(offsets, hashes, newCapacity);
+        writeIndex(newCapacity, grown[0], toInts(grown[1]));
+    }
+
+    // re-inserts all occupied slots into a table of the new capacity (names are distinct)
+    private static long[][] rehash(long[] offsets, int[] hashes, int newCapacity) {
+        long[] newOffsets = new long[newCapacity];
+        long[] newHashes = new long[newCapacity];
+        int mask = newCapacity - 1;
+        for (int i = 0; i < offsets.length; i++) {
+            if (offsets[i] == 0) {
+                continue;
+            }
+            int slot = hashes[i] & mask;
+            while (newOffsets[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            newOffsets[slot] = offsets[i];
+            newHashes[slot] = hashes[i];
+        }
+        return new long[][] {newOffsets, newHashes};
+    }
+
+    private static int[] toInts(long[] values) {
+        int[] ints = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            ints[i] = (int) values[i];
+        }
+        return ints;
+    }
+
+    // writes a complete index to a temporary file and moves it into place
+    private void writeIndex(int newCapacity, long[] offsets, int[] hashes) throws IOException {
+        Path temp = indexPath.resolveSibling(indexPath.getFileName() + ".tmp");
+        ByteBuffer table = ByteBuffer.allocate(INDEX_HEADER + newCapacity * SLOT_BYTES);
+        capacity = newCapacity;
+        table.put(indexHeader());
+        for (int slot = 0; slot < newCapacity; slot++) {
+            table.putLong(offsets[slot]).putInt(hashes[slot]);
+        }
+        table.flip();
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(out, table, 0);
+        }
+        index.close();
+        Files.move(temp, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        index = FileChannel.open(indexPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    // ---------------------------------------------------------------- index slots
+
+    // finds the slot holding username, or -1
+    private int findSlot(String username, int hash) throws IOException {
+        int mask = capacity - 1;
+        ByteBuffer slot = ByteBuffer.allocate(SLOT_BYTES);
+        for (int i = hash & mask, probes = 0; probes < capacity; i = (i + 1) & mask, probes++) {
+            slot.clear();
+            readFully(index, slot, slotPosition(i));
+            long stored = slot.getLong(0);
+            if (stored == 0) {
+                return -1; // empty slot ends the probe chain
+            }
+            if (slot.getInt(8) == hash && readRecord(stored - 1)[0].equals(username)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // finds the first empty slot on the probe chain for hash
+    private int freeSlot(int hash) throws IOException {
+        int mask = capacity - 1;
+        ByteBuffer slot = ByteBuffer.allocate(8);
+        for (int i = hash & mask; ; i = (i + 1) & mask) {
+            slot.clear();
+            readFully(index, slot, slotPosition(i));
+            if (slot.getLong(0) == 0) {
+                return i;
+            }
+        }
+    }
+
+    private long slotOffset(int slot) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        readFully(index, buffer, slotPosition(slot));
+        return buffer.getLong(0) - 1;
+    }
+
+    private void writeSlot(int slot, long offset, int hash) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SLOT_BYTES);
+        buffer.putLong(offset + 1).putInt(hash).flip();
+        writeFully(index, buffer, slotPosition(slot));
+    }
+
+    private ByteBuffer readSlots() throws IOException {
+        ByteBuffer slots = ByteBuffer.allocate(capacity * SLOT_BYTES);
+        readFully(index, slots, INDEX_HEADER);
+        return slots;
+    }
+
+    private static long slotPosition(int slot) {
+        return INDEX_HEADER + (long) slot * SLOT_BYTES;
+    }
+
+    private void writeHeader() throws IOException {
+        writeFully(index, indexHeader(), 0);
+    }
+
+    private ByteBuffer indexHeader() {
+        ByteBuffer header = ByteBuffer.allocate(INDEX_HEADER);
+        header.putInt(INDEX_MAGIC).putInt(VERSION).putLong(generation)
+              .putInt(capacity).putInt(used).putLong(dead).putLong(logLength).flip();
+        return header;
+    }
+
+    private static ByteBuffer logHeader(long generation) {
+        ByteBuffer header = ByteBuffer.allocate(LOG_HEADER);
+        header.putInt(LOG_MAGIC).putInt(VERSION).putLong(generation).flip();
+        return header;
+    }
+
+    // ---------------------------------------------------------------- log records
+
+    // appends "username\0stored" and returns the record offset
+    private long appendRecord(String username, String stored) throws IOException {
+        byte[] payload = (username + '\0' + stored).getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = ByteBuffer.allocate(4 + payload.length);
+        record.putInt(payload.length).put(payload).flip();
+        long offset = logLength;
+        writeFully(log, record, offset);
+        logLength = offset + 4 + payload.length;
+        return offset;
+    }
+
+    // reads a record as {username, stored hash}
+    private String[] readRecord(long offset) throws IOException {
+        ByteBuffer record = readRawRecord(offset);
+        String payload = new String(record.array(), 4, record.limit() - 4, StandardCharsets.UTF_8);
+        int split = payload.indexOf('\0');
+        if (split < 0) {
+            throw new IOException("Corrupt user record at " + offset);
+        }
+        return new String[] {payload.substring(0, split), payload.substring(split + 1)};
+    }
+
+    // reads a record including its length prefix
+    private ByteBuffer readRawRecord(long offset) throws IOException {
+        ByteBuffer length = ByteBuffer.allocate(4);
+        if (!readFully(log, length, offset)) {
+            throw new IOException("Truncated user record at " + offset);
+        }
+        int size = length.getInt(0);
+        if (size < 0 || offset + 4 + size > log.size()) {
+            throw new IOException("Corrupt user record at " + offset);
+        }
+        ByteBuffer record = ByteBuffer.allocate(4 + size);
+        readFully(log, record, offset);
+        record.flip();
+        return record;
+    }
+
+    // ---------------------------------------------------------------- helpers
+
+    private void remember(String username, String stored) {
+        if (cache.size() >= CACHE_LIMIT) {
+            cache.clear(); // simple bound - active accounts are re-cached on their next lookup
+        }
+        cache.put(username, stored);
+    }
+
+    // spreads String.hashCode so sequential names do not cluster in the table
+    private static int hash(String username) {
+        int h = username.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    // positional read until the buffer is full; returns false at end of file
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                return false;
+            }
+            position += read;
+        }
+        return true;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+}
@@ -14,35 +14,139 @@ package com.mycompany.lyricjournal.Controller;
 // Handles user registration, authentication, and persistent storage of user accounts
 
 
+import com.mycompany.lyricjournal.Diagnostics.JournalEvents;
+import com.mycompany.lyricjournal.Diagnostics.LatencyHistogram;
+import com.mycompany.lyricjournal.Diagnostics.Metrics;
 import com.google.gson.*;
 import com.google.gson.reflect.TypeToken;
 import java.io.*;
 import java.lang.reflect.Type;
-import java.util.HashMap;
+import java.nio.file.*;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.concurrent.atomic.LongAdder;
 
 /*
  * UserManager class manages user accounts and authentication for the LyricJournal application.
- * Provides static methods for user registration, login validation, and data storage.
- * Uses JSON file storage and HashMap for efficient user lookup operations.
+ * Provides methods for user registration, login validation, and data storage.
+ * Each UserManager keeps the accounts of one storage root (see Storage), given when it is
+ * created; managers with different roots are independent. Close it to release the files.
+ * Accounts live in an append-only log with an on-disk hash index (UserDirectory), so
+ * registering a user appends one record instead of rewriting every account, and a
+ * lookup reads a single record instead of loading the whole directory.
+ * All methods are thread-safe: lookups of recently used accounts never block, and
+ * registration is atomic (two threads registering the same name cannot both succeed).
+ * Repeated failed logins are throttled per username and per source (LoginThrottle).
  * 
  * Example usage:
- * boolean success = UserManager.registerUser("newuser", "password123");
- * boolean valid = UserManager.validateLogin("newuser", "password123");
+ * UserManager users = new UserManager(Storage.defaultRoot());
+ * boolean success = users.registerUser("newuser", "password123");
+ * boolean valid = users.validateLogin("newuser", "password123");
  */
-public class UserManager {
+public class UserManager implements Closeable {
     // class constants for file management
-    private static final String USERS_FILE = "users.json"; // JSON file storing user accounts
-    private static final Gson gson = new GsonBuilder() // JSON serializer with pretty printing (pretty printing makes it easier to read)
-            .setPrettyPrinting()
-            .create();
+    private static final String USERS_LOG = "users.log";    // append-only account records
+    private static final String USERS_INDEX = "users.idx";  // hash index over users.log
+    private static final String LEGACY_FILE = "users.json"; // old whole-file format, imported once
+    private static final Gson gson = new Gson();             // only used to read the legacy file
+
+    // account name rules - the name is also part of the user's journal file name
+    public static final int MIN_USERNAME_LENGTH = 3;
+    public static final int MAX_USERNAME_LENGTH = 64;
+    public static final int MIN_PASSWORD_LENGTH = 4;
+    private static final Pattern USERNAME_CHARS = Pattern.compile("[a-z0-9_.-]+");
+    
+    private final Path root;                  // directory the account files are kept in
+    
+    // the directory is opened on first use (or by preload() in the background), not when created
+    private volatile UserDirectory directory;
+    private boolean firstRun = false;         // true if no account files existed when opening
+    private boolean closed = false;           // guarded by this
+    private final java.util.function.LongSupplier registered = this::registeredCount;
+    
+    // failed-login tracking - configured from lyricjournal.login.* system properties
+    private volatile LoginThrottle throttle = LoginThrottle.fromSystemProperties();
     
-    // HashMap provides O(1) average lookup time for user authentication (worst case is O(n))
-    private static Map<String, String> users = new HashMap<>();     // username -> password mapping
+    // login measurements (see Metrics) - failures include throttled attempts
+    private static final LatencyHistogram LOGIN_TIME = Metrics.timer("login");
+    private static final LongAdder LOGIN_SUCCESS = Metrics.counter("login.success");
+    private static final LongAdder LOGIN_FAILURE = Metrics.counter("login.failure");
+    private static final LongAdder LOGIN_THROTTLED = Metrics.counter("login.throttled");
     
-    // static initializer block - loads users when class is first accessed
-    static {
-        loadUsers();  // load existing users from file on startup
+    /*
+     * Constructor: Creates a manager for the accounts kept in a storage root
+     * Nothing is read until the first call (or preload)
+     * 
+     * Input: root - directory holding users.log and users.idx (input: existing directory Path on any FileSystem)
+     * 
+     * Example: UserManager users = new UserManager(Storage.newInMemoryRoot());
+     */
+    public UserManager(Path root) {
+        this.root = root;
+    }
+    
+    /*
+     * Gets the directory the account files are kept in
+     */
+    public Path getRoot() {
+        return root;
+    }
+    
+    /*
+     * Opens the user directory if that has not happened yet
+     * Called at the start of every public method - cheap after the first call
+     * Opening only reads the file headers; accounts are read when looked up
+     */
+    private UserDirectory ensureLoaded() {
+        UserDirectory opened = directory;
+        if (opened == null) {
+            synchronized (this) {
+                if (closed) {
+                    throw new IllegalStateException("UserManager for " + root + " is closed");
+                }
+                opened = directory;
+                if (opened == null) {
+                    opened = openDirectory();
+                    directory = opened;
+                    // the newest manager reports the gauge; it only reads a directory already open
+                    Metrics.gauge("users.registered", registered);
+                }
+            }
+        }
+        return opened;
+    }
+    
+    private long registeredCount() {
+        UserDirectory opened = directory;
+        return opened == null ? 0 : opened.size();
+    }
+    
+    /*
+     * Closes the account files; the manager cannot be used afterwards
+     */
+    @Override
+    public void close() throws IOException {
+        UserDirectory opened;
+        synchronized (this) {
+            closed = true;
+            opened = directory;
+            directory = null;
+        }
+        Metrics.removeGauge("users.registered", registered);
+        if (opened != null) {
+            opened.close();
+        }
+    }
+    
+    /*
+     * Loads user accounts ahead of time, e.g. on a background thread during startup
+     * Safe to call more than once or concurrently with other methods
+     * 
+     * Example: new Thread(users::preload).start();
+     */
+    public void preload() {
+        ensureLoaded();
     }
     
     /*
@@ -53,17 +157,18 @@ public class UserManager {
      * Input: username - Username to check (input: String, case-insensitive)
      * Output: Returns true if username exists, false otherwise (output: boolean)
      * 
-     * Example: if (UserManager.userExists("JohnDoe")) { // username taken }
+     * Example: if (users.userExists("JohnDoe")) { // username taken }
      */
-    public static boolean userExists(String username) {
+    public boolean userExists(String username) {
         // convert to lowercase for case-insensitive comparison
-        // HashMap.containsKey() is O(1) time complexity
-        return users.containsKey(username.toLowerCase());
+        // hash index lookup is O(1) - at most a few small positional reads
+        return findStored(username.toLowerCase()) != null;
     }
     
     /*
      * Validates user login credentials against stored accounts
      * Performs case-insensitive username lookup with exact password match
+     * Same as validateLogin(username, password, null) - only the username is throttled
      * 
      * Inputs:
      *
@@ -71,16 +176,160 @@ public class UserManager {
      * username - password Password to validate (input: String, case-sensitive)
      * Output: returns true if credentials are valid, false otherwise (output: boolean)
      * 
-     * Example: if (UserManager.validateLogin("user", "pass")) { // allow login }
+     * Example: if (users.validateLogin("user", "pass")) { // allow login }
+     */
+    public boolean validateLogin(String username, String password) {
+        return validateLogin(username, password, null);
+    }
+    
+    /*
+     * Validates user login credentials, throttling repeated failures
+     * Passwords are checked against salted PBKDF2 hashes in constant time (PasswordHasher);
+     * this takes tens of milliseconds, so GUI callers should run it off the Swing thread.
+     * Accounts still stored as plaintext (or with an old work factor) are re-hashed on success.
+     * While the username or source is locked out, returns false without checking the
+     * password (see loginRetryAfterMillis for how long to wait).
+     * 
+     * Inputs:
+     *
+     * username - Username to validate (input: String, case-insensitive)
+     * password - Password to validate (input: String, case-sensitive)
+     * source - where the attempt comes from, e.g. a client IP (input: String, null if unknown)
+     *
+     * Output: returns true if credentials are valid and not locked out (output: boolean)
+     * 
+     * Example: users.validateLogin("user", "pass", "10.0.0.7")
      */
-    public static boolean validateLogin(String username, String password) {
-        // retrieve stored password for username (case-insensitive lookup)
-        String storedPassword = users.get(username.toLowerCase());
+    public boolean validateLogin(String username, String password, String source) {
+        long start = System.nanoTime();
+        JournalEvents.Login event = new JournalEvents.Login();
+        event.begin();
+        
+        String key = username.toLowerCase();
+        LoginThrottle limiter = throttle;
+        // locked out - refuse without spending hashing time
+        boolean throttled = limiter != null && limiter.retryAfterMillis(key, source) > 0;
+        boolean valid = !throttled && checkLogin(key, password, source, limiter);
+        
+        LOGIN_TIME.recordSince(start);
+        (valid ? LOGIN_SUCCESS : LOGIN_FAILURE).increment();
+        if (throttled) {
+            LOGIN_THROTTLED.increment();
+        }
+        if (event.shouldCommit()) {
+            event.username = key;
+            event.success = valid;
+            event.throttled = throttled;
+            event.commit();
+        }
+        return valid;
+    }
+    
+    // checks the password of a username that is not locked out
+    private boolean checkLogin(String key, String password, String source, LoginThrottle limiter) {
+        // retrieve stored password hash for username (case-insensitive lookup)
+        String storedPassword = findStored(key);
+        
+        if (storedPassword == null) {
+            // unknown user - still spend the hashing time so response time does not reveal it
+            PasswordHasher.verify(password == null ? "" : password, UnknownUser.HASH);
+            if (limiter != null) {
+                limiter.recordFailure(key, source); // unknown names are throttled like real ones
+            }
+            return false;
+        }
         
-        // validate: user exists AND password matches exactly
-        return storedPassword != null && storedPassword.equals(password);
+        // validate: user exists AND password matches
+        if (!PasswordHasher.verify(password, storedPassword)) {
+            if (limiter != null) {
+                limiter.recordFailure(key, source);
+            }
+            return false;
+        }
+        if (limiter != null) {
+            limiter.recordSuccess(key, source);
+        }
+        
+        // transparent migration - replace plaintext or weaker hashes with a current hash
+        // replace() only succeeds if no other thread changed the record in the meantime
+        if (PasswordHasher.needsRehash(storedPassword)) {
+            try {
+                ensureLoaded().replace(key, storedPassword, PasswordHasher.hash(password));
+            } catch (IOException e) {
+                // login still succeeds - the record is upgraded on a later login
+                System.err.println("Error saving users: " + e.getMessage());
+            }
+        }
+        return true;
+    }
+    
+    /*
+     * Tells how long a locked-out login must wait
+     * 
+     * Inputs:
+     *
+     * username - Username being logged in (input: String, case-insensitive)
+     * source - where the attempt comes from (input: String, null if unknown)
+     *
+     * Output: returns 0 if a login attempt is allowed now, otherwise milliseconds to wait (output: long)
+     * 
+     * Example: long wait = users.loginRetryAfterMillis("john", null);
+     */
+    public long loginRetryAfterMillis(String username, String source) {
+        LoginThrottle limiter = throttle;
+        return limiter == null ? 0 : limiter.retryAfterMillis(username.toLowerCase(), source);
+    }
+    
+    /*
+     * Replaces the login throttle, e.g. with different limits for a server
+     * 
+     * Input: limiter - new throttle (input: LoginThrottle, null turns throttling off)
+     */
+    public void setLoginThrottle(LoginThrottle limiter) {
+        throttle = limiter;
+    }
+    
+    // hash checked for unknown usernames - created on first use so startup does not pay for it
+    private static final class UnknownUser {
+        static final String HASH = PasswordHasher.hash("unknown-user");
     }
     
+    /*
+     * Checks a new account's username and password against the registration rules
+     * Shared by registerUser, the registration window and the HTTP server
+     * - username: 3 to 64 characters, only a-z 0-9 _ . - (case-insensitive), no ".."
+     * - password: at least 4 characters
+     * The name ends up in file names (<username>_lyrics.json), so nothing else is allowed
+     *
+     * Inputs:
+     *
+     * username - Desired username (input: String, may be null)
+     * password - Desired password (input: String, may be null)
+     *
+     * Output: Returns a message for the user if a rule is broken, null if both are acceptable (output: String)
+     *
+     * Example: UserManager.credentialProblem("../etc", "secret") // "Username may only contain..."
+     */
+    public static String credentialProblem(String username, String password) {
+        if (username == null || password == null || username.isEmpty() || password.isEmpty()) {
+            return "Please enter both username and password.";
+        }
+        if (username.length() < MIN_USERNAME_LENGTH) {
+            return "Username must be at least " + MIN_USERNAME_LENGTH + " characters long.";
+        }
+        if (username.length() > MAX_USERNAME_LENGTH) {
+            return "Username must be at most " + MAX_USERNAME_LENGTH + " characters long.";
+        }
+        String canonical = username.toLowerCase();
+        if (!USERNAME_CHARS.matcher(canonical).matches() || canonical.contains("..")) {
+            return "Username may only contain letters, digits, '_', '.' and '-' (and no '..').";
+        }
+        if (password.length() < MIN_PASSWORD_LENGTH) {
+            return "Password must be at least " + MIN_PASSWORD_LENGTH + " characters long.";
+        }
+        return null;
+    }
+
     /*
      * Registers a new user account in the system
      * Prevents duplicate usernames and automatically saves to persistent storage
@@ -88,89 +337,115 @@ public class UserManager {
      * Inputs:
      *
      * username - Desired username (input: String, will be stored lowercase)
-     * password - User's password (input: String, stored as-is)
+     * password - User's password (input: String, stored as a salted PBKDF2 hash)
      *
-     * Output: Returns true if registration successful, false if username taken (output: boolean)
+     * Output: Returns true if registration successful, false if the credentials break
+     * the rules (credentialProblem) or the username is taken (output: boolean)
      * 
      * Example: 
-     * if (UserManager.registerUser("newuser", "secure123")) {
+     * if (users.registerUser("newuser", "secure123")) {
      *     // Registration successful, user can now login
      * } else {
-     *     // Username already taken
+     *     // Invalid credentials or username already taken
      * }
      */
-    public static boolean registerUser(String username, String password) {
-        // check if username already exists (prevents duplicates)
+    public boolean registerUser(String username, String password) {
+        // reject invalid names and passwords before touching the directory
+        if (credentialProblem(username, password) != null) {
+            return false;
+        }
+
+        // check if username already exists (cheap early exit before hashing)
         if (userExists(username)) {
             return false; // registration failed - username already taken
         }
         
-        // ddd new user to in-memory storage (lowercase for consistency)
-        users.put(username.toLowerCase(), password);
+        // hash outside of any lock - it is the slow part
+        String hash = PasswordHasher.hash(password);
         
-        // save changes to file immediately
-        saveUsers();
-        
-        return true; // registration successful
+        // add new user atomically (lowercase for consistency) - only one concurrent caller can win
+        // the record is appended to users.log before reporting success
+        try {
+            return ensureLoaded().insert(username.toLowerCase(), hash); // false if another thread registered it first
+        } catch (IOException e) {
+            System.err.println("Error saving users: " + e.getMessage());
+            return false;
+        }
     }
     
     /*
-     * Loads user accounts from JSON file into memory
-     * Creates default admin account if no users file exists
-     * Handles file I/O errors gracefully by maintaining empty user map
+     * Opens users.log / users.idx, creating them on first run
+     * Creates default admin account if no account files exist yet
+     * Imports a legacy users.json once, if that is all there is
+     * Nothing is opened anywhere else if the files cannot be opened: accounts registered
+     * in a stand-in directory would be lost on restart, so the error is reported to the
+     * caller instead, and the next call tries again
      * 
-     * Input: Reads from USERS_FILE (users.json)
-     * Output: Populates static users HashMap
+     * Output: returns the open directory (output: UserDirectory)
+     * Throws UncheckedIOException if the account files cannot be opened or created
      */
-    private static void loadUsers() {
-        File file = new File(USERS_FILE);
+    private UserDirectory openDirectory() {
+        Path log = root.resolve(USERS_LOG);
+        Path legacy = root.resolve(LEGACY_FILE);
+        boolean hasLog = Files.exists(log);
+        firstRun = !hasLog && !Files.exists(legacy);  // remember before the files are created
         
-        // handle first-time setup - create default admin user
-        if (!file.exists()) {
-            users.put("admin", "admin");  // default account for initial setup
-            saveUsers();                  // create the users file
-            return;
+        try {
+            UserDirectory opened = UserDirectory.open(log, root.resolve(USERS_INDEX));
+            if (firstRun) {
+                opened.insert("admin", PasswordHasher.hash("admin"));  // default account for initial setup
+            } else if (!hasLog) {
+                opened.importAll(readLegacyUsers(legacy));
+            }
+            return opened;
+        } catch (IOException e) {
+            System.err.println("Error loading users: " + e.getMessage());
+            throw new UncheckedIOException("Cannot open the user accounts in " + root, e);
         }
-        
-        // attempt to load existing users from JSON file
-        try (FileReader reader = new FileReader(file)) {
-            // use Gson TypeToken for generic type safety with HashMap
-            
-            // Java erases generics at runtime - gson.fromJson(reader, Map.class) 
-            // would return Map<Object,Object> instead of Map<String,String>
-
+    }
+    
+    /*
+     * Reads the old users.json format (a single username -> password map)
+     * Only used once, when upgrading to users.log; the old file is left in place
+     * 
+     * Input: file - path to users.json (input: Path)
+     * Output: returns the accounts with lowercase names (output: Map, empty if unreadable)
+     */
+    private static Map<String, String> readLegacyUsers(Path file) {
+        Map<String, String> accounts = new TreeMap<>();
+        try (Reader reader = Files.newBufferedReader(file)) {
             // TypeToken captures the full generic type info at compile time
             Type userMapType = new TypeToken<Map<String, String>>() {}.getType();
-            
-            // now Gson knows to create Map<String,String> specifically, not just Map
             Map<String, String> loadedUsers = gson.fromJson(reader, userMapType);
-            
-            
-            // replace current users map if loading successful
             if (loadedUsers != null) {
-                users = loadedUsers;
+                loadedUsers.forEach((name, password) -> accounts.putIfAbsent(name.toLowerCase(), password));
             }
+        } catch (IOException | JsonParseException e) {
+            System.err.println("Error loading users: " + e.getMessage());
+        }
+        return accounts;
+    }
+    
+    // looks up a stored hash, logging (and treating as missing) any read error
+    private String findStored(String key) {
+        try {
+            return ensureLoaded().find(key);
         } catch (IOException e) {
-            // log error but continue with empty/default user map
             System.err.println("Error loading users: " + e.getMessage());
+            return null;
         }
     }
     
-    /**
-     * Saves current user accounts to JSON file for persistence
-     * Handles file I/O errors gracefully with error logging
+    /*
+     * Drops superseded records from users.log (they pile up as old password
+     * hashes are upgraded); also runs automatically once they outnumber live accounts
      * 
-     * Input: Static users HashMap
-     * Output: Writes to USERS_FILE (users.json) in pretty-printed JSON format
+     * Output: returns the number of bytes reclaimed (output: long)
+     * 
+     * Example: long saved = users.compactUsers();
      */
-    private static void saveUsers() {
-        try (FileWriter writer = new FileWriter(USERS_FILE)) {
-            // convert HashMap to pretty-printed JSON and write to file
-            gson.toJson(users, writer);
-        } catch (IOException e) {
-            // log error - data remains in memory but not saved
-            System.err.println("Error saving users: " + e.getMessage());
-        }
+    public long compactUsers() throws IOException {
+        return ensureLoaded().compact();
     }
     
     /*
@@ -180,23 +455,29 @@ public class UserManager {
      * Returns array of all usernames (output: String[] with all registered usernames)
      * 
      * Example: 
-     * String[] allUsers = UserManager.getAllUsernames();
+     * String[] allUsers = users.getAllUsernames();
      * // Returns ["admin", "user1", "user2", ...]
      */
-    public static String[] getAllUsernames() {
-        // convert set to array - creates defensive copy (prevents accidental modification of user database)
-        return users.keySet().toArray(new String[0]);
+    public String[] getAllUsernames() {
+        // walk the index - reads one record per account, so this is for occasional admin use
+        try {
+            return ensureLoaded().usernames().toArray(new String[0]);
+        } catch (IOException e) {
+            System.err.println("Error loading users: " + e.getMessage());
+            return new String[0];
+        }
     }
     
     /*
      * Checks if this is the first run of the application
      * Used to determine if welcome message should be shown
      * 
-     * Returns true if no users file exists, false otherwise (output: boolean)
+     * Returns true if no account files existed when the directory was opened, false otherwise (output: boolean)
      * 
-     * Example: if (UserManager.isFirstRun()) { showWelcomeMessage(); }
+     * Example: if (users.isFirstRun()) { showWelcomeMessage(); }
      */
-    public static boolean isFirstRun() {
-        return !new File(USERS_FILE).exists();  // file existence check
+    public boolean isFirstRun() {
+        ensureLoaded();  // opening creates the account files, so the answer is captured while opening
+        return firstRun;
     }
 }
\ No newline at end of file
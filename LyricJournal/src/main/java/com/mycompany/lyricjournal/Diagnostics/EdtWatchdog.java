@@ -0,0 +1,321 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.lyricjournal.Diagnostics;
+
+/**
+ *
+ * @author Kalli-Ann
+ */
+
+// EdtWatchdog Diagnostics Class
+
+// Detects when the Swing event thread is blocked and records what blocked it
+
+
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.InvocationEvent;
+import java.io.IOException;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.logging.*;
+import javax.swing.AbstractButton;
+
+/*
+ * EdtWatchdog finds UI jank: event handlers that keep the event dispatch thread (EDT)
+ * busy long enough for the window to freeze, e.g. disk I/O in an action listener.
+ *
+ * How it works:
+ * - install() pushes an EventQueue that notes when each event starts and finishes
+ *   dispatching (two volatile writes per event - cheap enough to leave on)
+ * - a daemon thread checks a few times per threshold; when one event has been running
+ *   longer than the threshold it captures the EDT's stack right then (showing where it
+ *   is stuck) together with a description of the event, e.g. the button that was clicked
+ * - when the event finally finishes, the stall gets its total duration
+ *
+ * Stalls are kept in memory (the last 100, shown by View.DiagnosticsDialog) and logged
+ * to a rolling file: logs/lyricjournal-edt-<n>.log under the storage root, 5 files of 1 MB.
+ *
+ * Settings (system properties):
+ * -Dlyricjournal.edt.thresholdMillis=<n>  report blocks longer than this (default 100)
+ * -Dlyricjournal.edt.watchdog=false       don't install at all
+ * -Dlyricjournal.logDir=<dir>             where the log files go
+ *
+ * Example usage:
+ * EdtWatchdog.install(root);                      // once, at startup
+ * List<EdtWatchdog.Stall> stalls = EdtWatchdog.recentStalls();
+ */
+public final class EdtWatchdog {
+    private static final int MAX_STALLS = 100;
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final Logger LOG = Logger.getLogger("com.mycompany.lyricjournal.edt");
+
+    private static final Deque<Stall> stalls = new ArrayDeque<>();   // guarded by itself
+    private static volatile boolean installed;
+    private static volatile long thresholdNanos;
+
+    // what the EDT is doing now - written by the EDT, read by the watchdog thread
+    private static volatile long dispatchStart;     // 0 when idle
+    private static volatile AWTEvent dispatching;
+    private static volatile long sequence;          // changes with every dispatch
+    private static volatile Thread eventThread;
+    private static volatile Stall open;             // stall of the current dispatch, if any
+
+    private EdtWatchdog() {
+    }
+
+    /*
+     * A detected stall (durationMillis keeps growing until the event finishes)
+     */
+    public static final class Stall {
+        private final LocalDateTime time;
+        private final String action;
+        private final String stack;
+        private volatile long durationMillis;
+        private volatile boolean finished;
+
+        Stall(LocalDateTime time, String action, String stack, long durationMillis) {
+            this.time = time;
+            this.action = action;
+            this.stack = stack;
+            this.durationMillis = durationMillis;
+        }
+
+        public LocalDateTime getTime() { return time; }
+
+        // the event being dispatched, e.g. "action 'Add Lyric' (JButton in AddLyricPanel)"
+        public String getAction() { return action; }
+
+        // the EDT's stack when the stall was detected
+        public String getStack() { return stack; }
+
+        public long getDurationMillis() { return durationMillis; }
+
+        public boolean isFinished() { return finished; }
+    }
+
+    /*
+     * Installs the watchdog with settings from system properties (does nothing if
+     * lyricjournal.edt.watchdog=false or it is already installed)
+     * Input: storageRoot - the application's storage root; the log goes to its "logs"
+     * directory unless lyricjournal.logDir is set (input: Path)
+     */
+    public static void install(Path storageRoot) {
+        if ("false".equals(System.getProperty("lyricjournal.edt.watchdog"))) {
+            return;
+        }
+        install(Long.getLong("lyricjournal.edt.thresholdMillis", 100), logDirectory(storageRoot));
+    }
+
+    /*
+     * Installs the watchdog
+     *
+     * Inputs:
+     *
+     * thresholdMillis - blocks longer than this are reported (input: long > 0)
+     * logDirectory - where the rolling log goes, null for no log file (input: Path or null)
+     */
+    public static synchronized void install(long thresholdMillis, Path logDirectory) {
+        thresholdNanos = thresholdMillis * 1_000_000;
+        if (installed) {
+            return;
+        }
+        installed = true;
+        openLog(logDirectory);
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(new WatchedQueue());
+
+        Thread watchdog = new Thread(EdtWatchdog::watch, "edt-watchdog");
+        watchdog.setDaemon(true);
+        watchdog.start();
+    }
+
+    /*
+     * Gets the current threshold in milliseconds
+     */
+    public static long getThresholdMillis() {
+        return thresholdNanos / 1_000_000;
+    }
+
+    /*
+     * Gets the recorded stalls, newest first
+     */
+    public static List<Stall> recentStalls() {
+        synchronized (stalls) {
+            return new ArrayList<>(stalls);
+        }
+    }
+
+    /*
+     * Forgets the recorded stalls (the log file is kept)
+     */
+    public static void clear() {
+        synchronized (stalls) {
+            stalls.clear();
+        }
+    }
+
+    // ---------------------------------------------------------------- event thread side
+
+    private static final class WatchedQueue extends EventQueue {
+        // waiting for the next event is idle time, also inside a modal dialog's nested
+        // loop (where the outer event is still "dispatching")
+        @Override
+        public AWTEvent getNextEvent() throws InterruptedException {
+            dispatchStart = 0;
+            return super.getNextEvent();
+        }
+
+        @Override
+        protected void dispatchEvent(AWTEvent event) {
+            eventThread = Thread.currentThread();
+            AWTEvent outer = dispatching;
+            long outerSequence = sequence;
+            dispatching = event;
+            sequence = outerSequence + 1;
+            dispatchStart = System.nanoTime();
+            try {
+                super.dispatchEvent(event);
+            } finally {
+                finish(System.nanoTime());
+                // back in an outer event (after a modal dialog's nested loop) - it was
+                // responsive until now, so its blocked time starts again here
+                dispatching = outer;
+                sequence++;
+                dispatchStart = outer == null ? 0 : System.nanoTime();
+            }
+        }
+    }
+
+    // completes the stall of the dispatch that just ended
+    private static void finish(long now) {
+        Stall stall = open;
+        if (stall != null) {
+            open = null;
+            stall.durationMillis = (now - dispatchStart) / 1_000_000;
+            stall.finished = true;
+            LOG.warning("EDT stall ended after " + stall.durationMillis + " ms: " + stall.action);
+        }
+    }
+
+    // ---------------------------------------------------------------- watchdog side
+
+    private static void watch() {
+        long reported = -1; // sequence already reported
+        while (true) {
+            try {
+                Thread.sleep(Math.max(5, thresholdNanos / 4_000_000));
+            } catch (InterruptedException e) {
+                return;
+            }
+            long start = dispatchStart;
+            long current = sequence;
+            AWTEvent event = dispatching;
+            Thread edt = eventThread;
+            if (start == 0 || event == null || edt == null || current == reported) {
+                continue;
+            }
+            long blocked = System.nanoTime() - start;
+            if (blocked < thresholdNanos) {
+                continue;
+            }
+            String stack = format(edt.getStackTrace());
+            if (sequence != current) {
+                continue; // finished while the stack was captured - not stuck after all
+            }
+            reported = current;
+            Stall stall = new Stall(LocalDateTime.now(), describe(event), stack, blocked / 1_000_000);
+            synchronized (stalls) {
+                stalls.addFirst(stall);
+                if (stalls.size() > MAX_STALLS) {
+                    stalls.removeLast();
+                }
+            }
+            open = stall;
+            if (sequence != current && open == stall) {
+                open = null;          // raced with the end of the dispatch
+                stall.finished = true;
+            }
+            LOG.warning("EDT blocked for more than " + stall.durationMillis + " ms: " + stall.action + "\n" + stack);
+        }
+    }
+
+    /*
+     * Describes an event in terms a developer can search the code for
+     */
+    static String describe(AWTEvent event) {
+        Object source = event.getSource();
+        if (event instanceof ActionEvent) {
+            String label = source instanceof AbstractButton ? ((AbstractButton) source).getText() : null;
+            String command = ((ActionEvent) event).getActionCommand();
+            return "action '" + (label != null && !label.isEmpty() ? label : command) + "' ("
+                    + source.getClass().getSimpleName() + owner(source) + ")";
+        }
+        if (event instanceof InvocationEvent) {
+            return "invokeLater/invokeAndWait task: " + event.paramString();
+        }
+        String name = source == null ? "" : " on " + source.getClass().getSimpleName() + owner(source);
+        return event.getClass().getSimpleName() + " " + event.paramString().split(",")[0] + name;
+    }
+
+    // the nearest enclosing panel or window whose class is ours, e.g. " in AddLyricPanel"
+    private static String owner(Object source) {
+        if (!(source instanceof Component)) {
+            return "";
+        }
+        for (Component c = ((Component) source).getParent(); c != null; c = c.getParent()) {
+            if (c.getClass().getName().startsWith("com.mycompany.lyricjournal")) {
+                return " in " + c.getClass().getSimpleName();
+            }
+        }
+        return "";
+    }
+
+    private static String format(StackTraceElement[] stack) {
+        StringBuilder text = new StringBuilder();
+        for (StackTraceElement frame : stack) {
+            text.append("    at ").append(frame).append('\n');
+        }
+        return text.toString();
+    }
+
+    // ---------------------------------------------------------------- rolling log
+
+    private static Path logDirectory(Path root) {
+        String configured = System.getProperty("lyricjournal.logDir");
+        if (configured != null) {
+            return Paths.get(configured);
+        }
+        if (root.getFileSystem() != FileSystems.getDefault()) {
+            return null; // in-memory storage (tests) - no log file
+        }
+        return root.resolve("logs");
+    }
+
+    private static void openLog(Path directory) {
+        LOG.setUseParentHandlers(false); // stalls go to the file and the dialog, not the console
+        if (directory == null) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            FileHandler file = new FileHandler(directory.resolve("lyricjournal-edt-%g.log").toString(),
+                                               1_000_000, 5, true);
+            file.setFormatter(new Formatter() {
+                @Override
+                public String format(LogRecord record) {
+                    return LocalDateTime.now().format(TIME) + " " + record.getMessage() + "\n";
+                }
+            });
+            LOG.addHandler(file);
+        } catch (IOException e) {
+            System.err.println("EDT watchdog log not available: " + e.getMessage());
+        }
+    }
+}
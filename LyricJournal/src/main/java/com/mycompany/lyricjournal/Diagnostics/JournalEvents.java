@@ -0,0 +1,129 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.lyricjournal.Diagnostics;
+
+/**
+ *
+ * @author Kalli-Ann
+ */
+
+// JournalEvents Diagnostics Class
+
+// JDK Flight Recorder events for journal I/O, search, rendering and login
+
+
+import jdk.jfr.*;
+
+/*
+ * Custom JFR event types, shown under "LyricJournal" in JDK Mission Control.
+ * Each event records its own duration (begin() ... commit()).
+ *
+ * Usage at an instrumented call site - fields are only filled in when the event will be
+ * recorded, so a disabled event costs one flag check (and the event object is usually
+ * optimized away entirely):
+ *
+ * JournalEvents.Search event = new JournalEvents.Search();
+ * event.begin();
+ * ... work ...
+ * if (event.shouldCommit()) {
+ *     event.resultCount = results.size();
+ *     event.commit();
+ * }
+ *
+ * Recording (settings file LyricJournal/lyricjournal.jfc lists every event and its threshold):
+ * java -XX:StartFlightRecording:settings=default,settings=lyricjournal.jfc,filename=slow.jfr -jar LyricJournal.jar
+ * jfr print --events JournalLoad,JournalSave,Search,DisplayEntries,Login slow.jfr
+ *
+ * Without a settings file the events are on with no threshold.
+ */
+public final class JournalEvents {
+    private static final String PREFIX = "com.mycompany.lyricjournal.";
+
+    private JournalEvents() {
+    }
+
+    @Name(PREFIX + "JournalLoad")
+    @Label("Journal Load")
+    @Category({"LyricJournal", "Journal I/O"})
+    @Description("UserDataController.loadUserEntries - reading a journal file")
+    @StackTrace(false)
+    public static final class JournalLoad extends Event {
+        @Label("User")
+        public String username;
+
+        @Label("Entries")
+        public int entries;
+
+        @Label("Bytes")
+        @DataAmount
+        public long bytes;
+    }
+
+    @Name(PREFIX + "JournalSave")
+    @Label("Journal Save")
+    @Category({"LyricJournal", "Journal I/O"})
+    @Description("UserDataController.saveUser - writing a journal file")
+    @StackTrace(false)
+    public static final class JournalSave extends Event {
+        @Label("User")
+        public String username;
+
+        @Label("Entries")
+        public int entries;
+
+        @Label("Bytes")
+        @DataAmount
+        public long bytes;
+    }
+
+    @Name(PREFIX + "Search")
+    @Label("Search")
+    @Category("LyricJournal")
+    @Description("Keyword search over one journal")
+    @StackTrace(false)
+    public static final class Search extends Event {
+        @Label("Query Length")
+        public int queryLength;
+
+        @Label("Entries Searched")
+        public int entriesSearched;
+
+        @Label("Result Count")
+        public int resultCount;
+    }
+
+    @Name(PREFIX + "DisplayEntries")
+    @Label("Display Entries")
+    @Category({"LyricJournal", "Rendering"})
+    @Description("ViewLyricsPanel.displayEntries - rebuilding the entry list on the Swing thread")
+    public static final class DisplayEntries extends Event {
+        @Label("Entries")
+        public int entries;
+
+        @Label("Components")
+        @Description("Swing components in the rebuilt list")
+        public int components;
+
+        @Label("Search Active")
+        public boolean searchActive;
+    }
+
+    @Name(PREFIX + "Login")
+    @Label("Login")
+    @Category("LyricJournal")
+    @Description("UserManager.validateLogin, including password hashing")
+    @StackTrace(false)
+    public static final class Login extends Event {
+        @Label("User")
+        public String username;
+
+        @Label("Success")
+        public boolean success;
+
+        @Label("Throttled")
+        @Description("Refused without checking the password because of repeated failures")
+        public boolean throttled;
+    }
+}
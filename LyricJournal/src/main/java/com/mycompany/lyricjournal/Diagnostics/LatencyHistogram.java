@@ -0,0 +1,149 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.lyricjournal.Diagnostics;
+
+/**
+ *
+ * @author Kalli-Ann
+ */
+
+// LatencyHistogram Diagnostics Class
+
+// Records operation durations in fixed log-linear buckets
+
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * LatencyHistogram counts durations (nanoseconds) in HDR-style log-linear buckets:
+ * every power of two is split into 32 equal sub-buckets, so any recorded value is
+ * reported within about 3% of its true value, from 1 ns up to about 18 minutes
+ * (longer durations are counted in the last bucket).
+ *
+ * Recording is one array increment plus two LongAdder updates - no locks and no
+ * allocation - so histograms can stay on permanently in hot paths. Reads (percentiles)
+ * walk the ~1200 buckets and see a consistent-enough view while recording continues.
+ *
+ * Example usage:
+ * long start = System.nanoTime();
+ * ... work ...
+ * histogram.recordSince(start);
+ * double p99 = histogram.percentileMillis(0.99);
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BITS = 5;                        // 32 sub-buckets per power of two
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int MAX_EXPONENT = 40;                   // 2^40 ns ~ 18 minutes
+    private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+    private static final int BUCKETS = index(MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /*
+     * Records one duration
+     *
+     * Input: nanos - duration in nanoseconds (input: long, negative values count as 0)
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, Math.min(nanos, MAX_VALUE));
+        counts.incrementAndGet(index(value));
+        total.increment();
+        sum.add(value);
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) { // rarely loops - only new maxima write
+            current = max.get();
+        }
+    }
+
+    /*
+     * Records the time elapsed since a System.nanoTime() reading
+     *
+     * Example: long start = System.nanoTime(); save(); SAVE.recordSince(start);
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /*
+     * Gets the number of recorded durations
+     */
+    public long count() {
+        return total.sum();
+    }
+
+    /*
+     * Gets the mean duration in milliseconds (0 if nothing was recorded)
+     */
+    public double meanMillis() {
+        long n = total.sum();
+        return n == 0 ? 0 : sum.sum() / 1e6 / n;
+    }
+
+    /*
+     * Gets the longest recorded duration in milliseconds
+     */
+    public double maxMillis() {
+        return max.get() / 1e6;
+    }
+
+    /*
+     * Gets a percentile in milliseconds
+     *
+     * Input: fraction - e.g. 0.5 for the median, 0.99 for p99 (input: 0 < fraction <= 1)
+     * Output: upper bound of the bucket holding that percentile, at most the maximum (output: double)
+     *
+     * Example: histogram.percentileMillis(0.999)
+     */
+    public double percentileMillis(double fraction) {
+        long n = total.sum();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestValue(i), max.get()) / 1e6;
+            }
+        }
+        return max.get() / 1e6; // recorded concurrently with this read
+    }
+
+    /*
+     * Takes a snapshot of the summary statistics (what JMX and /metrics report)
+     */
+    public LatencySnapshot snapshot() {
+        return new LatencySnapshot(count(), meanMillis(), percentileMillis(0.5), percentileMillis(0.9),
+                                   percentileMillis(0.99), percentileMillis(0.999), maxMillis());
+    }
+
+    // bucket for a value: values below 64 are exact, above that 32 buckets per power of two
+    static int index(long value) {
+        if (value < 2 * SUB_COUNT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BITS;
+        int sub = (int) (value >>> shift) - SUB_COUNT;   // 0..31
+        return 2 * SUB_COUNT + (shift - 1) * SUB_COUNT + sub;
+    }
+
+    // largest value that falls into a bucket
+    static long highestValue(int index) {
+        if (index < 2 * SUB_COUNT) {
+            return index;
+        }
+        int k = index - 2 * SUB_COUNT;
+        int shift = k / SUB_COUNT + 1;
+        long top = k % SUB_COUNT + SUB_COUNT;
+        return ((top + 1) << shift) - 1;
+    }
+}
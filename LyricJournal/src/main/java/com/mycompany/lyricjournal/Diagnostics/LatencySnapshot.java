@@ -0,0 +1,63 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.lyricjournal.Diagnostics;
+
+/**
+ *
+ * @author Kalli-Ann
+ */
+
+// LatencySnapshot Diagnostics Class
+
+// Summary of one LatencyHistogram at a point in time
+
+
+import java.beans.ConstructorProperties;
+
+/*
+ * Immutable summary of a LatencyHistogram. All durations are in milliseconds.
+ * The getters make it a JMX open type: JConsole shows one row per operation with
+ * count, mean, p50, p90, p99, p999 and max columns.
+ */
+public final class LatencySnapshot {
+    private final long count;
+    private final double mean;
+    private final double p50;
+    private final double p90;
+    private final double p99;
+    private final double p999;
+    private final double max;
+
+    @ConstructorProperties({"count", "mean", "p50", "p90", "p99", "p999", "max"})
+    public LatencySnapshot(long count, double mean, double p50, double p90, double p99, double p999, double max) {
+        this.count = count;
+        this.mean = mean;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+        this.p999 = p999;
+        this.max = max;
+    }
+
+    public long getCount() { return count; }
+
+    public double getMean() { return mean; }
+
+    public double getP50() { return p50; }
+
+    public double getP90() { return p90; }
+
+    public double getP99() { return p99; }
+
+    public double getP999() { return p999; }
+
+    public double getMax() { return max; }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.3f p50=%.3f p90=%.3f p99=%.3f p999=%.3f max=%.3f ms",
+                             count, mean, p50, p90, p99, p999, max);
+    }
+}
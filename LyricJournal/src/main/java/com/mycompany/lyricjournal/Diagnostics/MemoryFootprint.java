@@ -0,0 +1,349 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.lyricjournal.Diagnostics;
+
+/**
+ *
+ * @author Kalli-Ann
+ */
+
+// MemoryFootprint Diagnostics Class
+
+// Estimates how much heap loaded journals retain, broken down by entry field
+
+
+import com.mycompany.lyricjournal.Model.ArenaLyricEntry;
+import com.mycompany.lyricjournal.Model.LazyLyricEntry;
+import com.mycompany.lyricjournal.Model.LyricEntry;
+import com.mycompany.lyricjournal.Model.User;
+import com.mycompany.lyricjournal.Model.Utf8Text;
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.function.Function;
+
+/*
+ * MemoryFootprint estimates the retained heap of loaded users from the object layout of
+ * the running JVM (64-bit HotSpot, compressed oops/class pointers and compact strings
+ * are detected), without a heap dump:
+ * - String: 24-byte object + byte[] of 1 byte per char (Latin-1) or 2 (anything else)
+ * - LyricEntry: header + a reference per text field + the int date; the title, lyric
+ *   text and note are UTF-8 byte arrays (Utf8Text), the artist a shared String
+ * - LazyLyricEntry: the same plus its source, row and cache fields; its lyric text and
+ *   note count only while they are in memory (reading them here would load them)
+ * - ArenaLyricEntry: the LyricEntry fields plus its arena and two long handles; its lyric
+ *   text and note are off-heap and not counted (see LyricArena.getReservedBytes)
+ * - User: header, its fields, the entry list with its backing array and the date index
+ *
+ * Text is read through the getters, so each value is a new String; it is sized as the
+ * byte[] or String the entry really holds. A String object shared by several entries (the same instance) is counted once, by the
+ * field that reaches it first. Strings with equal text that are separate objects are
+ * counted as duplicates: "dup bytes" is what keeping one copy of each value would save.
+ * Estimates are usually within a few percent of a heap dump's retained size.
+ *
+ * Example usage:
+ * MemoryFootprint.Report report = MemoryFootprint.measure(List.of(user));
+ * System.out.print(report);   // table by field
+ * long bytes = report.getTotalBytes();
+ */
+public final class MemoryFootprint {
+    // entry fields in report order
+    public static final List<String> FIELDS = List.of("lyricText", "userNote", "songTitle", "artist", "dateAdded");
+    // a valid date is an int inside the entry (counted in its object size); only dates kept
+    // as text are strings
+    private static final List<Function<LyricEntry, String>> GETTERS = List.of(
+            e -> resident(e, 0), e -> resident(e, 1), LyricEntry::getSongTitle,
+            LyricEntry::getArtist, e -> e.getDate() == null ? e.getDateAdded() : null);
+
+    // object layout of this JVM
+    private static final boolean COMPRESSED_OOPS = vmFlag("UseCompressedOops", true);
+    private static final boolean COMPRESSED_CLASS = vmFlag("UseCompressedClassPointers", COMPRESSED_OOPS);
+    private static final boolean COMPACT_STRINGS = vmFlag("CompactStrings", true);
+    static final int REFERENCE = COMPRESSED_OOPS ? 4 : 8;
+    static final int HEADER = COMPRESSED_CLASS ? 12 : 16;
+    static final int ARRAY_HEADER = COMPRESSED_CLASS ? 16 : 24;
+    static final int STRING = (int) align(HEADER + REFERENCE + 4 + 1 + 1);  // value, hash, coder, hashIsZero
+
+    private MemoryFootprint() {
+    }
+
+    /*
+     * Footprint of one entry field across the measured journals
+     */
+    public static final class FieldUsage {
+        private final String field;
+        private long strings;          // non-null values
+        private long bytes;            // retained by String objects and their arrays
+        private long chars;            // text length
+        private long duplicates;       // separate String objects whose text was seen before
+        private long duplicateBytes;   // bytes those duplicates take
+        private long distinct;         // distinct text values
+
+        FieldUsage(String field) {
+            this.field = field;
+        }
+
+        public String getField() { return field; }
+
+        public long getStrings() { return strings; }
+
+        public long getBytes() { return bytes; }
+
+        public long getChars() { return chars; }
+
+        public long getDuplicates() { return duplicates; }
+
+        public long getDuplicateBytes() { return duplicateBytes; }
+
+        public long getDistinct() { return distinct; }
+    }
+
+    /*
+     * Result of measure(): per-field usage plus the structure around the strings
+     */
+    public static final class Report {
+        private final Map<String, FieldUsage> fields = new LinkedHashMap<>();
+        private long users;
+        private long entries;
+        private long structureBytes;   // User, entry vector and its nodes, LyricEntry objects
+        private final Map<String, Long> userBytes = new LinkedHashMap<>();
+
+        Report() {
+            for (String field : FIELDS) {
+                fields.put(field, new FieldUsage(field));
+            }
+        }
+
+        public long getUsers() { return users; }
+
+        public long getEntries() { return entries; }
+
+        // usage of each field, in FIELDS order
+        public Collection<FieldUsage> getFields() { return fields.values(); }
+
+        public FieldUsage getField(String field) { return fields.get(field); }
+
+        // User, entry vector with its nodes and LyricEntry objects, without the strings
+        public long getStructureBytes() { return structureBytes; }
+
+        // estimated retained bytes of each measured user (shared strings count for the first)
+        public Map<String, Long> getUserBytes() { return Collections.unmodifiableMap(userBytes); }
+
+        public long getTotalBytes() {
+            long total = structureBytes;
+            for (FieldUsage usage : fields.values()) {
+                total += usage.bytes;
+            }
+            return total;
+        }
+
+        // what deduplicating equal strings would save
+        public long getDuplicateBytes() {
+            long total = 0;
+            for (FieldUsage usage : fields.values()) {
+                total += usage.duplicateBytes;
+            }
+            return total;
+        }
+
+        /*
+         * Formats the report as a table
+         *
+         * Example output:
+         * users 1, entries 10000, retained 14.2 MB (1490 bytes/entry)
+         * field          strings      chars   retained  distinct  duplicates  dup bytes
+         * lyricText        10000    9731544    10.0 MB      9998           2       1 KB
+         * ...
+         */
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder();
+            text.append(String.format("users %d, entries %d, retained %s (%d bytes/entry)%n",
+                    users, entries, size(getTotalBytes()), entries == 0 ? 0 : getTotalBytes() / entries));
+            text.append(String.format("%-12s %9s %11s %10s %9s %11s %10s%n",
+                    "field", "strings", "chars", "retained", "distinct", "duplicates", "dup bytes"));
+            for (FieldUsage u : fields.values()) {
+                text.append(String.format("%-12s %9d %11d %10s %9d %11d %10s%n",
+                        u.field, u.strings, u.chars, size(u.bytes), u.distinct, u.duplicates, size(u.duplicateBytes)));
+            }
+            text.append(String.format("%-12s %9s %11s %10s%n", "structure", "", "", size(structureBytes)));
+            text.append(String.format("duplicate strings could save %s (%.1f%%)%n", size(getDuplicateBytes()),
+                    getTotalBytes() == 0 ? 0.0 : 100.0 * getDuplicateBytes() / getTotalBytes()));
+            return text.toString();
+        }
+    }
+
+    /*
+     * Estimates the heap retained by loaded users
+     *
+     * Input: users - users whose entries are loaded (input: non-null Collection of User)
+     * Output: per-field breakdown, duplicates and totals (output: Report)
+     *
+     * Example: MemoryFootprint.measure(List.of(user)).getTotalBytes()
+     */
+    public static Report measure(Collection<User> users) {
+        Report report = new Report();
+        Set<String> seen = Collections.newSetFromMap(new IdentityHashMap<>());   // String objects counted
+        List<Map<String, Boolean>> values = new ArrayList<>();                      // text seen, per field
+        for (int i = 0; i < FIELDS.size(); i++) {
+            values.add(new HashMap<>());
+        }
+        FieldUsage[] usages = report.fields.values().toArray(new FieldUsage[0]);
+
+        for (User user : users) {
+            List<LyricEntry> entries = user.getEntries();
+            long userBytes = userStructure(user, entries.size());
+            report.users++;
+            report.entries += entries.size();
+            report.structureBytes += userBytes;
+
+            boolean lazySeen = false;
+            for (LyricEntry entry : entries) {
+                long entryBytes = align(HEADER + 5 * REFERENCE + 4);
+                if (entry instanceof LazyLyricEntry) {
+                    entryBytes = align(HEADER + 7 * REFERENCE + 4 + 4 + 1);
+                    if (((LazyLyricEntry) entry).residentBodies() != null) {
+                        // SoftReference (referent, queue, next, discovered, timestamp) and its String[2]
+                        entryBytes += align(HEADER + 4 * REFERENCE + 8) + align(ARRAY_HEADER + 2 * REFERENCE);
+                    }
+                    if (!lazySeen) {
+                        // the journal's byte offsets, one long per entry, shared by its entries
+                        entryBytes += align(ARRAY_HEADER + 8L * (entries.size() + 1));
+                        lazySeen = true;
+                    }
+                }
+                if (entry instanceof ArenaLyricEntry) {
+                    entryBytes = align(HEADER + 6 * REFERENCE + 4 + 8 + 8);
+                }
+                report.structureBytes += entryBytes;
+                userBytes += entryBytes;
+                for (int f = 0; f < usages.length; f++) {
+                    String value = GETTERS.get(f).apply(entry);
+                    if (value == null || !seen.add(value)) {
+                        continue; // nothing, or the same object counted already
+                    }
+                    FieldUsage usage = usages[f];
+                    long bytes = storedAsUtf8(entry, f) ? utf8Bytes(value) : stringBytes(value);
+                    usage.strings++;
+                    usage.chars += value.length();
+                    usage.bytes += bytes;
+                    userBytes += bytes;
+                    if (values.get(f).putIfAbsent(value, Boolean.TRUE) != null) {
+                        usage.duplicates++;
+                        usage.duplicateBytes += bytes;
+                    } else {
+                        usage.distinct++;
+                    }
+                }
+            }
+            report.userBytes.merge(user.getUsername(), userBytes, Long::sum);
+        }
+        return report;
+    }
+
+    // lyric text (0) or note (1) of an entry if it is on the heap, without loading a lazy entry's bodies
+    private static String resident(LyricEntry entry, int body) {
+        if (entry instanceof ArenaLyricEntry) {
+            return null; // off-heap: reading it would only make a temporary copy
+        }
+        if (entry instanceof LazyLyricEntry) {
+            String[] bodies = ((LazyLyricEntry) entry).residentBodies();
+            return bodies == null ? null : bodies[body];
+        }
+        return body == 0 ? entry.getLyricText() : entry.getUserNote();
+    }
+
+    // whether field f of the entry is kept as a UTF-8 byte[] (a lazy entry's loaded bodies are Strings)
+    private static boolean storedAsUtf8(LyricEntry entry, int f) {
+        return f == 2 || (f < 2 && !(entry instanceof LazyLyricEntry));
+    }
+
+    /*
+     * Estimates the heap taken by text stored as a UTF-8 byte array (see Utf8Text)
+     *
+     * Example: utf8Bytes("Queen") == 24 with compressed class pointers (align(16 + 5))
+     */
+    public static long utf8Bytes(String value) {
+        return align(ARRAY_HEADER + (long) Utf8Text.encodedLength(value));
+    }
+
+    /*
+     * Estimates the heap taken by one String object and its character array
+     *
+     * Example: stringBytes("Queen") == 48 with compressed oops (24 + align(16 + 5))
+     */
+    public static long stringBytes(String value) {
+        boolean latin1 = COMPACT_STRINGS;
+        for (int i = 0; latin1 && i < value.length(); i++) {
+            latin1 = value.charAt(i) <= 0xFF;
+        }
+        return STRING + align(ARRAY_HEADER + (long) value.length() * (latin1 ? 1 : 2));
+    }
+
+    // User object, its username string, the entry vector with its nodes and the date index
+    private static long userStructure(User user, int entries) {
+        long bytes = align(HEADER + 7 * REFERENCE);
+        bytes += user.getUsername() == null ? 0 : stringBytes(user.getUsername());
+        bytes += persistentVector(entries);
+
+        // DateIndex: the index and its TreeMap, then per day a tree node, an Integer key
+        // and a list of that day's entries
+        bytes += align(HEADER + REFERENCE + 8) + align(HEADER + 3 * REFERENCE + 8);
+        for (int count : user.getDateIndex().countsBetween(null, null).values()) {
+            bytes += align(HEADER + 5 * REFERENCE + 1) + align(HEADER + 4) + arrayList(count, 2);
+        }
+        return bytes;
+    }
+
+    // PersistentVector of n elements: the vector (modCount, size, shift, root, tail), full
+    // leaves of 32 in the trie, internal nodes of 32 above them, and the tail (1..32 elements)
+    private static long persistentVector(long elements) {
+        long bytes = align(HEADER + 3 * 4 + 2 * REFERENCE);
+        long node = align(ARRAY_HEADER + 32 * REFERENCE);
+        long inTrie = elements <= 32 ? 0 : ((elements - 1) >>> 5) << 5;
+        bytes += align(ARRAY_HEADER + (elements - inTrie) * REFERENCE);
+        long nodes = inTrie >>> 5;                   // leaves
+        bytes += nodes * node;
+        do {
+            nodes = (nodes + 31) >>> 5;              // parents, up to a single root
+            bytes += Math.max(1, nodes) * node;
+        } while (nodes > 1);
+        return bytes;
+    }
+
+    // ArrayList of n elements built by add(), with its backing array (grows by half when full)
+    private static long arrayList(long elements, long initialCapacity) {
+        long capacity = initialCapacity;
+        while (capacity < elements) {
+            capacity += Math.max(1, capacity >> 1);
+        }
+        return align(HEADER + 4 + 4 + REFERENCE) + align(ARRAY_HEADER + capacity * REFERENCE);
+    }
+
+    static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    static String size(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        if (bytes < 1024 * 1024) {
+            return String.format("%.1f KB", bytes / 1024.0);
+        }
+        return String.format("%.1f MB", bytes / (1024.0 * 1024));
+    }
+
+    // reads a HotSpot flag; other VMs get the common 64-bit defaults
+    private static boolean vmFlag(String name, boolean fallback) {
+        try {
+            com.sun.management.HotSpotDiagnosticMXBean hotspot =
+                    ManagementFactory.getPlatformMXBean(com.sun.management.HotSpotDiagnosticMXBean.class);
+            return Boolean.parseBoolean(hotspot.getVMOption(name).getValue());
+        } catch (RuntimeException | LinkageError e) {
+            return fallback;
+        }
+    }
+}
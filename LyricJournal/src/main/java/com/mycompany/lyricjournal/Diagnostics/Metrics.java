@@ -0,0 +1,192 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.lyricjournal.Diagnostics;
+
+/**
+ *
+ * @author Kalli-Ann
+ */
+
+// Metrics Diagnostics Class
+
+// Process-wide registry of counters, gauges and latency histograms, published over JMX
+
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import javax.management.ObjectName;
+
+/*
+ * Metrics keeps named measurements for the whole process:
+ * - counters: LongAdder totals (e.g. bytes written), cheap under contention
+ * - gauges: values computed when read (e.g. registered accounts)
+ * - timers: LatencyHistograms for operations (e.g. journal.save)
+ * - entries per user: journal size seen at the last save or load
+ *
+ * Callers look a metric up once and keep it in a static final field, so the hot path
+ * is only the update itself. Everything is published as the platform MXBean
+ * com.mycompany.lyricjournal:type=Metrics (open it in JConsole or VisualVM). The MBean
+ * is registered on a background thread so the platform MBean server never delays
+ * startup or the first save.
+ *
+ * Names in use:
+ * journal.save, journal.load, search, login           - timers
+ * journal.bytesRead, journal.bytesWritten             - counters
+ * login.success, login.failure, login.throttled       - counters
+ * journal.bodiesRead, arena.slabsAllocated           - counters
+ * users.registered, server.sessions, cache.*          - gauges
+ * arena.offHeapBytes, arena.pooledSlabs               - gauges
+ *
+ * Example usage:
+ * private static final LatencyHistogram SAVE = Metrics.timer("journal.save");
+ * long start = System.nanoTime(); ...; SAVE.recordSince(start);
+ */
+public final class Metrics {
+    public static final String OBJECT_NAME = "com.mycompany.lyricjournal:type=Metrics";
+
+    private static final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private static final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+    private static final Map<String, LatencyHistogram> timers = new ConcurrentHashMap<>();
+    private static final Map<String, Integer> entriesPerUser = new ConcurrentHashMap<>();
+
+    static {
+        Thread register = new Thread(Metrics::registerMBean, "metrics-jmx");
+        register.setDaemon(true);
+        register.start();
+    }
+
+    private Metrics() {
+    }
+
+    /*
+     * Gets (or creates) a counter
+     *
+     * Input: name - e.g. "journal.bytesWritten" (input: String)
+     * Output: the counter; keep it in a field (output: LongAdder)
+     */
+    public static LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, n -> new LongAdder());
+    }
+
+    /*
+     * Gets (or creates) a latency histogram
+     *
+     * Input: name - operation name, e.g. "journal.save" (input: String)
+     * Output: the histogram; keep it in a field (output: LatencyHistogram)
+     */
+    public static LatencyHistogram timer(String name) {
+        return timers.computeIfAbsent(name, n -> new LatencyHistogram());
+    }
+
+    /*
+     * Registers a gauge, replacing any gauge of the same name
+     *
+     * Inputs:
+     *
+     * name - e.g. "server.sessions" (input: String)
+     * value - computes the current value; must be cheap and thread-safe (input: LongSupplier)
+     */
+    public static void gauge(String name, LongSupplier value) {
+        gauges.put(name, value);
+    }
+
+    /*
+     * Removes a gauge, but only if it is still the one given (a newer owner keeps its gauge)
+     */
+    public static void removeGauge(String name, LongSupplier value) {
+        gauges.remove(name, value);
+    }
+
+    /*
+     * Records how many entries a user's journal holds
+     *
+     * Example: Metrics.recordEntries("john", user.getEntries().size());
+     */
+    public static void recordEntries(String username, int entries) {
+        entriesPerUser.put(username, entries);
+    }
+
+    /*
+     * Gets a sorted copy of every counter
+     */
+    public static Map<String, Long> counters() {
+        Map<String, Long> values = new TreeMap<>();
+        counters.forEach((name, counter) -> values.put(name, counter.sum()));
+        return values;
+    }
+
+    /*
+     * Gets a sorted copy of every gauge's current value (a failing gauge reports -1)
+     */
+    public static Map<String, Long> gauges() {
+        Map<String, Long> values = new TreeMap<>();
+        gauges.forEach((name, gauge) -> {
+            long value;
+            try {
+                value = gauge.getAsLong();
+            } catch (RuntimeException e) {
+                value = -1;
+            }
+            values.put(name, value);
+        });
+        return values;
+    }
+
+    /*
+     * Gets a sorted snapshot of every timer
+     */
+    public static Map<String, LatencySnapshot> latencies() {
+        Map<String, LatencySnapshot> values = new TreeMap<>();
+        timers.forEach((name, timer) -> values.put(name, timer.snapshot()));
+        return values;
+    }
+
+    /*
+     * Gets a sorted copy of the entries-per-user table
+     */
+    public static Map<String, Integer> entriesPerUser() {
+        return new TreeMap<>(entriesPerUser);
+    }
+
+    // publishes the registry as a platform MXBean; failures only lose the JMX view
+    private static void registerMBean() {
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            javax.management.MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new View(), name);
+            }
+        } catch (Exception | LinkageError e) {
+            System.err.println("Metrics not available over JMX: " + e.getMessage());
+        }
+    }
+
+    // the MXBean - reads the registry on demand
+    private static final class View implements MetricsMXBean {
+        @Override
+        public Map<String, Long> getCounters() {
+            return counters();
+        }
+
+        @Override
+        public Map<String, Long> getGauges() {
+            return gauges();
+        }
+
+        @Override
+        public Map<String, LatencySnapshot> getLatencies() {
+            return latencies();
+        }
+
+        @Override
+        public Map<String, Integer> getEntriesPerUser() {
+            return entriesPerUser();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Interface.java to edit this template
+ */
+package com.mycompany.lyricjournal.Diagnostics;
+
+/**
+ *
+ * @author Kalli-Ann
+ */
+
+// MetricsMXBean Diagnostics Interface
+
+// What the metrics registry shows over JMX (com.mycompany.lyricjournal:type=Metrics)
+
+
+import java.util.Map;
+
+public interface MetricsMXBean {
+    // counter name -> value since start, e.g. "journal.bytesWritten"
+    Map<String, Long> getCounters();
+
+    // gauge name -> current value, e.g. "users.registered"
+    Map<String, Long> getGauges();
+
+    // operation name -> latency summary in milliseconds, e.g. "journal.save"
+    Map<String, LatencySnapshot> getLatencies();
+
+    // username -> entries in the journal when it was last saved or loaded
+    Map<String, Integer> getEntriesPerUser();
+}
@@ -0,0 +1,96 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.lyricjournal.Diagnostics;
+
+/**
+ *
+ * @author Kalli-Ann
+ */
+
+// StartupTimings Diagnostics Class
+
+// Logs how long each application startup phase takes
+
+
+/*
+ * StartupTimings logs one line per startup phase to standard error, to track down
+ * cold-start regressions. Times are measured from the moment Main starts the clock;
+ * phases running on background threads can be timed with time().
+ * Off by default - run with -Dlyricjournal.startup.log=true to see the output.
+ * Only the first launch is logged: finish() ends it (at the first logout), so logging
+ * in again does not print another set of startup lines.
+ *
+ * Example output:
+ * [startup]    42 ms  login window shown (+38 ms)
+ * [startup]    57 ms  users loaded (31 ms, background)
+ */
+public final class StartupTimings {
+    // logging is switched on with -Dlyricjournal.startup.log=true
+    private static final boolean ENABLED = Boolean.getBoolean("lyricjournal.startup.log");
+
+    private static volatile boolean finished;                     // set by finish(), never cleared
+
+    private static volatile long startNanos = System.nanoTime(); // clock origin
+    private static long lastMarkNanos = startNanos;               // previous mark() (guarded by class lock)
+
+    private StartupTimings() {
+    }
+
+    /*
+     * Restarts the clock - called once at the very beginning of Main.main
+     */
+    public static synchronized void start() {
+        startNanos = System.nanoTime();
+        lastMarkNanos = startNanos;
+    }
+
+    /*
+     * Ends startup - nothing is logged after this, e.g. when the user logs in again
+     */
+    public static void finish() {
+        finished = true;
+    }
+
+    /*
+     * Logs that a sequential phase has finished
+     *
+     * Input: phase - description of the completed phase (input: String)
+     * Output: "[startup]  <since start> ms  <phase> (+<since previous mark> ms)" on stderr
+     *
+     * Example: StartupTimings.mark("login window shown");
+     */
+    public static synchronized void mark(String phase) {
+        long now = System.nanoTime();
+        log(now, phase + " (+" + millis(now - lastMarkNanos) + " ms)");
+        lastMarkNanos = now;
+    }
+
+    /*
+     * Runs a task and logs its own duration - for work done in parallel with other phases
+     *
+     * Inputs:
+     *
+     * phase - description of the task (input: String)
+     * task - work to run on the calling thread (input: Runnable)
+     *
+     * Example: StartupTimings.time("users loaded", UserManager::preload);
+     */
+    public static void time(String phase, Runnable task) {
+        long begin = System.nanoTime();
+        task.run();
+        long end = System.nanoTime();
+        log(end, phase + " (" + millis(end - begin) + " ms, " + Thread.currentThread().getName() + ")");
+    }
+
+    private static void log(long now, String message) {
+        if (ENABLED && !finished) {
+            System.err.printf("[startup] %5d ms  %s%n", millis(now - startNanos), message);
+        }
+    }
+
+    private static long millis(long nanos) {
+        return nanos / 1_000_000;
+    }
+}
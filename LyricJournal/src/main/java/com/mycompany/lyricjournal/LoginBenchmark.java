@@ -0,0 +1,115 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.lyricjournal;
+
+/**
+ *
+ * @author Kalli-Ann
+ */
+
+/*
+ * Login Throughput Benchmark for LyricJournal
+ * Measures how many UserManager.validateLogin calls per second the machine can handle
+ * with the current PBKDF2 work factor, from 1 thread up to the requested thread count.
+ *
+ * Accounts are kept in an in-memory filesystem, so the real users.log is never touched
+ * (pass -Dlyricjournal.home=<dir> to benchmark against files on disk instead):
+ * java -cp ... com.mycompany.lyricjournal.LoginBenchmark [maxThreads] [secondsPerStep]
+ *
+ * Tune the work factor with -Dlyricjournal.pbkdf2.iterations=<n> and compare results.
+ *
+ * Each thread count is measured twice - without login throttling and with it
+ * (limits set high enough that nothing is locked out) - to show the cost of the
+ * attempt tracking. A final step measures how fast a locked-out username is refused.
+ */
+
+import com.mycompany.lyricjournal.Controller.*;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+
+// Benchmark runner - prints one line per thread count
+
+
+public class LoginBenchmark {
+    private static final String USERNAME = "loginbenchmarkuser";
+    private static final String PASSWORD = "benchmark-password";
+
+    private static UserManager users;
+
+    public static void main(String[] args) throws Exception {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors() * 2;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        users = new UserManager(System.getProperty("lyricjournal.home") == null
+                ? Storage.newInMemoryRoot() : Storage.defaultRoot());
+
+        System.out.println("=== LyricJournal Login Benchmark ===");
+        System.out.println("PBKDF2 iterations: " + PasswordHasher.getIterations());
+        System.out.println("CPU cores: " + Runtime.getRuntime().availableProcessors());
+
+        // make sure the benchmark account exists (first login migrates nothing - it is hashed on registration)
+        users.registerUser(USERNAME, PASSWORD);
+        if (!users.validateLogin(USERNAME, PASSWORD)) {
+            System.out.println("Benchmark account has a different password - use an empty -Dlyricjournal.home directory");
+            return;
+        }
+
+        // single-call latency (after warm-up)
+        for (int i = 0; i < 5; i++) {
+            users.validateLogin(USERNAME, PASSWORD);
+        }
+        long begin = System.nanoTime();
+        users.validateLogin(USERNAME, PASSWORD);
+        System.out.printf("Single login latency: %.1f ms%n%n", (System.nanoTime() - begin) / 1e6);
+
+        // tracking on, but no lockouts - measures the throttle's bookkeeping cost
+        LoginThrottle tracking = new LoginThrottle(Integer.MAX_VALUE, Integer.MAX_VALUE,
+                Duration.ofMinutes(1), Duration.ofSeconds(1), Duration.ofSeconds(1));
+
+        System.out.println("threads   throttle   logins/sec   avg ms/login");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            users.setLoginThrottle(null);
+            runStep(threads, seconds, "off");
+            users.setLoginThrottle(tracking);
+            runStep(threads, seconds, "on");
+        }
+
+        // locked-out username: attempts are refused without hashing
+        users.setLoginThrottle(new LoginThrottle(1, Integer.MAX_VALUE,
+                Duration.ofMinutes(1), Duration.ofMinutes(10), Duration.ofMinutes(10)));
+        users.validateLogin(USERNAME, "wrong-password", "127.0.0.1"); // lockouts are per source
+        System.out.println();
+        runStep(maxThreads, seconds, "locked");
+    }
+
+    /*
+     * Runs validateLogin from the given number of threads for a fixed time
+     * Half the attempts use a wrong password, like a real mix of typos and valid logins
+     */
+    private static void runStep(int threads, int seconds, String throttle) throws InterruptedException {
+        LongAdder completed = new LongAdder();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+        long begin = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                long i = 0;
+                while (System.nanoTime() < deadline) {
+                    users.validateLogin(USERNAME, (i++ & 1) == 0 ? PASSWORD : "wrong-password", "127.0.0.1");
+                    completed.increment();
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+        double elapsed = (System.nanoTime() - begin) / 1e9;
+
+        double perSecond = completed.sum() / elapsed;
+        System.out.printf("%7d   %8s   %10.1f   %12.3f%n", threads, throttle, perSecond, threads * 1000.0 / perSecond);
+    }
+}
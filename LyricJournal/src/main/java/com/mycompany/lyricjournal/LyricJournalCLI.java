@@ -0,0 +1,512 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ */
+
+package com.mycompany.lyricjournal;
+
+/**
+ *
+ * @author Kalli-Ann
+ */
+
+// LyricJournalCLI - Headless command-line entry point
+
+// Bulk journal operations for scripts and servers, without starting Swing
+
+
+import com.mycompany.lyricjournal.Model.*;
+import com.mycompany.lyricjournal.Controller.*;
+import com.mycompany.lyricjournal.Diagnostics.MemoryFootprint;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonWriter;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+
+/*
+ * LyricJournalCLI runs one command against the existing controllers and exits.
+ * Main.main hands over to this class whenever arguments are given, so no AWT/Swing
+ * classes are loaded. Journals are streamed entry by entry (journals.forEachEntry),
+ * and output is written as it is produced, so very large journals work in a pipeline.
+ * Scan-heavy commands (search, stats, export) stream the journal into a ColumnarJournal
+ * first and work on its columns (see ColumnarJournal); the snapshot holds the whole
+ * journal, as a few flat arrays rather than an object per entry.
+ *
+ * Commands:
+ * users                          list registered accounts
+ * import <user> <file|->         append entries from a JSON array file (or stdin), read as UTF-8
+ * export <user> [file]           write the journal as a JSON array in UTF-8 (stdout by default)
+ * search <user> <keyword>        print matching entries as tab-separated lines
+ * stats <user>                   entry count, artists, date range and text volume
+ * compact <user>                 rewrite the journal compactly, dropping invalid entries
+ * compact-users                  drop superseded records from the account log
+ * serve [port]                   run the multi-user HTTP service (LyricJournalServer) until stopped
+ * check <user>                   verify journal integrity (exit code 1 on problems)
+ * memory <user...>               estimate the heap the loaded journals take (see MemoryFootprint)
+ *
+ * Example:
+ * java -jar LyricJournal.jar search john love | sort
+ */
+public class LyricJournalCLI {
+    // exit codes
+    static final int OK = 0;           // command succeeded
+    static final int PROBLEMS = 1;     // command ran but found problems (check)
+    static final int USAGE = 2;        // bad arguments or unknown user
+    static final int FAILURE = 3;      // I/O or parse failure
+
+    private final PrintStream out;     // command output (stdout)
+    private final PrintStream err;     // diagnostics (stderr)
+    private final UserManager users;             // accounts under the storage root
+    private final UserDataController journals;   // journals under the storage root
+
+    LyricJournalCLI(PrintStream out, PrintStream err, UserManager users, UserDataController journals) {
+        this.out = out;
+        this.err = err;
+        this.users = users;
+        this.journals = journals;
+    }
+
+    /*
+     * Runs a command line and returns the process exit code
+     *
+     * Inputs:
+     * args - command name followed by its arguments
+     * root - directory the accounts and journals are stored in (input: Path, see Storage)
+     *
+     * Output: returns 0 on success, non-zero on failure (see exit codes)
+     *
+     * Example: int code = LyricJournalCLI.run(new String[]{"stats", "john"}, Storage.defaultRoot());
+     */
+    public static int run(String[] args, Path root) {
+        // buffered stdout - flushed when the command finishes
+        PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 1 << 16), false);
+        UserManager users = new UserManager(root);
+        try {
+            return new LyricJournalCLI(out, System.err, users, new UserDataController(root)).execute(args);
+        } finally {
+            out.flush();
+            try {
+                users.close();
+            } catch (IOException e) {
+                System.err.println("Error closing user storage: " + e.getMessage());
+            }
+        }
+    }
+
+    int execute(String[] args) {
+        if (args.length == 0 || args[0].equals("help") || args[0].equals("--help")) {
+            printUsage(out);
+            return OK;
+        }
+        try {
+            switch (args[0]) {
+                case "users":
+                    return users();
+                case "import":
+                    return requireArgs(args, 3) ? importEntries(args[1], args[2]) : USAGE;
+                case "export":
+                    return requireArgs(args, 2) ? export(args[1], args.length > 2 ? args[2] : "-") : USAGE;
+                case "search":
+                    return requireArgs(args, 3) ? search(args[1], args[2]) : USAGE;
+                case "stats":
+                    return requireArgs(args, 2) ? stats(args[1]) : USAGE;
+                case "compact":
+                    return requireArgs(args, 2) ? compact(args[1]) : USAGE;
+                case "serve":
+                    return serve(args.length > 1 ? args[1] : "8080");
+                case "compact-users":
+                    out.println("reclaimed " + users.compactUsers() + " bytes");
+                    return OK;
+                case "check":
+                    return requireArgs(args, 2) ? check(args[1]) : USAGE;
+                case "generate":
+                    return requireArgs(args, 3) ? generate(args[1], args[2], args.length > 3 ? args[3] : "42") : USAGE;
+                case "generate-users":
+                    return requireArgs(args, 3) ? generateUsers(args[1], args[2], args.length > 3 ? args[3] : "42") : USAGE;
+                case "memory":
+                    return requireArgs(args, 2) ? memory(Arrays.copyOfRange(args, 1, args.length)) : USAGE;
+                default:
+                    err.println("Unknown command: " + args[0]);
+                    printUsage(err);
+                    return USAGE;
+            }
+        } catch (IOException | JsonParseException e) {
+            err.println("Error: " + e.getMessage());
+            return FAILURE;
+        }
+    }
+
+    /*
+     * users - prints every registered username, one per line
+     */
+    private int users() {
+        String[] names = users.getAllUsernames();
+        Arrays.sort(names);
+        for (String name : names) {
+            out.println(name);
+        }
+        return OK;
+    }
+
+    /*
+     * import - appends entries from a JSON array to the user's journal
+     * Streams the existing journal and the import source into a temporary file,
+     * then replaces the journal, so neither side is held in memory.
+     */
+    private int importEntries(String username, String source) throws IOException {
+        if (!knownUser(username)) {
+            return USAGE;
+        }
+        Path journal = journals.getJournalPath(username);
+        Path temp = journal.resolveSibling(journal.getFileName() + ".tmp");
+        long[] counts = new long[2]; // [existing, imported]
+
+        try (JsonWriter writer = new JsonWriter(UserDataController.openWriter(temp))) {
+            writer.beginArray();
+            journals.forEachEntry(username, entry -> {
+                writeUnchecked(writer, entry);
+                counts[0]++;
+            });
+            try (Reader reader = openInput(source)) {
+                UserDataController.readEntries(reader, entry -> {
+                    writeUnchecked(writer, entry);
+                    counts[1]++;
+                });
+            }
+            writer.endArray();
+        } catch (UncheckedIOException e) {
+            Files.deleteIfExists(temp);
+            throw e.getCause();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        Files.move(temp, journal, StandardCopyOption.REPLACE_EXISTING);
+        err.println("Imported " + counts[1] + " entries (" + (counts[0] + counts[1]) + " total)");
+        return OK;
+    }
+
+    /*
+     * export - writes the journal as a JSON array, row by row from a columnar snapshot
+     */
+    private int export(String username, String target) throws IOException {
+        if (!knownUser(username)) {
+            return USAGE;
+        }
+        // UTF-8 whatever the platform charset, so every character survives an export and import
+        Writer sink = target.equals("-") ? new OutputStreamWriter(out, StandardCharsets.UTF_8)
+                : Files.newBufferedWriter(Paths.get(target), StandardCharsets.UTF_8);
+        ColumnarJournal journal = loadColumnar(username);
+        JsonWriter writer = new JsonWriter(sink);
+        try {
+            writer.beginArray();
+            journal.forEach(entry -> writeUnchecked(writer, entry));
+            writer.endArray();
+            writer.flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            if (!target.equals("-")) {
+                writer.close(); // never close stdout
+            }
+        }
+        if (target.equals("-")) {
+            out.println();
+        }
+        return OK;
+    }
+
+    /*
+     * search - prints "date<TAB>title<TAB>artist" for each entry matching the keyword
+     * Uses the same matching rules as the GUI search (User.searchEntries), run over a
+     * columnar snapshot: each distinct artist is tested once, titles and lyrics are
+     * scanned as packed character arrays
+     */
+    private int search(String username, String keyword) throws IOException {
+        if (!knownUser(username)) {
+            return USAGE;
+        }
+        ColumnarJournal journal = loadColumnar(username);
+        for (int row : journal.search(keyword)) {
+            out.println(journal.dateAdded(row) + "\t" + oneLine(journal.title(row)) + "\t" + oneLine(journal.artist(row)));
+        }
+        return OK;
+    }
+
+    /*
+     * stats - summarizes the journal from its columns (artist ids, epoch days, text lengths)
+     */
+    private int stats(String username) throws IOException {
+        if (!knownUser(username)) {
+            return USAGE;
+        }
+        ColumnarJournal journal = loadColumnar(username);
+        int[] perArtist = journal.artistEntryCounts();
+        int[] days = journal.dayRange();
+
+        out.println("user:        " + username);
+        out.println("entries:     " + journal.size());
+        out.println("artists:     " + journal.artistCount());
+        out.println("first date:  " + (days == null ? "-" : LocalDate.ofEpochDay(days[0])));
+        out.println("last date:   " + (days == null ? "-" : LocalDate.ofEpochDay(days[1])));
+        out.println("lyric chars: " + journal.lyricChars());
+        out.println("note chars:  " + journal.noteChars());
+
+        // top five artists by entry count (ties in first-seen order)
+        Integer[] ids = new Integer[perArtist.length];
+        for (int id = 0; id < ids.length; id++) {
+            ids[id] = id;
+        }
+        Arrays.sort(ids, (a, b) -> Integer.compare(perArtist[b], perArtist[a]));
+        for (int i = 0; i < Math.min(5, ids.length); i++) {
+            out.println("top artist:  " + journal.artistName(ids[i]) + " (" + perArtist[ids[i]] + ")");
+        }
+        return OK;
+    }
+
+    // reads a journal straight into a columnar snapshot: entries are streamed from the file
+    // and copied into the columns, so no LyricEntry objects are kept
+    private ColumnarJournal loadColumnar(String username) throws IOException {
+        ColumnarJournal.Builder builder = new ColumnarJournal.Builder(0);
+        journals.forEachEntry(username, builder::add);
+        return builder.build();
+    }
+
+    /*
+     * memory - loads the journals of one or more users (all users with "*") and prints
+     * the estimated heap they take, by field, with duplicated strings
+     */
+    private int memory(String[] usernames) {
+        if (usernames.length == 1 && usernames[0].equals("*")) {
+            usernames = users.getAllUsernames();
+            Arrays.sort(usernames);
+        }
+        List<User> users = new ArrayList<>();
+        for (String username : usernames) {
+            if (!knownUser(username)) {
+                return USAGE;
+            }
+            User user = new User(username, "");
+            journals.loadUserEntries(user);
+            users.add(user);
+        }
+        MemoryFootprint.Report report = MemoryFootprint.measure(users);
+        out.print(report);
+        if (users.size() > 1) {
+            report.getUserBytes().forEach((name, bytes) -> out.println("user " + name + ": " + bytes + " bytes"));
+        }
+        return OK;
+    }
+
+    /*
+     * compact - rewrites the journal without pretty printing and drops entries
+     * that fail the integrity rules (missing title, artist or lyric text)
+     */
+    private int compact(String username) throws IOException {
+        if (!knownUser(username)) {
+            return USAGE;
+        }
+        Path journal = journals.getJournalPath(username);
+        if (!Files.exists(journal)) {
+            err.println("No journal for " + username);
+            return OK;
+        }
+        Path temp = journal.resolveSibling(journal.getFileName() + ".tmp");
+        long[] counts = new long[2]; // [kept, dropped]
+
+        try (JsonWriter writer = new JsonWriter(UserDataController.openWriter(temp))) {
+            writer.beginArray();
+            journals.forEachEntry(username, entry -> {
+                if (UserDataController.entryProblem(entry) == null) {
+                    writeUnchecked(writer, entry);
+                    counts[0]++;
+                } else {
+                    counts[1]++;
+                }
+            });
+            writer.endArray();
+        } catch (UncheckedIOException e) {
+            Files.deleteIfExists(temp);
+            throw e.getCause();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        long before = Files.size(journal);
+        Files.move(temp, journal, StandardCopyOption.REPLACE_EXISTING);
+        out.println("kept " + counts[0] + ", dropped " + counts[1] + ", " + before + " -> " + Files.size(journal) + " bytes");
+        return OK;
+    }
+
+    /*
+     * serve - runs the HTTP service until the process is stopped (Ctrl+C)
+     * Loaded journals are saved by a shutdown hook
+     */
+    private int serve(String port) throws IOException {
+        int number;
+        try {
+            number = Integer.parseInt(port);
+        } catch (NumberFormatException e) {
+            err.println("Invalid port: " + port);
+            return USAGE;
+        }
+        LyricJournalServer server = LyricJournalServer.start(number, users, journals);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop, "server-shutdown"));
+        out.println("LyricJournal server listening on " + server.getAddress().getAddress().getHostAddress() + " port " + server.getPort());
+        out.flush();
+        try {
+            new CountDownLatch(1).await(); // serve until the process is stopped
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return OK;
+    }
+
+    /*
+     * check - verifies the journal parses and every entry is valid
+     * Prints one line per problem: "<index>\t<problem>"
+     */
+    private int check(String username) throws IOException {
+        if (!knownUser(username)) {
+            return USAGE;
+        }
+        long[] counts = new long[2]; // [entries, problems]
+        try {
+            journals.forEachEntry(username, entry -> {
+                String problem = UserDataController.entryProblem(entry);
+                if (problem != null) {
+                    out.println(counts[0] + "\t" + problem);
+                    counts[1]++;
+                }
+                counts[0]++;
+            });
+        } catch (JsonParseException e) {
+            out.println(counts[0] + "\tunreadable: " + e.getMessage());
+            return PROBLEMS;
+        }
+        out.println(counts[0] + " entries checked, " + counts[1] + " problems");
+        return counts[1] == 0 ? OK : PROBLEMS;
+    }
+
+    /*
+     * generate - replaces the user's journal with synthetic entries (JournalGenerator)
+     * Streams straight to the file, so the size is limited by disk space, not memory
+     */
+    private int generate(String username, String entries, String seed) throws IOException {
+        if (!knownUser(username)) {
+            return USAGE;
+        }
+        long count = parseNumber(entries);
+        long seedValue = parseNumber(seed);
+        if (count < 0 || seedValue < 0) {
+            return USAGE;
+        }
+        long bytes = new JournalGenerator(seedValue).writeJournal(journals, username.toLowerCase(), count);
+        out.println("generated " + count + " entries, " + bytes + " bytes");
+        return OK;
+    }
+
+    /*
+     * generate-users - registers synthetic accounts "listener1".."listenerN" (password = username)
+     * and gives them generated journals that share the entry total, a few heavy users and
+     * many light ones
+     */
+    private int generateUsers(String accounts, String entries, String seed) throws IOException {
+        long count = parseNumber(accounts);
+        long total = parseNumber(entries);
+        long seedValue = parseNumber(seed);
+        if (count < 0 || total < 0 || seedValue < 0) {
+            return USAGE;
+        }
+        if (count == 0 || count > Integer.MAX_VALUE) {
+            err.println("Invalid number of users: " + accounts);
+            return USAGE;
+        }
+        JournalGenerator generator = new JournalGenerator(seedValue);
+        long[] sizes = generator.journalSizes((int) count, total);
+        for (int i = 0; i < sizes.length; i++) {
+            String username = "listener" + (i + 1);
+            users.registerUser(username, username); // keeps an existing account
+            generator.writeJournal(journals, username, sizes[i]);
+            out.println(username + "\t" + sizes[i]);
+        }
+        return OK;
+    }
+
+    // fails with a message if the username is not registered
+    private boolean knownUser(String username) {
+        if (!users.userExists(username)) {
+            err.println("Unknown user: " + username);
+            return false;
+        }
+        return true;
+    }
+
+    // parses a non-negative number argument; prints a message and returns -1 if invalid
+    private long parseNumber(String value) {
+        try {
+            long number = Long.parseLong(value);
+            if (number >= 0) {
+                return number;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        err.println("Invalid number: " + value);
+        return -1;
+    }
+
+    private boolean requireArgs(String[] args, int count) {
+        if (args.length < count) {
+            err.println("Missing arguments for " + args[0]);
+            printUsage(err);
+            return false;
+        }
+        return true;
+    }
+
+    // import sources are UTF-8 like exports; malformed bytes are replaced rather than failing
+    // (a journal's byte order mark is skipped by Gson)
+    private Reader openInput(String source) throws IOException {
+        InputStream in = source.equals("-") ? System.in : Files.newInputStream(Paths.get(source));
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    // lambdas cannot throw IOException - tunnel it out and unwrap in the caller
+    private static void writeUnchecked(JsonWriter writer, LyricEntry entry) {
+        try {
+            UserDataController.writeEntry(writer, entry);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // keeps tab-separated output one record per line
+    private static String oneLine(String value) {
+        return value == null ? "" : value.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+
+    private static void printUsage(PrintStream stream) {
+        stream.println("Usage: LyricJournal <command> [arguments]");
+        stream.println("  users                      list registered accounts");
+        stream.println("  import <user> <file|->     append entries from a JSON array");
+        stream.println("  export <user> [file]       write the journal as JSON (stdout by default)");
+        stream.println("  search <user> <keyword>    print matching entries");
+        stream.println("  stats <user>               summarize the journal");
+        stream.println("  compact <user>             rewrite the journal compactly");
+        stream.println("  compact-users              drop superseded account records");
+        stream.println("  serve [port]               run the multi-user HTTP service (default 8080)");
+        stream.println("  check <user>               verify journal integrity");
+        stream.println("  generate <user> <n> [seed] replace the journal with n synthetic entries");
+        stream.println("  generate-users <users> <n> [seed]");
+        stream.println("                             create listener1..listenerN sharing n synthetic entries");
+        stream.println("  memory <user...|*>         estimate the heap the journals take when loaded");
+        stream.println("Without arguments the desktop application starts.");
+    }
+}
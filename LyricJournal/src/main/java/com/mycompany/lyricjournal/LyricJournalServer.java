@@ -0,0 +1,582 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.lyricjournal;
+
+/**
+ *
+ * @author Kalli-Ann
+ */
+
+// LyricJournal HTTP Server
+
+// Serves many users' journals from one host over a small JSON API
+
+
+import com.mycompany.lyricjournal.Model.*;
+import com.mycompany.lyricjournal.Controller.*;
+import com.mycompany.lyricjournal.Diagnostics.JournalEvents;
+import com.mycompany.lyricjournal.Diagnostics.LatencyHistogram;
+import com.mycompany.lyricjournal.Diagnostics.Metrics;
+
+import com.google.gson.*;
+import com.sun.net.httpserver.*;
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.LongSupplier;
+
+/*
+ * LyricJournalServer exposes the existing controllers over HTTP using the JDK's built-in
+ * com.sun.net.httpserver.HttpServer. Every request runs on its own virtual thread when the
+ * JVM supports them (Java 21+); on older JVMs a cached thread pool is used instead.
+ * Started from the command line with: LyricJournal serve [port]
+ *
+ * Endpoints (JSON bodies, UTF-8):
+ * POST   /register        {"username","password"}            201, 400 if invalid, 409 if taken
+ * POST   /login           {"username","password"}            200 {"token"}, 401, 429 when throttled
+ * POST   /logout                                             204
+ * GET    /entries                                            200 [entry...]
+ * POST   /entries         {"songTitle","artist","lyricText","userNote"}   201 entry
+ * PUT    /entries/<i>     any of the entry fields (others unchanged)      200 entry
+ * DELETE /entries/<i>                                        204
+ * GET    /search?q=<keyword>                                 200 [entry...]
+ * GET    /metrics                                            200 cache statistics, counters and latencies
+ *
+ * Every endpoint except register and login needs "Authorization: Bearer <token>".
+ * Entries are returned with their "index", which edit and delete use.
+ * A session ends on logout or after it has not been used for a while (401 afterwards).
+ * /metrics describes the whole server, so it does not take a session token: it needs the
+ * operator's token (-Dlyricjournal.metrics.token) and answers 404 when none is set.
+ *
+ * The server listens on the loopback interface only, so other machines cannot reach it
+ * unless -Dlyricjournal.server.bind names another address (e.g. 0.0.0.0 for all interfaces;
+ * put it behind a TLS-terminating proxy then - the service itself speaks plain HTTP).
+ *
+ * Journals are held in a bounded JournalCache shared by all sessions. Changes are
+ * written back by the cache (within a few seconds, on eviction, and on stop()). If a
+ * journal cannot be saved, the next change to it answers 500 until a save succeeds
+ * (and stop() throws), so clients never see a change accepted that cannot be kept.
+ * Cache size and timing can be tuned with system properties:
+ * -Dlyricjournal.cache.entries=<n>      total entries kept in memory (default 200000)
+ * -Dlyricjournal.cache.idleMinutes=<n>  evict journals idle this long (default 10)
+ * -Dlyricjournal.cache.flushSeconds=<n> save changed journals this often (default 5)
+ * -Dlyricjournal.offHeap=true           keep lyric texts and notes outside the Java heap,
+ *                                       one LyricArena per cached journal (default false)
+ * -Dlyricjournal.session.idleMinutes=<n> end sessions unused this long (default 30)
+ *
+ * Example usage:
+ * LyricJournalServer server = LyricJournalServer.start(8080, users, journals);
+ * ...
+ * server.stop();
+ */
+public class LyricJournalServer {
+    private static final Gson gson = new Gson();
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int BACKLOG = 4096;          // pending connections before the OS refuses more
+    private static final LatencyHistogram SEARCH_TIME = Metrics.timer("search");
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>(); // token -> session
+    private final long sessionIdleNanos = TimeUnit.MINUTES.toNanos(Long.getLong("lyricjournal.session.idleMinutes", 30));
+    private final ScheduledExecutorService sessionSweeper;
+    private final byte[] metricsToken;     // null: /metrics is off
+    private final UserManager users;
+    private final JournalCache journals;
+
+    private final LongSupplier sessionGauge = () -> sessions.size();
+    private final LongSupplier journalGauge;
+    private final LongSupplier entryGauge;
+
+    private LyricJournalServer(HttpServer server, ExecutorService executor, UserManager users, UserDataController storage) {
+        this.server = server;
+        this.executor = executor;
+        this.users = users;
+        this.journals = new JournalCache(storage,
+                Long.getLong("lyricjournal.cache.entries", 200_000),
+                Duration.ofMinutes(Long.getLong("lyricjournal.cache.idleMinutes", 10)),
+                Duration.ofSeconds(Long.getLong("lyricjournal.cache.flushSeconds", 5)));
+        this.journalGauge = () -> journals.stats().size;
+        this.entryGauge = () -> journals.stats().weight;
+        String token = System.getProperty("lyricjournal.metrics.token");
+        this.metricsToken = token == null || token.isEmpty() ? null : token.getBytes(StandardCharsets.UTF_8);
+        // idle sessions are refused when used; the sweep also drops the ones never used again
+        this.sessionSweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "server-sessions");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, TimeUnit.NANOSECONDS.toMillis(sessionIdleNanos) / 4);
+        sessionSweeper.scheduleWithFixedDelay(this::expireSessions, period, period, TimeUnit.MILLISECONDS);
+        Metrics.gauge("server.sessions", sessionGauge);
+        Metrics.gauge("cache.journals", journalGauge);
+        Metrics.gauge("cache.entries", entryGauge);
+    }
+
+    /*
+     * Starts a server on the given port (0 picks a free port)
+     * Listens on the loopback address unless -Dlyricjournal.server.bind says otherwise
+     *
+     * Inputs:
+     * port - TCP port to listen on (input: int)
+     * users - the accounts clients register and log in to (input: UserManager)
+     * storage - where the journals are loaded from and saved to (input: UserDataController)
+     *
+     * Output: returns the running server (output: LyricJournalServer)
+     * Throws IOException if the port cannot be bound
+     *
+     * Example: LyricJournalServer server = LyricJournalServer.start(0, users, journals); int port = server.getPort();
+     */
+    public static LyricJournalServer start(int port, UserManager users, UserDataController storage) throws IOException {
+        HttpServer http = HttpServer.create(new InetSocketAddress(bindAddress(), port), BACKLOG);
+        ExecutorService executor = newRequestExecutor();
+        LyricJournalServer journalServer = new LyricJournalServer(http, executor, users, storage);
+
+        http.createContext("/register", journalServer.handler(journalServer::register));
+        http.createContext("/login", journalServer.handler(journalServer::login));
+        http.createContext("/logout", journalServer.handler(journalServer::logout));
+        http.createContext("/entries", journalServer.handler(journalServer::entries));
+        http.createContext("/search", journalServer.handler(journalServer::search));
+        http.createContext("/metrics", journalServer.handler(journalServer::metrics));
+        http.setExecutor(executor);
+        http.start();
+        return journalServer;
+    }
+
+    // address to listen on: -Dlyricjournal.server.bind, or loopback only
+    private static InetAddress bindAddress() throws IOException {
+        String configured = System.getProperty("lyricjournal.server.bind");
+        return configured == null || configured.isEmpty()
+                ? InetAddress.getLoopbackAddress() : InetAddress.getByName(configured);
+    }
+
+    /*
+     * Gets the address the server listens on
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /*
+     * Gets the port the server listens on (useful after start(0))
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /*
+     * Stops accepting requests, waits briefly for running ones, and saves every loaded journal
+     * Throws UncheckedIOException if a changed journal could not be saved
+     */
+    public void stop() {
+        server.stop(1);
+        sessionSweeper.shutdownNow();
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            journals.close(); // throws if a changed journal could not be saved
+        } finally {
+            Metrics.removeGauge("server.sessions", sessionGauge);
+            Metrics.removeGauge("cache.journals", journalGauge);
+            Metrics.removeGauge("cache.entries", entryGauge);
+        }
+    }
+
+    /*
+     * Creates a virtual-thread-per-request executor when the JVM has one (Java 21+),
+     * otherwise a cached pool that also gives every concurrent request its own thread
+     * Looked up reflectively so the project still builds for Java 17
+     */
+    static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "http-request");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    // ---------------------------------------------------------------- endpoints
+
+    // POST /register
+    private void register(HttpExchange exchange) throws IOException {
+        requireMethod(exchange, "POST");
+        Credentials credentials = readBody(exchange, Credentials.class);
+        if (credentials == null || isBlank(credentials.username) || isBlank(credentials.password)) {
+            throw new HttpError(400, "username and password are required");
+        }
+        String problem = UserManager.credentialProblem(credentials.username, credentials.password);
+        if (problem != null) {
+            throw new HttpError(400, problem);
+        }
+        String username = credentials.username.toLowerCase();
+        if (!users.registerUser(username, credentials.password)) {
+            throw new HttpError(409, "username already taken");
+        }
+        send(exchange, 201, Map.of("username", username));
+    }
+
+    // POST /login
+    private void login(HttpExchange exchange) throws IOException {
+        requireMethod(exchange, "POST");
+        Credentials credentials = readBody(exchange, Credentials.class);
+        if (credentials == null || isBlank(credentials.username)) {
+            throw new HttpError(401, "invalid username or password");
+        }
+        String source = exchange.getRemoteAddress().getAddress().getHostAddress();
+        if (!users.validateLogin(credentials.username, credentials.password, source)) {
+            long wait = users.loginRetryAfterMillis(credentials.username, source);
+            if (wait > 0) {
+                exchange.getResponseHeaders().set("Retry-After", Long.toString((wait + 999) / 1000));
+                throw new HttpError(429, "too many failed attempts");
+            }
+            throw new HttpError(401, "invalid username or password");
+        }
+        String token = newToken();
+        // one canonical name per account for the journal cache
+        sessions.put(token, new Session(credentials.username.toLowerCase(), System.nanoTime()));
+        send(exchange, 200, Map.of("token", token));
+    }
+
+    // POST /logout
+    private void logout(HttpExchange exchange) throws IOException {
+        requireMethod(exchange, "POST");
+        authenticate(exchange);
+        sessions.remove(token(exchange));
+        send(exchange, 204, null);
+    }
+
+    // GET, POST /entries and PUT, DELETE /entries/<index>
+    private void entries(HttpExchange exchange) throws IOException {
+        String username = authenticate(exchange);
+        String path = exchange.getRequestURI().getPath();
+        String method = exchange.getRequestMethod();
+
+        if (path.equals("/entries") || path.equals("/entries/")) {
+            if (method.equals("GET")) {
+                List<EntryView> views = journals.read(username, user -> {
+                    List<LyricEntry> entries = user.getEntries();
+                    List<EntryView> all = new ArrayList<>(entries.size());
+                    for (int i = 0; i < entries.size(); i++) {
+                        all.add(new EntryView(i, entries.get(i)));
+                    }
+                    return all;
+                });
+                send(exchange, 200, views);
+            } else if (method.equals("POST")) {
+                EntryView body = readBody(exchange, EntryView.class);
+                if (body == null) {
+                    throw new HttpError(400, "entry body is required");
+                }
+                LyricEntry entry = new LyricEntry(trim(body.songTitle), trim(body.artist), trim(body.lyricText), trim(body.userNote));
+                String problem = UserDataController.entryProblem(entry);
+                if (problem != null) {
+                    throw new HttpError(400, problem);
+                }
+                EntryView created = journals.write(username, user -> {
+                    user.addEntry(stored(user, entry));
+                    return new EntryView(user.getEntries().size() - 1, entry);
+                });
+                send(exchange, 201, created);
+            } else {
+                throw new HttpError(405, "use GET or POST");
+            }
+            return;
+        }
+
+        int index = parseIndex(path.substring("/entries/".length()));
+        if (method.equals("PUT")) {
+            EntryView body = readBody(exchange, EntryView.class);
+            if (body == null) {
+                throw new HttpError(400, "entry body is required");
+            }
+            EntryView updated = journals.write(username, user -> {
+                LyricEntry base = entryAt(user, index);
+                // fields left out of the body keep their current value
+                LyricEntry entry = new LyricEntry(
+                        body.songTitle == null ? base.getSongTitle() : trim(body.songTitle),
+                        body.artist == null ? base.getArtist() : trim(body.artist),
+                        body.lyricText == null ? base.getLyricText() : trim(body.lyricText),
+                        body.userNote == null ? base.getUserNote() : trim(body.userNote),
+                        base.getDateAdded());
+                String problem = UserDataController.entryProblem(entry);
+                if (problem != null) {
+                    throw new HttpError(400, problem);
+                }
+                free(user.setEntry(index, stored(user, entry)));
+                return new EntryView(index, entry);
+            });
+            send(exchange, 200, updated);
+        } else if (method.equals("DELETE")) {
+            journals.write(username, user -> {
+                entryAt(user, index);
+                free(user.removeEntry(index));
+                return null;
+            });
+            send(exchange, 204, null);
+        } else {
+            throw new HttpError(405, "use PUT or DELETE");
+        }
+    }
+
+    // GET /search?q=<keyword>
+    private void search(HttpExchange exchange) throws IOException {
+        requireMethod(exchange, "GET");
+        String username = authenticate(exchange);
+        String keyword = queryParameter(exchange, "q");
+        if (keyword == null) {
+            throw new HttpError(400, "query parameter q is required");
+        }
+        String trimmed = keyword.trim();
+        SearchKeyword prepared = new SearchKeyword(trimmed);
+        List<EntryView> views = journals.read(username, user -> {
+            List<LyricEntry> entries = user.getEntries();
+            List<EntryView> matches = new ArrayList<>();
+            long start = System.nanoTime();
+            JournalEvents.Search event = new JournalEvents.Search();
+            event.begin();
+            for (int i = 0; i < entries.size(); i++) {
+                if (User.matchEntry(entries.get(i), prepared) != null) {
+                    matches.add(new EntryView(i, entries.get(i)));
+                }
+            }
+            SEARCH_TIME.recordSince(start); // same timer and event as User.searchEntries
+            if (event.shouldCommit()) {
+                event.queryLength = trimmed.length();
+                event.entriesSearched = entries.size();
+                event.resultCount = matches.size();
+                event.commit();
+            }
+            return matches;
+        });
+        send(exchange, 200, views);
+    }
+
+    // GET /metrics - operators only (see lyricjournal.metrics.token)
+    private void metrics(HttpExchange exchange) throws IOException {
+        requireMethod(exchange, "GET");
+        if (metricsToken == null) {
+            throw new HttpError(404, "metrics are not enabled");
+        }
+        String token = token(exchange);
+        if (token == null || !MessageDigest.isEqual(metricsToken, token.getBytes(StandardCharsets.UTF_8))) {
+            throw new HttpError(401, "metrics token required");
+        }
+        JournalCache.Stats stats = journals.stats();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("sessions", sessions.size());
+        body.put("cachedJournals", stats.size);
+        body.put("cachedEntries", stats.weight);
+        body.put("hits", stats.hits);
+        body.put("misses", stats.misses);
+        body.put("hitRate", stats.hitRate());
+        body.put("averageLoadMillis", stats.averageLoadMillis());
+        body.put("evictions", stats.evictions);
+        body.put("expirations", stats.expirations);
+        body.put("writeBacks", stats.writeBacks);
+        body.put("writeBackFailures", stats.writeBackFailures);
+        body.put("counters", Metrics.counters());
+        body.put("latencyMillis", Metrics.latencies());
+        send(exchange, 200, body);
+    }
+
+    // ---------------------------------------------------------------- sessions and journals
+
+    // returns the username for the request's bearer token, or fails with 401
+    // using a session keeps it alive; one idle for too long has ended
+    private String authenticate(HttpExchange exchange) {
+        String token = token(exchange);
+        Session session = token == null ? null : sessions.get(token);
+        long now = System.nanoTime();
+        if (session == null || session.idle(now) > sessionIdleNanos) {
+            if (session != null) {
+                sessions.remove(token, session);
+            }
+            throw new HttpError(401, "login required");
+        }
+        session.lastUsed = now;
+        return session.username;
+    }
+
+    // drops sessions idle for too long - run periodically by sessionSweeper
+    private void expireSessions() {
+        long now = System.nanoTime();
+        sessions.values().removeIf(session -> session.idle(now) > sessionIdleNanos);
+    }
+
+    private static String token(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        return header != null && header.startsWith("Bearer ") ? header.substring(7).trim() : null;
+    }
+
+    // the entry as the user's journal keeps it: copied into the user's arena in off-heap mode
+    private static LyricEntry stored(User user, LyricEntry entry) {
+        return user.getArena() == null ? entry : ArenaLyricEntry.copyOf(entry, user.getArena());
+    }
+
+    // gives a deleted or replaced entry's off-heap text back (the server keeps no undo history)
+    private static void free(LyricEntry removed) {
+        if (removed instanceof ArenaLyricEntry) {
+            ((ArenaLyricEntry) removed).free();
+        }
+    }
+
+    private static LyricEntry entryAt(User user, int index) {
+        if (index < 0 || index >= user.getEntries().size()) {
+            throw new HttpError(404, "no entry at index " + index);
+        }
+        return user.getEntries().get(index);
+    }
+
+    private static String newToken() {
+        byte[] bytes = new byte[24];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    // ---------------------------------------------------------------- HTTP helpers
+
+    // endpoint body - may throw HttpError to send an error response
+    private interface Endpoint {
+        void handle(HttpExchange exchange) throws IOException;
+    }
+
+    // wraps an endpoint with error handling so every request gets exactly one response
+    private HttpHandler handler(Endpoint endpoint) {
+        return exchange -> {
+            try {
+                endpoint.handle(exchange);
+            } catch (HttpError e) {
+                send(exchange, e.status, Map.of("error", e.getMessage()));
+            } catch (JsonParseException e) {
+                send(exchange, 400, Map.of("error", "malformed JSON"));
+            } catch (RuntimeException e) {
+                System.err.println("Error handling " + exchange.getRequestURI() + ": " + e);
+                send(exchange, 500, Map.of("error", "internal error"));
+            } finally {
+                exchange.close();
+            }
+        };
+    }
+
+    private static void send(HttpExchange exchange, int status, Object body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] bytes = gson.toJson(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private static <T> T readBody(HttpExchange exchange, Class<T> type) throws IOException {
+        try (Reader reader = new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8)) {
+            return gson.fromJson(reader, type);
+        }
+    }
+
+    private static void requireMethod(HttpExchange exchange, String method) {
+        if (!exchange.getRequestMethod().equals(method)) {
+            throw new HttpError(405, "use " + method);
+        }
+    }
+
+    private static String queryParameter(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            String key = equals < 0 ? pair : pair.substring(0, equals);
+            if (key.equals(name)) {
+                return equals < 0 ? "" : URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    private static int parseIndex(String text) {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new HttpError(404, "no entry " + text);
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    private static String trim(String value) {
+        return value == null ? "" : value.trim();
+    }
+
+    // a logged-in client: the account and when the session was last used
+    private static final class Session {
+        final String username;
+        volatile long lastUsed;   // System.nanoTime()
+
+        Session(String username, long lastUsed) {
+            this.username = username;
+            this.lastUsed = lastUsed;
+        }
+
+        long idle(long now) {
+            return now - lastUsed;
+        }
+    }
+
+    // request body for register and login
+    private static final class Credentials {
+        String username;
+        String password;
+    }
+
+    // entry as sent and received over HTTP - index is ignored in request bodies
+    private static final class EntryView {
+        int index;
+        String songTitle;
+        String artist;
+        String lyricText;
+        String userNote;
+        String dateAdded;
+
+        EntryView(int index, LyricEntry entry) {
+            this.index = index;
+            this.songTitle = entry.getSongTitle();
+            this.artist = entry.getArtist();
+            this.lyricText = entry.getLyricText();
+            this.userNote = entry.getUserNote();
+            this.dateAdded = entry.getDateAdded();
+        }
+    }
+
+    // error response with an HTTP status
+    private static final class HttpError extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        final int status;
+
+        HttpError(int status, String message) {
+            super(message, null, false, false); // no stack trace - these are expected
+            this.status = status;
+        }
+    }
+}
@@ -24,10 +24,12 @@ package com.mycompany.lyricjournal;
 import com.mycompany.lyricjournal.Model.*;
 import com.mycompany.lyricjournal.Controller.*;
 import com.mycompany.lyricjournal.View.*;
+import com.mycompany.lyricjournal.Diagnostics.*;
 
 import javax.swing.*;
 import java.awt.event.ActionEvent;
-import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
 import java.util.ArrayList;
 
 
@@ -38,6 +40,11 @@ public class LyricJournalTest {
     private static int totalTests = 0;
     private static int passedTests = 0;
     
+    // keep test accounts and journals out of the real data files
+    private static final Path root = Storage.newInMemoryRoot();
+    private static final UserManager users = new UserManager(root);
+    private static final UserDataController journals = new UserDataController(root);
+    
     public static void main(String[] args) {
         System.out.println("=== LyricJournal Comprehensive Test Suite ===\n");
         
@@ -74,6 +81,7 @@ public class LyricJournalTest {
         testUserPasswordValidation();
         testUserEntryManagement();
         testUserSearch();
+        testUserSearchMatches();
         
         // test LyricEntry creation and functionality
         testLyricEntryCreation();
@@ -162,6 +170,28 @@ public class LyricJournalTest {
         assertTrue("No search results", noResults.isEmpty());
     }
     
+    /**
+     * Test search match offsets returned with each result
+     * Example: Searching "the" in "Is this the real life" should report offset 8 in the lyric text
+     */
+    private static void testUserSearchMatches() {
+        User user = new User("testUser", "testPass");
+        user.addEntry(new LyricEntry("The Real Life", "Queen", "Is this the real life? Is THE fantasy", "Note"));
+        
+        ArrayList<SearchResult> results = user.searchEntriesWithMatches("the");
+        assertTrue("Search matches - one result", results.size() == 1);
+        
+        SearchResult result = results.get(0);
+        assertTrue("Search matches - match length", result.getMatchLength() == 3);
+        assertTrue("Search matches - title offset", 
+            result.getTitleMatches().length == 1 && result.getTitleMatches()[0] == 0);
+        assertTrue("Search matches - no artist offsets", result.getArtistMatches().length == 0);
+        assertTrue("Search matches - lyric offsets (case-insensitive)", 
+            result.getLyricMatches().length == 2 && 
+            result.getLyricMatches()[0] == 8 && result.getLyricMatches()[1] == 26);
+        assertTrue("Search matches - null keyword", user.searchEntriesWithMatches(null).isEmpty());
+    }
+    
     /**
      * Test LyricEntry creation with automatic date
      * Example: new LyricEntry("Title", "Artist", "Lyrics", "Note") should have today's date
@@ -229,21 +259,42 @@ public class LyricJournalTest {
         testUserRegistration();
         testUserLoginValidation();
         testDuplicateUserRegistration();
+        testPasswordHashing();
+        testUserDirectory();
+        testMemoryFileSystem();
+        testJournalGenerator();
+        testMetrics();
+        testFlightRecorderEvents();
+        testJournalEncoding();
+        testLazyBodies();
+        testLyricArena();
+        testUtf8Search();
+        testEdtWatchdog();
+        testMemoryFootprint();
+        testEntryRepresentation();
+        testDateIndex();
+        testColumnarJournal();
+        testPersistentVector();
+        testLoginThrottle();
         testDataPersistence();
         testFileOperations();
+        testJournalHistory();
+        testJournalCache();
+        testJournalCacheSaveFailure();
+        testCliIntegrityRules();
         
         System.out.println();
     }
     
     /**
      * Test UserManager user registration
-     * Example: UserManager.registerUser("newUser", "pass") should return true for new users
+     * Example: users.registerUser("newUser", "pass") should return true for new users
      */
     private static void testUserRegistration() {
         String testUser = "testUser" + System.currentTimeMillis(); // unique username
-        boolean result = UserManager.registerUser(testUser, "testPassword");
+        boolean result = users.registerUser(testUser, "testPassword");
         assertTrue("User registration - new user", result);
-        assertTrue("User registration - user exists after registration", UserManager.userExists(testUser));
+        assertTrue("User registration - user exists after registration", users.userExists(testUser));
     }
     
     /**
@@ -255,19 +306,19 @@ public class LyricJournalTest {
         String testPassword = "loginTestPassword";
         
         // register user first
-        UserManager.registerUser(testUser, testPassword);
+        users.registerUser(testUser, testPassword);
         
         // test valid login
         assertTrue("Login validation - correct credentials", 
-            UserManager.validateLogin(testUser, testPassword));
+            users.validateLogin(testUser, testPassword));
         
         // test invalid password
         assertFalse("Login validation - wrong password", 
-            UserManager.validateLogin(testUser, "wrongPassword"));
+            users.validateLogin(testUser, "wrongPassword"));
         
         // test non-existent user
         assertFalse("Login validation - non-existent user", 
-            UserManager.validateLogin("nonExistentUser", "anyPassword"));
+            users.validateLogin("nonExistentUser", "anyPassword"));
     }
     
     /**
@@ -279,11 +330,1043 @@ public class LyricJournalTest {
         
         // first registration should succeed
         assertTrue("Duplicate registration - first attempt", 
-            UserManager.registerUser(testUser, "password1"));
+            users.registerUser(testUser, "password1"));
         
         // second registration should fail
         assertFalse("Duplicate registration - second attempt", 
-            UserManager.registerUser(testUser, "password2"));
+            users.registerUser(testUser, "password2"));
+    }
+    
+    /**
+     * Test PasswordHasher salted hashing, verification and legacy detection
+     * Example: hash("secret") should verify "secret", reject "Secret", and never equal the plaintext
+     */
+    private static void testPasswordHashing() {
+        String stored = PasswordHasher.hash("secret");
+        assertTrue("Password hashing - not plaintext", !stored.contains("secret") && PasswordHasher.isHashed(stored));
+        assertTrue("Password hashing - verify correct", PasswordHasher.verify("secret", stored));
+        assertFalse("Password hashing - verify wrong", PasswordHasher.verify("Secret", stored));
+        assertFalse("Password hashing - verify null", PasswordHasher.verify(null, stored));
+        assertFalse("Password hashing - salted", stored.equals(PasswordHasher.hash("secret")));
+        assertFalse("Password hashing - current hash kept", PasswordHasher.needsRehash(stored));
+        
+        // legacy plaintext records still verify and are flagged for migration
+        assertTrue("Password hashing - legacy verify", PasswordHasher.verify("admin", "admin"));
+        assertTrue("Password hashing - legacy needs rehash", PasswordHasher.needsRehash("admin"));
+    }
+    
+    /**
+     * Test the append-only user directory: growth, password replacement, reopening and compaction
+     * Example: an account inserted before close() is found again after reopening
+     */
+    private static void testUserDirectory() {
+        Path log = root.resolve("directoryTest.log");
+        Path idx = root.resolve("directoryTest.idx");
+        try {
+            try (UserDirectory directory = UserDirectory.open(log, idx)) {
+                boolean inserted = true;
+                for (int i = 0; i < 3000; i++) { // enough to grow the index twice
+                    inserted &= directory.insert("user" + i, "hash" + i);
+                }
+                assertTrue("User directory - inserts", inserted && directory.size() == 3000);
+                assertFalse("User directory - duplicate rejected", directory.insert("user7", "other"));
+                assertTrue("User directory - lookup", "hash2999".equals(directory.find("user2999")));
+                assertTrue("User directory - missing user", directory.find("nobody") == null);
+                assertFalse("User directory - replace checks old value", directory.replace("user1", "wrong", "new"));
+                assertTrue("User directory - replace", directory.replace("user1", "hash1", "new1")
+                    && "new1".equals(directory.find("user1")));
+            }
+            
+            // index lost (e.g. crash) - rebuilt from the log, latest record wins
+            Files.delete(idx);
+            try (UserDirectory directory = UserDirectory.open(log, idx)) {
+                assertTrue("User directory - rebuilt index", directory.size() == 3000
+                    && "new1".equals(directory.find("user1")) && "hash5".equals(directory.find("user5")));
+                long before = Files.size(log);
+                assertTrue("User directory - compaction reclaims space", directory.compact() > 0 && Files.size(log) < before);
+                assertTrue("User directory - data kept after compaction", directory.usernames().size() == 3000
+                    && "new1".equals(directory.find("user1")));
+            }
+        } catch (IOException e) {
+            assertTrue("User directory - no I/O errors (" + e.getMessage() + ")", false);
+        } finally {
+            deleteQuietly(log);
+            deleteQuietly(idx);
+        }
+    }
+    
+    /**
+     * Test the date index kept by User
+     * Example: entries from June to August 2024 are found by one range lookup, and deletes and reloads keep it in step
+     */
+    private static void testDateIndex() {
+        User user = new User("dateIndexUser", "pw");
+        LyricEntry may = new LyricEntry("May", "A", "L", "", "2024-05-31");
+        LyricEntry june = new LyricEntry("June", "A", "L", "", "2024-06-01");
+        LyricEntry july = new LyricEntry("July", "A", "L", "", "2024-07-15");
+        LyricEntry july2 = new LyricEntry("July again", "A", "L", "", "2024-07-15");
+        LyricEntry autumn = new LyricEntry("Autumn", "A", "L", "", "2024-09-01");
+        user.addEntry(autumn);
+        user.addEntry(july);
+        user.addEntry(may);
+        user.addEntry(june);
+        user.addEntry(july2);
+        user.addEntry(new LyricEntry("Undated", "A", "L", "", "someday"));
+        
+        DateIndex index = user.getDateIndex();
+        java.time.LocalDate from = java.time.LocalDate.of(2024, 6, 1);
+        java.time.LocalDate to = java.time.LocalDate.of(2024, 8, 31);
+        assertTrue("Date index - range query returns the range in date order",
+            index.entriesBetween(from, to).equals(java.util.List.of(june, july, july2)));
+        assertTrue("Date index - per-day counts",
+            index.countOn(java.time.LocalDate.of(2024, 7, 15)) == 2
+            && index.countsBetween(null, null).size() == 4
+            && index.size() == 5 && index.getUndatedCount() == 1
+            && java.time.LocalDate.of(2024, 5, 31).equals(index.firstDate()));
+        
+        user.removeEntry(user.getEntries().indexOf(july));
+        user.setEntry(user.getEntries().indexOf(june), new LyricEntry("June edited", "A", "L", "", "2024-06-01"));
+        java.util.List<LyricEntry> summer = index.entriesBetween(from, to);
+        assertTrue("Date index - follows deletes and edits",
+            summer.size() == 2 && summer.get(0).getSongTitle().equals("June edited") && summer.get(1) == july2);
+        
+        try {
+            journals.saveUser(user);
+            journals.loadUserEntries(user);
+            journals.loadUserEntries(user); // a second load must not double the index
+            assertTrue("Date index - rebuilt when the journal is loaded again",
+                index.size() == 4 && index.getUndatedCount() == 1
+                && index.entriesBetween(from, to).size() == 2
+                && index.entriesBetween(from, to).get(0) == user.getEntries().get(2));
+        } finally {
+            deleteJournal("dateIndexUser");
+        }
+    }
+    
+    /**
+     * Test the columnar snapshot against the entry objects it was built from
+     * Example: searching the snapshot for "love" finds the same rows as user.searchEntries("love")
+     */
+    private static void testColumnarJournal() {
+        User user = new User("columnarUser", "pw");
+        new JournalGenerator(7).forEach("columnarUser", 500, user::addEntry);
+        user.addEntry(new LyricEntry(null, null, "İstanbul lyrics", null, "not a date"));
+        user.addEntry(new LyricEntry("Kelvin \u212A", "A", "L", "", null));
+        ColumnarJournal journal = user.getColumnarSnapshot();
+        
+        boolean sameRows = true;
+        for (String keyword : new String[] {"love", "LOVE", "e", "zzzq", "k", "i", "", "é"}) {
+            java.util.List<LyricEntry> expected = user.searchEntries(keyword);
+            int[] rows = journal.search(keyword);
+            sameRows &= rows.length == expected.size();
+            for (int i = 0; sameRows && i < rows.length; i++) {
+                sameRows = user.getEntries().get(rows[i]) == expected.get(i);
+            }
+        }
+        assertTrue("Columnar journal - search finds the same entries as User.searchEntries",
+            sameRows && journal.search(null).length == 0);
+        
+        boolean sameFields = journal.size() == user.getEntries().size();
+        for (int row = 0; sameFields && row < journal.size(); row++) {
+            LyricEntry original = user.getEntries().get(row);
+            LyricEntry copy = journal.entry(row);
+            sameFields = java.util.Objects.equals(original.getSongTitle(), copy.getSongTitle())
+                && java.util.Objects.equals(original.getArtist(), copy.getArtist())
+                && java.util.Objects.equals(original.getLyricText(), copy.getLyricText())
+                && java.util.Objects.equals(original.getUserNote(), copy.getUserNote())
+                && java.util.Objects.equals(original.getDateAdded(), copy.getDateAdded());
+        }
+        assertTrue("Columnar journal - every row reads back as its entry, nulls and odd dates included", sameFields);
+        
+        int[] counts = journal.artistEntryCounts();
+        int counted = 0;
+        for (int count : counts) {
+            counted += count;
+        }
+        assertTrue("Columnar journal - artist counts cover every entry with an artist",
+            counted == journal.size() - 1 && journal.artistCount() == counts.length
+            && journal.dayRange()[0] == user.getDateIndex().firstDate().toEpochDay());
+        
+        user.addEntry(new LyricEntry("New", "A", "L", ""));
+        assertTrue("Columnar journal - snapshot is rebuilt after a change",
+            user.getColumnarSnapshot() != journal && user.getColumnarSnapshot().size() == journal.size() + 1
+            && user.getColumnarSnapshot() == user.getColumnarSnapshot());
+    }
+    
+    /**
+     * Test the persistent entry vector and User's lock-free snapshots
+     * Example: a list taken before addEntry still has the old entries afterwards
+     */
+    private static void testPersistentVector() {
+        // 40,000 elements need three levels of nodes above the leaves
+        PersistentVector<Integer> vector = PersistentVector.empty();
+        ArrayList<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 40000; i++) {
+            vector = vector.withAdded(i);
+            expected.add(i);
+        }
+        ArrayList<Integer> iterated = new ArrayList<>();
+        vector.forEach(iterated::add);
+        assertTrue("Persistent vector - appends read back by index, iterator and forEach",
+            vector.equals(expected) && iterated.equals(expected) && vector.get(32767) == 32767
+            && PersistentVector.of(expected).equals(expected));
+        
+        PersistentVector<Integer> before = vector;
+        PersistentVector<Integer> after = vector.withSet(5, -5).withSet(39999, -1).withRemoved(0);
+        assertTrue("Persistent vector - a new version leaves the old one unchanged",
+            before.equals(expected) && after.size() == 39999 && after.get(4) == -5 && after.get(39998) == -1);
+        
+        // random inserts, removes, sets and appends against an ArrayList
+        java.util.Random random = new java.util.Random(47);
+        PersistentVector<Integer> small = PersistentVector.of(expected.subList(0, 1100));
+        ArrayList<Integer> reference = new ArrayList<>(expected.subList(0, 1100));
+        boolean same = true;
+        for (int op = 0; op < 3000 && same; op++) {
+            int choice = random.nextInt(4);
+            if (choice == 0 && !reference.isEmpty()) {
+                int index = random.nextInt(reference.size());
+                small = small.withRemoved(index);
+                reference.remove(index);
+            } else if (choice == 1) {
+                int index = random.nextInt(reference.size() + 1);
+                small = small.withAdded(index, op);
+                reference.add(index, op);
+            } else if (choice == 2 && !reference.isEmpty()) {
+                int index = random.nextInt(reference.size());
+                small = small.withSet(index, -op);
+                reference.set(index, -op);
+            } else {
+                small = small.withAdded(op);
+                reference.add(op);
+            }
+            same = small.size() == reference.size() && (op % 100 != 0 || small.equals(reference));
+        }
+        assertTrue("Persistent vector - inserts and removes anywhere match ArrayList", same && small.equals(reference));
+        
+        while (!small.isEmpty()) {
+            small = small.withRemoved(small.size() - 1);
+            reference.remove(reference.size() - 1);
+            same &= small.size() == reference.size() && (small.size() % 97 != 0 || small.equals(reference));
+        }
+        assertTrue("Persistent vector - removing from the end empties it", same && small.isEmpty());
+        
+        boolean readOnly;
+        try {
+            vector.add(1);
+            readOnly = false;
+        } catch (UnsupportedOperationException e) {
+            readOnly = true;
+        }
+        assertTrue("Persistent vector - List methods that change it throw", readOnly);
+        
+        // User: getEntries() is a snapshot
+        User user = new User("vectorUser", "pw");
+        LyricEntry first = new LyricEntry("One", "A", "L", "");
+        user.addEntry(first);
+        java.util.List<LyricEntry> snapshot = user.getEntries();
+        user.addEntry(new LyricEntry("Two", "A", "L", ""));
+        user.setEntry(0, new LyricEntry("One edited", "A", "L", ""));
+        assertTrue("Persistent vector - a snapshot does not see later changes",
+            snapshot.size() == 1 && snapshot.get(0) == first && user.getEntries().size() == 2
+            && "One edited".equals(user.getEntries().get(0).getSongTitle()));
+        
+        user.replaceEntries(java.util.List.of(first));
+        assertTrue("Persistent vector - replaceEntries swaps in every entry and the date index",
+            user.getEntries().equals(snapshot) && user.getDateIndex().size() == 1);
+        
+        // a reader thread walks snapshots while entries are added
+        int[] inconsistent = {0};
+        Thread reader = new Thread(() -> {
+            for (int i = 0; i < 200; i++) {
+                java.util.List<LyricEntry> entries = user.getEntries();
+                int counted = 0;
+                for (LyricEntry entry : entries) {
+                    counted++;
+                }
+                if (counted != entries.size()) {
+                    inconsistent[0]++;
+                }
+            }
+        });
+        reader.start();
+        for (int i = 0; i < 20000; i++) {
+            user.addEntry(first);
+        }
+        try {
+            reader.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        assertTrue("Persistent vector - readers on another thread see whole versions",
+            inconsistent[0] == 0 && user.getEntries().size() == 20001);
+    }
+    
+    /**
+     * Test the compact entry representation (canonical artists, int dates, unchanged JSON)
+     * Example: "2024-02-30" is not a date, so it is kept and saved verbatim
+     */
+    private static void testEntryRepresentation() {
+        LyricEntry first = new LyricEntry("Song", new String("Queen"), "Lyrics", "Note", "2024-01-15");
+        LyricEntry second = new LyricEntry("Song", new String("Queen"), "Lyrics", "Note", "2024-01-15");
+        assertTrue("Entry representation - equal artists share one string", first.getArtist() == second.getArtist());
+        assertTrue("Entry representation - date formats as yyyy-MM-dd",
+            "2024-01-15".equals(first.getDateAdded())
+            && java.time.LocalDate.of(2024, 1, 15).equals(first.getDate()));
+        assertTrue("Entry representation - new entries are dated today",
+            java.time.LocalDate.now().toString().equals(new LyricEntry("T", "A", "L", "").getDateAdded()));
+        
+        boolean verbatim = true;
+        for (String text : new String[] {"2024-02-30", "", "15/01/2024", "2024-1-5", "0000-01-01"}) {
+            LyricEntry entry = new LyricEntry("T", "A", "L", "", text);
+            verbatim &= text.equals(entry.getDateAdded());
+        }
+        LyricEntry undated = new LyricEntry("T", "A", "L", "", null);
+        assertTrue("Entry representation - dates that are not valid are kept verbatim",
+            verbatim && new LyricEntry("T", "A", "L", "", "2024-02-30").getDate() == null
+            && undated.getDateAdded() == null && undated.getDate() == null);
+        
+        com.google.gson.Gson gson = new com.google.gson.Gson();
+        assertTrue("Entry representation - JSON format is unchanged",
+            "{\"songTitle\":\"Song\",\"artist\":\"Queen\",\"lyricText\":\"Lyrics\",\"userNote\":\"Note\",\"dateAdded\":\"2024-01-15\"}"
+                .equals(gson.toJson(first))
+            && "{\"songTitle\":\"T\",\"artist\":\"A\",\"lyricText\":\"L\"}".equals(gson.toJson(new LyricEntry("T", "A", "L", null, null))));
+        LyricEntry read = gson.fromJson(
+            "{\"songTitle\":1984,\"extra\":[1],\"artist\":\"Queen\",\"lyricText\":\"L\",\"dateAdded\":\"2024-01-15\"}", LyricEntry.class);
+        assertTrue("Entry representation - JSON reading is as lenient as before",
+            "1984".equals(read.getSongTitle()) && read.getArtist() == first.getArtist()
+            && read.getUserNote() == null && "2024-01-15".equals(read.getDateAdded()));
+    }
+    
+    /**
+     * Test that journals are written as plain UTF-8 and keep every character
+     * Example: "corazón 愛" is read back unchanged whatever the platform charset
+     */
+    private static void testJournalEncoding() {
+        try {
+            User user = new User("encodingUser", "pw");
+            user.addEntry(new LyricEntry("Canción", "Björk", "corazón 愛 사랑 🎵", ""));
+            journals.saveUser(user);
+            User loaded = new User("encodingUser", "pw");
+            journals.loadUserEntries(loaded);
+            assertTrue("Journal encoding - non-ASCII text survives save and load",
+                "corazón 愛 사랑 🎵".equals(loaded.getEntries().get(0).getLyricText())
+                && "Björk".equals(loaded.getEntries().get(0).getArtist()));
+            
+            byte[] saved = Files.readAllBytes(journals.getJournalPath("encodingUser"));
+            assertTrue("Journal encoding - journals are plain UTF-8 JSON without a byte order mark",
+                saved.length > 0 && saved[0] == '[');
+            
+            // a journal an editor saved with a byte order mark still loads
+            Files.write(journals.getJournalPath("encodingUser"),
+                "\uFEFF[{\"songTitle\":\"Old\",\"artist\":\"A\",\"lyricText\":\"L\",\"userNote\":\"\",\"dateAdded\":\"2024-01-01\"}]"
+                    .getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            User marked = new User("encodingUser", "pw");
+            journals.loadUserEntries(marked);
+            assertTrue("Journal encoding - a journal starting with a byte order mark loads",
+                marked.getEntries().size() == 1 && "Old".equals(marked.getEntries().get(0).getSongTitle()));
+        } catch (IOException e) {
+            assertTrue("Journal encoding - no I/O errors (" + e.getMessage() + ")", false);
+        } finally {
+            deleteJournal("encodingUser");
+        }
+    }
+    
+    /**
+     * Test lazy mode: loading from the journal index, bodies read on first use
+     * Example: after a lazy load no lyric text is in memory until getLyricText is called
+     */
+    private static void testLazyBodies() {
+        boolean wasLazy = journals.isLazyBodies();
+        journals.setLazyBodies(true);
+        java.util.concurrent.atomic.LongAdder bodiesRead = Metrics.counter("journal.bodiesRead");
+        try {
+            User user = new User("lazyUser", "pw");
+            user.addEntry(new LyricEntry("Canción", "Björk", "corazón 愛 🎵 \"quoted\" \\ <b>&", null, "2024-01-15"));
+            user.addEntry(new LyricEntry("Odd", "A", null, "note \uD800 alone", "not a date"));
+            new JournalGenerator(48).forEach("lazyUser", 200, user::addEntry);
+            journals.saveUser(user);
+            
+            long readBefore = bodiesRead.sum();
+            User lazy = new User("lazyUser", "pw");
+            journals.loadUserEntries(lazy);
+            LyricEntry first = lazy.getEntries().get(0);
+            assertTrue("Lazy bodies - load reads titles, artists and dates only",
+                first instanceof LazyLyricEntry && ((LazyLyricEntry) first).residentBodies() == null
+                && bodiesRead.sum() == readBefore && lazy.getEntries().size() == 202
+                && "Björk".equals(first.getArtist()) && "2024-01-15".equals(first.getDateAdded())
+                && Files.exists(journals.getIndexPath("lazyUser")));
+            
+            journals.setLazyBodies(false);
+            User eager = new User("lazyUser", "pw");
+            journals.loadUserEntries(eager);
+            journals.setLazyBodies(true);
+            boolean same = true;
+            for (int i = 0; i < eager.getEntries().size(); i++) {
+                LyricEntry expected = eager.getEntries().get(i);
+                LyricEntry actual = lazy.getEntries().get(i);
+                same &= java.util.Objects.equals(expected.getLyricText(), actual.getLyricText())
+                    && java.util.Objects.equals(expected.getUserNote(), actual.getUserNote())
+                    && java.util.Objects.equals(expected.getSongTitle(), actual.getSongTitle())
+                    && java.util.Objects.equals(expected.getDateAdded(), actual.getDateAdded());
+            }
+            assertTrue("Lazy bodies - bodies read on demand match a full load",
+                same && bodiesRead.sum() == readBefore + 202 && ((LazyLyricEntry) first).residentBodies() != null
+                && "corazón 愛 🎵 \"quoted\" \\ <b>&".equals(first.getLyricText()));
+            
+            // an edit, then a save while other entries still read from the loaded file
+            lazy.getEntries().get(1).setUserNote("edited");
+            journals.saveUser(lazy);
+            User reloaded = new User("lazyUser", "pw");
+            journals.loadUserEntries(reloaded);
+            assertTrue("Lazy bodies - edits and unread bodies survive a save",
+                "edited".equals(reloaded.getEntries().get(1).getUserNote())
+                && lazy.getEntries().get(200).getLyricText().equals(reloaded.getEntries().get(200).getLyricText())
+                && reloaded.getEntries().get(1).getLyricText() == null);
+            
+            User fresh = new User("lazyUser", "pw");
+            journals.loadUserEntries(fresh);
+            MemoryFootprint.Report report = MemoryFootprint.measure(java.util.List.of(fresh));
+            assertTrue("Lazy bodies - the memory estimate does not load bodies",
+                report.getField("lyricText").getBytes() == 0 && ((LazyLyricEntry) fresh.getEntries().get(5)).residentBodies() == null);
+            
+            // once the journal is closed an unread body fails loudly instead of becoming null
+            LazyLyricEntry unread = (LazyLyricEntry) fresh.getEntries().get(6);
+            fresh.setBodySource(null);
+            boolean failed = false;
+            try {
+                unread.setUserNote("lost?");
+            } catch (java.io.UncheckedIOException e) {
+                failed = true;
+            }
+            assertTrue("Lazy bodies - an unreadable body throws and the entry is unchanged",
+                failed && unread.residentBodies() == null && fresh.getBodySource() == null);
+            lazy.setBodySource(null);
+            reloaded.setBodySource(null);
+            
+            // a journal changed behind the index's back is loaded in full
+            Files.write(journals.getJournalPath("lazyUser"),
+                "[{\"songTitle\":\"Replaced\",\"artist\":\"A\",\"lyricText\":\"L\",\"userNote\":\"\",\"dateAdded\":\"2024-01-01\"}]"
+                    .getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            User stale = new User("lazyUser", "pw");
+            journals.loadUserEntries(stale);
+            assertTrue("Lazy bodies - a stale index is ignored",
+                stale.getEntries().size() == 1 && "L".equals(stale.getEntries().get(0).getLyricText())
+                && !(stale.getEntries().get(0) instanceof LazyLyricEntry));
+        } catch (IOException e) {
+            assertTrue("Lazy bodies - no I/O errors (" + e.getMessage() + ")", false);
+        } finally {
+            journals.setLazyBodies(wasLazy);
+            deleteJournal("lazyUser");
+            deleteQuietly(journals.getIndexPath("lazyUser"));
+        }
+    }
+    
+    /**
+     * Test off-heap text storage
+     * Example: a stored text loads back equal; after free() its handle fails and the slot is reused
+     */
+    private static void testLyricArena() {
+        LyricArena arena = new LyricArena();
+        String large = "la ".repeat(100_000);
+        long unicode = arena.store("corazón 愛 🎵");
+        long big = arena.store(large);
+        assertTrue("Lyric arena - texts load back unchanged",
+            "corazón 愛 🎵".equals(arena.load(unicode)) && large.equals(arena.load(big))
+            && arena.load(arena.store(null)) == null && "".equals(arena.load(arena.store("")))
+            && arena.getReservedBytes() > large.length());
+        
+        arena.free(unicode);
+        boolean stale = false;
+        try {
+            arena.load(unicode);
+        } catch (IllegalStateException e) {
+            stale = true;
+        }
+        boolean doubleFree = false;
+        try {
+            arena.free(unicode);
+        } catch (IllegalStateException e) {
+            doubleFree = true;
+        }
+        assertTrue("Lyric arena - a freed handle can no longer be used", stale && doubleFree);
+        
+        arena.free(big);
+        long reserved = arena.getReservedBytes();
+        for (int i = 0; i < 1000; i++) {
+            arena.free(arena.store("verse " + i));
+        }
+        assertTrue("Lyric arena - freed space is reused",
+            arena.getReservedBytes() == reserved && arena.getUsedBytes() == 0);
+        
+        User user = new User("arenaUser", "pw");
+        user.setArena(arena);
+        user.addEntry(ArenaLyricEntry.copyOf(new LyricEntry("Canción", "Björk", "lyrics 愛", null, "2024-01-15"), arena));
+        user.addEntry(ArenaLyricEntry.copyOf(new LyricEntry("Two", "A", "", "note", "2024-01-16"), arena));
+        user.getEntries().get(1).setLyricText("changed");
+        journals.saveUser(user);
+        User loaded = new User("arenaUser", "pw");
+        loaded.setArena(new LyricArena());
+        journals.loadUserEntries(loaded);
+        LyricEntry first = loaded.getEntries().get(0);
+        assertTrue("Lyric arena - entries save and load through the arena",
+            first instanceof ArenaLyricEntry && ((ArenaLyricEntry) first).getArena() == loaded.getArena()
+            && "lyrics 愛".equals(first.getLyricText()) && first.getUserNote() == null
+            && "changed".equals(loaded.getEntries().get(1).getLyricText())
+            && "Björk".equals(first.getArtist()) && "2024-01-15".equals(first.getDateAdded()));
+        assertTrue("Lyric arena - the memory estimate counts no heap text",
+            MemoryFootprint.measure(java.util.List.of(loaded)).getField("lyricText").getBytes() == 0);
+
+        // the lyric text is searched where it lies: same offsets as on the heap, no copy per miss
+        SearchResult arenaHit = User.matchEntry(first, new SearchKeyword("LYRICS 愛"));
+        SearchKeyword absent = new SearchKeyword("absent");
+        com.sun.management.ThreadMXBean arenaThreads = (com.sun.management.ThreadMXBean) java.lang.management.ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < 1000; i++) {
+            User.matchEntry(first, absent); // warm up
+        }
+        long arenaBefore = arenaThreads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 1000; i++) {
+            User.matchEntry(first, absent);
+        }
+        long arenaAllocated = arenaThreads.getCurrentThreadAllocatedBytes() - arenaBefore;
+        assertTrue("Lyric arena - searched in place (" + arenaAllocated + " bytes for 1000 misses)",
+            arenaHit != null && java.util.Arrays.equals(arenaHit.getLyricMatches(), new int[] {0})
+            && arenaAllocated < 1000);
+
+        long total = LyricArena.getTotalReservedBytes();
+        long held = loaded.getArena().getReservedBytes();
+        loaded.getArena().release();
+        boolean released = false;
+        try {
+            first.getLyricText();
+        } catch (IllegalStateException e) {
+            released = true;
+        }
+        assertTrue("Lyric arena - release gives back all of the arena's memory",
+            released && held > 0 && LyricArena.getTotalReservedBytes() == total - held
+            && loaded.getArena().getReservedBytes() == 0);
+        arena.release();
+        
+        // the cache releases an evicted user's arena; the user's text was saved first
+        try (JournalCache cache = new JournalCache(journals, 1, java.time.Duration.ofMinutes(10), java.time.Duration.ofMinutes(10), true)) {
+            LyricArena evictedArena = cache.write("arenaUser", cached -> {
+                cached.addEntry(ArenaLyricEntry.copyOf(new LyricEntry("Song", "Artist", "Lyrics", ""), cached.getArena()));
+                return cached.getArena();
+            });
+            cache.write("arenaUser2", cached -> null); // over the bound - arenaUser is evicted
+            assertTrue("Lyric arena - an evicted journal's arena is released",
+                evictedArena != null && evictedArena.isReleased()
+                && "Lyrics".equals(cache.read("arenaUser", cached -> cached.getEntries().get(2).getLyricText())));
+        } finally {
+            deleteJournal("arenaUser");
+            deleteJournal("arenaUser2");
+        }
+    }
+    
+    /**
+     * Test UTF-8 entry storage and the byte-level search
+     * Example: "DON’T" matches "don’t" at the same String offset the String search reports
+     */
+    private static void testUtf8Search() {
+        String[] texts = {"plain ascii", "corazón", "Don’t stop", "愛してる", "🎵 la 🎵", "lone \uD800 high", "low \uDC00", "real \uFFFD", ""};
+        boolean roundTrip = true;
+        for (String text : texts) {
+            byte[] bytes = Utf8Text.encode(text);
+            roundTrip &= text.equals(Utf8Text.decode(bytes)) && bytes.length == Utf8Text.encodedLength(text);
+        }
+        LyricEntry stored = new LyricEntry("Title \uD83C", "Artist", texts[5], null, "2024-01-15");
+        assertTrue("UTF-8 storage - every text comes back unchanged",
+            roundTrip && Utf8Text.decode(null) == null && texts[5].equals(stored.getLyricText())
+            && "Title \uD83C".equals(stored.getSongTitle()) && stored.getUserNote() == null);
+        
+        // the byte search reports what String.regionMatches(true, ...) finds, at the same offsets
+        String[][] cases = {
+            {"I love you, LOVE, lovelove", "love"}, {"Don’t stop believin’", "DON’T"},
+            {"Ünïcödé ÜNÏCÖDÉ", "ünïcödé"}, {"ſong of the Kelvin \u212A", "song"}, {"temperature 5\u212A", "k"},
+            {"İstanbul ıs", "I"}, {"ΣΊΣΥΦΟΣ σίσυφος", "σίσυφοσ"}, {"🎵 la 🎵 LA", "la 🎵"},
+            {"mixed 愛 and 愛してる", "愛し"}, {"aaaa", "aa"}, {"short", "longer keyword"}, {"ǅ ǆ Ǆ", "ǅ"}
+        };
+        boolean same = true;
+        for (String[] c : cases) {
+            LyricEntry entry = new LyricEntry(c[0], "Artist", c[0], "");
+            SearchResult hit = User.matchEntry(entry, new SearchKeyword(c[1]));
+            int[] expected = regionMatchOffsets(c[0], c[1]);
+            int[] actual = hit == null ? new int[0] : hit.getLyricMatches();
+            same &= java.util.Arrays.equals(expected, actual)
+                && (hit == null || java.util.Arrays.equals(expected, hit.getTitleMatches()));
+            if (!java.util.Arrays.equals(expected, actual)) {
+                System.out.println("  " + c[1] + " in " + c[0] + ": " + java.util.Arrays.toString(actual)
+                    + " expected " + java.util.Arrays.toString(expected));
+            }
+        }
+        assertTrue("UTF-8 search - same matches and offsets as the String search", same);
+        
+        // searching entries that do not match allocates nothing
+        User user = new User("utf8User", "pw");
+        for (int i = 0; i < 1000; i++) {
+            user.addEntry(new LyricEntry("Song " + i, "Artist", "lyrics with “quotes” " + i, "note"));
+        }
+        SearchKeyword keyword = new SearchKeyword("absent");
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) java.lang.management.ManagementFactory.getThreadMXBean();
+        for (LyricEntry entry : user.getEntries()) {
+            User.matchEntry(entry, keyword); // warm up
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        int hits = 0;
+        for (LyricEntry entry : user.getEntries()) {
+            hits += User.matchEntry(entry, keyword) == null ? 0 : 1;
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        assertTrue("UTF-8 search - no allocation per entry (" + allocated + " bytes for 1000 entries)",
+            hits == 0 && allocated < 1000);
+        
+        // lyrics with a curly quote are two bytes per character as a String, about one as UTF-8
+        String lyric = "We’re never gonna give you up, never gonna let you down. ".repeat(10);
+        LyricEntry curly = new LyricEntry("T", "A", lyric, "");
+        MemoryFootprint.Report report = MemoryFootprint.measure(java.util.List.of(singleEntryUser(curly)));
+        assertTrue("UTF-8 storage - text with a curly quote takes about half the memory",
+            report.getField("lyricText").getBytes() < MemoryFootprint.stringBytes(lyric) * 0.6);
+    }
+    
+    // start offsets String.regionMatches(true, ...) finds, non-overlapping, as the search did before
+    private static int[] regionMatchOffsets(String text, String keyword) {
+        java.util.List<Integer> offsets = new java.util.ArrayList<>();
+        for (int i = 0; keyword.length() > 0 && i + keyword.length() <= text.length(); i++) {
+            if (text.regionMatches(true, i, keyword, 0, keyword.length())) {
+                offsets.add(i);
+                i += keyword.length() - 1;
+            }
+        }
+        return offsets.stream().mapToInt(Integer::intValue).toArray();
+    }
+    
+    private static User singleEntryUser(LyricEntry entry) {
+        User user = new User("utf8User", "pw");
+        user.addEntry(entry);
+        return user;
+    }
+    
+    /**
+     * Test the memory footprint estimate
+     * Example: two entries titled "Song" report one duplicate title (a UTF-8 byte array); the shared artist is counted once
+     */
+    private static void testMemoryFootprint() {
+        User user = new User("memoryUser", "pw");
+        user.addEntry(new LyricEntry(new String("Song"), "Queen", "Lyrics one", "", "2024-01-15"));
+        user.addEntry(new LyricEntry(new String("Song"), "Queen", "Lyrics two", "", "2024-01-15"));
+        MemoryFootprint.Report report = MemoryFootprint.measure(java.util.List.of(user));
+        
+        MemoryFootprint.FieldUsage title = report.getField("songTitle");
+        assertTrue("Memory footprint - equal separate titles are duplicates",
+            title.getStrings() == 2 && title.getDistinct() == 1 && title.getDuplicates() == 1
+            && title.getDuplicateBytes() == MemoryFootprint.utf8Bytes("Song"));
+        assertTrue("Memory footprint - a shared string object is counted once",
+            report.getField("artist").getStrings() == 1 && report.getField("artist").getDuplicates() == 0);
+        assertTrue("Memory footprint - non Latin-1 text takes two bytes per char",
+            MemoryFootprint.stringBytes("사랑사랑사랑사랑") > MemoryFootprint.stringBytes("lovelove"));
+        long fields = 0;
+        for (MemoryFootprint.FieldUsage usage : report.getFields()) {
+            fields += usage.getBytes();
+        }
+        assertTrue("Memory footprint - total is fields plus structure",
+            report.getEntries() == 2 && report.getTotalBytes() == fields + report.getStructureBytes()
+            && report.getUserBytes().get("memoryUser") == report.getTotalBytes());
+    }
+    
+    /**
+     * Test the event-thread watchdog
+     * Example: a task that sleeps 250 ms on the event thread is recorded as a stall, with the sleep on its stack
+     */
+    private static void testEdtWatchdog() {
+        try {
+            EdtWatchdog.install(50, null);
+            EdtWatchdog.clear();
+            SwingUtilities.invokeAndWait(() -> {
+                try {
+                    Thread.sleep(250);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            SwingUtilities.invokeAndWait(() -> { }); // a quick event is not a stall
+            java.util.List<EdtWatchdog.Stall> stalls = EdtWatchdog.recentStalls();
+            assertTrue("EDT watchdog - a blocked event thread is recorded once", stalls.size() == 1);
+            if (stalls.size() == 1) {
+                EdtWatchdog.Stall stall = stalls.get(0);
+                assertTrue("EDT watchdog - stack shows where the event thread was blocked",
+                    stall.getStack().contains("Thread.sleep"));
+                assertTrue("EDT watchdog - finished stall has its full duration",
+                    stall.isFinished() && stall.getDurationMillis() >= 200);
+            }
+        } catch (Exception e) {
+            assertTrue("EDT watchdog - no errors (" + e + ")", false);
+        } finally {
+            EdtWatchdog.clear();
+        }
+    }
+    
+    /**
+     * Test the flight recorder events
+     * Example: an enabled JournalSave event carries the user, entry count and bytes; a disabled Search event is not recorded
+     */
+    private static void testFlightRecorderEvents() {
+        Path file = null;
+        try (jdk.jfr.Recording recording = new jdk.jfr.Recording()) {
+            recording.enable("com.mycompany.lyricjournal.JournalSave").withoutThreshold();
+            recording.disable("com.mycompany.lyricjournal.Search");
+            recording.start();
+            
+            User user = new User("jfrUser", "pw");
+            user.addEntry(new LyricEntry("Song", "Artist", "Lyrics", ""));
+            journals.saveUser(user);
+            user.searchEntries("lyrics");
+            
+            recording.stop();
+            file = Files.createTempFile("lyricjournal-test", ".jfr"); // RecordingFile needs the default file system
+            recording.dump(file);
+            int saves = 0;
+            int searches = 0;
+            boolean fields = false;
+            for (jdk.jfr.consumer.RecordedEvent event : jdk.jfr.consumer.RecordingFile.readAllEvents(file)) {
+                String type = event.getEventType().getName();
+                if (type.endsWith("JournalSave") && "jfrUser".equals(event.getString("username"))) {
+                    saves++;
+                    fields = event.getInt("entries") == 1 && event.getLong("bytes") > 0;
+                } else if (type.endsWith(".Search")) {
+                    searches++;
+                }
+            }
+            assertTrue("Flight recorder - enabled event recorded with its fields", saves == 1 && fields);
+            assertTrue("Flight recorder - disabled event not recorded", searches == 0);
+        } catch (IOException e) {
+            assertTrue("Flight recorder - no I/O errors (" + e.getMessage() + ")", false);
+        } finally {
+            deleteJournal("jfrUser");
+            if (file != null) {
+                deleteQuietly(file);
+            }
+        }
+    }
+    
+    /**
+     * Test the metrics registry and its JMX view
+     * Example: saving a journal counts bytes written and records a save latency
+     */
+    private static void testMetrics() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100_000; i++) {
+            histogram.record(i * 1_000L); // 1 us .. 100 ms, uniform
+        }
+        double p50 = histogram.percentileMillis(0.5);
+        double p99 = histogram.percentileMillis(0.99);
+        assertTrue("Metrics - histogram percentiles within 3%", Math.abs(p50 - 50) < 1.5 && Math.abs(p99 - 99) < 3);
+        assertTrue("Metrics - histogram count, mean and max", histogram.count() == 100_000
+            && Math.abs(histogram.meanMillis() - 50) < 0.01 && histogram.maxMillis() == 100);
+        
+        long writtenBefore = Metrics.counters().getOrDefault("journal.bytesWritten", 0L);
+        long readBefore = Metrics.counters().getOrDefault("journal.bytesRead", 0L);
+        long savesBefore = Metrics.timer("journal.save").count();
+        User user = new User("metricsUser", "pw");
+        user.addEntry(new LyricEntry("Song", "Artist", "Lyrics", ""));
+        user.addEntry(new LyricEntry("Song 2", "Artist", "More lyrics", ""));
+        journals.saveUser(user);
+        journals.loadUserEntries(new User("metricsUser", "pw"));
+        long written = Metrics.counters().get("journal.bytesWritten") - writtenBefore;
+        long read = Metrics.counters().get("journal.bytesRead") - readBefore;
+        assertTrue("Metrics - bytes written and read are counted", written > 0 && read == written);
+        assertTrue("Metrics - save latency recorded", Metrics.timer("journal.save").count() == savesBefore + 1);
+        assertTrue("Metrics - entries per user", Metrics.entriesPerUser().get("metricsUser") == 2);
+        deleteJournal("metricsUser");
+        
+        try {
+            javax.management.MBeanServer server = java.lang.management.ManagementFactory.getPlatformMBeanServer();
+            javax.management.ObjectName name = new javax.management.ObjectName(Metrics.OBJECT_NAME);
+            for (int i = 0; i < 50 && !server.isRegistered(name); i++) {
+                Thread.sleep(20); // registered by a background thread
+            }
+            Object latencies = server.getAttribute(name, "Latencies");
+            assertTrue("Metrics - published over JMX", latencies instanceof javax.management.openmbean.TabularData
+                && ((javax.management.openmbean.TabularData) latencies).size() > 0);
+        } catch (Exception e) {
+            assertTrue("Metrics - published over JMX (" + e + ")", false);
+        }
+    }
+    
+    /**
+     * Test the synthetic journal generator
+     * Example: the same seed always produces the same valid, date-ordered journal
+     */
+    private static void testJournalGenerator() {
+        JournalGenerator generator = new JournalGenerator(7);
+        ArrayList<LyricEntry> first = new ArrayList<>();
+        ArrayList<LyricEntry> second = new ArrayList<>();
+        generator.forEach("genuser", 2000, first::add);
+        new JournalGenerator(7).forEach("genuser", 2000, second::add);
+        
+        boolean same = first.size() == 2000;
+        for (int i = 0; same && i < first.size(); i++) {
+            same = first.get(i).toString().equals(second.get(i).toString())
+                && first.get(i).getLyricText().equals(second.get(i).getLyricText());
+        }
+        assertTrue("Generator - same seed gives the same journal", same);
+        
+        ArrayList<LyricEntry> other = new ArrayList<>();
+        new JournalGenerator(8).forEach("genuser", 10, other::add);
+        assertTrue("Generator - different seed gives a different journal",
+            !other.get(0).getLyricText().equals(first.get(0).getLyricText()));
+        
+        boolean valid = true;
+        boolean ordered = true;
+        boolean unicode = false;
+        boolean multiLine = false;
+        java.util.HashMap<String, Integer> artists = new java.util.HashMap<>();
+        for (int i = 0; i < first.size(); i++) {
+            LyricEntry entry = first.get(i);
+            valid &= UserDataController.entryProblem(entry) == null;
+            ordered &= i == 0 || first.get(i - 1).getDateAdded().compareTo(entry.getDateAdded()) <= 0;
+            unicode |= !entry.getLyricText().chars().allMatch(c -> c < 128);
+            multiLine |= entry.getLyricText().contains("\n");
+            artists.merge(entry.getArtist(), 1, Integer::sum);
+        }
+        int top = java.util.Collections.max(artists.values());
+        assertTrue("Generator - entries pass the integrity rules", valid);
+        assertTrue("Generator - dates never go backwards", ordered);
+        assertTrue("Generator - Unicode and multi-line lyrics", unicode && multiLine);
+        assertTrue("Generator - skewed artist popularity", top > 2000 / 20 && artists.size() > 200);
+        
+        long[] sizes = generator.journalSizes(10, 1000);
+        assertTrue("Generator - journal sizes add up", java.util.Arrays.stream(sizes).sum() == 1000 && sizes[0] > sizes[9]);
+        
+        try {
+            long bytes = generator.writeJournal(journals, "genuser", 500);
+            long[] read = new long[1];
+            journals.forEachEntry("genuser", entry -> read[0]++);
+            assertTrue("Generator - streamed journal loads back", bytes > 0 && read[0] == 500);
+        } catch (IOException e) {
+            assertTrue("Generator - no I/O errors (" + e.getMessage() + ")", false);
+        } finally {
+            deleteJournal("genuser");
+        }
+    }
+    
+    /**
+     * Test the in-memory filesystem used for test storage
+     * Example: a file written and moved in memory is readable at its new path, and the disk is untouched
+     */
+    private static void testMemoryFileSystem() {
+        FileSystem fs = MemoryFileSystem.create();
+        try {
+            Path dir = Files.createDirectories(fs.getPath("/data/journals"));
+            Path temp = dir.resolve("a.tmp");
+            Files.writeString(temp, "hello");
+            Files.move(temp, dir.resolve("a.json"), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            assertTrue("Memory filesystem - write and move", !Files.exists(temp)
+                && "hello".equals(Files.readString(dir.resolve("a.json"))));
+            try (java.util.stream.Stream<Path> files = Files.list(dir)) {
+                assertTrue("Memory filesystem - listing", files.count() == 1);
+            }
+            assertTrue("Memory filesystem - isolated from disk", !Files.exists(Paths.get("/data/journals/a.json")));
+            boolean storeRefused = false;
+            try {
+                Files.getFileStore(dir);
+            } catch (IOException e) {
+                storeRefused = true; // reported like any other I/O failure, not UnsupportedOperationException
+            }
+            assertTrue("Memory filesystem - unsupported features throw IOException", storeRefused);
+
+            User user = new User("memoryUser", "pw");
+            user.addEntry(new LyricEntry("Song", "Artist", "Lyrics", ""));
+            new UserDataController(fs.getPath("/data")).saveUser(user);
+            assertTrue("Memory filesystem - journals follow the storage root",
+                Files.exists(fs.getPath("/data/memoryUser_lyrics.json")));
+            User other = new User("memoryUser", "pw");
+            journals.loadUserEntries(other);
+            assertTrue("Memory filesystem - controllers on other roots see none of its files",
+                other.getEntries().isEmpty());
+        } catch (IOException e) {
+            assertTrue("Memory filesystem - no I/O errors (" + e.getMessage() + ")", false);
+        }
+        assertTrue("Memory filesystem - a caller's filesystem is left open", fs.isOpen());
+        
+        // a closed in-memory filesystem is unregistered, so its files can be collected
+        FileSystem closed = Storage.newInMemoryRoot().getFileSystem();
+        java.net.URI uri = closed.getPath("/").toUri();
+        boolean unregistered = false;
+        try {
+            closed.close();
+            closed.provider().getFileSystem(uri);
+        } catch (FileSystemNotFoundException e) {
+            unregistered = true;
+        } catch (IOException e) {
+            assertTrue("Memory filesystem - no I/O errors (" + e.getMessage() + ")", false);
+        }
+        assertTrue("Memory filesystem - closed filesystem unregistered", !closed.isOpen() && unregistered);
+    }
+    
+    /**
+     * Test the journal cache: shared loads, write-back on eviction, size bound and idle expiry
+     * Example: a change made through the cache is on disk once the journal is evicted
+     */
+    private static void testJournalCache() {
+        String[] names = {"cacheTestUser1", "cacheTestUser2", "cacheTestUser3"};
+        try (JournalCache cache = new JournalCache(journals, 5, java.time.Duration.ofMillis(200), java.time.Duration.ofMillis(50))) {
+            // concurrent first requests for one journal share a single load
+            Thread[] threads = new Thread[8];
+            for (int i = 0; i < threads.length; i++) {
+                threads[i] = new Thread(() -> cache.read(names[0], user -> user.getEntries().size()));
+                threads[i].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertTrue("Journal cache - concurrent loads shared", cache.stats().misses == 1);
+            
+            for (String name : names) {
+                cache.write(name, user -> {
+                    user.addEntry(new LyricEntry("Song", "Artist", "Lyrics", ""));
+                    user.addEntry(new LyricEntry("Song 2", "Artist", "Lyrics", ""));
+                    return null;
+                });
+            }
+            // 3 journals x (2 entries + 1) = 9 > 5, so the oldest ones were evicted and saved
+            JournalCache.Stats stats = cache.stats();
+            assertTrue("Journal cache - size bound", stats.evictions >= 1 && stats.weight <= 5);
+            User reloaded = new User(names[0], "");
+            journals.loadUserEntries(reloaded);
+            assertTrue("Journal cache - write-back on eviction", reloaded.getEntries().size() == 2);
+            
+            Thread.sleep(600); // longer than the idle timeout plus a sweep
+            assertTrue("Journal cache - idle expiry", cache.stats().size == 0 && cache.stats().expirations >= 1);
+            assertTrue("Journal cache - reload after expiry",
+                cache.read(names[2], user -> user.getEntries().size()) == 2);
+        } catch (InterruptedException e) {
+            assertTrue("Journal cache - interrupted", false);
+        } finally {
+            for (String name : names) {
+                deleteJournal(name);
+            }
+        }
+    }
+    
+    /**
+     * Test that a journal which cannot be saved is kept and reported
+     * Example: with the journal's temporary file blocked by a directory, flush throws and the change survives
+     */
+    private static void testJournalCacheSaveFailure() {
+        String name = "cacheFailUser";
+        Path blocker = root.resolve(name + "_lyrics.json.tmp");
+        try (JournalCache cache = new JournalCache(journals, 1_000, java.time.Duration.ofMinutes(10), java.time.Duration.ofMinutes(10))) {
+            cache.write(name, user -> {
+                user.addEntry(new LyricEntry("Song", "Artist", "Lyrics", ""));
+                return null;
+            });
+            // the save cannot create its temporary file (and cannot delete a non-empty directory)
+            Files.writeString(Files.createDirectories(blocker).resolve("keep"), "x");
+            boolean flushFailed = false;
+            try {
+                cache.flush();
+            } catch (java.io.UncheckedIOException e) {
+                flushFailed = true;
+            }
+            boolean writeFailed = false;
+            try {
+                cache.write(name, user -> {
+                user.addEntry(new LyricEntry("Song 2", "Artist", "Lyrics", ""));
+                return null;
+            });
+            } catch (java.io.UncheckedIOException e) {
+                writeFailed = true;
+            }
+            assertTrue("Journal cache save failure - surfaced", flushFailed && writeFailed
+                && cache.stats().writeBackFailures == 2 && cache.stats().writeBacks == 0);
+            assertTrue("Journal cache save failure - change kept in memory",
+                cache.read(name, user -> user.getEntries().size()) == 1);
+            
+            Files.delete(blocker.resolve("keep"));
+            Files.delete(blocker);
+            cache.flush();
+            User reloaded = new User(name, "");
+            journals.loadUserEntries(reloaded);
+            assertTrue("Journal cache save failure - saved once possible",
+                reloaded.getEntries().size() == 1 && cache.stats().writeBacks == 1);
+        } catch (IOException e) {
+            assertTrue("Journal cache save failure - no I/O errors (" + e.getMessage() + ")", false);
+        } finally {
+            deleteQuietly(blocker.resolve("keep"));
+            deleteQuietly(blocker);
+            deleteJournal(name);
+        }
+    }
+    
+    /**
+     * Test login throttling: exponential backoff per username, sliding window per source, decay
+     * Example: after 3 wrong passwords the username is locked for 1 s, then 2 s, ...
+     */
+    private static void testLoginThrottle() {
+        long[] now = {0};
+        long second = 1_000_000_000L;
+        LoginThrottle throttle = new LoginThrottle(3, 5, java.time.Duration.ofSeconds(60),
+            java.time.Duration.ofSeconds(1), java.time.Duration.ofSeconds(8), () -> now[0]);
+        
+        throttle.recordFailure("john", null);
+        throttle.recordFailure("john", null);
+        assertTrue("Login throttle - allowed below limit", throttle.retryAfterMillis("john", null) == 0);
+        throttle.recordFailure("john", null);
+        assertTrue("Login throttle - locked at limit", throttle.retryAfterMillis("john", null) == 1000);
+        throttle.recordFailure("john", null);
+        assertTrue("Login throttle - backoff doubles", throttle.retryAfterMillis("john", null) == 2000);
+        for (int i = 0; i < 10; i++) {
+            throttle.recordFailure("john", null);
+        }
+        assertTrue("Login throttle - backoff capped", throttle.retryAfterMillis("john", null) == 8000);
+        assertTrue("Login throttle - other users unaffected", throttle.retryAfterMillis("mary", null) == 0);
+        now[0] += 9 * second;
+        assertTrue("Login throttle - lockout decays", throttle.retryAfterMillis("john", null) == 0);
+        throttle.recordSuccess("john", null);
+        throttle.recordFailure("john", null);
+        assertTrue("Login throttle - success resets", throttle.retryAfterMillis("john", null) == 0);
+        
+        // one source spraying different usernames hits the window limit
+        for (int i = 0; i < 5; i++) {
+            throttle.recordFailure("user" + i, "10.0.0.7");
+        }
+        assertTrue("Login throttle - source limited", throttle.retryAfterMillis("fresh", "10.0.0.7") > 0
+            && throttle.retryAfterMillis("fresh", "10.0.0.8") == 0);
+        now[0] += 120 * second;
+        assertTrue("Login throttle - source window slides", throttle.retryAfterMillis("fresh", "10.0.0.7") == 0);
+        
+        // a client failing against a username locks it for that client only
+        for (int i = 0; i < 3; i++) {
+            throttle.recordFailure("mary", "10.0.0.9");
+        }
+        assertTrue("Login throttle - username lockout kept per source", throttle.retryAfterMillis("mary", "10.0.0.9") > 0
+            && throttle.retryAfterMillis("mary", "10.0.0.10") == 0 && throttle.retryAfterMillis("mary", null) == 0);
+        
+        // expired records are dropped by later writes, not kept forever
+        LoginThrottle sweeping = new LoginThrottle(3, 5, java.time.Duration.ofSeconds(60),
+            java.time.Duration.ofSeconds(1), java.time.Duration.ofSeconds(8), () -> now[0]);
+        for (int i = 0; i < 1000; i++) {
+            sweeping.recordFailure("sprayed" + i, null);
+        }
+        now[0] += 600 * second;
+        for (int i = 0; i < 1000; i++) {
+            sweeping.recordFailure("later" + (i % 10), null);
+        }
+        assertTrue("Login throttle - expired records evicted incrementally", sweeping.trackedKeys() == 10);
+        
+        // UserManager refuses locked-out logins without checking the password
+        LoginThrottle strict = new LoginThrottle(2, 100, java.time.Duration.ofSeconds(60),
+            java.time.Duration.ofSeconds(30), java.time.Duration.ofSeconds(30));
+        users.setLoginThrottle(strict);
+        try {
+            String user = "throttleUser" + System.currentTimeMillis();
+            users.registerUser(user, "right");
+            users.validateLogin(user, "wrong");
+            users.validateLogin(user, "wrong");
+            assertFalse("Login throttle - locked account refused", users.validateLogin(user, "right"));
+            assertTrue("Login throttle - retry time reported", users.loginRetryAfterMillis(user, null) > 0);
+        } finally {
+            users.setLoginThrottle(LoginThrottle.fromSystemProperties());
+        }
     }
     
     /**
@@ -295,18 +1378,18 @@ public class LyricJournalTest {
         testUser.addEntry(new LyricEntry("Test Song", "Test Artist", "Test Lyrics", "Test Note"));
         
         // save user data
-        UserDataController.saveUser(testUser);
+        journals.saveUser(testUser);
         
         // create new user object and load data
         User loadedUser = new User("persistenceTestUser", "testPassword");
-        UserDataController.loadUserEntries(loadedUser);
+        journals.loadUserEntries(loadedUser);
         
         assertTrue("Data persistence - entry count", loadedUser.getEntries().size() == 1);
         assertTrue("Data persistence - entry content", 
             loadedUser.getEntries().get(0).getSongTitle().equals("Test Song"));
         
         // cleanup
-        new File("persistenceTestUser_lyrics.json").delete();
+        deleteJournal("persistenceTestUser");
     }
     
     /**
@@ -318,7 +1401,7 @@ public class LyricJournalTest {
         
         // try to load from non-existent file - should not crash
         try {
-            UserDataController.loadUserEntries(testUser);
+            journals.loadUserEntries(testUser);
             assertTrue("File operations - no crash on missing file", true);
         } catch (Exception e) {
             assertFalse("File operations - should handle missing file gracefully", 
@@ -329,6 +1412,96 @@ public class LyricJournalTest {
             testUser.getEntries().isEmpty());
     }
     
+    /**
+     * Test JournalHistory undo/redo for add, edit and delete
+     * Example: add -> edit -> delete, then undo three times should leave an empty journal
+     */
+    private static void testJournalHistory() {
+        User user = new User("historyTestUser", "password");
+        JournalHistory history = new JournalHistory(user, journals, 2);
+        
+        history.addEntry(new LyricEntry("Song", "Artist", "Lyrics", "Note", "2024-01-15"));
+        history.editEntry(0, new LyricEntry("Song", "Artist", "New Lyrics", "Note", "2024-01-15"));
+        assertTrue("History - edit applied", user.getEntries().get(0).getLyricText().equals("New Lyrics"));
+        
+        history.deleteEntry(0);
+        assertTrue("History - delete applied", user.getEntries().isEmpty());
+        
+        // capacity 2 - the add command has been dropped from the ring
+        assertTrue("History - undo delete", history.undo() && user.getEntries().size() == 1);
+        assertTrue("History - undo edit", history.undo() && 
+            user.getEntries().get(0).getLyricText().equals("Lyrics") &&
+            user.getEntries().get(0).getDateAdded().equals("2024-01-15"));
+        assertFalse("History - bounded (oldest dropped)", history.undo());
+        
+        assertTrue("History - redo edit", history.redo() && 
+            user.getEntries().get(0).getLyricText().equals("New Lyrics"));
+        
+        // undo is persisted through the normal save path
+        User reloaded = new User("historyTestUser", "password");
+        journals.loadUserEntries(reloaded);
+        assertTrue("History - redo saved", reloaded.getEntries().size() == 1 && 
+            reloaded.getEntries().get(0).getLyricText().equals("New Lyrics"));
+        
+        // Cleanup
+        deleteJournal("historyTestUser");
+    }
+    
+    /**
+     * Test the integrity rules used by the headless "check" and "compact" commands
+     * Example: an entry without artist or with date "2024-13-01" should be reported
+     */
+    private static void testCliIntegrityRules() {
+        assertTrue("CLI check - valid entry", 
+            UserDataController.entryProblem(new LyricEntry("Song", "Artist", "Lyrics", "", "2024-01-15")) == null);
+        assertTrue("CLI check - missing artist", 
+            UserDataController.entryProblem(new LyricEntry("Song", " ", "Lyrics", "", "2024-01-15")) != null);
+        assertTrue("CLI check - invalid date", 
+            UserDataController.entryProblem(new LyricEntry("Song", "Artist", "Lyrics", "", "2024-13-01")) != null);
+        
+        // export writes UTF-8 whatever the platform charset, and import reads it back
+        String username = "clicharset" + System.currentTimeMillis();
+        Path exported = null;
+        try {
+            users.registerUser(username, "password");
+            User user = new User(username, "pw");
+            user.addEntry(new LyricEntry("Canción", "Björk", "corazón 愛 🎵", "", "2024-01-15"));
+            journals.saveUser(user);
+            exported = Files.createTempFile("lyricjournal-export", ".json");
+            java.io.PrintStream quiet = new java.io.PrintStream(new java.io.ByteArrayOutputStream());
+            LyricJournalCLI cli = new LyricJournalCLI(quiet, quiet, users, journals);
+            int exportCode = cli.execute(new String[] {"export", username, exported.toString()});
+            String text = new String(Files.readAllBytes(exported), java.nio.charset.StandardCharsets.UTF_8);
+            int importCode = cli.execute(new String[] {"import", username, exported.toString()});
+            User reloaded = new User(username, "pw");
+            journals.loadUserEntries(reloaded);
+            assertTrue("CLI export and import - UTF-8 round trip", exportCode == 0 && importCode == 0
+                && text.contains("corazón 愛 🎵") && reloaded.getEntries().size() == 2
+                && "corazón 愛 🎵".equals(reloaded.getEntries().get(1).getLyricText()));
+            
+            // search and stats run over the columnar snapshot of the journal
+            java.io.ByteArrayOutputStream found = new java.io.ByteArrayOutputStream();
+            int searchCode = new LyricJournalCLI(new java.io.PrintStream(found, true, "UTF-8"), quiet, users, journals)
+                .execute(new String[] {"search", username, "BJÖRK"});
+            java.io.ByteArrayOutputStream summary = new java.io.ByteArrayOutputStream();
+            int statsCode = new LyricJournalCLI(new java.io.PrintStream(summary, true, "UTF-8"), quiet, users, journals)
+                .execute(new String[] {"stats", username});
+            String stats = summary.toString("UTF-8");
+            assertTrue("CLI search and stats - read from the columnar snapshot", searchCode == 0 && statsCode == 0
+                && found.toString("UTF-8").split("\n").length == 2
+                && found.toString("UTF-8").startsWith("2024-01-15\tCanción\tBjörk")
+                && stats.contains("entries:     2") && stats.contains("first date:  2024-01-15")
+                && stats.contains("top artist:  Björk (2)"));
+        } catch (IOException e) {
+            assertTrue("CLI export and import - no I/O errors (" + e.getMessage() + ")", false);
+        } finally {
+            if (exported != null) {
+                deleteQuietly(exported);
+            }
+            deleteJournal(username);
+        }
+    }
+    
     /**
      * Tests GUI components and user interactions
      * Covers: panel/graphics creation, button actions, input validation
@@ -351,7 +1524,7 @@ public class LyricJournalTest {
     private static void testLoginGUICreation() {
         try {
             SwingUtilities.invokeAndWait(() -> {
-                LoginRegistrationGUI loginGUI = new LoginRegistrationGUI();
+                LoginRegistrationGUI loginGUI = new LoginRegistrationGUI(users, journals);
                 assertTrue("Login GUI creation", loginGUI != null);
                 loginGUI.dispose(); // Clean up
             });
@@ -368,7 +1541,7 @@ public class LyricJournalTest {
         try {
             SwingUtilities.invokeAndWait(() -> {
                 User testUser = new User("guiTestUser", "password");
-                LyricJournalMainGUI mainGUI = new LyricJournalMainGUI(testUser);
+                LyricJournalMainGUI mainGUI = new LyricJournalMainGUI(testUser, users, journals);
                 assertTrue("Main GUI creation", mainGUI != null);
                 assertTrue("Main GUI title", mainGUI.getTitle().contains("guiTestUser"));
                 mainGUI.dispose(); // clean up
@@ -405,7 +1578,7 @@ public class LyricJournalTest {
         try {
             SwingUtilities.invokeAndWait(() -> {
                 User testUser = new User("panelTestUser", "password");
-                LyricJournalMainGUI mainGUI = new LyricJournalMainGUI(testUser);
+                LyricJournalMainGUI mainGUI = new LyricJournalMainGUI(testUser, users, journals);
                 
                 // test that panels exist and are accessible
                 assertTrue("Panel functionality", mainGUI.getContentPane() != null);
@@ -439,11 +1612,11 @@ public class LyricJournalTest {
         String testPassword = "integrationTestPassword";
         
         // step 1: register user
-        boolean registered = UserManager.registerUser(testUser, testPassword);
+        boolean registered = users.registerUser(testUser, testPassword);
         assertTrue("Integration - user registration", registered);
         
         // step 2: Validate login
-        boolean loginValid = UserManager.validateLogin(testUser, testPassword);
+        boolean loginValid = users.validateLogin(testUser, testPassword);
         assertTrue("Integration - login validation", loginValid);
         
         // step 3: Create user and add entries
@@ -451,11 +1624,11 @@ public class LyricJournalTest {
         user.addEntry(new LyricEntry("Integration Song", "Integration Artist", "Integration Lyrics", "Integration Note"));
         
         // step 4: Save data
-        UserDataController.saveUser(user);
+        journals.saveUser(user);
         
         // step 5: Load data into new user object
         User loadedUser = new User(testUser, testPassword);
-        UserDataController.loadUserEntries(loadedUser);
+        journals.loadUserEntries(loadedUser);
         
         // verify
         assertTrue("Integration - complete", 
@@ -463,7 +1636,7 @@ public class LyricJournalTest {
             loadedUser.getEntries().get(0).getSongTitle().equals("Integration Song"));
         
         // cleanup
-        new File(testUser + "_lyrics.json").delete();
+        deleteJournal(testUser);
     }
     
     
@@ -479,9 +1652,9 @@ public class LyricJournalTest {
         
         // save and reload multiple times
         for (int i = 0; i < 3; i++) {
-            UserDataController.saveUser(originalUser);
+            journals.saveUser(originalUser);
             User reloadedUser = new User("consistencyTestUser", "password");
-            UserDataController.loadUserEntries(reloadedUser);
+            journals.loadUserEntries(reloadedUser);
             
             assertTrue("Data consistency - iteration " + i, 
                 reloadedUser.getEntries().size() == 1 &&
@@ -491,7 +1664,7 @@ public class LyricJournalTest {
         }
         
         // cleanup
-        new File("consistencyTestUser_lyrics.json").delete();
+        deleteJournal("consistencyTestUser");
     }
     
     /**
@@ -504,10 +1677,31 @@ public class LyricJournalTest {
         testInvalidInputHandling();
         testBoundaryConditions();
         testEmptyInputs();
+        testUnavailableUserStorage();
         
         System.out.println();
     }
     
+    /**
+     * Test that account files which cannot be opened are reported, not replaced
+     * Example: a storage root that is a file makes lookups throw instead of finding no accounts
+     */
+    private static void testUnavailableUserStorage() {
+        try {
+            Path blocked = Files.writeString(root.resolve("not-a-directory"), "x");
+            boolean failed = false;
+            try (UserManager unavailable = new UserManager(blocked)) {
+                unavailable.userExists("admin");
+            } catch (java.io.UncheckedIOException e) {
+                failed = true;
+            }
+            assertTrue("Unavailable user storage - fails loudly", failed);
+        } catch (IOException e) {
+            assertTrue("Unavailable user storage - no I/O errors (" + e.getMessage() + ")", false);
+        }
+        assertTrue("Unavailable user storage - other storage roots unaffected", users.userExists("admin"));
+    }
+    
     /**
      * Test handling of invalid inputs
      * Example: Invalid usernames/passwords should be rejected gracefully
@@ -515,11 +1709,23 @@ public class LyricJournalTest {
     private static void testInvalidInputHandling() {
         // test empty username registration
         assertFalse("Invalid input - empty username", 
-            UserManager.registerUser("", "password"));
+            users.registerUser("", "password"));
         
         // test empty password registration  
         assertFalse("Invalid input - empty password", 
-            UserManager.registerUser("validUser", ""));
+            users.registerUser("validUser", ""));
+
+        // test names that would escape the data directory and too-short credentials
+        assertFalse("Invalid input - path traversal username",
+            users.registerUser("../outside", "password"));
+        assertFalse("Invalid input - separator in username",
+            users.registerUser("a/b" + System.currentTimeMillis(), "password"));
+        assertFalse("Invalid input - short password",
+            users.registerUser("shortpw" + System.currentTimeMillis(), "abc"));
+        assertTrue("Invalid input - rule message for '..'",
+            UserManager.credentialProblem("a..b", "password") != null);
+        assertTrue("Invalid input - mixed case name accepted",
+            UserManager.credentialProblem("Valid.User_1-x", "password") == null);
     }
     
     /**
@@ -530,7 +1736,7 @@ public class LyricJournalTest {
         // test very long username
         String longUsername = "a".repeat(1000);
         try {
-            boolean result = UserManager.registerUser(longUsername, "password");
+            boolean result = users.registerUser(longUsername, "password");
             assertTrue("Boundary - long username handled", true); // should not crash
         } catch (Exception e) {
             assertTrue("Boundary - long username exception handled", true);
@@ -560,6 +1766,19 @@ public class LyricJournalTest {
         assertTrue("Empty input - search with entries", results.size() >= 0);
     }
     
+    // removes a test journal from the storage root
+    private static void deleteJournal(String username) {
+        deleteQuietly(journals.getJournalPath(username));
+    }
+    
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            System.err.println("Could not delete test file: " + e.getMessage());
+        }
+    }
+    
     // test methods
     private static void assertTrue(String testName, boolean condition) {
         totalTests++;
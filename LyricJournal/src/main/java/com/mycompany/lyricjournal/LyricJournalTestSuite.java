@@ -27,7 +27,9 @@ import com.mycompany.lyricjournal.View.*;
 
 import javax.swing.*;
 import java.awt.event.ActionEvent;
-import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 
 /**
@@ -38,6 +40,11 @@ public class LyricJournalTestSuite {
     private static int totalTests = 0;
     private static int passedTests = 0;
     
+    // keep test accounts and journals out of the real data files
+    private static final Path root = Storage.newInMemoryRoot();
+    private static final UserManager users = new UserManager(root);
+    private static final UserDataController journals = new UserDataController(root);
+    
     public static void main(String[] args) {
         System.out.println("=== LyricJournal Comprehensive Test Suite ===\n");
         
@@ -238,13 +245,13 @@ public class LyricJournalTestSuite {
     
     /**
      * Test UserManager user registration
-     * Example: UserManager.registerUser("newUser", "pass") should return true for new users
+     * Example: users.registerUser("newUser", "pass") should return true for new users
      */
     private static void testUserRegistration() {
         String testUser = "testUser" + System.currentTimeMillis(); // Unique username
-        boolean result = UserManager.registerUser(testUser, "testPassword");
+        boolean result = users.registerUser(testUser, "testPassword");
         assertTrue("User registration - new user", result);
-        assertTrue("User registration - user exists after registration", UserManager.userExists(testUser));
+        assertTrue("User registration - user exists after registration", users.userExists(testUser));
     }
     
     /**
@@ -256,19 +263,19 @@ public class LyricJournalTestSuite {
         String testPassword = "loginTestPassword";
         
         // Register user first
-        UserManager.registerUser(testUser, testPassword);
+        users.registerUser(testUser, testPassword);
         
         // Test valid login
         assertTrue("Login validation - correct credentials", 
-            UserManager.validateLogin(testUser, testPassword));
+            users.validateLogin(testUser, testPassword));
         
         // Test invalid password
         assertFalse("Login validation - wrong password", 
-            UserManager.validateLogin(testUser, "wrongPassword"));
+            users.validateLogin(testUser, "wrongPassword"));
         
         // Test non-existent user
         assertFalse("Login validation - non-existent user", 
-            UserManager.validateLogin("nonExistentUser", "anyPassword"));
+            users.validateLogin("nonExistentUser", "anyPassword"));
     }
     
     /**
@@ -280,11 +287,11 @@ public class LyricJournalTestSuite {
         
         // First registration should succeed
         assertTrue("Duplicate registration - first attempt", 
-            UserManager.registerUser(testUser, "password1"));
+            users.registerUser(testUser, "password1"));
         
         // Second registration should fail
         assertFalse("Duplicate registration - second attempt", 
-            UserManager.registerUser(testUser, "password2"));
+            users.registerUser(testUser, "password2"));
     }
     
     /**
@@ -296,18 +303,18 @@ public class LyricJournalTestSuite {
         testUser.addEntry(new LyricEntry("Test Song", "Test Artist", "Test Lyrics", "Test Note"));
         
         // Save user data
-        UserDataController.saveUser(testUser);
+        journals.saveUser(testUser);
         
         // Create new user object and load data
         User loadedUser = new User("persistenceTestUser", "testPassword");
-        UserDataController.loadUserEntries(loadedUser);
+        journals.loadUserEntries(loadedUser);
         
         assertTrue("Data persistence - entry count", loadedUser.getEntries().size() == 1);
         assertTrue("Data persistence - entry content", 
             loadedUser.getEntries().get(0).getSongTitle().equals("Test Song"));
         
         // Cleanup
-        new File("persistenceTestUser_lyrics.json").delete();
+        deleteJournal("persistenceTestUser");
     }
     
     /**
@@ -319,7 +326,7 @@ public class LyricJournalTestSuite {
         
         // Try to load from non-existent file - should not crash
         try {
-            UserDataController.loadUserEntries(testUser);
+            journals.loadUserEntries(testUser);
             assertTrue("File operations - no crash on missing file", true);
         } catch (Exception e) {
             assertFalse("File operations - should handle missing file gracefully", 
@@ -352,7 +359,7 @@ public class LyricJournalTestSuite {
     private static void testLoginGUICreation() {
         try {
             SwingUtilities.invokeAndWait(() -> {
-                LoginRegistrationGUI loginGUI = new LoginRegistrationGUI();
+                LoginRegistrationGUI loginGUI = new LoginRegistrationGUI(users, journals);
                 assertTrue("Login GUI creation", loginGUI != null);
                 loginGUI.dispose(); // Clean up
             });
@@ -369,7 +376,7 @@ public class LyricJournalTestSuite {
         try {
             SwingUtilities.invokeAndWait(() -> {
                 User testUser = new User("guiTestUser", "password");
-                LyricJournalMainGUI mainGUI = new LyricJournalMainGUI(testUser);
+                LyricJournalMainGUI mainGUI = new LyricJournalMainGUI(testUser, users, journals);
                 assertTrue("Main GUI creation", mainGUI != null);
                 assertTrue("Main GUI title", mainGUI.getTitle().contains("guiTestUser"));
                 mainGUI.dispose(); // Clean up
@@ -406,7 +413,7 @@ public class LyricJournalTestSuite {
         try {
             SwingUtilities.invokeAndWait(() -> {
                 User testUser = new User("panelTestUser", "password");
-                LyricJournalMainGUI mainGUI = new LyricJournalMainGUI(testUser);
+                LyricJournalMainGUI mainGUI = new LyricJournalMainGUI(testUser, users, journals);
                 
                 // Test that panels exist and are accessible
                 assertTrue("Panel functionality", mainGUI.getContentPane() != null);
@@ -441,11 +448,11 @@ public class LyricJournalTestSuite {
         String testPassword = "integrationTestPassword";
         
         // Step 1: Register user
-        boolean registered = UserManager.registerUser(testUser, testPassword);
+        boolean registered = users.registerUser(testUser, testPassword);
         assertTrue("Integration - user registration", registered);
         
         // Step 2: Validate login
-        boolean loginValid = UserManager.validateLogin(testUser, testPassword);
+        boolean loginValid = users.validateLogin(testUser, testPassword);
         assertTrue("Integration - login validation", loginValid);
         
         // Step 3: Create user and add entries
@@ -453,11 +460,11 @@ public class LyricJournalTestSuite {
         user.addEntry(new LyricEntry("Integration Song", "Integration Artist", "Integration Lyrics", "Integration Note"));
         
         // Step 4: Save data
-        UserDataController.saveUser(user);
+        journals.saveUser(user);
         
         // Step 5: Load data into new user object
         User loadedUser = new User(testUser, testPassword);
-        UserDataController.loadUserEntries(loadedUser);
+        journals.loadUserEntries(loadedUser);
         
         // Verify complete workflow
         assertTrue("Integration - complete workflow", 
@@ -465,7 +472,7 @@ public class LyricJournalTestSuite {
             loadedUser.getEntries().get(0).getSongTitle().equals("Integration Song"));
         
         // Cleanup
-        new File(testUser + "_lyrics.json").delete();
+        deleteJournal(testUser);
     }
     
     /**
@@ -480,16 +487,16 @@ public class LyricJournalTestSuite {
         testUser.addEntry(new LyricEntry("MVC Song", "MVC Artist", "MVC Lyrics", "MVC Note"));
         
         // Simulate View requesting data through Controller
-        UserDataController.saveUser(testUser);
+        journals.saveUser(testUser);
         
         User newUser = new User("mvcTestUser", "password");
-        UserDataController.loadUserEntries(newUser);
+        journals.loadUserEntries(newUser);
         
         assertTrue("MVC interaction - data through controller", 
             newUser.getEntries().size() == 1);
         
         // Cleanup
-        new File("mvcTestUser_lyrics.json").delete();
+        deleteJournal("mvcTestUser");
     }
     
     /**
@@ -504,9 +511,9 @@ public class LyricJournalTestSuite {
         
         // Save and reload multiple times
         for (int i = 0; i < 3; i++) {
-            UserDataController.saveUser(originalUser);
+            journals.saveUser(originalUser);
             User reloadedUser = new User("consistencyTestUser", "password");
-            UserDataController.loadUserEntries(reloadedUser);
+            journals.loadUserEntries(reloadedUser);
             
             assertTrue("Data consistency - iteration " + i, 
                 reloadedUser.getEntries().size() == 1 &&
@@ -516,7 +523,7 @@ public class LyricJournalTestSuite {
         }
         
         // Cleanup
-        new File("consistencyTestUser_lyrics.json").delete();
+        deleteJournal("consistencyTestUser");
     }
     
     /**
@@ -541,16 +548,16 @@ public class LyricJournalTestSuite {
     private static void testInvalidInputHandling() {
         // Test empty username registration
         assertFalse("Invalid input - empty username", 
-            UserManager.registerUser("", "password"));
+            users.registerUser("", "password"));
         
         // Test empty password registration  
         assertFalse("Invalid input - empty password", 
-            UserManager.registerUser("validUser", ""));
+            users.registerUser("validUser", ""));
         
         // Test null inputs
         try {
             assertFalse("Invalid input - null username", 
-                UserManager.registerUser(null, "password"));
+                users.registerUser(null, "password"));
         } catch (Exception e) {
             assertTrue("Invalid input - null username handled", true); // Exception is acceptable
         }
@@ -564,7 +571,7 @@ public class LyricJournalTestSuite {
         // Test very long username
         String longUsername = "a".repeat(1000);
         try {
-            boolean result = UserManager.registerUser(longUsername, "password");
+            boolean result = users.registerUser(longUsername, "password");
             assertTrue("Boundary - long username handled", true); // Should not crash
         } catch (Exception e) {
             assertTrue("Boundary - long username exception handled", true);
@@ -616,6 +623,15 @@ public class LyricJournalTestSuite {
         assertTrue("Empty input - search with entries", results.size() >= 0);
     }
     
+    // removes a test journal from the storage root
+    private static void deleteJournal(String username) {
+        try {
+            Files.deleteIfExists(journals.getJournalPath(username));
+        } catch (IOException e) {
+            System.err.println("Could not delete test journal: " + e.getMessage());
+        }
+    }
+    
     // Test utility methods
     private static void assertTrue(String testName, boolean condition) {
         totalTests++;
@@ -15,10 +15,21 @@ package com.mycompany.lyricjournal;
 
 
 import com.mycompany.lyricjournal.View.*;
+import com.mycompany.lyricjournal.Controller.Storage;
+import com.mycompany.lyricjournal.Controller.UserDataController;
+import com.mycompany.lyricjournal.Controller.UserManager;
+import com.mycompany.lyricjournal.Diagnostics.EdtWatchdog;
+import com.mycompany.lyricjournal.Diagnostics.StartupTimings;
+
+import java.nio.file.Path;
+import javax.swing.SwingUtilities;
 
 /*
  * Main class serves as the entry point for the LyricJournal desktop application.
  * Initializes the GUI by creating the login/registration screen.
+ * When command-line arguments are given, runs headless through LyricJournalCLI instead.
+ * The storage root comes from system properties (Storage.defaultRoot) - this is the only
+ * place that reads them; everything else is handed its controllers.
  * 
  * Application Flow:
  * 1. User sees login/registration screen (LoginRegistrationGUI)
@@ -31,16 +42,51 @@ public class Main {
      * Application entry point - launches the GUI application
      * Creates and displays the login/registration window
      * 
-     * Input: args - Command line arguments (input: String array, not used in this application)
-     * Output: Opens LoginRegistrationGUI window for user interaction
+     * Input: args - Command line arguments (input: String array, empty for the GUI, a command for headless mode)
+     * Output: Opens LoginRegistrationGUI window, or runs the command and exits
      * 
      * Example: Main.main(new String[]{}) launches the application
+     * Example: Main.main(new String[]{"stats", "john"}) prints john's journal summary
      */
     public static void main(String[] args) {
+        // any argument selects headless mode - Swing/AWT classes are never loaded
+        Path root = Storage.defaultRoot();
+        if (args.length > 0) {
+            System.exit(LyricJournalCLI.run(args, root));
+        }
+        launchGUI(root);
+    }
+
+    /*
+     * Launches the desktop application
+     * Kept separate from main so the headless path never references Swing classes
+     * 
+     * Startup work that does not depend on each other runs in parallel:
+     * - a background thread loads the user accounts (users.log)
+     * - the event dispatch thread builds and shows the login window
+     * With -Dlyricjournal.startup.log=true each phase is logged through StartupTimings.
+     * 
+     * The EDT watchdog reports event handlers that freeze the window (see EdtWatchdog);
+     * Ctrl+Shift+D opens the diagnostics dialog listing them.
+     */
+    private static void launchGUI(Path root) {
+        StartupTimings.start();
+        EdtWatchdog.install(root);
+        DiagnosticsDialog.installShortcut();
+        
+        // load accounts in the background - the login window does not need them to appear
+        UserManager users = new UserManager(root);
+        UserDataController journals = new UserDataController(root);
+        Thread preload = new Thread(() -> StartupTimings.time("users loaded", users::preload), "user-preload");
+        preload.setDaemon(true);
+        preload.start();
+        
         // launch the login/registration screen as the initial GUI component
         // LoginRegistrationGUI constructor handles window creation and display
         // after successful login, LoginRegistrationGUI will create LyricJournalMainGUI
-        new LoginRegistrationGUI();
-        
+        SwingUtilities.invokeLater(() -> {
+            new LoginRegistrationGUI(users, journals);
+            StartupTimings.mark("login window shown");
+        });
     }
 }
\ No newline at end of file
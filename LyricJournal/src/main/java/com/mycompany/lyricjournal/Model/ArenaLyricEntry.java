@@ -0,0 +1,116 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.lyricjournal.Model;
+
+/**
+ *
+ * @author Kalli-Ann
+ */
+
+// ArenaLyricEntry Model Class
+
+// Lyric entry whose lyric text and note live off-heap in a LyricArena
+
+
+import com.google.gson.annotations.JsonAdapter;
+
+/*
+ * ArenaLyricEntry keeps its title, artist and date like LyricEntry, but its lyric text
+ * and note are stored in the user's LyricArena and the entry holds only their two long
+ * handles. Each getLyricText / getUserNote call makes a short-lived String from the
+ * arena; nothing is cached, so the heap does not grow with the text held.
+ *
+ * The text stays in the arena until free() (an entry deleted for good) or until the
+ * arena is released (the user evicted); reading it afterwards throws IllegalStateException.
+ * Do not free entries that undo history or a snapshot still refers to.
+ *
+ * Example usage:
+ * LyricEntry entry = ArenaLyricEntry.copyOf(new LyricEntry("T", "A", "lyrics", "note"), user.getArena());
+ * entry.getLyricText();   // "lyrics", read from the arena
+ * ((ArenaLyricEntry) entry).free();
+ */
+@JsonAdapter(LyricEntryAdapter.class)
+public final class ArenaLyricEntry extends LyricEntry {
+    private final LyricArena arena;
+    private volatile long lyricHandle;
+    private volatile long noteHandle;
+
+    /*
+     * Constructor: Creates an entry with its lyric text and note stored in an arena
+     *
+     * Inputs:
+     *
+     * songTitle, artist, lyricText, userNote, dateAdded - as in LyricEntry (input: String, may be null)
+     * arena - where the lyric text and note are stored (input: open LyricArena)
+     */
+    public ArenaLyricEntry(String songTitle, String artist, String lyricText, String userNote,
+                           String dateAdded, LyricArena arena) {
+        super(songTitle, artist, null, null, dateAdded);
+        this.arena = arena;
+        this.lyricHandle = arena.store(lyricText);
+        this.noteHandle = arena.store(userNote);
+    }
+
+    /*
+     * Copies an entry into an arena (an entry already in that arena is returned as is)
+     *
+     * Inputs:
+     *
+     * entry - entry to copy (input: non-null LyricEntry)
+     * arena - arena for its lyric text and note (input: open LyricArena)
+     * Output: the off-heap entry (output: ArenaLyricEntry)
+     */
+    public static ArenaLyricEntry copyOf(LyricEntry entry, LyricArena arena) {
+        if (entry instanceof ArenaLyricEntry && ((ArenaLyricEntry) entry).arena == arena) {
+            return (ArenaLyricEntry) entry;
+        }
+        return new ArenaLyricEntry(entry.getSongTitle(), entry.getArtist(), entry.getLyricText(),
+                entry.getUserNote(), entry.getDateAdded(), arena);
+    }
+
+    @Override
+    public String getLyricText() {
+        return arena.load(lyricHandle);
+    }
+
+    @Override
+    public String getUserNote() {
+        return arena.load(noteHandle);
+    }
+
+    @Override
+    int[] findInLyricText(SearchKeyword keyword) {
+        return arena.findMatches(lyricHandle, keyword);   // scanned off-heap, in place
+    }
+
+    @Override
+    public synchronized void setLyricText(String lyricText) {
+        long old = lyricHandle;
+        lyricHandle = arena.store(lyricText);
+        arena.free(old);
+    }
+
+    @Override
+    public synchronized void setUserNote(String userNote) {
+        long old = noteHandle;
+        noteHandle = arena.store(userNote);
+        arena.free(old);
+    }
+
+    /*
+     * Gets the arena holding this entry's text
+     */
+    public LyricArena getArena() {
+        return arena;
+    }
+
+    /*
+     * Frees the lyric text and note in the arena (the entry was deleted for good)
+     */
+    public synchronized void free() {
+        arena.free(lyricHandle);
+        arena.free(noteHandle);
+    }
+}
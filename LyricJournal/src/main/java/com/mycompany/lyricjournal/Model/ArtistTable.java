@@ -0,0 +1,74 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.lyricjournal.Model;
+
+/**
+ *
+ * @author Kalli-Ann
+ */
+
+// ArtistTable Model Class
+
+// Symbol table that keeps one String object per distinct artist name
+
+
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+
+/*
+ * ArtistTable canonicalizes artist names: every LyricEntry with the artist "Queen" points
+ * at the same String object, across all journals loaded in the process. A journal usually
+ * has a few hundred artists over thousands of entries, so this removes most of the artist
+ * strings from the heap (see Diagnostics.MemoryFootprint).
+ *
+ * Names are held weakly: once no loaded entry uses a name it can be garbage collected,
+ * so a server that loads and evicts many journals does not accumulate names.
+ * Unlike String.intern() the table is an ordinary heap map and needs no JVM tuning.
+ *
+ * Example usage:
+ * String artist = ArtistTable.canonical(new String("Queen"));
+ * artist == ArtistTable.canonical("Queen")   // true
+ */
+public final class ArtistTable {
+    // name -> the canonical String object of that name (the value must not be the key's
+    // strong reference, or the entry would never be collected)
+    private static final WeakHashMap<String, WeakReference<String>> names = new WeakHashMap<>();
+
+    private ArtistTable() {
+    }
+
+    /*
+     * Gets the canonical String object for an artist name
+     *
+     * Input: name - artist name (input: String, may be null)
+     * Output: an equal String shared by every caller, null for null (output: String)
+     *
+     * Example: ArtistTable.canonical("The Beatles")
+     */
+    public static String canonical(String name) {
+        if (name == null) {
+            return null;
+        }
+        synchronized (names) {
+            WeakReference<String> existing = names.get(name);
+            String canonical = existing == null ? null : existing.get();
+            if (canonical == null) {
+                canonical = name;
+                names.put(canonical, new WeakReference<>(canonical));
+            }
+            return canonical;
+        }
+    }
+
+    /*
+     * Gets the number of distinct names currently held (collected names may still count
+     * until the table is next used)
+     */
+    public static int size() {
+        synchronized (names) {
+            return names.size();
+        }
+    }
+}
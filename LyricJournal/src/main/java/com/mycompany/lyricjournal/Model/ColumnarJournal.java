@@ -0,0 +1,456 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.lyricjournal.Model;
+
+/**
+ *
+ * @author Kalli-Ann
+ */
+
+// ColumnarJournal Model Class
+
+// Read-only, column-per-field snapshot of a journal for scans, stats and export
+
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/*
+ * ColumnarJournal stores a journal field by field instead of entry by entry:
+ *
+ *   artistIds  int[]    index into artistNames (one name per distinct artist)
+ *   days       int[]    dateAdded as an epoch day (NO_DAY when not a valid date)
+ *   titles     char[] + int[] offsets   all titles back to back
+ *   lyrics     char[] + int[] offsets   all lyric texts back to back
+ *   notes      char[] + int[] offsets   all notes back to back
+ *
+ * A scan walks a few large arrays front to back instead of following an entry object
+ * and a String per field, which is what the CPU caches and prefetcher handle best.
+ * Column operations also get cheaper: counting entries per artist is a pass over an
+ * int[]; search tests each distinct artist once instead of once per entry.
+ *
+ * It is a snapshot: built from a list of entries (or streamed in with Builder), it does
+ * not change afterwards. User.getColumnarSnapshot() keeps one per user and rebuilds it
+ * after the journal changes; the command line's search, stats and export stream a journal
+ * file straight into one. Each text column holds up to about 2 billion characters.
+ *
+ * Example usage:
+ * ColumnarJournal journal = user.getColumnarSnapshot();
+ * int[] rows = journal.search("love");               // same matches as user.searchEntries("love")
+ * int[] perArtist = journal.artistEntryCounts();     // entries per artist id
+ * LyricEntry first = journal.entry(rows[0]);
+ */
+public final class ColumnarJournal {
+    public static final int NO_DAY = Integer.MIN_VALUE;   // days[] value for entries without a valid date
+    public static final int NO_ARTIST = -1;                // artistIds[] value for a null artist
+
+    private final int size;
+    private final int[] artistIds;
+    private final String[] artistNames;
+    private final int[] days;
+    private final Map<Integer, String> dateText;   // row -> dateAdded kept as text (missing or not a date)
+    private final TextColumn titles;
+    private final TextColumn lyrics;
+    private final TextColumn notes;
+
+    private ColumnarJournal(Builder builder) {
+        size = builder.size;
+        artistIds = Arrays.copyOf(builder.artistIds, size);
+        artistNames = builder.artistNames.toArray(new String[0]);
+        days = Arrays.copyOf(builder.days, size);
+        dateText = builder.dateText;
+        titles = builder.titles.build(size);
+        lyrics = builder.lyrics.build(size);
+        notes = builder.notes.build(size);
+    }
+
+    /*
+     * Builds a snapshot of a list of entries
+     *
+     * Input: entries - entries in journal order (input: non-null List<LyricEntry>)
+     * Output: the snapshot, rows in the same order (output: ColumnarJournal)
+     *
+     * Example: ColumnarJournal.of(user.getEntries())
+     */
+    public static ColumnarJournal of(List<LyricEntry> entries) {
+        Builder builder = new Builder(entries.size());
+        for (LyricEntry entry : entries) {
+            builder.add(entry);
+        }
+        return builder.build();
+    }
+
+    /*
+     * Collects entries one at a time, e.g. straight from UserDataController.forEachEntry
+     *
+     * Example:
+     * ColumnarJournal.Builder builder = new ColumnarJournal.Builder(0);
+     * UserDataController.forEachEntry("john", builder::add);
+     * ColumnarJournal journal = builder.build();
+     */
+    public static final class Builder {
+        private int size;
+        private int[] artistIds;
+        private int[] days;
+        private final java.util.ArrayList<String> artistNames = new java.util.ArrayList<>();
+        private final Map<String, Integer> artistIndex = new HashMap<>();
+        private final Map<Integer, String> dateText = new HashMap<>();
+        private final TextColumn.Builder titles = new TextColumn.Builder();
+        private final TextColumn.Builder lyrics = new TextColumn.Builder();
+        private final TextColumn.Builder notes = new TextColumn.Builder();
+
+        /*
+         * Input: expectedEntries - capacity to start with, 0 if unknown (input: int >= 0)
+         */
+        public Builder(int expectedEntries) {
+            artistIds = new int[Math.max(16, expectedEntries)];
+            days = new int[artistIds.length];
+        }
+
+        /*
+         * Appends an entry as the next row
+         * Input: entry - entry to copy (input: non-null LyricEntry)
+         */
+        public void add(LyricEntry entry) {
+            if (size == artistIds.length) {
+                artistIds = Arrays.copyOf(artistIds, size * 2);
+                days = Arrays.copyOf(days, size * 2);
+            }
+            String artist = entry.getArtist();
+            if (artist == null) {
+                artistIds[size] = NO_ARTIST;
+            } else {
+                Integer id = artistIndex.get(artist);
+                if (id == null) {
+                    id = artistNames.size();
+                    artistNames.add(artist);
+                    artistIndex.put(artist, id);
+                }
+                artistIds[size] = id;
+            }
+            if (entry.hasDate()) {
+                days[size] = entry.epochDay();
+            } else {
+                days[size] = NO_DAY;
+                dateText.put(size, entry.getDateAdded());
+            }
+            titles.add(entry.getSongTitle());
+            lyrics.add(entry.getLyricText());
+            notes.add(entry.getUserNote());
+            size++;
+        }
+
+        /*
+         * Finishes the snapshot (arrays are trimmed to size; the builder should not be reused)
+         */
+        public ColumnarJournal build() {
+            return new ColumnarJournal(this);
+        }
+    }
+
+    // ---------------------------------------------------------------- rows
+
+    /*
+     * Gets the number of rows (entries)
+     */
+    public int size() {
+        return size;
+    }
+
+    /*
+     * Gets a row as a new LyricEntry equal to the entry it was built from
+     * Example: journal.entry(0).getSongTitle()
+     */
+    public LyricEntry entry(int row) {
+        return new LyricEntry(title(row), artist(row), lyric(row), note(row), dateAdded(row));
+    }
+
+    /*
+     * Passes every row, in order, as a new LyricEntry (e.g. to write an export)
+     * Example: journal.forEach(entry -> UserDataController.writeEntry(writer, entry));
+     */
+    public void forEach(Consumer<LyricEntry> action) {
+        for (int row = 0; row < size; row++) {
+            action.accept(entry(row));
+        }
+    }
+
+    public String title(int row) {
+        return titles.get(row);
+    }
+
+    public String artist(int row) {
+        int id = artistIds[row];
+        return id == NO_ARTIST ? null : artistNames[id];
+    }
+
+    public String lyric(int row) {
+        return lyrics.get(row);
+    }
+
+    public String note(int row) {
+        return notes.get(row);
+    }
+
+    // dateAdded as LyricEntry.getDateAdded() returns it
+    public String dateAdded(int row) {
+        return days[row] == NO_DAY ? dateText.get(row) : LocalDate.ofEpochDay(days[row]).toString();
+    }
+
+    // ---------------------------------------------------------------- columns
+
+    /*
+     * Gets a row's artist id (index into artistName), NO_ARTIST for none
+     */
+    public int artistId(int row) {
+        return artistIds[row];
+    }
+
+    /*
+     * Gets the number of distinct artists
+     */
+    public int artistCount() {
+        return artistNames.length;
+    }
+
+    /*
+     * Gets the name of an artist id
+     */
+    public String artistName(int id) {
+        return artistNames[id];
+    }
+
+    /*
+     * Counts the entries of each artist in one pass over the artist column
+     * Output: entries per artist id (output: int[artistCount()])
+     */
+    public int[] artistEntryCounts() {
+        int[] counts = new int[artistNames.length];
+        for (int row = 0; row < size; row++) {
+            int id = artistIds[row];
+            if (id != NO_ARTIST) {
+                counts[id]++;
+            }
+        }
+        return counts;
+    }
+
+    /*
+     * Gets a row's date as an epoch day, NO_DAY if it has no valid date
+     */
+    public int epochDay(int row) {
+        return days[row];
+    }
+
+    /*
+     * Gets the first and last epoch day in the journal
+     * Output: {first, last}, or null if no entry has a valid date (output: int[2] or null)
+     */
+    public int[] dayRange() {
+        int first = Integer.MAX_VALUE;
+        int last = NO_DAY;
+        for (int row = 0; row < size; row++) {
+            int day = days[row];
+            if (day != NO_DAY) {
+                first = Math.min(first, day);
+                last = Math.max(last, day);
+            }
+        }
+        return last == NO_DAY ? null : new int[] {first, last};
+    }
+
+    /*
+     * Gets the total length in characters of every lyric text
+     */
+    public long lyricChars() {
+        return lyrics.totalChars();
+    }
+
+    /*
+     * Gets the total length in characters of every note
+     */
+    public long noteChars() {
+        return notes.totalChars();
+    }
+
+    // ---------------------------------------------------------------- search
+
+    /*
+     * Finds the rows whose title, artist or lyric text contains a keyword (ignoring case)
+     * Same rules as User.searchEntries: an empty keyword matches every row, null matches none
+     *
+     * Input: keyword - search term (input: String)
+     * Output: matching rows in ascending order (output: int[], empty if none)
+     *
+     * Example: for (int row : journal.search("love")) { ... journal.title(row) ... }
+     */
+    public int[] search(String keyword) {
+        if (keyword == null) {
+            return new int[0];
+        }
+        int[] rows = new int[16];
+        int count = 0;
+        if (keyword.isEmpty()) {
+            rows = new int[size];
+            for (int row = 0; row < size; row++) {
+                rows[row] = row;
+            }
+            return rows;
+        }
+
+        // each distinct artist is tested once, then looked up per row
+        boolean[] artistMatches = new boolean[artistNames.length];
+        for (int id = 0; id < artistNames.length; id++) {
+            artistMatches[id] = contains(artistNames[id], keyword);
+        }
+        FirstChar first = new FirstChar(keyword.charAt(0));
+        for (int row = 0; row < size; row++) {
+            int id = artistIds[row];
+            if ((id != NO_ARTIST && artistMatches[id])
+                    || titles.contains(row, keyword, first)
+                    || lyrics.contains(row, keyword, first)) {
+                if (count == rows.length) {
+                    rows = Arrays.copyOf(rows, count * 2);
+                }
+                rows[count++] = row;
+            }
+        }
+        return Arrays.copyOf(rows, count);
+    }
+
+    /*
+     * The first-character filter of User.searchEntries: c passes if it is the keyword's
+     * first character in lower or upper case, or lowercases to it. For ASCII text the
+     * answer is looked up in a table, which saves a Character.toLowerCase call per
+     * character scanned - the bulk of a search that finds little.
+     */
+    private static final class FirstChar {
+        private final char lower;
+        private final char upper;
+        private final boolean[] ascii = new boolean[128];
+
+        FirstChar(char first) {
+            lower = Character.toLowerCase(first);
+            upper = Character.toUpperCase(first);
+            for (char c = 0; c < 128; c++) {
+                ascii[c] = test(c);
+            }
+        }
+
+        boolean test(char c) {
+            return c == lower || c == upper || Character.toLowerCase(c) == lower;
+        }
+    }
+
+    private static boolean contains(String text, String keyword) {
+        int length = keyword.length();
+        for (int i = 0; i + length <= text.length(); i++) {
+            if (text.regionMatches(true, i, keyword, 0, length)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ---------------------------------------------------------------- text column
+
+    /*
+     * One text field of every row, stored back to back in a single char[]
+     * Row i is chars[starts[i] .. starts[i + 1]); null values are marked in nulls
+     */
+    private static final class TextColumn {
+        private final char[] chars;
+        private final int[] starts;
+        private final BitSet nulls;
+
+        TextColumn(char[] chars, int[] starts, BitSet nulls) {
+            this.chars = chars;
+            this.starts = starts;
+            this.nulls = nulls;
+        }
+
+        String get(int row) {
+            if (nulls.get(row)) {
+                return null;
+            }
+            return new String(chars, starts[row], starts[row + 1] - starts[row]);
+        }
+
+        long totalChars() {
+            return starts[starts.length - 1];
+        }
+
+        // case-insensitive containment with the same character rules as User.searchEntries
+        boolean contains(int row, String keyword, FirstChar first) {
+            int length = keyword.length();
+            int last = starts[row + 1] - length;
+            boolean[] ascii = first.ascii;
+            for (int i = starts[row]; i <= last; i++) {
+                char c = chars[i];
+                if (c < 128 ? !ascii[c] : !first.test(c)) {
+                    continue; // cheap first-character filter
+                }
+                if (regionMatches(i, keyword, length)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // String.regionMatches(true, ...) over the packed characters
+        private boolean regionMatches(int offset, String keyword, int length) {
+            for (int k = 0; k < length; k++) {
+                char c1 = chars[offset + k];
+                char c2 = keyword.charAt(k);
+                if (c1 == c2) {
+                    continue;
+                }
+                char u1 = Character.toUpperCase(c1);
+                char u2 = Character.toUpperCase(c2);
+                if (u1 != u2 && Character.toLowerCase(u1) != Character.toLowerCase(u2)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        static final class Builder {
+            private char[] chars = new char[1024];
+            private int length;
+            private int[] starts = new int[17];
+            private int rows;
+            private final BitSet nulls = new BitSet();
+
+            void add(String value) {
+                if (value == null) {
+                    nulls.set(rows);
+                    value = "";
+                }
+                if ((long) length + value.length() > Integer.MAX_VALUE - 8) {
+                    throw new IllegalStateException("text column larger than 2 GB of characters");
+                }
+                if (length + value.length() > chars.length) {
+                    chars = Arrays.copyOf(chars, (int) Math.min(Integer.MAX_VALUE - 8,
+                            Math.max((long) chars.length * 2, (long) length + value.length())));
+                }
+                value.getChars(0, value.length(), chars, length);
+                length += value.length();
+                if (rows + 2 > starts.length) {
+                    starts = Arrays.copyOf(starts, starts.length * 2);
+                }
+                starts[++rows] = length;
+            }
+
+            TextColumn build(int size) {
+                return new TextColumn(Arrays.copyOf(chars, length), Arrays.copyOf(starts, size + 1), nulls);
+            }
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.lyricjournal.Model;
+
+/**
+ *
+ * @author Kalli-Ann
+ */
+
+// DateIndex Model Class
+
+// Index of a journal's entries by the day they were added
+
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/*
+ * DateIndex groups entries by dateAdded (as an epoch day, see LyricEntry.getDate) in a
+ * TreeMap, so "everything from last summer" is a range lookup instead of a scan that
+ * parses every date:
+ * - add/remove: O(log d + k)   d = days with entries, k = entries on that day (small)
+ * - entriesBetween: O(log d + result size)
+ * - countsBetween: O(log d + days in range), no entry is touched
+ *
+ * User keeps its index up to date in addEntry, insertEntry, setEntry, removeEntry,
+ * clearEntries and replaceEntries. Entries without a valid date are not indexed
+ * (getUndatedCount counts them). Unlike User.getEntries() it is not a snapshot: read it
+ * on the thread that changes the journal.
+ * Entries are held by identity: removing an entry removes that object, not an equal one.
+ *
+ * Example usage:
+ * DateIndex index = user.getDateIndex();
+ * List<LyricEntry> summer = index.entriesBetween(LocalDate.of(2024, 6, 1), LocalDate.of(2024, 8, 31));
+ * int today = index.countOn(LocalDate.now());
+ */
+public class DateIndex {
+    private final TreeMap<Integer, ArrayList<LyricEntry>> days = new TreeMap<>(); // epoch day -> entries in order added
+    private int size;           // indexed entries
+    private int undated;        // entries without a valid date
+
+    /*
+     * Adds an entry to the index
+     * Input: entry - entry to index (input: non-null LyricEntry)
+     */
+    public void add(LyricEntry entry) {
+        if (!entry.hasDate()) {
+            undated++;
+            return;
+        }
+        days.computeIfAbsent(entry.epochDay(), day -> new ArrayList<>(2)).add(entry);
+        size++;
+    }
+
+    /*
+     * Removes an entry (the same object that was added) from the index
+     * Input: entry - entry to remove (input: non-null LyricEntry)
+     * Output: returns false if the entry was not indexed
+     */
+    public boolean remove(LyricEntry entry) {
+        if (!entry.hasDate()) {
+            if (undated == 0) {
+                return false;
+            }
+            undated--;
+            return true;
+        }
+        int key = entry.epochDay();
+        ArrayList<LyricEntry> entries = days.get(key);
+        if (entries == null) {
+            return false;
+        }
+        for (int i = 0; i < entries.size(); i++) {
+            if (entries.get(i) == entry) {
+                entries.remove(i);
+                if (entries.isEmpty()) {
+                    days.remove(key);
+                }
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Removes every entry from the index
+     */
+    public void clear() {
+        days.clear();
+        size = 0;
+        undated = 0;
+    }
+
+    /*
+     * Gets the entries added between two days, inclusive, in date order
+     * (entries of the same day in the order they were indexed)
+     *
+     * Inputs:
+     *
+     * from - first day, null for no lower bound (input: LocalDate or null)
+     * to - last day, null for no upper bound (input: LocalDate or null)
+     * Output: new list of matching entries (output: ArrayList<LyricEntry>, may be empty)
+     *
+     * Example: index.entriesBetween(LocalDate.of(2024, 6, 1), LocalDate.of(2024, 8, 31))
+     */
+    public ArrayList<LyricEntry> entriesBetween(LocalDate from, LocalDate to) {
+        ArrayList<LyricEntry> result = new ArrayList<>();
+        for (ArrayList<LyricEntry> entries : range(from, to).values()) {
+            result.addAll(entries);
+        }
+        return result;
+    }
+
+    /*
+     * Gets the number of entries on each day between two days, inclusive
+     * Days without entries are left out
+     *
+     * Inputs:
+     *
+     * from - first day, null for no lower bound (input: LocalDate or null)
+     * to - last day, null for no upper bound (input: LocalDate or null)
+     * Output: day -> entry count, in date order (output: SortedMap<LocalDate, Integer>)
+     *
+     * Example: index.countsBetween(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31))
+     */
+    public SortedMap<LocalDate, Integer> countsBetween(LocalDate from, LocalDate to) {
+        SortedMap<LocalDate, Integer> counts = new TreeMap<>();
+        for (Map.Entry<Integer, ArrayList<LyricEntry>> day : range(from, to).entrySet()) {
+            counts.put(LocalDate.ofEpochDay(day.getKey()), day.getValue().size());
+        }
+        return counts;
+    }
+
+    /*
+     * Gets the number of entries added on one day
+     * Example: index.countOn(LocalDate.of(2024, 1, 15)) // 3
+     */
+    public int countOn(LocalDate date) {
+        ArrayList<LyricEntry> entries = days.get((int) date.toEpochDay());
+        return entries == null ? 0 : entries.size();
+    }
+
+    /*
+     * Gets the first day with an entry, or null if no entry is dated
+     */
+    public LocalDate firstDate() {
+        return days.isEmpty() ? null : LocalDate.ofEpochDay(days.firstKey());
+    }
+
+    /*
+     * Gets the last day with an entry, or null if no entry is dated
+     */
+    public LocalDate lastDate() {
+        return days.isEmpty() ? null : LocalDate.ofEpochDay(days.lastKey());
+    }
+
+    /*
+     * Gets the number of days that have entries
+     */
+    public int getDayCount() {
+        return days.size();
+    }
+
+    /*
+     * Gets the number of indexed (dated) entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /*
+     * Gets the number of entries without a valid date (not in the index)
+     */
+    public int getUndatedCount() {
+        return undated;
+    }
+
+    // the days between two optional bounds, inclusive
+    private NavigableMap<Integer, ArrayList<LyricEntry>> range(LocalDate from, LocalDate to) {
+        NavigableMap<Integer, ArrayList<LyricEntry>> range = days;
+        if (from != null) {
+            range = range.tailMap((int) from.toEpochDay(), true);
+        }
+        if (to != null) {
+            range = range.headMap((int) to.toEpochDay(), true);
+        }
+        return range;
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.lyricjournal.Model;
+
+/**
+ *
+ * @author Kalli-Ann
+ */
+
+// LazyLyricEntry Model Class
+
+// Lyric entry whose lyric text and note stay on disk until they are first read
+
+
+import com.google.gson.annotations.JsonAdapter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.SoftReference;
+
+/*
+ * LazyLyricEntry is loaded with only its title, artist and date. The lyric text and note
+ * are read from a LyricBodySource the first time getLyricText or getUserNote is called,
+ * then kept behind a SoftReference: they stay while memory allows, and the garbage
+ * collector may drop them under pressure, in which case the next call reads them again.
+ *
+ * Calling a setter loads both bodies for good (they are then held like in LyricEntry),
+ * so an edit is never lost to the cache. Saving reads bodies without caching them.
+ * If the bodies cannot be read (the journal file is gone or its source was closed), the
+ * getters and setters throw UncheckedIOException and the entry stays as it was - it never
+ * stands in for its text with nulls that a save would then write.
+ *
+ * Created by UserDataController when journals are loaded in lazy mode (see JournalIndex).
+ *
+ * Example usage:
+ * LyricEntry entry = new LazyLyricEntry("Yesterday", "The Beatles", "2024-01-15", bodies, 0);
+ * entry.getSongTitle();   // in memory
+ * entry.getLyricText();   // read from bodies on first use, cached softly
+ */
+@JsonAdapter(LyricEntryAdapter.class)
+public final class LazyLyricEntry extends LyricEntry {
+    private final LyricBodySource source;
+    private final int row;
+    private volatile SoftReference<String[]> cache;   // {lyricText, userNote} once read
+    private volatile boolean detached;                // set by the setters: bodies are held in LyricEntry's fields
+
+    /*
+     * Constructor: Creates an entry whose bodies are read on demand
+     *
+     * Inputs:
+     *
+     * songTitle, artist, dateAdded - as in LyricEntry (input: String, may be null)
+     * source - where the lyric text and note are read from (input: non-null LyricBodySource)
+     * row - the entry's row in source (input: int >= 0)
+     */
+    public LazyLyricEntry(String songTitle, String artist, String dateAdded, LyricBodySource source, int row) {
+        super(songTitle, artist, null, null, dateAdded);
+        this.source = source;
+        this.row = row;
+    }
+
+    @Override
+    public String getLyricText() {
+        return detached ? super.getLyricText() : bodies()[0];
+    }
+
+    @Override
+    public String getUserNote() {
+        return detached ? super.getUserNote() : bodies()[1];
+    }
+
+    @Override
+    public void setLyricText(String lyricText) {
+        detach();
+        super.setLyricText(lyricText);
+    }
+
+    @Override
+    public void setUserNote(String userNote) {
+        detach();
+        super.setUserNote(userNote);
+    }
+
+    @Override
+    int[] findInLyricText(SearchKeyword keyword) {
+        // the body as read (and cached) from the journal - searched as a String, not re-encoded
+        return detached ? super.findInLyricText(keyword) : keyword.findMatches(getLyricText());
+    }
+
+    /*
+     * Gets the bodies only if they are in memory - never reads the source
+     * Output: {lyricText, userNote}, or null if they are not loaded (output: new String[2] or null)
+     */
+    public String[] residentBodies() {
+        if (detached) {
+            return new String[] {super.getLyricText(), super.getUserNote()};
+        }
+        SoftReference<String[]> reference = cache;
+        String[] bodies = reference == null ? null : reference.get();
+        return bodies == null ? null : bodies.clone();
+    }
+
+    // for LyricEntryAdapter: the bodies without caching them (a save reads every entry),
+    // failing instead of writing an entry without its text
+    String[] bodiesForWrite() throws IOException {
+        String[] resident = residentBodies();
+        return resident != null ? resident : source.read(row);
+    }
+
+    // the cached bodies, read again if never read or dropped by the garbage collector
+    private String[] bodies() {
+        SoftReference<String[]> reference = cache;
+        String[] bodies = reference == null ? null : reference.get();
+        if (bodies == null) {
+            try {
+                bodies = source.read(row);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error reading lyric text of " + getSongTitle(), e);
+            }
+            cache = new SoftReference<>(bodies);
+        }
+        return bodies;
+    }
+
+    private synchronized void detach() {
+        if (!detached) {
+            String[] bodies = bodies();
+            super.setLyricText(bodies[0]);
+            super.setUserNote(bodies[1]);
+            detached = true;
+            cache = null;
+        }
+    }
+}
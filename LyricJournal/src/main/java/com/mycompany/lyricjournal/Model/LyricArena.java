@@ -0,0 +1,459 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.lyricjournal.Model;
+
+/**
+ *
+ * @author Kalli-Ann
+ */
+
+// LyricArena Model Class
+
+// Off-heap storage for lyric texts and notes, addressed by compact handles
+
+
+import com.mycompany.lyricjournal.Diagnostics.Metrics;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/*
+ * LyricArena keeps text outside the Java heap, in direct ByteBuffers, so the heap (and
+ * the garbage collector's work) does not grow with the amount of lyric text held.
+ * store() copies a String in as UTF-8 (Utf8Text) and returns a long handle; load() makes a String
+ * from it again; free() gives the space back. One arena per user (ArenaLyricEntry);
+ * release() hands all of its memory back at once when the user is evicted.
+ *
+ * Slab allocator:
+ * - memory comes in slabs of 256 KB; each slab is cut into slots of one size class
+ *   (32, 48, 64, 96, ... 256 KB: powers of two and the halfway sizes between them, so a
+ *   slot wastes at most a third of its bytes; each slot holds the text plus an 8-byte header)
+ * - freed slots go on a free list for their class and are reused first
+ * - text longer than a slab gets a direct buffer of its own, dropped when freed
+ * - released slabs go back to a pool shared by all arenas (up to POOL_LIMIT slabs,
+ *   -Dlyricjournal.arena.poolSlabs), so evicting one user and loading another reuses
+ *   memory instead of allocating more
+ *
+ * Handle: slab number (24 bits) | slot (16 bits) | generation (24 bits). Each slot's
+ * header holds its generation, bumped when the slot is freed, so a handle used after
+ * free() or release() fails with IllegalStateException instead of reading other text.
+ * NULL_HANDLE and EMPTY_HANDLE stand for null and "" without using any memory.
+ *
+ * Thread safety: store, free and release take a write lock; load and findMatches read
+ * optimistically (StampedLock) and only wait if the arena changed during the read.
+ *
+ * Direct memory is limited by -XX:MaxDirectMemorySize (by default, the maximum heap size).
+ *
+ * Example usage:
+ * LyricArena arena = new LyricArena();
+ * long handle = arena.store("Imagine all the people");
+ * String text = arena.load(handle);   // "Imagine all the people"
+ * arena.free(handle);
+ * arena.release();                    // when the user is evicted
+ */
+public final class LyricArena {
+    public static final long NULL_HANDLE = 0;
+    public static final long EMPTY_HANDLE = -1;
+
+    private static final int SLAB_SIZE = 256 * 1024;
+    private static final int HEADER = 8;                 // int generation, int length in bytes
+    private static final int[] CLASS_SIZES = classSizes();  // slot size of each class, ascending
+    private static final int CLASSES = CLASS_SIZES.length;
+    private static final int GENERATION_MASK = 0xFFFFFF;
+    private static final int MAX_SLABS = 1 << 23;          // keeps handles positive
+    private static final int POOL_LIMIT = Integer.getInteger("lyricjournal.arena.poolSlabs", 1024);
+
+    // slabs released by arenas, ready for reuse, and what all arenas hold
+    private static final ConcurrentLinkedDeque<ByteBuffer> POOL = new ConcurrentLinkedDeque<>();
+    private static final AtomicInteger POOLED = new AtomicInteger();  // POOL.size() without the walk
+    private static final AtomicLong RESERVED = new AtomicLong();   // direct bytes held by live arenas
+    private static final LongAdder SLABS_ALLOCATED = Metrics.counter("arena.slabsAllocated");
+
+    static {
+        Metrics.gauge("arena.offHeapBytes", RESERVED::get);
+        Metrics.gauge("arena.pooledSlabs", POOLED::get);
+    }
+
+    private final StampedLock lock = new StampedLock();
+    private Slab[] slabs = new Slab[8];
+    private int slabCount;
+    private final Slab[] current = new Slab[CLASSES];     // slab handing out fresh slots, per class
+    private final long[][] freeSlots = new long[CLASSES][]; // freed handles (generation already bumped), per class
+    private final int[] freeCounts = new int[CLASSES];
+    private long usedBytes;       // text bytes stored
+    private long reservedBytes;   // slab bytes held
+    private boolean released;
+
+    // one slab: a direct buffer cut into slots of slotSize bytes
+    private static final class Slab {
+        final ByteBuffer buffer;
+        final int slotSize;
+        final int sizeClass;      // -1 for a large text
+        final boolean pooled;     // standard slab (back to the pool on release) or one large text
+        int index;                // position in slabs, the handle's slab number
+        int handedOut;            // slots used so far, from the start
+
+        Slab(ByteBuffer buffer, int slotSize, int sizeClass) {
+            this.buffer = buffer;
+            this.slotSize = slotSize;
+            this.sizeClass = sizeClass;
+            this.pooled = sizeClass >= 0;
+        }
+    }
+
+    /*
+     * Copies text into the arena
+     *
+     * Input: text - text to store (input: String, may be null or empty)
+     * Output: handle for load and free (output: long; NULL_HANDLE for null, EMPTY_HANDLE for "")
+     * Throws IllegalStateException if the arena was released
+     *
+     * Example: long handle = arena.store(entry.getLyricText());
+     */
+    public long store(String text) {
+        if (text == null) {
+            return NULL_HANDLE;
+        }
+        if (text.isEmpty()) {
+            return EMPTY_HANDLE;
+        }
+        byte[] bytes = Utf8Text.encode(text);
+        int needed = bytes.length + HEADER;
+        long stamp = lock.writeLock();
+        try {
+            checkOpen();
+            long handle = needed > SLAB_SIZE ? allocateLarge(needed) : allocate(sizeClass(needed));
+            Slab slab = slabs[slabOf(handle)];
+            int offset = slotOf(handle) * slab.slotSize;
+            slab.buffer.putInt(offset, generationOf(handle));
+            slab.buffer.putInt(offset + 4, bytes.length);
+            slab.buffer.put(offset + HEADER, bytes);
+            usedBytes += bytes.length;
+            return handle;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /*
+     * Reads text back from the arena
+     *
+     * Input: handle - returned by store (input: long)
+     * Output: a new String with the stored text (output: String, null for NULL_HANDLE)
+     * Throws IllegalStateException if the handle was freed or the arena released
+     */
+    public String load(long handle) {
+        return Utf8Text.decode(loadBytes(handle));
+    }
+
+    /*
+     * Reads text back from the arena as UTF-8 bytes (Utf8Text), without decoding it
+     *
+     * Input: handle - returned by store (input: long)
+     * Output: a copy of the stored bytes (output: new byte[], null for NULL_HANDLE)
+     * Throws IllegalStateException if the handle was freed or the arena released
+     */
+    public byte[] loadBytes(long handle) {
+        if (handle == NULL_HANDLE) {
+            return null;
+        }
+        if (handle == EMPTY_HANDLE) {
+            return new byte[0];
+        }
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                byte[] text = read(handle);
+                if (lock.validate(stamp)) {
+                    return text;
+                }
+            } catch (RuntimeException e) {
+                if (lock.validate(stamp)) {
+                    throw e;          // a real error, not a read torn by a concurrent change
+                }
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return read(handle);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /*
+     * Searches stored text for a keyword where it lies, outside the heap
+     * Text without a match is scanned in place and nothing is allocated; only a match is
+     * copied out, to work out its offsets
+     *
+     * Inputs:
+     *
+     * handle - returned by store (input: long)
+     * keyword - prepared search term (input: SearchKeyword)
+     *
+     * Output: match offsets as SearchKeyword.findMatches reports them (output: int[], shared empty array if none)
+     * Throws IllegalStateException if the handle was freed or the arena released
+     */
+    public int[] findMatches(long handle, SearchKeyword keyword) {
+        if (handle == NULL_HANDLE || handle == EMPTY_HANDLE) {
+            return SearchResult.NO_MATCHES;
+        }
+        boolean found;
+        long stamp = lock.tryOptimisticRead();
+        try {
+            found = scan(handle, keyword);
+        } catch (RuntimeException e) {
+            if (stamp != 0 && lock.validate(stamp)) {
+                throw e;          // a real error, not a read torn by a concurrent change
+            }
+            stamp = 0;
+            found = false;
+        }
+        if (stamp == 0 || !lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                found = scan(handle, keyword);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return found ? keyword.findMatches(loadBytes(handle)) : SearchResult.NO_MATCHES;
+    }
+
+    /*
+     * Gives a handle's space back to the arena (no-op for NULL_HANDLE and EMPTY_HANDLE
+     * and after release)
+     *
+     * Input: handle - returned by store, not freed yet (input: long)
+     * Throws IllegalStateException if the handle was already freed
+     */
+    public void free(long handle) {
+        if (handle == NULL_HANDLE || handle == EMPTY_HANDLE) {
+            return;
+        }
+        long stamp = lock.writeLock();
+        try {
+            if (released) {
+                return; // everything is gone already
+            }
+            Slab slab = slot(handle);
+            int offset = slotOf(handle) * slab.slotSize;
+            usedBytes -= slab.buffer.getInt(offset + 4);
+            if (!slab.pooled) {
+                slabs[slabOf(handle)] = null; // a large text's own buffer - the GC frees it
+                reservedBytes -= slab.slotSize;
+                RESERVED.addAndGet(-slab.slotSize);
+                return;
+            }
+            int generation = (generationOf(handle) + 1) & GENERATION_MASK;
+            generation = generation == 0 ? 1 : generation;
+            slab.buffer.putInt(offset, generation);
+            int sizeClass = slab.sizeClass;
+            long[] free = freeSlots[sizeClass];
+            if (free == null || freeCounts[sizeClass] == free.length) {
+                free = freeSlots[sizeClass] = free == null ? new long[16] : Arrays.copyOf(free, free.length * 2);
+            }
+            free[freeCounts[sizeClass]++] = handle(slabOf(handle), slotOf(handle), generation);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /*
+     * Hands all of the arena's memory back (slabs to the shared pool); every handle
+     * becomes invalid. Called when the user the arena belongs to is evicted.
+     */
+    public void release() {
+        long stamp = lock.writeLock();
+        try {
+            if (released) {
+                return;
+            }
+            released = true;
+            for (int i = 0; i < slabCount; i++) {
+                Slab slab = slabs[i];
+                if (slab != null && slab.pooled && POOLED.incrementAndGet() <= POOL_LIMIT) {
+                    POOL.push(slab.buffer);
+                } else if (slab != null && slab.pooled) {
+                    POOLED.decrementAndGet(); // pool full - the GC frees this one
+                }
+            }
+            RESERVED.addAndGet(-reservedBytes);
+            slabs = new Slab[0];
+            slabCount = 0;
+            Arrays.fill(current, null);
+            Arrays.fill(freeSlots, null);
+            Arrays.fill(freeCounts, 0);
+            usedBytes = 0;
+            reservedBytes = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /*
+     * Gets the number of text bytes stored (UTF-8)
+     */
+    public long getUsedBytes() {
+        long stamp = lock.readLock();
+        try {
+            return usedBytes;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /*
+     * Gets the off-heap bytes the arena holds (whole slabs, including unused slots)
+     */
+    public long getReservedBytes() {
+        long stamp = lock.readLock();
+        try {
+            return reservedBytes;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /*
+     * Gets whether release() was called
+     */
+    public boolean isReleased() {
+        long stamp = lock.readLock();
+        try {
+            return released;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /*
+     * Gets the off-heap bytes held by all live arenas
+     */
+    public static long getTotalReservedBytes() {
+        return RESERVED.get();
+    }
+
+    private byte[] read(long handle) {
+        Slab slab = slot(handle);
+        int offset = slotOf(handle) * slab.slotSize;
+        byte[] bytes = new byte[textLength(slab, offset)];
+        slab.buffer.get(offset + HEADER, bytes);
+        return bytes;
+    }
+
+    private boolean scan(long handle, SearchKeyword keyword) {
+        Slab slab = slot(handle);
+        int offset = slotOf(handle) * slab.slotSize;
+        return keyword.occursIn(slab.buffer, offset + HEADER, offset + HEADER + textLength(slab, offset));
+    }
+
+    // length of the text in the slot at offset, checked against the slot size
+    private static int textLength(Slab slab, int offset) {
+        int length = slab.buffer.getInt(offset + 4);
+        if (length < 0 || length > slab.slotSize - HEADER) {
+            throw new IllegalStateException("corrupt text length " + length);
+        }
+        return length;
+    }
+
+    // the slab of a live handle (checks the arena and the generation)
+    private Slab slot(long handle) {
+        checkOpen();
+        int index = slabOf(handle);
+        Slab slab = index < slabCount ? slabs[index] : null;
+        if (slab == null || slotOf(handle) >= slab.handedOut
+                || slab.buffer.getInt(slotOf(handle) * slab.slotSize) != generationOf(handle)) {
+            throw new IllegalStateException("text handle " + Long.toHexString(handle) + " was freed");
+        }
+        return slab;
+    }
+
+    // a slot of a size class: a freed one, else the next fresh one (caller holds the write lock)
+    private long allocate(int sizeClass) {
+        if (freeCounts[sizeClass] > 0) {
+            return freeSlots[sizeClass][--freeCounts[sizeClass]];
+        }
+        Slab slab = current[sizeClass];
+        if (slab == null || (slab.handedOut + 1) * slab.slotSize > SLAB_SIZE) {
+            ByteBuffer buffer = POOL.poll();
+            if (buffer != null) {
+                POOLED.decrementAndGet();
+            } else {
+                buffer = ByteBuffer.allocateDirect(SLAB_SIZE);
+                SLABS_ALLOCATED.increment();
+            }
+            slab = new Slab(buffer, CLASS_SIZES[sizeClass], sizeClass);
+            addSlab(slab);
+            current[sizeClass] = slab;
+        }
+        return handle(slab.index, slab.handedOut++, 1);
+    }
+
+    private long allocateLarge(int needed) {
+        Slab slab = new Slab(ByteBuffer.allocateDirect(needed), needed, -1);
+        slab.handedOut = 1;
+        addSlab(slab);
+        return handle(slabCount - 1, 0, 1);
+    }
+
+    private void addSlab(Slab slab) {
+        if (slabCount == slabs.length) {
+            slabs = Arrays.copyOf(slabs, slabCount * 2);
+        }
+        if (slabCount == MAX_SLABS) {
+            throw new IllegalStateException("arena is full");
+        }
+        slab.index = slabCount;
+        slabs[slabCount++] = slab;
+        reservedBytes += slab.buffer.capacity();
+        RESERVED.addAndGet(slab.buffer.capacity());
+    }
+
+    private void checkOpen() {
+        if (released) {
+            throw new IllegalStateException("arena was released");
+        }
+    }
+
+    // smallest class whose slot holds needed bytes
+    private static int sizeClass(int needed) {
+        int index = Arrays.binarySearch(CLASS_SIZES, needed);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    // 32, 48, 64, 96, ... 192 KB, 256 KB
+    private static int[] classSizes() {
+        int[] sizes = new int[2 * (18 - 5) + 1];
+        for (int shift = 5, i = 0; shift <= 18; shift++) {
+            sizes[i++] = 1 << shift;
+            if (shift < 18) {
+                sizes[i++] = 3 << (shift - 1);
+            }
+        }
+        return sizes;
+    }
+
+    private static long handle(int slab, int slot, int generation) {
+        return ((long) slab << 40) | ((long) slot << 24) | generation;
+    }
+
+    private static int slabOf(long handle) {
+        return (int) (handle >>> 40);
+    }
+
+    private static int slotOf(long handle) {
+        return (int) (handle >>> 24) & 0xFFFF;
+    }
+
+    private static int generationOf(long handle) {
+        return (int) handle & GENERATION_MASK;
+    }
+}
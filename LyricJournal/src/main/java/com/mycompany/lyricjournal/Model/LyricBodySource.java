@@ -0,0 +1,38 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.lyricjournal.Model;
+
+/**
+ *
+ * @author Kalli-Ann
+ */
+
+// LyricBodySource Model Interface
+
+// Where a LazyLyricEntry reads its lyric text and note from
+
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/*
+ * A LyricBodySource holds the lyric texts and notes ("bodies") of a loaded journal
+ * somewhere other than the heap - JournalIndex reads them from the journal file on disk.
+ * Rows are the entries' positions in the journal as it was loaded.
+ * Implementations must allow reads from several threads at once.
+ * A source may hold an open file: the User whose entries read from it closes it
+ * (User.setBodySource) when those entries are replaced or the user is dropped.
+ */
+public interface LyricBodySource extends Closeable {
+
+    /*
+     * Reads the lyric text and note of one entry
+     *
+     * Input: row - the entry's position in the journal it was loaded from (input: int >= 0)
+     * Output: {lyricText, userNote}, either may be null (output: new String[2])
+     * Throws IOException if the bodies cannot be read
+     */
+    String[] read(int row) throws IOException;
+}
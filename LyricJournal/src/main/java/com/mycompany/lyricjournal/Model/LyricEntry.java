@@ -13,6 +13,9 @@ package com.mycompany.lyricjournal.Model;
 
 // Represents a single lyric entry in the journal with song information and user notes
 
+import com.google.gson.annotations.JsonAdapter;
+
+import java.time.DateTimeException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 
@@ -21,18 +24,44 @@ import java.time.format.DateTimeFormatter;
  * lyric text, user notes, and creation date. This class follows the Model
  * pattern in MVC architecture.
  * 
+ * Memory layout - a journal holds thousands of entries, so each entry is kept small:
+ * - the artist is canonicalized through ArtistTable (one String per distinct artist)
+ * - the date is an int day number (LocalDate.toEpochDay), formatted only when asked for
+ * - the title, lyric text and note are UTF-8 byte arrays (Utf8Text): one byte per ASCII
+ *   character even when the text also has curly quotes or emoji, and no String object
+ *   per field; the getters decode a new String on each call, so callers that use a value
+ *   more than once should fetch it once and keep it. Search runs on the stored bytes
+ *   (User.matchEntry, SearchKeyword) without decoding them - also for off-heap and lazily
+ *   loaded text (ArenaLyricEntry, LazyLyricEntry), see findInLyricText.
+ *   An entry is 40 bytes plus its three byte arrays (and, only for a date that is not
+ *   one, the verbatim text)
+ * Saved journals keep the same JSON format ("dateAdded": "2024-01-15"), see LyricEntryAdapter.
+ * 
  * Example usage:
  * LyricEntry entry = new LyricEntry("Bohemian Rhapsody", "Queen", 
  *                                   "Is this the real life?", "Amazing opening line");
  */
 
+@JsonAdapter(LyricEntryAdapter.class)
 public class LyricEntry {
+    // shared formatter for dateAdded (yyyy-MM-dd; ISO, so year 0000 formats as written too)
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE;
+
+    // dateAdded values that are not dates: missing, or text that does not round-trip as yyyy-MM-dd
+    // (only in hand-edited or imported journals). Kept verbatim in unparsedDate so they are saved
+    // unchanged and reported by the check command; such an entry stores UNPARSED.
+    // Real dates (years 0000-9999) are epoch days of at least FIRST_DAY, far above these codes.
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final int UNPARSED = Integer.MIN_VALUE + 1;
+    private static final int FIRST_DAY = (int) LocalDate.of(0, 1, 1).toEpochDay();
+
     // instance variables to store entry data
-    private String songTitle;    // title of the song
-    private String artist;       // artist or band name
-    private String lyricText;    // the actual lyric text being saved
-    private String userNote;     // user's personal note about the lyric
-    private String dateAdded;    // date when entry was created (format: yyyy-MM-dd)
+    private byte[] songTitle;    // title of the song (UTF-8)
+    private String artist;       // artist or band name, canonical (ArtistTable)
+    private byte[] lyricText;    // the actual lyric text being saved (UTF-8)
+    private byte[] userNote;     // user's personal note about the lyric (UTF-8)
+    private int dateAdded;       // day the entry was created (epoch day), or NO_DATE / UNPARSED
+    private String unparsedDate; // the dateAdded text when it is UNPARSED, otherwise null
 
     /*
      * Primary constructor for creating new lyric entries
@@ -50,12 +79,12 @@ public class LyricEntry {
      * Example: new LyricEntry("Yesterday", "The Beatles", "Yesterday all my troubles seemed so far away", "Nostalgic song")
      */
     public LyricEntry(String songTitle, String artist, String lyricText, String userNote) {
-        this.songTitle = songTitle;
-        this.artist = artist;
-        this.lyricText = lyricText;
-        this.userNote = userNote;
-        // Automatically set current date in ISO format (yyyy-MM-dd)
-        this.dateAdded = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+        this.songTitle = Utf8Text.encode(songTitle);
+        this.artist = ArtistTable.canonical(artist);
+        this.lyricText = Utf8Text.encode(lyricText);
+        this.userNote = Utf8Text.encode(userNote);
+        // Automatically set current date (shown in ISO format, yyyy-MM-dd)
+        this.dateAdded = (int) LocalDate.now().toEpochDay();
     }
 
     /*
@@ -75,11 +104,14 @@ public class LyricEntry {
      * Example: new LyricEntry("Yesterday", "Beatles", "Yesterday all my troubles...", "Classic", "2024-01-15")
      */
     public LyricEntry(String songTitle, String artist, String lyricText, String userNote, String dateAdded) {
-        this.songTitle = songTitle;
-        this.artist = artist;
-        this.lyricText = lyricText;
-        this.userNote = userNote;
-        this.dateAdded = dateAdded; //preserve original date for edits
+        this.songTitle = Utf8Text.encode(songTitle);
+        this.artist = ArtistTable.canonical(artist);
+        this.lyricText = Utf8Text.encode(lyricText);
+        this.userNote = Utf8Text.encode(userNote);
+        this.dateAdded = encodeDate(dateAdded); //preserve original date for edits
+        if (this.dateAdded == UNPARSED) {
+            this.unparsedDate = dateAdded;
+        }
     }
 
     // getter methods - provide read access to private instance variables
@@ -87,9 +119,10 @@ public class LyricEntry {
     /*
      * gets the song title
      * returns string containing the song title (output: non-null String)
+     * Decodes a new String on every call - fetch it once per use
      */
     public String getSongTitle() { 
-        return songTitle; 
+        return Utf8Text.decode(songTitle); 
     }
     
     /**
@@ -103,25 +136,61 @@ public class LyricEntry {
     /*
      * gets the lyric text
      * returns string containing the saved lyric text (output: non-null String)
+     * Decodes a new String on every call - fetch it once per use
      */
     public String getLyricText() { 
-        return lyricText; 
+        return Utf8Text.decode(lyricText); 
     }
     
     /*
      * gets the user's note
      * Returns string containing user's note, may be empty (output: String, possibly empty)
+     * Decodes a new String on every call - fetch it once per use
      */
     public String getUserNote() { 
-        return userNote; 
+        return Utf8Text.decode(userNote); 
     }
     
     /*
      * gets the date when entry was added
-     * returns string containing date in yyyy-MM-dd format (output: formatted date string)
+     * returns string containing date in yyyy-MM-dd format (output: formatted date string,
+     * or the text loaded from the journal if that was not a date, or null if there was none)
      */
     public String getDateAdded() { 
-        return dateAdded; 
+        if (dateAdded >= FIRST_DAY) {
+            return LocalDate.ofEpochDay(dateAdded).format(DATE_FORMAT);
+        }
+        return unparsedDate; // null for NO_DATE
+    }
+
+    /*
+     * gets the date when entry was added as a LocalDate
+     * returns the date, or null if the entry has no valid date (output: LocalDate or null)
+     * 
+     * Example: entry.getDate().getYear()
+     */
+    public LocalDate getDate() {
+        return dateAdded >= FIRST_DAY ? LocalDate.ofEpochDay(dateAdded) : null;
+    }
+
+    // for User.matchEntry: the stored UTF-8 title (callers must not change the array), and the
+    // keyword's matches in the lyric text - searched where the text is kept, so subclasses
+    // that keep it elsewhere (ArenaLyricEntry, LazyLyricEntry) search it there without copying
+    byte[] songTitleBytes() {
+        return songTitle;
+    }
+
+    int[] findInLyricText(SearchKeyword keyword) {
+        return keyword.findMatches(lyricText);
+    }
+
+    // for DateIndex: whether the entry has a valid date, and its epoch day
+    boolean hasDate() {
+        return dateAdded >= FIRST_DAY;
+    }
+
+    int epochDay() {
+        return dateAdded;
     }
 
     // setter methods - provide controlled write access for editing functionality
@@ -132,7 +201,7 @@ public class LyricEntry {
      * Output: Updates internal songTitle field
      */
     public void setSongTitle(String songTitle) {
-        this.songTitle = songTitle;
+        this.songTitle = Utf8Text.encode(songTitle);
     }
 
     /*
@@ -141,7 +210,7 @@ public class LyricEntry {
      * Output: Updates internal artist field
      */
     public void setArtist(String artist) {
-        this.artist = artist;
+        this.artist = ArtistTable.canonical(artist);
     }
 
     /**
@@ -150,7 +219,7 @@ public class LyricEntry {
      * Output: Updates internal lyricText field
      */
     public void setLyricText(String lyricText) {
-        this.lyricText = lyricText;
+        this.lyricText = Utf8Text.encode(lyricText);
     }
 
     /*
@@ -159,7 +228,7 @@ public class LyricEntry {
      * Output: Updates internal userNote field
      */
     public void setUserNote(String userNote) {
-        this.userNote = userNote;
+        this.userNote = Utf8Text.encode(userNote);
     }
 
     /*
@@ -176,6 +245,41 @@ public class LyricEntry {
      */
     @Override
     public String toString() {
-        return songTitle + " by " + artist + "\n\"" + lyricText + "\"\nNote: " + userNote + "\nDate: " + dateAdded;
+        return getSongTitle() + " by " + artist + "\n\"" + getLyricText() + "\"\nNote: " + getUserNote() + "\nDate: " + getDateAdded();
+    }
+
+    // date text -> stored int: the epoch day if the text is a valid yyyy-MM-dd date (which
+    // formats back to exactly the same text), otherwise NO_DATE or UNPARSED.
+    // Parsed by hand - journals are loaded entry by entry and this runs for every one.
+    private static int encodeDate(String text) {
+        if (text == null) {
+            return NO_DATE;
+        }
+        if (text.length() == 10 && text.charAt(4) == '-' && text.charAt(7) == '-') {
+            int year = digits(text, 0, 4);
+            int month = digits(text, 5, 7);
+            int day = digits(text, 8, 10);
+            if (year >= 0 && month >= 0 && day >= 0) {
+                try {
+                    return (int) LocalDate.of(year, month, day).toEpochDay();
+                } catch (DateTimeException e) {
+                    // e.g. 2024-02-30 - kept verbatim below
+                }
+            }
+        }
+        return UNPARSED;
+    }
+
+    // value of text[from, to) if it is all ASCII digits, otherwise -1
+    private static int digits(String text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
     }
 }
\ No newline at end of file
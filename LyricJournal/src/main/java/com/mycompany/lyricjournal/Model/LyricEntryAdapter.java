@@ -0,0 +1,116 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.lyricjournal.Model;
+
+/**
+ *
+ * @author Kalli-Ann
+ */
+
+// LyricEntryAdapter Model Class
+
+// Gson serialization of LyricEntry in the journal file format
+
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/*
+ * LyricEntryAdapter reads and writes a LyricEntry as the JSON object journals have always
+ * held, which Gson used to produce by reflection from the entry's String fields:
+ *
+ * {"songTitle":"Yesterday","artist":"The Beatles","lyricText":"...","userNote":"...","dateAdded":"2024-01-15"}
+ *
+ * An adapter is needed now that the date is stored as an int; it also sends every artist
+ * through ArtistTable while reading. Like the reflective format: null fields are left out,
+ * missing fields load as null, unknown fields are skipped, and numbers or booleans in a
+ * text field are read as their text.
+ *
+ * Registered on LyricEntry (and LazyLyricEntry) with @JsonAdapter, so every Gson instance uses it.
+ */
+final class LyricEntryAdapter extends TypeAdapter<LyricEntry> {
+
+    @Override
+    public void write(JsonWriter out, LyricEntry entry) throws IOException {
+        if (entry == null) {
+            out.nullValue();
+            return;
+        }
+        String lyricText, userNote;
+        if (entry instanceof LazyLyricEntry) {
+            // bodies still on disk are copied through without filling the entry's cache
+            String[] bodies = ((LazyLyricEntry) entry).bodiesForWrite();
+            lyricText = bodies[0];
+            userNote = bodies[1];
+        } else {
+            lyricText = entry.getLyricText();
+            userNote = entry.getUserNote();
+        }
+        out.beginObject();
+        field(out, "songTitle", entry.getSongTitle());
+        field(out, "artist", entry.getArtist());
+        field(out, "lyricText", lyricText);
+        field(out, "userNote", userNote);
+        field(out, "dateAdded", entry.getDateAdded());
+        out.endObject();
+    }
+
+    @Override
+    public LyricEntry read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        String songTitle = null, artist = null, lyricText = null, userNote = null, dateAdded = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "songTitle":
+                    songTitle = text(in);
+                    break;
+                case "artist":
+                    artist = text(in);
+                    break;
+                case "lyricText":
+                    lyricText = text(in);
+                    break;
+                case "userNote":
+                    userNote = text(in);
+                    break;
+                case "dateAdded":
+                    dateAdded = text(in);
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        // the constructor canonicalizes the artist and encodes the date
+        return new LyricEntry(songTitle, artist, lyricText, userNote, dateAdded);
+    }
+
+    private static void field(JsonWriter out, String name, String value) throws IOException {
+        if (value != null) {
+            out.name(name).value(value);
+        }
+    }
+
+    // a string field's value; Gson's String adapter accepts the same tokens
+    private static String text(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        if (token == JsonToken.BOOLEAN) {
+            return Boolean.toString(in.nextBoolean());
+        }
+        return in.nextString(); // strings and numbers; anything else fails like before
+    }
+}
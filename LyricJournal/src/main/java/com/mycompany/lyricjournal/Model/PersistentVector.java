@@ -0,0 +1,425 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.lyricjournal.Model;
+
+/**
+ *
+ * @author Kalli-Ann
+ */
+
+// PersistentVector Model Class
+
+// Immutable list whose versions share structure, so a snapshot is just a reference
+
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+
+/*
+ * PersistentVector is a list that never changes. "Changing" it (withAdded, withSet,
+ * withRemoved) returns a new version and leaves the old one as it was; the two share
+ * everything the change did not touch.
+ *
+ * Layout (a 32-way trie with a tail, as in Clojure's vectors):
+ * - elements sit in leaf arrays of 32; internal nodes are arrays of up to 32 children
+ * - the last 1..32 elements are kept apart in the tail, so appending usually copies only the tail
+ * - get and withSet walk log32(n) levels: 4 levels for a million entries
+ *
+ * Cost of each version:
+ * - withAdded(e), withRemoved(size - 1): O(1) amortized, a new tail or one path of nodes
+ * - withSet(i, e): O(log32 n), one path of nodes
+ * - withAdded(i, e), withRemoved(i) in the middle: O(n - i) - the leaves before i are shared,
+ *   the rest are rebuilt (ArrayList shifts the same elements)
+ *
+ * Every field is final and no array is written after the vector is built, so a vector can
+ * be handed to any thread without locks. The java.util.List methods that change a list
+ * (add, set, remove, ...) throw UnsupportedOperationException.
+ *
+ * Example usage:
+ * PersistentVector<String> v1 = PersistentVector.<String>empty().withAdded("a").withAdded("b");
+ * PersistentVector<String> v2 = v1.withSet(0, "z");
+ * // v1 is still [a, b], v2 is [z, b]
+ */
+public final class PersistentVector<E> extends AbstractList<E> implements RandomAccess {
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;   // 32 children per node
+    private static final int MASK = WIDTH - 1;
+
+    private static final Object[] EMPTY_NODE = new Object[WIDTH];
+    private static final Object[] EMPTY_TAIL = new Object[0];
+    private static final PersistentVector<?> EMPTY = new PersistentVector<>(0, BITS, EMPTY_NODE, EMPTY_TAIL);
+
+    private final int size;
+    private final int shift;          // BITS * levels of internal nodes above the leaves
+    private final Object[] root;      // internal node; its children are nodes or leaves
+    private final Object[] tail;      // the last elements, not yet in the trie
+
+    private PersistentVector(int size, int shift, Object[] root, Object[] tail) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+    }
+
+    /*
+     * Gets the empty vector (one shared instance)
+     * Example: PersistentVector<LyricEntry> none = PersistentVector.empty();
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentVector<E> empty() {
+        return (PersistentVector<E>) EMPTY;
+    }
+
+    /*
+     * Builds a vector holding the elements of a collection, in iteration order
+     * Faster than appending one by one: leaves are filled in place and the trie is built once
+     *
+     * Input: elements - elements to copy (input: non-null Collection)
+     * Output: the vector (output: PersistentVector, the collection itself if it is one)
+     *
+     * Example: PersistentVector.of(loadedEntries)
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentVector<E> of(Collection<? extends E> elements) {
+        if (elements instanceof PersistentVector) {
+            return (PersistentVector<E>) elements;
+        }
+        Builder<E> builder = new Builder<>();
+        for (E element : elements) {
+            builder.add(element);
+        }
+        return builder.build();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return (E) leafFor(index)[index & MASK];
+    }
+
+    /*
+     * Returns a version with an element appended
+     * Example: vector = vector.withAdded(entry);
+     */
+    public PersistentVector<E> withAdded(E element) {
+        int tailLength = size - tailOffset();
+        if (tailLength < WIDTH) {
+            Object[] newTail = Arrays.copyOf(tail, tailLength + 1);
+            newTail[tailLength] = element;
+            return new PersistentVector<>(size + 1, shift, root, newTail);
+        }
+
+        // the tail is full: it becomes a leaf of the trie and a new tail starts
+        Object[] newRoot;
+        int newShift = shift;
+        if ((size >>> BITS) > (1 << shift)) {
+            // the trie is full too: add a level on top
+            newRoot = new Object[WIDTH];
+            newRoot[0] = root;
+            newRoot[1] = newPath(shift, tail);
+            newShift += BITS;
+        } else {
+            newRoot = pushTail(shift, root, tail);
+        }
+        return new PersistentVector<>(size + 1, newShift, newRoot, new Object[] {element});
+    }
+
+    /*
+     * Returns a version with an element inserted, later elements shifted up by one
+     *
+     * Inputs:
+     *
+     * index - position to insert at (input: 0 <= index <= size)
+     * element - element to insert
+     */
+    public PersistentVector<E> withAdded(int index, E element) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return index == size ? withAdded(element) : splice(index, false, element);
+    }
+
+    /*
+     * Returns a version with the element at a position replaced
+     *
+     * Inputs:
+     *
+     * index - position to replace (input: 0 <= index < size)
+     * element - new element
+     */
+    public PersistentVector<E> withSet(int index, E element) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        if (index >= tailOffset()) {
+            Object[] newTail = tail.clone();
+            newTail[index & MASK] = element;
+            return new PersistentVector<>(size, shift, root, newTail);
+        }
+        return new PersistentVector<>(size, shift, setPath(shift, root, index, element), tail);
+    }
+
+    /*
+     * Returns a version without the element at a position, later elements shifted down by one
+     * Input: index - position to remove (input: 0 <= index < size)
+     */
+    public PersistentVector<E> withRemoved(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        if (size == 1) {
+            return empty();
+        }
+        if (index < size - 1) {
+            return splice(index, true, null);
+        }
+
+        // removing the last element
+        int tailLength = size - tailOffset();
+        if (tailLength > 1) {
+            return new PersistentVector<>(size - 1, shift, root, Arrays.copyOf(tail, tailLength - 1));
+        }
+        // the tail empties: the last leaf of the trie becomes the tail
+        Object[] newTail = leafFor(size - 2);
+        Object[] newRoot = popTail(shift, root);
+        int newShift = shift;
+        if (newRoot == null) {
+            newRoot = EMPTY_NODE;
+        }
+        if (shift > BITS && newRoot[1] == null) {
+            newRoot = (Object[]) newRoot[0]; // one child left: drop a level
+            newShift -= BITS;
+        }
+        return new PersistentVector<>(size - 1, newShift, newRoot, newTail);
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private int index;
+            private Object[] leaf = size == 0 ? EMPTY_TAIL : leafFor(0);
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public E next() {
+                if (index >= size) {
+                    throw new NoSuchElementException();
+                }
+                if (index > 0 && (index & MASK) == 0) {
+                    leaf = leafFor(index); // one trie walk per 32 elements
+                }
+                return (E) leaf[index++ & MASK];
+            }
+        };
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super E> action) {
+        for (int base = 0; base < size; base += WIDTH) {
+            Object[] leaf = leafFor(base);
+            int end = Math.min(WIDTH, size - base);
+            for (int i = 0; i < end; i++) {
+                action.accept((E) leaf[i]);
+            }
+        }
+    }
+
+    // index of the first element in the tail
+    private int tailOffset() {
+        return size < WIDTH ? 0 : ((size - 1) >>> BITS) << BITS;
+    }
+
+    // the leaf (or tail) holding an element
+    private Object[] leafFor(int index) {
+        if (index >= tailOffset()) {
+            return tail;
+        }
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(index >>> level) & MASK];
+        }
+        return node;
+    }
+
+    // copy of the path to the next free leaf slot, with a full tail stored there
+    private Object[] pushTail(int level, Object[] parent, Object[] leaf) {
+        int child = ((size - 1) >>> level) & MASK;
+        Object[] copy = parent.clone();
+        Object[] inserted;
+        if (level == BITS) {
+            inserted = leaf;
+        } else {
+            Object[] below = (Object[]) parent[child];
+            inserted = below != null ? pushTail(level - BITS, below, leaf) : newPath(level - BITS, leaf);
+        }
+        copy[child] = inserted;
+        return copy;
+    }
+
+    // a chain of new nodes from level down to a leaf
+    private static Object[] newPath(int level, Object[] leaf) {
+        if (level == 0) {
+            return leaf;
+        }
+        Object[] node = new Object[WIDTH];
+        node[0] = newPath(level - BITS, leaf);
+        return node;
+    }
+
+    // copy of the path to an element, with the element replaced
+    private static Object[] setPath(int level, Object[] node, int index, Object element) {
+        Object[] copy = node.clone();
+        if (level == 0) {
+            copy[index & MASK] = element;
+        } else {
+            int child = (index >>> level) & MASK;
+            copy[child] = setPath(level - BITS, (Object[]) node[child], index, element);
+        }
+        return copy;
+    }
+
+    // copy of the path to the last leaf, without that leaf (null when the node empties)
+    private Object[] popTail(int level, Object[] node) {
+        int child = ((size - 2) >>> level) & MASK;
+        if (level > BITS) {
+            Object[] below = popTail(level - BITS, (Object[]) node[child]);
+            if (below == null && child == 0) {
+                return null;
+            }
+            Object[] copy = node.clone();
+            copy[child] = below;
+            return copy;
+        }
+        if (child == 0) {
+            return null;
+        }
+        Object[] copy = node.clone();
+        copy[child] = null;
+        return copy;
+    }
+
+    // insert or remove in the middle: leaves before the change are shared, the rest rebuilt
+    private PersistentVector<E> splice(int index, boolean remove, E element) {
+        Builder<E> builder = new Builder<>();
+        int firstChanged = Math.min(index, tailOffset()) & ~MASK;
+        for (int base = 0; base < firstChanged; base += WIDTH) {
+            builder.addLeaf(leafFor(base));
+        }
+        for (int base = firstChanged; base < size; base += WIDTH) {
+            Object[] leaf = leafFor(base);
+            int end = Math.min(WIDTH, size - base);
+            for (int i = 0; i < end; i++) {
+                if (base + i == index) {
+                    if (remove) {
+                        continue;
+                    }
+                    builder.add(element);
+                }
+                builder.add(leafElement(leaf, i));
+            }
+        }
+        return builder.build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private E leafElement(Object[] leaf, int i) {
+        return (E) leaf[i];
+    }
+
+    /*
+     * Builder fills a new vector from front to back without making a version per element
+     * (used to load a journal). It can be used once: build() hands over what was added.
+     *
+     * Example usage:
+     * PersistentVector.Builder<LyricEntry> builder = new PersistentVector.Builder<>();
+     * for (LyricEntry entry : loaded) builder.add(entry);
+     * PersistentVector<LyricEntry> entries = builder.build();
+     */
+    public static final class Builder<E> {
+        private final ArrayList<Object[]> leaves = new ArrayList<>();
+        private Object[] current = new Object[WIDTH];
+        private int count;              // elements in current
+
+        /*
+         * Appends an element
+         */
+        public Builder<E> add(E element) {
+            if (count == WIDTH) {
+                leaves.add(current);
+                current = new Object[WIDTH];
+                count = 0;
+            }
+            current[count++] = element;
+            return this;
+        }
+
+        // appends a full leaf of another vector (shared, never written again)
+        void addLeaf(Object[] leaf) {
+            if (count != 0) {
+                throw new IllegalStateException("leaf must start at a multiple of " + WIDTH);
+            }
+            leaves.add(leaf);
+        }
+
+        /*
+         * Makes the vector of every element added
+         * Output: the vector (output: PersistentVector)
+         */
+        public PersistentVector<E> build() {
+            if (count == 0 && !leaves.isEmpty()) {
+                // keep the tail non-empty: the last full leaf becomes the tail
+                current = leaves.remove(leaves.size() - 1);
+                count = WIDTH;
+            }
+            int size = leaves.size() * WIDTH + count;
+            if (size == 0) {
+                return empty();
+            }
+            Object[] tail = count == WIDTH ? current : Arrays.copyOf(current, count);
+
+            // the trie, one level at a time from the leaves up
+            ArrayList<Object[]> level = leaves;
+            int shift = BITS;
+            while (level.size() > WIDTH) {
+                ArrayList<Object[]> parents = new ArrayList<>((level.size() + MASK) / WIDTH);
+                for (int i = 0; i < level.size(); i += WIDTH) {
+                    Object[] parent = new Object[WIDTH];
+                    for (int j = 0; j < WIDTH && i + j < level.size(); j++) {
+                        parent[j] = level.get(i + j);
+                    }
+                    parents.add(parent);
+                }
+                level = parents;
+                shift += BITS;
+            }
+            Object[] root = level.isEmpty() ? EMPTY_NODE : level.toArray(new Object[WIDTH]);
+
+            leaves.clear();
+            current = new Object[WIDTH];
+            count = 0;
+            return new PersistentVector<>(size, shift, root, tail);
+        }
+    }
+}
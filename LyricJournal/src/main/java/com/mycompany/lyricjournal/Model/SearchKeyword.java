@@ -0,0 +1,250 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.lyricjournal.Model;
+
+/**
+ *
+ * @author Kalli-Ann
+ */
+
+// SearchKeyword Model Class
+
+// A search term prepared once, matched against UTF-8 entry text without decoding it
+
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/*
+ * SearchKeyword finds case-insensitive occurrences of a keyword directly in the UTF-8
+ * bytes LyricEntry stores (Utf8Text), so a search makes no String per field and no
+ * lowercase copies: an entry that does not match allocates nothing.
+ *
+ * Matching follows String.regionMatches(true, ...), which treats two characters as equal
+ * when toLowerCase(toUpperCase(c)) is the same for both - their "key". Keys of the Basic
+ * Multilingual Plane are computed once into a table, so comparing is a lookup:
+ * - ASCII bytes are looked up directly (the fast path, no decoding)
+ * - other characters are decoded in place to their code point, so "É" matches "é" and
+ *   the few non-ASCII characters that fold to ASCII ("ſ" and "s", the Kelvin sign and "k") match too
+ * - a match can only start at a byte that begins a character with the first keyword
+ *   character's key; those bytes are found once per keyword, so the scan skips all
+ *   other text (e.g. Cyrillic text for a Latin keyword) a byte at a time without decoding it
+ * Offsets are reported in String characters, like the String search, for highlighting.
+ *
+ * Example usage:
+ * SearchKeyword keyword = new SearchKeyword("love");
+ * for (LyricEntry entry : entries) {
+ *     SearchResult hit = User.matchEntry(entry, keyword);
+ * }
+ */
+public final class SearchKeyword {
+    // BMP character -> toLowerCase(toUpperCase(c)), its case-insensitive key
+    private static final char[] KEYS = new char[Character.MIN_SUPPLEMENTARY_CODE_POINT];
+
+    static {
+        for (int c = 0; c < KEYS.length; c++) {
+            KEYS[c] = (char) Character.toLowerCase(Character.toUpperCase(c));
+        }
+    }
+
+    private final String text;
+    private final int[] keys;           // key of each keyword character (code point)
+    private final boolean[] starts;     // [byte & 0xFF]: the byte can begin a character matching the first one
+
+    /*
+     * Constructor: Prepares a keyword for searching
+     * Input: keyword - the search term (input: non-null String, case-insensitive)
+     */
+    public SearchKeyword(String keyword) {
+        this.text = keyword;
+        this.keys = keyword.codePoints().map(SearchKeyword::key).toArray();
+        this.starts = new boolean[256];
+        if (keys.length == 0) {
+            return;
+        }
+        if (keys[0] >= Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+            for (int b = 0xF0; b <= 0xF4; b++) {
+                starts[b] = true;   // four-byte sequences
+            }
+            return;
+        }
+        for (int c = 0; c < KEYS.length; c++) {
+            if (KEYS[c] == keys[0]) {
+                starts[c < 0x80 ? c : c < 0x800 ? 0xC0 | c >> 6 : 0xE0 | c >> 12] = true;
+            }
+        }
+    }
+
+    /*
+     * Gets the keyword as given
+     */
+    public String getText() {
+        return text;
+    }
+
+    /*
+     * Gets the length of every match, in String characters (the keyword's length)
+     */
+    public int length() {
+        return text.length();
+    }
+
+    /*
+     * Finds every case-insensitive occurrence of the keyword in UTF-8 text
+     * Matches do not overlap; an empty keyword matches nowhere
+     *
+     * Input: bytes - text encoded by Utf8Text (input: byte[], may be null)
+     * Output: ascending start offsets in the decoded String (output: int[], shared empty array if none)
+     *
+     * Example: new SearchKeyword("LOVE").findMatches(Utf8Text.encode("I ❤ love")) // [4]
+     */
+    public int[] findMatches(byte[] bytes) {
+        if (bytes == null || keys.length == 0 || bytes.length < keys.length) {
+            return SearchResult.NO_MATCHES;
+        }
+        int[] matches = SearchResult.NO_MATCHES;   // byte offsets first, made char offsets at the end
+        int count = 0;
+        int i = 0;
+        while (i < bytes.length) {
+            // continuation bytes are never marked, so this only stops at character starts
+            if (!starts[bytes[i] & 0xFF]) {
+                i++;
+                continue;
+            }
+            int end = matchEnd(bytes, i);
+            if (end < 0) {
+                i++;
+                continue;
+            }
+            if (count == matches.length) {
+                matches = Arrays.copyOf(matches, Math.max(4, count * 2)); // grow on demand
+            }
+            matches[count++] = i;
+            i = end; // matches do not overlap
+        }
+        if (count == 0) {
+            return SearchResult.NO_MATCHES;
+        }
+        // byte offsets -> String offsets, counting characters from one match to the next
+        int chars = 0;
+        int from = 0;
+        for (int m = 0; m < count; m++) {
+            chars += Utf8Text.charCount(bytes, from, matches[m]);
+            from = matches[m];
+            matches[m] = chars;
+        }
+        return count == matches.length ? matches : Arrays.copyOf(matches, count);
+    }
+
+    /*
+     * Finds every case-insensitive occurrence of the keyword in a String
+     * (for text kept as Strings, such as the canonical artist names)
+     *
+     * Input: value - text to scan (input: String, may be null)
+     * Output: ascending start offsets (output: int[], shared empty array if none)
+     */
+    public int[] findMatches(String value) {
+        int length = text.length();
+        if (value == null || length == 0 || value.length() < length) {
+            return SearchResult.NO_MATCHES;
+        }
+
+        // cheap first-character filter before the full regionMatches comparison
+        char firstLower = Character.toLowerCase(text.charAt(0));
+        char firstUpper = Character.toUpperCase(text.charAt(0));
+
+        int[] matches = SearchResult.NO_MATCHES;
+        int count = 0;
+        int last = value.length() - length;
+        for (int i = 0; i <= last; i++) {
+            char c = value.charAt(i);
+            if (c != firstLower && c != firstUpper && Character.toLowerCase(c) != firstLower) {
+                continue;
+            }
+            if (value.regionMatches(true, i, text, 0, length)) {
+                if (count == matches.length) {
+                    matches = Arrays.copyOf(matches, Math.max(4, count * 2)); // grow on demand
+                }
+                matches[count++] = i;
+                i += length - 1; // matches do not overlap
+            }
+        }
+        return count == matches.length ? matches : Arrays.copyOf(matches, count);
+    }
+
+    /*
+     * Tells whether the keyword occurs in UTF-8 text held in a buffer, reading it in place
+     * (for LyricArena, whose text lives outside the heap - nothing is copied or allocated)
+     *
+     * Inputs:
+     * buffer - buffer holding the text (input: ByteBuffer, read with absolute gets only)
+     * from, to - byte range of the text (input: int)
+     *
+     * Output: returns true if there is at least one match (output: boolean)
+     */
+    boolean occursIn(ByteBuffer buffer, int from, int to) {
+        if (keys.length == 0 || to - from < keys.length) {
+            return false;
+        }
+        for (int i = from; i < to; i++) {
+            if (starts[buffer.get(i) & 0xFF] && matchEnd(buffer, i, to) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // matchEnd for text in a buffer, ending at to
+    private int matchEnd(ByteBuffer buffer, int start, int to) {
+        int at = start;
+        for (int k = 0; k < keys.length; k++) {
+            if (at >= to) {
+                return -1;
+            }
+            byte b = buffer.get(at);
+            if (b >= 0) {
+                if (KEYS[b] != keys[k]) {
+                    return -1;
+                }
+                at++;
+            } else {
+                if (key(Utf8Text.codePointAt(buffer, at)) != keys[k]) {
+                    return -1;
+                }
+                at += Utf8Text.sequenceLength(b);
+            }
+        }
+        return at;
+    }
+
+    // byte offset just past a match of the whole keyword at start, or -1
+    private int matchEnd(byte[] bytes, int start) {
+        int at = start;
+        for (int k = 0; k < keys.length; k++) {
+            if (at >= bytes.length) {
+                return -1;
+            }
+            byte b = bytes[at];
+            if (b >= 0) {
+                if (KEYS[b] != keys[k]) {
+                    return -1;    // ASCII fast path: no decoding
+                }
+                at++;
+            } else {
+                if (key(Utf8Text.codePointAt(bytes, at)) != keys[k]) {
+                    return -1;
+                }
+                at += Utf8Text.sequenceLength(b);
+            }
+        }
+        return at;
+    }
+
+    // the case-insensitive key of a character: equal keys are equal for String.regionMatches(true, ...)
+    private static int key(int codePoint) {
+        return codePoint < KEYS.length ? KEYS[codePoint]
+                : Character.toLowerCase(Character.toUpperCase(codePoint));
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.lyricjournal.Model;
+
+/**
+ *
+ * @author Kalli-Ann
+ */
+
+// SearchResult Model Class
+
+// Represents a single search hit together with where the keyword matched in each field
+
+/*
+ * SearchResult pairs a matching LyricEntry with the match offsets found during the search pass.
+ * Every match has the same length (the keyword length), so only the start offsets are stored
+ * per field as a compact int array - the view can paint highlights without scanning the text again.
+ *
+ * Example usage:
+ * for (SearchResult result : user.searchEntriesWithMatches("love")) {
+ *     int[] starts = result.getLyricMatches(); // e.g. [4, 31]
+ *     int length = result.getMatchLength();     // 4
+ * }
+ */
+public class SearchResult {
+    // shared empty array for fields without matches (avoids an allocation per field)
+    static final int[] NO_MATCHES = new int[0];
+
+    private final LyricEntry entry;      // the entry that matched
+    private final int matchLength;       // length of every match (keyword length)
+    private final int[] titleMatches;    // start offsets inside getSongTitle()
+    private final int[] artistMatches;   // start offsets inside getArtist()
+    private final int[] lyricMatches;    // start offsets inside getLyricText()
+
+    /*
+     * Creates a search result for an entry with the match offsets per field
+     *
+     * Inputs:
+     *
+     * entry - the matching entry (input: non-null LyricEntry)
+     * matchLength - length of every match (input: keyword length)
+     * titleMatches, artistMatches, lyricMatches - ascending start offsets (input: int[], possibly empty)
+     */
+    public SearchResult(LyricEntry entry, int matchLength, int[] titleMatches, int[] artistMatches, int[] lyricMatches) {
+        this.entry = entry;
+        this.matchLength = matchLength;
+        this.titleMatches = titleMatches;
+        this.artistMatches = artistMatches;
+        this.lyricMatches = lyricMatches;
+    }
+
+    /*
+     * gets the matching entry
+     * returns the LyricEntry this result refers to (output: non-null LyricEntry)
+     */
+    public LyricEntry getEntry() {
+        return entry;
+    }
+
+    /*
+     * gets the length of every match
+     * returns the number of characters each match covers (output: int >= 0)
+     */
+    public int getMatchLength() {
+        return matchLength;
+    }
+
+    /*
+     * gets the match start offsets in the song title
+     * returns ascending offsets into getSongTitle() (output: int[], possibly empty)
+     */
+    public int[] getTitleMatches() {
+        return titleMatches;
+    }
+
+    /*
+     * gets the match start offsets in the artist name
+     * returns ascending offsets into getArtist() (output: int[], possibly empty)
+     */
+    public int[] getArtistMatches() {
+        return artistMatches;
+    }
+
+    /*
+     * gets the match start offsets in the lyric text
+     * returns ascending offsets into getLyricText() (output: int[], possibly empty)
+     */
+    public int[] getLyricMatches() {
+        return lyricMatches;
+    }
+}
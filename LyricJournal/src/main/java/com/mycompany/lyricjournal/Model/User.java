@@ -13,22 +13,42 @@ package com.mycompany.lyricjournal.Model;
 
 // Represents a user account with authentication and lyric entry management
 
+import com.mycompany.lyricjournal.Diagnostics.JournalEvents;
+import com.mycompany.lyricjournal.Diagnostics.LatencyHistogram;
+import com.mycompany.lyricjournal.Diagnostics.Metrics;
+
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 /*
  * User class represents a registered user account in the LyricJournal application.
  * Each user has credentials and maintains their own collection of lyric entries.
  * Implements user authentication and entry management functionality.
+ *
+ * The entries are a PersistentVector: each change makes a new version and swaps it in
+ * with one volatile write, so getEntries() is an O(1) snapshot that any thread can read
+ * (save, search, export) without locks while the journal keeps changing. The change
+ * methods are synchronized against each other; the date index is updated with them and,
+ * unlike the entries, should be read on the thread that changes the journal.
  * 
  * Example usage:
  * User user = new User("john_doe", "secure123");
  * user.addEntry(new LyricEntry("Title", "Artist", "Lyrics", "Note"));
  */
 public class User {
+    // search latency (both search methods), see Metrics; each search is also a JournalEvents.Search
+    private static final LatencyHistogram SEARCH_TIME = Metrics.timer("search");
+    
     // instance variables for user account data
     private String username;                        // unique username for login
     private String password;                        // user's password (stored as plain text for simplicity)
-    private ArrayList<LyricEntry> entries;         // collection of user's lyric entries
+    private volatile PersistentVector<LyricEntry> entries; // current version of the user's lyric entries
+    private final DateIndex dateIndex = new DateIndex(); // the same entries by date added
+    private volatile ColumnarCache columnar;        // read-only snapshot for scans, built on demand
+    private volatile LyricArena arena;              // off-heap store for lyric texts and notes, if any
+    private volatile LyricBodySource bodySource;    // open journal lazy entries read their text from, if any
 
     /*
      * Constructor creates a new user account with empty entry collection
@@ -38,37 +58,202 @@ public class User {
      * username - unique identifier for the user (input: non-null, non-empty String)
      * password - user's authentication password (input: non-null String)
      * 
-     * Output: creates User object with empty entries ArrayList
+     * Output: creates User object with no entries
      * 
      * Example: new User("music_lover", "mypassword123")
      */
     public User(String username, String password) {
         this.username = username;
         this.password = password;
-        this.entries = new ArrayList<>();  // initialize empty list - efficient for dynamic sizing
+        this.entries = PersistentVector.empty();
     }
 
     /*
      * adds a new lyric entry to the user's collection
-     * uses ArrayList.add() for O(n) worst case time complexity
+     * O(1) amortized: usually only the vector's tail is copied
      * 
      * Input: - entry LyricEntry to add to collection (input: non-null LyricEntry object)
-     * Output: Entry is appended to entries ArrayList
+     * Output: Entry is appended to the entries
      * 
      * Example: user.addEntry(new LyricEntry("Imagine", "John Lennon", "Imagine all the people", "Peaceful message"))
      */
-    public void addEntry(LyricEntry entry) {
-        entries.add(entry);  // ArrayList provides efficient insertion at end
+    public synchronized void addEntry(LyricEntry entry) {
+        entries = entries.withAdded(entry);
+        dateIndex.add(entry);
+    }
+
+    /*
+     * inserts a lyric entry at a specific position (used to undo a delete)
+     * 
+     * Inputs:
+     *
+     * index - position to insert at (input: 0 <= index <= size)
+     * entry - LyricEntry to insert (input: non-null LyricEntry object)
+     * Output: Entry is inserted, later entries shift up by one
+     */
+    public synchronized void insertEntry(int index, LyricEntry entry) {
+        entries = entries.withAdded(index, entry);
+        dateIndex.add(entry);
+    }
+
+    /*
+     * replaces the lyric entry at a specific position (used by edits)
+     * 
+     * Inputs:
+     *
+     * index - position of the entry to replace (input: 0 <= index < size)
+     * entry - replacement LyricEntry (input: non-null LyricEntry object)
+     * returns the entry that was replaced (output: LyricEntry)
+     */
+    public synchronized LyricEntry setEntry(int index, LyricEntry entry) {
+        PersistentVector<LyricEntry> current = entries;
+        LyricEntry replaced = current.get(index);
+        entries = current.withSet(index, entry);
+        dateIndex.remove(replaced);
+        dateIndex.add(entry);
+        return replaced;
+    }
+
+    /*
+     * removes the lyric entry at a specific position
+     * 
+     * Input: index - position of the entry to remove (input: 0 <= index < size)
+     * returns the removed entry (output: LyricEntry)
+     */
+    public synchronized LyricEntry removeEntry(int index) {
+        PersistentVector<LyricEntry> current = entries;
+        LyricEntry removed = current.get(index);
+        entries = current.withRemoved(index);
+        dateIndex.remove(removed);
+        return removed;
+    }
+
+    /*
+     * removes every lyric entry
+     * Output: entries and date index are empty
+     */
+    public synchronized void clearEntries() {
+        entries = PersistentVector.empty();
+        dateIndex.clear();
+    }
+
+    /*
+     * replaces every lyric entry at once (used when the journal is loaded)
+     * Readers see either the old entries or all of the new ones, never a half-loaded journal
+     * 
+     * Input: newEntries - entries in journal order (input: non-null Collection<LyricEntry>)
+     * 
+     * Example: user.replaceEntries(gson.fromJson(reader, entryListType));
+     */
+    public synchronized void replaceEntries(Collection<LyricEntry> newEntries) {
+        PersistentVector<LyricEntry> loaded = PersistentVector.of(newEntries);
+        entries = loaded;
+        dateIndex.clear();
+        for (LyricEntry entry : loaded) {
+            dateIndex.add(entry);
+        }
     }
 
     /*
      * gets the user's complete collection of lyric entries
-     * returns ArrayList containing all user's lyric entries (output: ArrayList<LyricEntry>)
+     * returns the current version, an immutable snapshot (output: List<LyricEntry>, add/set/remove throw)
+     * O(1) and lock-free; later changes make new versions and never show up in this list
+     * 
+     * Example:
+     * List<LyricEntry> snapshot = user.getEntries();
+     * executor.submit(() -> export(snapshot)); // safe while the user keeps editing
      */
-    public ArrayList<LyricEntry> getEntries() {
+    public List<LyricEntry> getEntries() {
         return entries;
     }
 
+    /*
+     * gets the index of the user's entries by date added
+     * returns the index, kept up to date by the User methods (output: DateIndex, read it only)
+     * 
+     * Example: user.getDateIndex().entriesBetween(LocalDate.of(2024, 6, 1), LocalDate.of(2024, 8, 31))
+     */
+    public DateIndex getDateIndex() {
+        return dateIndex;
+    }
+
+    /*
+     * gets a columnar snapshot of the user's entries for scan-heavy work (stats, brute-force
+     * search, export); built on first use and kept while the entries stay the same version
+     * - changes made with LyricEntry setters are not seen
+     * returns the snapshot, rows in getEntries() order (output: ColumnarJournal)
+     * 
+     * Example: int[] rows = user.getColumnarSnapshot().search("love");
+     */
+    public ColumnarJournal getColumnarSnapshot() {
+        PersistentVector<LyricEntry> current = entries;
+        ColumnarCache cached = columnar;
+        if (cached == null || cached.source != current) {
+            cached = new ColumnarCache(current, ColumnarJournal.of(current));
+            columnar = cached;
+        }
+        return cached.journal;
+    }
+
+    // a columnar snapshot and the version of the entries it was built from
+    private static final class ColumnarCache {
+        final PersistentVector<LyricEntry> source;
+        final ColumnarJournal journal;
+
+        ColumnarCache(PersistentVector<LyricEntry> source, ColumnarJournal journal) {
+            this.source = source;
+            this.journal = journal;
+        }
+    }
+
+    /*
+     * gets the arena holding this user's lyric texts and notes off-heap
+     * returns the arena, or null if the entries keep their text on the heap (output: LyricArena or null)
+     */
+    public LyricArena getArena() {
+        return arena;
+    }
+
+    /*
+     * sets the arena new entries should be stored in (see ArenaLyricEntry); the caller
+     * releases it when the user is no longer held in memory
+     * 
+     * Input: arena - the user's arena (input: LyricArena, null for heap entries)
+     */
+    public void setArena(LyricArena arena) {
+        this.arena = arena;
+    }
+
+    /*
+     * gets the source this user's lazily loaded entries read their text from
+     * returns the source, or null if no entry was loaded lazily (output: LyricBodySource or null)
+     */
+    public LyricBodySource getBodySource() {
+        return bodySource;
+    }
+
+    /*
+     * sets the source the current entries read their text from (see LazyLyricEntry) and
+     * closes the previous one; setBodySource(null) closes it when the user is dropped
+     * entries still loaded from a closed source throw UncheckedIOException when read
+     * 
+     * Input: source - the open source of the entries just loaded (input: LyricBodySource, or null)
+     */
+    public void setBodySource(LyricBodySource source) {
+        LyricBodySource previous;
+        synchronized (this) {
+            previous = bodySource;
+            bodySource = source;
+        }
+        if (previous != null && previous != source) {
+            try {
+                previous.close();
+            } catch (IOException e) {
+                System.err.println("Error closing journal of " + username + ": " + e.getMessage());
+            }
+        }
+    }
+
     /*
      * gets the username for this account
      * 
@@ -96,7 +281,7 @@ public class User {
      * Performs case-insensitive search across song title, artist, and lyric text
      * Uses linear search O(n) - appropriate for typical collection sizes
      * 
-     * Input: keyword - Search term to look for (input: String, case-insensitive)
+     * Input: keyword - Search term to look for (input: String, case-insensitive, null matches nothing)
      * Returns ArrayList of matching entries (output: ArrayList<LyricEntry> with 0 or more matches)
      * 
      * Example: 
@@ -105,20 +290,98 @@ public class User {
      */
     public ArrayList<LyricEntry> searchEntries(String keyword) {
         ArrayList<LyricEntry> results = new ArrayList<>();  // new list for search results
-        
-        // convert search keyword to lowercase for case-insensitive matching
-        String lowerKeyword = keyword.toLowerCase();
+        for (SearchResult result : searchEntriesWithMatches(keyword)) {
+            results.add(result.getEntry());
+        }
+        return results;  // return collection of matches (may be empty)
+    }
+
+    /*
+     * Searches through user's entries and records where the keyword matched
+     * Same matching rules as searchEntries, but every hit carries the match offsets per field
+     * The offsets are collected during the search pass itself, so highlighting needs no second scan
+     * 
+     * Input: keyword - Search term to look for (input: String, case-insensitive, null matches nothing)
+     * Returns ArrayList of results with match offsets (output: ArrayList<SearchResult> with 0 or more hits)
+     * 
+     * Example:
+     * ArrayList<SearchResult> hits = user.searchEntriesWithMatches("love");
+     * int[] lyricStarts = hits.get(0).getLyricMatches(); // where "love" appears in the lyric text
+     */
+    public ArrayList<SearchResult> searchEntriesWithMatches(String keyword) {
+        ArrayList<SearchResult> results = new ArrayList<>();
+        if (keyword == null) {
+            return results; // nothing can match a missing keyword
+        }
         
         // linear search through all entries - O(n) complexity
-        for (LyricEntry entry : entries) {
-            // check if keyword appears in any of the searchable fields
-            if (entry.getSongTitle().toLowerCase().contains(lowerKeyword) ||
-                entry.getArtist().toLowerCase().contains(lowerKeyword) ||
-                entry.getLyricText().toLowerCase().contains(lowerKeyword)) {
-                
-                results.add(entry);  // add matching entry to results
+        // over one version of the entries, so it can run on any thread
+        PersistentVector<LyricEntry> snapshot = entries;
+        SearchKeyword prepared = new SearchKeyword(keyword);
+        long start = System.nanoTime();
+        JournalEvents.Search event = new JournalEvents.Search();
+        event.begin();
+        for (LyricEntry entry : snapshot) {
+            SearchResult result = matchEntry(entry, prepared);
+            if (result != null) {
+                results.add(result);
             }
         }
-        return results;  // return collection of matches (may be empty)
+        SEARCH_TIME.recordSince(start);
+        if (event.shouldCommit()) {
+            event.queryLength = keyword.length();
+            event.entriesSearched = snapshot.size();
+            event.resultCount = results.size();
+            event.commit();
+        }
+        return results;
+    }
+
+    /*
+     * Matches a single entry against a keyword using the journal search rules
+     * Prepares the keyword on every call - to test many entries, prepare a SearchKeyword
+     * once and use the overload below
+     * 
+     * Inputs:
+     *
+     * entry - entry to test (input: non-null LyricEntry)
+     * keyword - search term (input: non-null String, case-insensitive)
+     *
+     * Returns the match offsets, or null if the entry does not match (output: SearchResult or null)
+     */
+    public static SearchResult matchEntry(LyricEntry entry, String keyword) {
+        return matchEntry(entry, new SearchKeyword(keyword));
+    }
+
+    /*
+     * Matches a single entry against a prepared keyword (see SearchKeyword)
+     * Lets streaming callers (e.g. the command-line search) filter entries one at a time
+     * Title and lyric text are searched in their stored UTF-8 bytes, so an entry that does
+     * not match allocates nothing; prepare the keyword once per search, not per entry
+     * 
+     * Inputs:
+     *
+     * entry - entry to test (input: non-null LyricEntry)
+     * keyword - prepared search term (input: non-null SearchKeyword)
+     *
+     * Returns the match offsets, or null if the entry does not match (output: SearchResult or null)
+     * 
+     * Example:
+     * SearchKeyword keyword = new SearchKeyword("love");
+     * entries.stream().map(entry -> User.matchEntry(entry, keyword)).filter(Objects::nonNull)...
+     */
+    public static SearchResult matchEntry(LyricEntry entry, SearchKeyword keyword) {
+        int length = keyword.length();
+        
+        // find every occurrence in each searchable field (no decoding, no lowercase copies)
+        int[] titleMatches = keyword.findMatches(entry.songTitleBytes());
+        int[] artistMatches = keyword.findMatches(entry.getArtist());   // canonical, shared String
+        int[] lyricMatches = entry.findInLyricText(keyword);          // in place, wherever it is kept
+        
+        // an empty keyword matches every entry (with nothing to highlight)
+        if (length == 0 || titleMatches.length > 0 || artistMatches.length > 0 || lyricMatches.length > 0) {
+            return new SearchResult(entry, length, titleMatches, artistMatches, lyricMatches);
+        }
+        return null;
     }
-}
\ No newline at end of file
+}
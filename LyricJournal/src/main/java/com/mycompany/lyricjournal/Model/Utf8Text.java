@@ -0,0 +1,199 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.lyricjournal.Model;
+
+/**
+ *
+ * @author Kalli-Ann
+ */
+
+// Utf8Text Model Class
+
+// Converts entry text to and from the UTF-8 bytes LyricEntry stores it as
+
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/*
+ * Utf8Text holds the encoding LyricEntry uses for its title, lyric text and note. A Java
+ * String keeps one byte per character only while every character is Latin-1; a single
+ * curly apostrophe, dash or emoji makes it two bytes per character. UTF-8 keeps ASCII at
+ * one byte whatever else the text contains, and the byte[] has no String object around it.
+ *
+ * Text that is not valid UTF-16 (a surrogate without its pair, e.g. from a hand-edited
+ * journal) cannot be written as standard UTF-8; such characters are stored as the
+ * three-byte sequence of their code unit (as in WTF-8), so every String comes back unchanged.
+ *
+ * Example usage:
+ * byte[] bytes = Utf8Text.encode("Don’t stop");   // 12 bytes; the String would hold 20
+ * String text = Utf8Text.decode(bytes);           // "Don’t stop"
+ */
+public final class Utf8Text {
+
+    private Utf8Text() {
+    }
+
+    /*
+     * Encodes text as UTF-8
+     *
+     * Input: text - text to encode (input: String, may be null)
+     * Output: its bytes (output: new byte[], or null for null)
+     *
+     * Example: Utf8Text.encode("Björk").length == 6
+     */
+    public static byte[] encode(String text) {
+        if (text == null) {
+            return null;
+        }
+        int bytes = encodedLength(text);
+        if (bytes == text.length()) {
+            return text.getBytes(StandardCharsets.ISO_8859_1); // all ASCII
+        }
+        byte[] standard = text.getBytes(StandardCharsets.UTF_8);
+        if (standard.length == bytes) {
+            return standard;    // the standard encoder writes a lone surrogate as one '?' byte
+        }
+        int length = text.length();
+        byte[] out = new byte[bytes];
+        int at = 0;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                out[at++] = (byte) c;
+            } else if (c < 0x800) {
+                out[at++] = (byte) (0xC0 | c >> 6);
+                out[at++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, text.charAt(++i));
+                out[at++] = (byte) (0xF0 | cp >> 18);
+                out[at++] = (byte) (0x80 | cp >> 12 & 0x3F);
+                out[at++] = (byte) (0x80 | cp >> 6 & 0x3F);
+                out[at++] = (byte) (0x80 | cp & 0x3F);
+            } else {
+                out[at++] = (byte) (0xE0 | c >> 12);
+                out[at++] = (byte) (0x80 | c >> 6 & 0x3F);
+                out[at++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        return out;
+    }
+
+    /*
+     * Gets the number of bytes encode makes of a text, without encoding it
+     *
+     * Example: Utf8Text.encodedLength("año") == 4
+     */
+    public static int encodedLength(String text) {
+        int length = text.length();
+        int bytes = 0;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes += 1;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;     // the rest of the BMP, and a surrogate without its pair
+            }
+        }
+        return bytes;
+    }
+
+    /*
+     * Decodes bytes made by encode
+     *
+     * Input: bytes - UTF-8 text (input: byte[], may be null)
+     * Output: the text (output: new String, or null for null)
+     */
+    public static String decode(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        String text = new String(bytes, StandardCharsets.UTF_8);
+        if (text.indexOf('\uFFFD') < 0) {
+            return text;        // the usual case: nothing the standard decoder replaced
+        }
+        // a stored lone surrogate (or a real U+FFFD) - decode sequence by sequence
+        char[] chars = new char[bytes.length];
+        int count = 0;
+        for (int i = 0; i < bytes.length; i += sequenceLength(bytes[i])) {
+            int cp = codePointAt(bytes, i);
+            if (cp >= Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+                chars[count++] = Character.highSurrogate(cp);
+                chars[count++] = Character.lowSurrogate(cp);
+            } else {
+                chars[count++] = (char) cp;
+            }
+        }
+        return new String(chars, 0, count);
+    }
+
+    /*
+     * Gets the number of String characters (UTF-16 code units) a range of bytes decodes to
+     *
+     * Inputs:
+     *
+     * bytes - UTF-8 text (input: byte[] made by encode)
+     * from, to - byte range, both on character boundaries (input: int)
+     *
+     * Example: Utf8Text.charCount(Utf8Text.encode("año 🎵"), 0, 4) == 3
+     */
+    public static int charCount(byte[] bytes, int from, int to) {
+        int chars = 0;
+        for (int i = from; i < to; i++) {
+            int b = bytes[i] & 0xFF;
+            if ((b & 0xC0) != 0x80) {
+                chars += b >= 0xF0 ? 2 : 1;   // a 4-byte sequence is a surrogate pair
+            }
+        }
+        return chars;
+    }
+
+    // code point of the sequence starting at bytes[at] (caller checks the lead byte)
+    static int codePointAt(byte[] bytes, int at) {
+        int b = bytes[at];
+        if (b >= 0) {
+            return b;
+        }
+        if ((b & 0xE0) == 0xC0) {
+            return (b & 0x1F) << 6 | bytes[at + 1] & 0x3F;
+        }
+        if ((b & 0xF0) == 0xE0) {
+            return (b & 0x0F) << 12 | (bytes[at + 1] & 0x3F) << 6 | bytes[at + 2] & 0x3F;
+        }
+        return (b & 0x07) << 18 | (bytes[at + 1] & 0x3F) << 12 | (bytes[at + 2] & 0x3F) << 6 | bytes[at + 3] & 0x3F;
+    }
+
+    // codePointAt for text in a buffer (absolute reads, the buffer's position is not used)
+    static int codePointAt(ByteBuffer buffer, int at) {
+        int b = buffer.get(at);
+        if (b >= 0) {
+            return b;
+        }
+        if ((b & 0xE0) == 0xC0) {
+            return (b & 0x1F) << 6 | buffer.get(at + 1) & 0x3F;
+        }
+        if ((b & 0xF0) == 0xE0) {
+            return (b & 0x0F) << 12 | (buffer.get(at + 1) & 0x3F) << 6 | buffer.get(at + 2) & 0x3F;
+        }
+        return (b & 0x07) << 18 | (buffer.get(at + 1) & 0x3F) << 12 | (buffer.get(at + 2) & 0x3F) << 6
+                | buffer.get(at + 3) & 0x3F;
+    }
+
+    // bytes in the sequence that starts with lead byte b
+    static int sequenceLength(byte b) {
+        if (b >= 0) {
+            return 1;
+        }
+        if ((b & 0xE0) == 0xC0) {
+            return 2;
+        }
+        return (b & 0xF0) == 0xE0 ? 3 : 4;
+    }
+}
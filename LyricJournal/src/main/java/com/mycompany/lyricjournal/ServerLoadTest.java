@@ -0,0 +1,241 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.lyricjournal;
+
+/**
+ *
+ * @author Kalli-Ann
+ */
+
+/*
+ * Load Test for LyricJournalServer
+ * Starts the HTTP service on a free loopback port, checks every endpoint once,
+ * then drives it with thousands of concurrent clients and reports throughput and latency.
+ *
+ * Request mix per client: 75% search, 20% list, 5% add
+ * Each client sends its next request as soon as the previous response arrives.
+ *
+ * Account and journal files are kept in an in-memory filesystem (Storage.newInMemoryRoot):
+ * java -cp ... com.mycompany.lyricjournal.ServerLoadTest [clients] [seconds] [users]
+ */
+
+import com.mycompany.lyricjournal.Controller.*;
+
+import java.net.URI;
+import java.net.http.*;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+
+// Load test runner - same reporting style as LyricJournalTest
+
+
+public class ServerLoadTest {
+    private static int totalTests = 0;
+    private static int passedTests = 0;
+
+    private static final String METRICS_TOKEN = "load-test-metrics";
+
+    private static HttpClient client;
+    private static String base;
+
+    public static void main(String[] args) throws Exception {
+        // keep hashing cheap so the test measures the server, not PBKDF2
+        System.setProperty("lyricjournal.pbkdf2.iterations", "1000");
+        System.setProperty("lyricjournal.metrics.token", METRICS_TOKEN);
+        Path root = Storage.newInMemoryRoot();
+
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int users = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+
+        System.out.println("=== LyricJournal Server Load Test ===");
+        UserManager accounts = new UserManager(root);
+        LyricJournalServer server = LyricJournalServer.start(0, accounts, new UserDataController(root));
+        base = "http://127.0.0.1:" + server.getPort();
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors()))
+                .build();
+        try {
+            testEndpoints();
+            runLoad(clients, seconds, users);
+        } finally {
+            server.stop();
+            accounts.close();
+        }
+
+        System.out.println("\n=== TEST SUMMARY ===");
+        System.out.println("Total Tests: " + totalTests);
+        System.out.println("Passed: " + passedTests);
+        System.out.println("Failed: " + (totalTests - passedTests));
+        if (passedTests == totalTests) {
+            System.out.println("ALL TESTS PASSED!");
+        } else {
+            System.out.println("Some tests failed - review output above");
+        }
+        System.exit(0); // HttpClient selector threads are not daemons
+    }
+
+    /*
+     * Calls every endpoint once and checks the status codes and bodies
+     */
+    private static void testEndpoints() throws Exception {
+        System.out.println("\n--- Endpoints ---");
+        String name = "serveruser" + System.currentTimeMillis();
+        String credentials = "{\"username\":\"" + name + "\",\"password\":\"password\"}";
+
+        assertTrue("Register", send("POST", "/register", null, credentials).statusCode() == 201);
+        assertTrue("Register duplicate rejected", send("POST", "/register", null, credentials).statusCode() == 409);
+        assertTrue("Login wrong password rejected", send("POST", "/login", null,
+                "{\"username\":\"" + name + "\",\"password\":\"wrong\"}").statusCode() == 401);
+        HttpResponse<String> login = send("POST", "/login", null, credentials);
+        assertTrue("Login", login.statusCode() == 200 && login.body().contains("token"));
+        String token = login.body().replaceAll(".*\"token\":\"([^\"]+)\".*", "$1");
+
+        assertTrue("List needs login", send("GET", "/entries", null, null).statusCode() == 401);
+        assertTrue("Add", send("POST", "/entries", token,
+                "{\"songTitle\":\"Imagine\",\"artist\":\"John Lennon\",\"lyricText\":\"Imagine all the people\"}").statusCode() == 201);
+        assertTrue("Add invalid rejected", send("POST", "/entries", token,
+                "{\"songTitle\":\"\",\"artist\":\"x\",\"lyricText\":\"y\"}").statusCode() == 400);
+        assertTrue("Edit", send("PUT", "/entries/0", token, "{\"userNote\":\"peaceful\"}").body().contains("peaceful"));
+        HttpResponse<String> search = send("GET", "/search?q=imagine", token, null);
+        assertTrue("Search", search.statusCode() == 200 && search.body().contains("John Lennon"));
+        assertTrue("List", send("GET", "/entries", token, null).body().contains("\"index\":0"));
+        assertTrue("Delete", send("DELETE", "/entries/0", token, null).statusCode() == 204);
+        assertTrue("Delete missing entry", send("DELETE", "/entries/0", token, null).statusCode() == 404);
+        assertTrue("Metrics need the operator token", send("GET", "/metrics", null, null).statusCode() == 401
+                && send("GET", "/metrics", token, null).statusCode() == 401);
+        assertTrue("Metrics", send("GET", "/metrics", METRICS_TOKEN, null).body().contains("hitRate"));
+        assertTrue("Logout", send("POST", "/logout", token, null).statusCode() == 204
+                && send("GET", "/entries", token, null).statusCode() == 401);
+    }
+
+    /*
+     * Runs the concurrent load phase and prints requests/second and latency percentiles
+     */
+    private static void runLoad(int clients, int seconds, int users) throws Exception {
+        System.out.println("\n--- Load: " + clients + " clients, " + users + " users, " + seconds + " s ---");
+
+        // set up accounts, each with a small journal to search
+        String[] tokens = new String[users];
+        String prefix = "load" + System.currentTimeMillis() + "_";
+        for (int u = 0; u < users; u++) {
+            String credentials = "{\"username\":\"" + prefix + u + "\",\"password\":\"password\"}";
+            send("POST", "/register", null, credentials);
+            tokens[u] = send("POST", "/login", null, credentials).body().replaceAll(".*\"token\":\"([^\"]+)\".*", "$1");
+            for (int e = 0; e < 20; e++) {
+                send("POST", "/entries", tokens[u], "{\"songTitle\":\"Song " + e + "\",\"artist\":\"Artist " + (e % 5)
+                        + "\",\"lyricText\":\"" + (e % 3 == 0 ? "love " : "") + "lyric line " + e + "\"}");
+            }
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        AtomicLong errors = new AtomicLong();
+        long[][] latencies = new long[clients][];
+        int[] counts = new int[clients];
+        CountDownLatch done = new CountDownLatch(clients);
+
+        long begin = System.nanoTime();
+        for (int c = 0; c < clients; c++) {
+            latencies[c] = new long[256];
+            loop(c, tokens[c % users], new SplittableRandom(c), deadline, latencies, counts, errors, done);
+        }
+        done.await();
+        double elapsed = (System.nanoTime() - begin) / 1e9;
+
+        // merge per-client latencies
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        long[] all = new long[total];
+        int position = 0;
+        for (int c = 0; c < clients; c++) {
+            System.arraycopy(latencies[c], 0, all, position, counts[c]);
+            position += counts[c];
+        }
+        Arrays.sort(all);
+
+        System.out.printf("requests: %d, errors: %d%n", total, errors.get());
+        System.out.printf("throughput: %.0f requests/s%n", total / elapsed);
+        if (total > 0) {
+            System.out.printf("latency ms: p50 %.2f  p99 %.2f  max %.2f%n",
+                    percentile(all, 0.50), percentile(all, 0.99), all[total - 1] / 1e6);
+        }
+        System.out.println("cache: " + send("GET", "/metrics", METRICS_TOKEN, null).body());
+        assertTrue("Load - requests completed", total > 0);
+        assertTrue("Load - no failed requests", errors.get() == 0);
+    }
+
+    // one client: sends a request, records its latency, then sends the next until the deadline
+    private static void loop(int c, String token, SplittableRandom random, long deadline,
+                             long[][] latencies, int[] counts, AtomicLong errors, CountDownLatch done) {
+        if (System.nanoTime() >= deadline) {
+            done.countDown();
+            return;
+        }
+        int pick = random.nextInt(100);
+        HttpRequest request;
+        if (pick < 75) {
+            request = request("GET", pick % 2 == 0 ? "/search?q=love" : "/search?q=artist+" + pick % 5, token, null);
+        } else if (pick < 95) {
+            request = request("GET", "/entries", token, null);
+        } else {
+            request = request("POST", "/entries", token,
+                    "{\"songTitle\":\"Load\",\"artist\":\"Client " + c + "\",\"lyricText\":\"generated\"}");
+        }
+        long start = System.nanoTime();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+            long latency = System.nanoTime() - start;
+            if (failure != null || response.statusCode() >= 300) {
+                errors.incrementAndGet();
+            }
+            // callbacks for one client never overlap, so its arrays need no locking
+            if (counts[c] == latencies[c].length) {
+                latencies[c] = Arrays.copyOf(latencies[c], counts[c] * 2);
+            }
+            latencies[c][counts[c]++] = latency;
+            loop(c, token, random, deadline, latencies, counts, errors, done);
+        });
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private static HttpResponse<String> send(String method, String path, String token, String body) throws Exception {
+        return client.send(request(method, path, token, body), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static HttpRequest request(String method, String path, String token, String body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(base + path))
+                .timeout(Duration.ofSeconds(60))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        if (body != null) {
+            builder.header("Content-Type", "application/json");
+        }
+        return builder.build();
+    }
+
+    // test utility - same output as the other test runners
+    private static void assertTrue(String testName, boolean condition) {
+        totalTests++;
+        if (condition) {
+            passedTests++;
+            System.out.println("✓ " + testName);
+        } else {
+            System.out.println("✗ " + testName);
+        }
+    }
+}
@@ -0,0 +1,324 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.lyricjournal;
+
+/**
+ *
+ * @author Kalli-Ann
+ */
+
+/*
+ * Load and Soak Test for UserManager and UserDataController
+ * Simulates many users working at the same time for a fixed duration, then reloads
+ * every journal from storage and compares it with what each user should have.
+ *
+ * Each simulated user (one thread) registers, logs in, then repeats a random mix of:
+ * add 25%, edit 15%, delete 15%, search 40%, login 5%
+ * Every change is saved right away, like the desktop application does. Journals are kept
+ * near 200 entries (adds turn into deletes beyond that), so later saves cost the same
+ * as early ones and a long run measures drift, not growth.
+ *
+ * Reports:
+ * - throughput and latency percentiles per operation
+ * - heap after GC at the start and end, sampled every reporting interval
+ * - data-integrity violations: entries lost, added or changed after the final reload,
+ *   accounts that no longer log in
+ *
+ * Runs against a fresh temporary data root, deleted afterwards
+ * (-Dlyricjournal.soak.keep=true keeps it; -Dlyricjournal.soak.memory=true uses the
+ * in-memory file system instead of the disk).
+ * Exit code 0 when every check passes, 1 otherwise - suitable for a nightly job:
+ * java -cp ... com.mycompany.lyricjournal.SoakTest [users] [seconds] [reportSeconds]
+ * java -cp ... com.mycompany.lyricjournal.SoakTest 200 28800 300   // 8-hour soak
+ */
+
+import com.mycompany.lyricjournal.Controller.*;
+import com.mycompany.lyricjournal.Diagnostics.LatencyHistogram;
+import com.mycompany.lyricjournal.Model.*;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+
+// Soak test runner - same reporting style as LyricJournalTest
+
+
+public class SoakTest {
+    private static final String[] OPERATIONS = {"register", "login", "add", "edit", "delete", "search"};
+    private static final int TARGET_ENTRIES = 200;          // journals stay around this size
+    private static final long HEAP_GROWTH_LIMIT = 64L << 20; // allowed growth of live heap
+
+    private static int totalTests = 0;
+    private static int passedTests = 0;
+
+    private static final Map<String, LatencyHistogram> latencies = new LinkedHashMap<>();
+    private static final AtomicLong operations = new AtomicLong();
+    private static final AtomicLong errors = new AtomicLong();
+    private static final List<String> violations = Collections.synchronizedList(new ArrayList<>());
+
+    private static UserManager accounts;           // controllers on the data root of this run
+    private static UserDataController journals;
+
+    public static void main(String[] args) throws Exception {
+        // keep hashing cheap so the run exercises the controllers, not PBKDF2
+        if (System.getProperty("lyricjournal.pbkdf2.iterations") == null) {
+            System.setProperty("lyricjournal.pbkdf2.iterations", "1000");
+        }
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+        int reportSeconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        boolean memory = Boolean.getBoolean("lyricjournal.soak.memory");
+        Path root = memory ? Storage.newInMemoryRoot() : Files.createTempDirectory("lyricjournal-soak");
+        accounts = new UserManager(root);
+        journals = new UserDataController(root);
+        accounts.setLoginThrottle(null); // simulated users log in much faster than people
+
+        for (String operation : OPERATIONS) {
+            latencies.put(operation, new LatencyHistogram());
+        }
+        System.out.println("=== LyricJournal Soak Test ===");
+        System.out.println(users + " users, " + seconds + " s, data root " + root.toUri());
+
+        String prefix = "soak" + System.currentTimeMillis() + "_";
+        SimulatedUser[] simulated = new SimulatedUser[users];
+        List<LyricEntry> pool = new ArrayList<>();
+        new JournalGenerator(41).forEach("soak", 5_000, pool::add); // realistic entry contents
+        long heapBefore = liveHeap();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        CountDownLatch done = new CountDownLatch(users);
+        long begin = System.nanoTime();
+        for (int u = 0; u < users; u++) {
+            simulated[u] = new SimulatedUser(prefix + u, pool, new SplittableRandom(u));
+            Thread thread = new Thread(new Worker(simulated[u], deadline, done), "soak-user-" + u);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        // progress lines until every user has stopped
+        long previous = 0;
+        while (!done.await(reportSeconds, TimeUnit.SECONDS)) {
+            long count = operations.get();
+            System.out.printf("[%5d s] %8.0f ops/s  heap %6.1f MB  errors %d%n",
+                    TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - begin),
+                    (count - previous) / (double) reportSeconds, usedHeap() / 1048576.0, errors.get());
+            previous = count;
+        }
+        double elapsed = (System.nanoTime() - begin) / 1e9;
+        long heapAfter = liveHeap();
+
+        System.out.println("\n--- Results ---");
+        System.out.printf("operations: %d in %.1f s = %.0f ops/s, errors: %d%n",
+                operations.get(), elapsed, operations.get() / elapsed, errors.get());
+        System.out.printf("%-9s %9s %9s %9s %9s %9s%n", "ms", "count", "p50", "p99", "p99.9", "max");
+        latencies.forEach((operation, histogram) -> System.out.printf("%-9s %9d %9.2f %9.2f %9.2f %9.2f%n",
+                operation, histogram.count(), histogram.percentileMillis(0.5), histogram.percentileMillis(0.99),
+                histogram.percentileMillis(0.999), histogram.maxMillis()));
+        System.out.printf("live heap: %.1f MB -> %.1f MB (%+.1f MB)%n",
+                heapBefore / 1048576.0, heapAfter / 1048576.0, (heapAfter - heapBefore) / 1048576.0);
+
+        verify(simulated);
+
+        System.out.println("\n=== TEST SUMMARY ===");
+        assertTrue("Operations completed", operations.get() > 0);
+        assertTrue("No operation errors", errors.get() == 0);
+        assertTrue("No data-integrity violations", violations.isEmpty());
+        assertTrue("Live heap growth under " + (HEAP_GROWTH_LIMIT >> 20) + " MB", heapAfter - heapBefore < HEAP_GROWTH_LIMIT);
+        System.out.println("Total Tests: " + totalTests);
+        System.out.println("Passed: " + passedTests);
+        System.out.println("Failed: " + (totalTests - passedTests));
+
+        accounts.close(); // releases users.log before the directory is deleted
+        if (!memory && !Boolean.getBoolean("lyricjournal.soak.keep")) {
+            deleteTree(root);
+        }
+        System.exit(passedTests == totalTests ? 0 : 1);
+    }
+
+    /*
+     * Final check: reload every journal from storage and compare it with the expected
+     * entries; every account must still log in
+     */
+    private static void verify(SimulatedUser[] simulated) {
+        System.out.println("\n--- Reload and compare ---");
+        int checkedEntries = 0;
+        for (SimulatedUser user : simulated) {
+            if (!user.registered) {
+                continue;
+            }
+            if (!accounts.validateLogin(user.username, user.password)) {
+                violation(user.username + ": cannot log in");
+            }
+            User reloaded = new User(user.username, user.password);
+            journals.loadUserEntries(reloaded);
+            List<LyricEntry> actual = reloaded.getEntries();
+            if (actual.size() != user.expected.size()) {
+                violation(user.username + ": " + user.expected.size() + " entries expected, " + actual.size() + " stored");
+            }
+            for (int i = 0; i < Math.min(actual.size(), user.expected.size()); i++) {
+                if (!fingerprint(actual.get(i)).equals(user.expected.get(i))) {
+                    violation(user.username + ": entry " + i + " differs");
+                    break; // one line per journal is enough
+                }
+            }
+            checkedEntries += actual.size();
+        }
+        System.out.println(checkedEntries + " entries compared, " + violations.size() + " violations");
+        synchronized (violations) {
+            violations.stream().limit(20).forEach(v -> System.out.println("  " + v));
+        }
+    }
+
+    /*
+     * One simulated user: the User object the application would hold, plus an independent
+     * record of what the journal should contain (fingerprints in order)
+     */
+    private static final class SimulatedUser {
+        final String username;
+        final String password;
+        final List<LyricEntry> pool;
+        final SplittableRandom random;
+        final List<String> expected = new ArrayList<>();
+        User user;
+        boolean registered;
+
+        SimulatedUser(String username, List<LyricEntry> pool, SplittableRandom random) {
+            this.username = username;
+            this.password = "pw-" + username;
+            this.pool = pool;
+            this.random = random;
+        }
+    }
+
+    // drives one simulated user until the deadline
+    private static final class Worker implements Runnable {
+        private final SimulatedUser sim;
+        private final long deadline;
+        private final CountDownLatch done;
+
+        Worker(SimulatedUser sim, long deadline, CountDownLatch done) {
+            this.sim = sim;
+            this.deadline = deadline;
+            this.done = done;
+        }
+
+        @Override
+        public void run() {
+            try {
+                sim.registered = timed("register", () -> accounts.registerUser(sim.username, sim.password));
+                if (!sim.registered || !timed("login", () -> accounts.validateLogin(sim.username, sim.password))) {
+                    errors.incrementAndGet();
+                    return;
+                }
+                sim.user = new User(sim.username, sim.password);
+                journals.loadUserEntries(sim.user);
+                while (System.nanoTime() < deadline) {
+                    step();
+                }
+            } catch (RuntimeException e) {
+                errors.incrementAndGet();
+                violation(sim.username + ": " + e);
+            } finally {
+                done.countDown();
+            }
+        }
+
+        private void step() {
+            int pick = sim.random.nextInt(100);
+            int size = sim.user.getEntries().size();
+            if (size == 0 || pick < 25 && size < TARGET_ENTRIES) {
+                LyricEntry entry = sim.pool.get(sim.random.nextInt(sim.pool.size()));
+                timed("add", () -> {
+                    sim.user.addEntry(entry);
+                    journals.saveUser(sim.user);
+                    return true;
+                });
+                sim.expected.add(fingerprint(entry));
+            } else if (pick >= 25 && pick < 40) {
+                int index = sim.random.nextInt(size);
+                LyricEntry old = sim.user.getEntries().get(index);
+                LyricEntry edited = new LyricEntry(old.getSongTitle(), old.getArtist(), old.getLyricText(),
+                        "edited " + sim.random.nextInt(1_000_000), old.getDateAdded());
+                timed("edit", () -> {
+                    sim.user.setEntry(index, edited);
+                    journals.saveUser(sim.user);
+                    return true;
+                });
+                sim.expected.set(index, fingerprint(edited));
+            } else if (pick < 55) { // includes adds beyond the target size
+                int index = sim.random.nextInt(size);
+                timed("delete", () -> {
+                    sim.user.removeEntry(index);
+                    journals.saveUser(sim.user);
+                    return true;
+                });
+                sim.expected.remove(index);
+            } else if (pick < 95) {
+                String keyword = sim.pool.get(sim.random.nextInt(sim.pool.size())).getArtist().split(" ")[0];
+                timed("search", () -> sim.user.searchEntries(keyword) != null);
+            } else {
+                if (!timed("login", () -> accounts.validateLogin(sim.username, sim.password))) {
+                    errors.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    // runs one operation and records its latency
+    private static boolean timed(String operation, java.util.function.BooleanSupplier action) {
+        long start = System.nanoTime();
+        boolean result = action.getAsBoolean();
+        latencies.get(operation).recordSince(start);
+        operations.incrementAndGet();
+        return result;
+    }
+
+    private static String fingerprint(LyricEntry entry) {
+        return entry.getSongTitle() + '\u0000' + entry.getArtist() + '\u0000' + entry.getLyricText()
+                + '\u0000' + entry.getUserNote() + '\u0000' + entry.getDateAdded();
+    }
+
+    private static void violation(String message) {
+        violations.add(message);
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    // heap still in use after a full collection
+    private static long liveHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return usedHeap();
+    }
+
+    private static void deleteTree(Path directory) throws IOException {
+        try (java.util.stream.Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    // test utility - same output as the other test runners
+    private static void assertTrue(String testName, boolean condition) {
+        totalTests++;
+        if (condition) {
+            passedTests++;
+            System.out.println("✓ " + testName);
+        } else {
+            System.out.println("✗ " + testName);
+        }
+    }
+}
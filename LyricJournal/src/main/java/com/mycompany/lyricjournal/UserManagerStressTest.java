@@ -0,0 +1,160 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.lyricjournal;
+
+/**
+ *
+ * @author Kalli-Ann
+ */
+
+/*
+ * Multi-threaded Stress Test for UserManager
+ * Proves that concurrent registrations are never lost and never duplicated
+ *
+ * Scenario:
+ * 1. Many threads register their own unique usernames at the same time
+ * 2. All threads race to register the same set of contested usernames
+ * 3. Logins run concurrently with the registrations
+ *
+ * Checks:
+ * - every unique registration succeeds and is visible afterwards
+ * - each contested username has exactly one winner
+ * - users.log contains every registered account (no lost writes)
+ *
+ * Files are kept in an in-memory filesystem (Storage.newInMemoryRoot), so it can run anywhere:
+ * java -cp ... com.mycompany.lyricjournal.UserManagerStressTest [threads] [usersPerThread]
+ */
+
+import com.mycompany.lyricjournal.Controller.*;
+
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+// Stress test runner - same reporting style as LyricJournalTest
+
+
+public class UserManagerStressTest {
+    private static int totalTests = 0;
+    private static int passedTests = 0;
+
+    public static void main(String[] args) throws Exception {
+        // keep hashing cheap so the test stresses the map and the file writes, not PBKDF2
+        System.setProperty("lyricjournal.pbkdf2.iterations", "1000");
+        Path root = Storage.newInMemoryRoot();
+        UserManager users = new UserManager(root);
+
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int usersPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int contested = 25;
+        String prefix = "stress" + System.currentTimeMillis() + "_";
+
+        System.out.println("=== UserManager Stress Test ===");
+        System.out.println(threads + " threads, " + usersPerThread + " users each, " + contested + " contested names\n");
+
+        AtomicInteger uniqueFailures = new AtomicInteger();
+        AtomicInteger loginFailures = new AtomicInteger();
+        int[] contestedWins = new int[contested];
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(pool.submit(() -> {
+                start.await(); // release all threads at once for maximum contention
+                for (int i = 0; i < usersPerThread; i++) {
+                    String name = prefix + "t" + thread + "_u" + i;
+                    if (!users.registerUser(name, "pass" + i)) {
+                        uniqueFailures.incrementAndGet();
+                    }
+                    // contested names - every thread tries every one
+                    if (i < contested && users.registerUser(prefix + "shared" + i, "shared")) {
+                        synchronized (contestedWins) {
+                            contestedWins[i]++;
+                        }
+                    }
+                    // concurrent reads of accounts registered earlier by this thread
+                    if (i > 0 && !users.validateLogin(prefix + "t" + thread + "_u" + (i - 1), "pass" + (i - 1))) {
+                        loginFailures.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(); // rethrows any exception from a worker
+        }
+        pool.shutdown();
+        double seconds = (System.nanoTime() - begin) / 1e9;
+
+        // in-memory checks
+        assertTrue("All unique registrations succeeded", uniqueFailures.get() == 0);
+        assertTrue("Concurrent logins saw registered users", loginFailures.get() == 0);
+        boolean oneWinnerEach = true;
+        for (int wins : contestedWins) {
+            oneWinnerEach &= wins == 1;
+        }
+        assertTrue("Exactly one winner per contested name", oneWinnerEach);
+
+        int missing = 0;
+        for (int t = 0; t < threads; t++) {
+            for (int i = 0; i < usersPerThread; i++) {
+                if (!users.userExists(prefix + "t" + t + "_u" + i)) {
+                    missing++;
+                }
+            }
+        }
+        assertTrue("No lost registrations in memory", missing == 0);
+
+        // log check - rebuild the index from the log alone and look every account up
+        Path copy = Files.createDirectories(root.resolve("stress-check"));
+        Files.copy(root.resolve("users.log"), copy.resolve("users.log"));
+        int missingOnDisk = 0;
+        try (UserDirectory onDisk = UserDirectory.open(copy.resolve("users.log"), copy.resolve("users.idx"))) {
+            for (int t = 0; t < threads; t++) {
+                for (int i = 0; i < usersPerThread; i++) {
+                    if (onDisk.find((prefix + "t" + t + "_u" + i).toLowerCase()) == null) {
+                        missingOnDisk++;
+                    }
+                }
+            }
+            for (int i = 0; i < contested; i++) {
+                if (onDisk.find((prefix + "shared" + i).toLowerCase()) == null) {
+                    missingOnDisk++;
+                }
+            }
+        }
+        assertTrue("No lost registrations on disk", missingOnDisk == 0);
+
+        int registrations = threads * usersPerThread + contested;
+        System.out.printf("%n%d registrations in %.2f s (%.0f/s)%n", registrations, seconds, registrations / seconds);
+        System.out.println("\n=== TEST SUMMARY ===");
+        System.out.println("Total Tests: " + totalTests);
+        System.out.println("Passed: " + passedTests);
+        System.out.println("Failed: " + (totalTests - passedTests));
+        if (passedTests == totalTests) {
+            System.out.println("ALL TESTS PASSED!");
+        } else {
+            System.out.println("Some tests failed - review output above");
+        }
+    }
+
+    // test utility - same output as the other test runners
+    private static void assertTrue(String testName, boolean condition) {
+        totalTests++;
+        if (condition) {
+            passedTests++;
+            System.out.println("✓ " + testName);
+        } else {
+            System.out.println("✗ " + testName);
+        }
+    }
+}
@@ -29,6 +29,7 @@ import com.mycompany.lyricjournal.Controller.*;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.io.UncheckedIOException;
 
 public class AddLyricPanel extends JPanel {
     // input components for user data entry
@@ -167,13 +168,15 @@ public class AddLyricPanel extends JPanel {
         // create new entry object with current date automatically set
         LyricEntry entry = new LyricEntry(title, artist, lyric, note);
         
-        // add entry to user's collection
-        currentUser.addEntry(entry);
-        
-        UserDataController.saveUser(currentUser);
-        
-        // provide positive feedback to user
-        JOptionPane.showMessageDialog(this, "Lyric added successfully!");
+        // add entry to user's collection through the session history (saved and undoable)
+        try {
+            parentFrame.getHistory().addEntry(entry);
+            
+            // provide positive feedback to user
+            JOptionPane.showMessageDialog(this, "Lyric added successfully!");
+        } catch (UncheckedIOException error) {
+            LyricJournalMainGUI.showSaveError(this, error); // added, but only in memory
+        }
         
         // clear form for next entry
         clearFields();
@@ -0,0 +1,303 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.lyricjournal.View;
+
+/**
+ *
+ * @author Kalli-Ann
+ */
+
+// DateBrowserDialog - Calendar heatmap for browsing lyric entries by date added
+
+// One cell per day of a year, shaded by how many entries were saved that day
+
+
+import com.mycompany.lyricjournal.Model.*;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.*;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.format.TextStyle;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+import java.util.SortedMap;
+import java.util.function.BiConsumer;
+
+
+
+// class for the date browser
+
+/*
+ * Shows a year as a heatmap (weeks left to right, Monday to Sunday top to bottom).
+ * Counts come straight from the user's DateIndex - one range lookup per year shown,
+ * no entry is read.
+ *
+ * Selecting:
+ * - click a day                      show that day
+ * - shift-click another day          show the range between the two
+ * - click a month name               show the month
+ * - "Whole Year"                     show the year
+ * The selection is passed to the listener given to the constructor.
+ *
+ * The dialog is not modal, so it can stay open while browsing; call refresh() after
+ * entries change.
+ *
+ * Example usage:
+ * DateBrowserDialog browser = new DateBrowserDialog(frame, user, (from, to) -> show(from, to));
+ * browser.setVisible(true);
+ */
+public class DateBrowserDialog extends JDialog {
+    private static final int CELL = 13;        // cell size in pixels
+    private static final int GAP = 2;          // space between cells
+    private static final int LEFT = 34;        // room for the weekday labels
+    private static final int TOP = 18;         // room for the month labels
+    private static final Color EMPTY = new Color(0xEBEDF0);
+    private static final Color[] SHADES = {    // light to dark, by share of the busiest day
+        new Color(0x9BE9A8), new Color(0x40C463), new Color(0x30A14E), new Color(0x216E39)
+    };
+
+    private final User user;
+    private final BiConsumer<LocalDate, LocalDate> listener;
+    private final Heatmap heatmap = new Heatmap();
+    private final JLabel yearLabel = new JLabel("", SwingConstants.CENTER);
+    private final JLabel summaryLabel = new JLabel(" ");
+    private final JButton previousButton = new JButton("<");
+    private final JButton nextButton = new JButton(">");
+
+    private int year;                          // year shown
+    private int[] counts = new int[366];       // entries per day of the year shown (index = day of year - 1)
+    private int busiest;                       // highest count in the year shown
+    private LocalDate anchor;                  // first day of the selection (for shift-click)
+    private LocalDate selectedFrom, selectedTo;
+
+    /*
+     * Constructor: Creates the date browser for a user's journal
+     * Inputs:
+     * owner - window to position over (input: Window, may be null)
+     * user - user whose entries are browsed (input: non-null User)
+     * listener - called with the first and last day of each selection (input: BiConsumer<LocalDate, LocalDate>)
+     */
+    public DateBrowserDialog(Window owner, User user, BiConsumer<LocalDate, LocalDate> listener) {
+        super(owner, "Browse by Date", ModalityType.MODELESS);
+        this.user = user;
+        this.listener = listener;
+        setDefaultCloseOperation(HIDE_ON_CLOSE);
+        setLayout(new BorderLayout());
+
+        // year navigation at the top
+        JPanel navigationPanel = new JPanel(new BorderLayout());
+        navigationPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 0, 10));
+        yearLabel.setFont(new Font("Arial", Font.BOLD, 16));
+        navigationPanel.add(previousButton, BorderLayout.WEST);
+        navigationPanel.add(yearLabel, BorderLayout.CENTER);
+        navigationPanel.add(nextButton, BorderLayout.EAST);
+        previousButton.addActionListener(e -> showYear(year - 1));
+        nextButton.addActionListener(e -> showYear(year + 1));
+
+        // heatmap in the middle
+        JPanel heatmapPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        heatmapPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 5, 10));
+        heatmapPanel.add(heatmap);
+
+        // summary and buttons at the bottom
+        JPanel bottomPanel = new JPanel(new BorderLayout());
+        bottomPanel.setBorder(BorderFactory.createEmptyBorder(0, 10, 5, 10));
+        summaryLabel.setFont(new Font("Arial", Font.PLAIN, 12));
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        JButton yearButton = new JButton("Whole Year");
+        JButton closeButton = new JButton("Close");
+        yearButton.addActionListener(e -> select(LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31)));
+        closeButton.addActionListener(e -> setVisible(false));
+        buttonPanel.add(yearButton);
+        buttonPanel.add(closeButton);
+        bottomPanel.add(summaryLabel, BorderLayout.WEST);
+        bottomPanel.add(buttonPanel, BorderLayout.EAST);
+
+        add(navigationPanel, BorderLayout.NORTH);
+        add(heatmapPanel, BorderLayout.CENTER);
+        add(bottomPanel, BorderLayout.SOUTH);
+
+        // start at the year of the newest entry
+        LocalDate last = user.getDateIndex().lastDate();
+        showYear(last != null ? last.getYear() : LocalDate.now().getYear());
+        pack();
+        setLocationRelativeTo(owner);
+    }
+
+    /*
+     * Reloads the counts of the year shown (call after entries are added, edited or deleted)
+     */
+    public void refresh() {
+        showYear(year);
+    }
+
+    /*
+     * Gets the year shown
+     */
+    public int getYear() {
+        return year;
+    }
+
+    /*
+     * Shows a year, limited to the years that have entries (and the current year)
+     * Input: newYear - year to show (input: int)
+     */
+    public void showYear(int newYear) {
+        DateIndex index = user.getDateIndex();
+        int thisYear = LocalDate.now().getYear();
+        int firstYear = index.firstDate() == null ? thisYear : Math.min(index.firstDate().getYear(), thisYear);
+        int lastYear = index.lastDate() == null ? thisYear : Math.max(index.lastDate().getYear(), thisYear);
+        year = Math.max(firstYear, Math.min(lastYear, newYear));
+        previousButton.setEnabled(year > firstYear);
+        nextButton.setEnabled(year < lastYear);
+        yearLabel.setText(String.valueOf(year));
+
+        // one index lookup for the whole year
+        SortedMap<LocalDate, Integer> days = index.countsBetween(LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31));
+        counts = new int[366];
+        busiest = 0;
+        int total = 0;
+        for (java.util.Map.Entry<LocalDate, Integer> day : days.entrySet()) {
+            int count = day.getValue();
+            counts[day.getKey().getDayOfYear() - 1] = count;
+            busiest = Math.max(busiest, count);
+            total += count;
+        }
+        summaryLabel.setText(total + (total == 1 ? " entry" : " entries") + " in " + year
+                + " on " + days.size() + (days.size() == 1 ? " day" : " days"));
+        heatmap.repaint();
+    }
+
+    // passes a selection to the listener and marks it on the heatmap
+    private void select(LocalDate from, LocalDate to) {
+        selectedFrom = from.isAfter(to) ? to : from;
+        selectedTo = from.isAfter(to) ? from : to;
+        heatmap.repaint();
+        listener.accept(selectedFrom, selectedTo);
+    }
+
+    private int countOn(LocalDate date) {
+        return date.getYear() == year ? counts[date.getDayOfYear() - 1] : 0;
+    }
+
+    // shade for a day: empty, or one of four steps relative to the busiest day of the year
+    private Color shade(int count) {
+        if (count == 0) {
+            return EMPTY;
+        }
+        int step = (int) ((long) (count - 1) * SHADES.length / Math.max(1, busiest));
+        return SHADES[Math.min(SHADES.length - 1, step)];
+    }
+
+    // the heatmap itself: paints cells for the year shown and turns clicks into selections
+    private class Heatmap extends JComponent {
+        Heatmap() {
+            setPreferredSize(new Dimension(LEFT + 54 * (CELL + GAP), TOP + 7 * (CELL + GAP)));
+            setToolTipText(""); // enables getToolTipText(MouseEvent)
+            addMouseListener(new MouseAdapter() {
+                @Override
+                public void mousePressed(MouseEvent e) {
+                    LocalDate day = dayAt(e.getX(), e.getY());
+                    if (day != null) {
+                        if (e.isShiftDown() && anchor != null) {
+                            select(anchor, day);
+                        } else {
+                            anchor = day;
+                            select(day, day);
+                        }
+                        return;
+                    }
+                    Month month = monthAt(e.getX(), e.getY());
+                    if (month != null) {
+                        LocalDate first = LocalDate.of(year, month, 1);
+                        anchor = first;
+                        select(first, first.withDayOfMonth(first.lengthOfMonth()));
+                    }
+                }
+            });
+        }
+
+        // first Monday on or before 1 January - column 0 starts there
+        private LocalDate start() {
+            return LocalDate.of(year, 1, 1).with(DayOfWeek.MONDAY);
+        }
+
+        private Point cellOf(LocalDate date) {
+            long days = ChronoUnit.DAYS.between(start(), date);
+            return new Point(LEFT + (int) (days / 7) * (CELL + GAP), TOP + (int) (days % 7) * (CELL + GAP));
+        }
+
+        private LocalDate dayAt(int x, int y) {
+            if (x < LEFT || y < TOP) {
+                return null;
+            }
+            int column = (x - LEFT) / (CELL + GAP);
+            int row = (y - TOP) / (CELL + GAP);
+            if (row > 6) {
+                return null;
+            }
+            LocalDate day = start().plusDays(column * 7L + row);
+            return day.getYear() == year ? day : null;
+        }
+
+        private Month monthAt(int x, int y) {
+            if (y >= TOP || x < LEFT) {
+                return null;
+            }
+            for (Month month = Month.DECEMBER; ; month = month.minus(1)) {
+                if (x >= cellOf(LocalDate.of(year, month, 1)).x) {
+                    return month;
+                }
+                if (month == Month.JANUARY) {
+                    return null;
+                }
+            }
+        }
+
+        @Override
+        public String getToolTipText(MouseEvent e) {
+            LocalDate day = dayAt(e.getX(), e.getY());
+            if (day == null) {
+                Month month = monthAt(e.getX(), e.getY());
+                return month == null ? null : "Show " + month.getDisplayName(TextStyle.FULL, Locale.getDefault());
+            }
+            int count = countOn(day);
+            return day.getDayOfWeek().getDisplayName(TextStyle.SHORT, Locale.getDefault()) + " " + day + ": "
+                    + (count == 0 ? "no entries" : count + (count == 1 ? " entry" : " entries"));
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            Graphics2D g2 = (Graphics2D) g;
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2.setFont(new Font("Arial", Font.PLAIN, 10));
+            g2.setColor(Color.GRAY);
+
+            // weekday labels (Mon, Wed, Fri) and month labels
+            for (int row = 0; row < 7; row += 2) {
+                String name = DayOfWeek.of(row + 1).getDisplayName(TextStyle.SHORT, Locale.getDefault());
+                g2.drawString(name, 0, TOP + row * (CELL + GAP) + CELL - 2);
+            }
+            for (Month month : Month.values()) {
+                Point cell = cellOf(LocalDate.of(year, month, 1));
+                g2.drawString(month.getDisplayName(TextStyle.SHORT, Locale.getDefault()), cell.x, TOP - 5);
+            }
+
+            // one cell per day
+            for (LocalDate day = LocalDate.of(year, 1, 1); day.getYear() == year; day = day.plusDays(1)) {
+                Point cell = cellOf(day);
+                g2.setColor(shade(countOn(day)));
+                g2.fillRect(cell.x, cell.y, CELL, CELL);
+                if (selectedFrom != null && !day.isBefore(selectedFrom) && !day.isAfter(selectedTo)) {
+                    g2.setColor(Color.BLACK);
+                    g2.drawRect(cell.x, cell.y, CELL - 1, CELL - 1);
+                }
+            }
+        }
+    }
+}
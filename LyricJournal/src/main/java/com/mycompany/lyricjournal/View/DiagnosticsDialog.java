@@ -0,0 +1,209 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.mycompany.lyricjournal.View;
+
+/**
+ *
+ * @author Kalli-Ann
+ */
+
+// DiagnosticsDialog - Hidden dialog showing event-thread stalls, metrics and memory use
+
+// Opened with Ctrl+Shift+D from any window; not reachable from the menus
+
+
+import com.mycompany.lyricjournal.Diagnostics.EdtWatchdog;
+import com.mycompany.lyricjournal.Diagnostics.LatencySnapshot;
+import com.mycompany.lyricjournal.Diagnostics.MemoryFootprint;
+import com.mycompany.lyricjournal.Diagnostics.Metrics;
+import com.mycompany.lyricjournal.Model.User;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.awt.event.*;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+
+
+// class for the diagnostics dialog
+
+public class DiagnosticsDialog extends JDialog {
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm:ss");
+    private static DiagnosticsDialog open; // only one at a time
+
+    private final DefaultTableModel stallModel;
+    private final JTable stallTable;
+    private final JTextArea stackArea;
+    private final JTextArea metricsArea;
+    private final JTextArea memoryArea;
+    private List<EdtWatchdog.Stall> stalls = List.of();
+
+    /*
+     * Registers the Ctrl+Shift+D shortcut for every window of the application
+     * Call once at startup, after EdtWatchdog.install(root)
+     */
+    public static void installShortcut() {
+        KeyboardFocusManager.getCurrentKeyboardFocusManager().addKeyEventDispatcher(event -> {
+            if (event.getID() == KeyEvent.KEY_PRESSED && event.getKeyCode() == KeyEvent.VK_D
+                    && event.isControlDown() && event.isShiftDown()) {
+                Window owner = SwingUtilities.getWindowAncestor(event.getComponent());
+                showDialog(owner != null ? owner : KeyboardFocusManager.getCurrentKeyboardFocusManager().getActiveWindow());
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /*
+     * Shows the dialog, or brings the open one to the front
+     * Input: owner - window to position over (input: Window, may be null)
+     */
+    public static void showDialog(Window owner) {
+        if (open == null || !open.isDisplayable()) {
+            open = new DiagnosticsDialog(owner);
+        }
+        open.refresh();
+        open.setVisible(true);
+        open.toFront();
+    }
+
+    /*
+     * Constructor: builds the dialog (not modal, so it can stay open while the stall is reproduced)
+     * Input: owner - window to position over (input: Window, may be null)
+     */
+    public DiagnosticsDialog(Window owner) {
+        super(owner, "Diagnostics", ModalityType.MODELESS);
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+        setSize(800, 550);
+        setLocationRelativeTo(owner);
+        setLayout(new BorderLayout());
+
+        // stalls tab: table of stalls on top, stack of the selected one below
+        stallModel = new DefaultTableModel(new Object[] {"Time", "Blocked (ms)", "Action"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        stallTable = new JTable(stallModel);
+        stallTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        stallTable.getColumnModel().getColumn(0).setPreferredWidth(70);
+        stallTable.getColumnModel().getColumn(1).setPreferredWidth(90);
+        stallTable.getColumnModel().getColumn(2).setPreferredWidth(600);
+        stallTable.getSelectionModel().addListSelectionListener(e -> showSelectedStack());
+
+        stackArea = new JTextArea();
+        stackArea.setEditable(false);
+        stackArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+
+        JSplitPane stallPane = new JSplitPane(JSplitPane.VERTICAL_SPLIT,
+                new JScrollPane(stallTable), new JScrollPane(stackArea));
+        stallPane.setResizeWeight(0.4);
+
+        JPanel stallPanel = new JPanel(new BorderLayout());
+        stallPanel.add(new JLabel("  Event-thread blocks longer than " + EdtWatchdog.getThresholdMillis() + " ms"),
+                       BorderLayout.NORTH);
+        stallPanel.add(stallPane, BorderLayout.CENTER);
+
+        // metrics tab: plain text dump of the metrics registry
+        metricsArea = new JTextArea();
+        metricsArea.setEditable(false);
+        metricsArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+
+        // memory tab: estimated heap of the journals open in this process
+        memoryArea = new JTextArea();
+        memoryArea.setEditable(false);
+        memoryArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+
+        JTabbedPane tabs = new JTabbedPane();
+        tabs.addTab("UI Stalls", stallPanel);
+        tabs.addTab("Metrics", new JScrollPane(metricsArea));
+        tabs.addTab("Memory", new JScrollPane(memoryArea));
+        add(tabs, BorderLayout.CENTER);
+
+        // button panel
+        JPanel buttonPanel = new JPanel(new FlowLayout());
+        JButton refreshButton = new JButton("Refresh");
+        JButton clearButton = new JButton("Clear Stalls");
+        JButton closeButton = new JButton("Close");
+        refreshButton.addActionListener(e -> refresh());
+        clearButton.addActionListener(e -> {
+            EdtWatchdog.clear();
+            refresh();
+        });
+        closeButton.addActionListener(e -> dispose());
+        buttonPanel.add(refreshButton);
+        buttonPanel.add(clearButton);
+        buttonPanel.add(closeButton);
+        add(buttonPanel, BorderLayout.SOUTH);
+    }
+
+    /*
+     * Reloads the stalls, metrics and memory report
+     */
+    public void refresh() {
+        stalls = EdtWatchdog.recentStalls();
+        stallModel.setRowCount(0);
+        for (EdtWatchdog.Stall stall : stalls) {
+            String blocked = stall.getDurationMillis() + (stall.isFinished() ? "" : "+");
+            stallModel.addRow(new Object[] {stall.getTime().format(TIME), blocked, stall.getAction()});
+        }
+        stackArea.setText(stalls.isEmpty() ? "No stalls recorded." : "Select a stall to see where the event thread was.");
+        metricsArea.setText(metricsText());
+        metricsArea.setCaretPosition(0);
+        memoryArea.setText(memoryText());
+        memoryArea.setCaretPosition(0);
+    }
+
+    // shows the stack of the selected stall
+    private void showSelectedStack() {
+        int row = stallTable.getSelectedRow();
+        if (row >= 0 && row < stalls.size()) {
+            EdtWatchdog.Stall stall = stalls.get(row);
+            stackArea.setText(stall.getAction() + "\n\n" + stall.getStack());
+            stackArea.setCaretPosition(0);
+        }
+    }
+
+    // memory report for the users signed in to open main windows
+    private static String memoryText() {
+        List<User> users = new ArrayList<>();
+        for (Frame frame : Frame.getFrames()) {
+            if (frame instanceof LyricJournalMainGUI && frame.isDisplayable()) {
+                users.add(((LyricJournalMainGUI) frame).getCurrentUser());
+            }
+        }
+        if (users.isEmpty()) {
+            return "No journal is open.";
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return MemoryFootprint.measure(users)
+                + String.format("%nheap used %s of %s (max %s)%n",
+                        mb(runtime.totalMemory() - runtime.freeMemory()), mb(runtime.totalMemory()), mb(runtime.maxMemory()));
+    }
+
+    private static String mb(long bytes) {
+        return bytes / (1024 * 1024) + " MB";
+    }
+
+    // the metrics registry as text, one metric per line
+    private static String metricsText() {
+        StringBuilder text = new StringBuilder("Latencies (ms)\n");
+        for (Map.Entry<String, LatencySnapshot> timer : Metrics.latencies().entrySet()) {
+            LatencySnapshot s = timer.getValue();
+            text.append(String.format("  %-22s count %-8d p50 %-9.3f p99 %-9.3f max %.3f%n",
+                    timer.getKey(), s.getCount(), s.getP50(), s.getP99(), s.getMax()));
+        }
+        text.append("\nCounters\n");
+        Metrics.counters().forEach((name, value) -> text.append(String.format("  %-22s %d%n", name, value)));
+        text.append("\nGauges\n");
+        Metrics.gauges().forEach((name, value) -> text.append(String.format("  %-22s %d%n", name, value)));
+        return text.toString();
+    }
+}
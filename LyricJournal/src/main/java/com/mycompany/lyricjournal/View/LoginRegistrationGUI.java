@@ -21,6 +21,7 @@ import com.mycompany.lyricjournal.Controller.*;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Main authentication window class
@@ -36,15 +37,26 @@ public class LoginRegistrationGUI extends JFrame {
     
     // mode tracking using single boolean
     private boolean isLoginMode = true; // True = login, False = register
+    
+    // controllers for the storage root the application was started with
+    private final UserManager users;
+    private final UserDataController journals;
 
     /*
      * Constructor: Creates and displays the authentication window
      * Sets up dual-mode interface and handles first-time user experience
      * 
+     * Inputs:
+     *
+     * users - accounts to log in to or register with (input: non-null UserManager)
+     * journals - where the logged-in user's journal is kept (input: non-null UserDataController)
+     * 
      * Example usage:
-     * new LoginRegistrationGUI(); // displays login window and handles all user interaction
+     * new LoginRegistrationGUI(users, journals); // displays login window and handles all user interaction
      */
-    public LoginRegistrationGUI() {
+    public LoginRegistrationGUI(UserManager users, UserDataController journals) {
+        this.users = users;
+        this.journals = journals;
         setTitle("LyricJournal - Login");
         setSize(400, 300);                         
         setDefaultCloseOperation(EXIT_ON_CLOSE);
@@ -114,7 +126,7 @@ public class LoginRegistrationGUI extends JFrame {
         });
 
         // first-time user experience - shows welcome message and switches to register
-        if (UserManager.isFirstRun()) {
+        if (users.isFirstRun()) {
             SwingUtilities.invokeLater(() -> {
                 JOptionPane.showMessageDialog(this,
                     "Welcome to LyricJournal!\n\n" +
@@ -205,21 +217,38 @@ public class LoginRegistrationGUI extends JFrame {
         }
 
         // authenticate using secure UserManager validation
-        if (UserManager.validateLogin(username, password)) {
-            // Output: Successful login - create user and launch main app
-            User user = new User(username, password);
-            UserDataController.loadUserEntries(user); // load existing user data
-            
-            new LyricJournalMainGUI(user); // launch main application
-            dispose(); // close login window
-        } else {
-            // Output: Login failed - show error and clear sensitive data
-            JOptionPane.showMessageDialog(this, 
-                "Invalid username or password. Please try again.", 
-                "Login Failed", JOptionPane.ERROR_MESSAGE);
-            passwordField.setText(""); // security: clear password
-            passwordField.requestFocus();
-        }
+        // password hashing takes tens of milliseconds - run it on a worker thread
+        setBusy(true);
+        new SwingWorker<Boolean, Void>() {
+            @Override
+            protected Boolean doInBackground() {
+                return users.validateLogin(username, password);
+            }
+
+            @Override
+            protected void done() {
+                setBusy(false);
+                if (Boolean.TRUE.equals(result(this))) {
+                    // Output: Successful login - create user and launch main app
+                    // (LyricJournalMainGUI loads the user's entries - loading here as well read the file twice)
+                    User user = new User(username, password);
+                    
+                    new LyricJournalMainGUI(user, users, journals); // launch main application
+                    dispose(); // close login window
+                } else {
+                    // Output: Login failed - show error and clear sensitive data
+                    long wait = users.loginRetryAfterMillis(username, null);
+                    String message = wait > 0
+                        ? "Too many failed attempts. Please try again in " + ((wait + 999) / 1000) + " seconds."
+                        : "Invalid username or password. Please try again.";
+                    JOptionPane.showMessageDialog(LoginRegistrationGUI.this, 
+                        message, 
+                        "Login Failed", JOptionPane.ERROR_MESSAGE);
+                    passwordField.setText(""); // security: clear password
+                    passwordField.requestFocus();
+                }
+            }
+        }.execute();
     }
 
     /*
@@ -228,7 +257,7 @@ public class LoginRegistrationGUI extends JFrame {
      * Output: Either creates account and launches app, or shows validation errors
      * 
      * Implements efficient validation rules:
-     * - Username minimum 3 characters
+     * - Username 3-64 characters: letters, digits, '_', '.', '-' (UserManager.credentialProblem)
      * - Password minimum 4 characters  
      * - Username uniqueness check
      * 
@@ -239,29 +268,16 @@ public class LoginRegistrationGUI extends JFrame {
         String username = usernameField.getText().trim();
         String password = new String(passwordField.getPassword());
 
-        // validate input completeness
-        if (username.isEmpty() || password.isEmpty()) {
-            JOptionPane.showMessageDialog(this, "Please enter both username and password.", 
-                "Missing Information", JOptionPane.WARNING_MESSAGE);
-            return;
-        }
-
-        // validate username length - prevents database issues
-        if (username.length() < 3) {
-            JOptionPane.showMessageDialog(this, "Username must be at least 3 characters long.", 
-                "Invalid Username", JOptionPane.WARNING_MESSAGE);
-            return;
-        }
-
-        // validate password strength - basic security requirement
-        if (password.length() < 4) {
-            JOptionPane.showMessageDialog(this, "Password must be at least 4 characters long.", 
-                "Invalid Password", JOptionPane.WARNING_MESSAGE);
+        // validate input - the same rules registerUser enforces
+        String problem = UserManager.credentialProblem(username, password);
+        if (problem != null) {
+            JOptionPane.showMessageDialog(this, problem, 
+                "Invalid Registration", JOptionPane.WARNING_MESSAGE);
             return;
         }
 
         // check username availability - efficient uniqueness validation
-        if (UserManager.userExists(username)) {
+        if (users.userExists(username)) {
             JOptionPane.showMessageDialog(this, 
                 "Username '" + username + "' is already taken.\nPlease choose a different username.", 
                 "Username Already Taken", JOptionPane.WARNING_MESSAGE);
@@ -270,22 +286,63 @@ public class LoginRegistrationGUI extends JFrame {
             return;
         }
 
-        // attempt user registration
-        if (UserManager.registerUser(username, password)) {
-            // Output: Successful registration
-            JOptionPane.showMessageDialog(this, 
-                "Registration successful! Welcome to LyricJournal, " + username + "!", 
-                "Registration Complete", JOptionPane.INFORMATION_MESSAGE);
-            
-            // create new user and launch main application
-            User user = new User(username, password);
-            new LyricJournalMainGUI(user);
-            dispose(); // Close login window
-        } else {
-            // Output: Registration failed
-            JOptionPane.showMessageDialog(this, 
-                "Registration failed. Please try again.", 
-                "Registration Error", JOptionPane.ERROR_MESSAGE);
+        // attempt user registration (hashes the password - done on a worker thread)
+        setBusy(true);
+        new SwingWorker<Boolean, Void>() {
+            @Override
+            protected Boolean doInBackground() {
+                return users.registerUser(username, password);
+            }
+
+            @Override
+            protected void done() {
+                setBusy(false);
+                if (Boolean.TRUE.equals(result(this))) {
+                    // Output: Successful registration
+                    JOptionPane.showMessageDialog(LoginRegistrationGUI.this, 
+                        "Registration successful! Welcome to LyricJournal, " + username + "!", 
+                        "Registration Complete", JOptionPane.INFORMATION_MESSAGE);
+                    
+                    // create new user and launch main application
+                    User user = new User(username, password);
+                    new LyricJournalMainGUI(user, users, journals);
+                    dispose(); // Close login window
+                } else {
+                    // Output: Registration failed
+                    JOptionPane.showMessageDialog(LoginRegistrationGUI.this, 
+                        "Registration failed. Please try again.", 
+                        "Registration Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+
+    /*
+     * Disables the form while a login or registration runs in the background
+     * Prevents double submission and shows a wait cursor; the window keeps repainting
+     * 
+     * Input: busy - true while a worker is running
+     */
+    private void setBusy(boolean busy) {
+        loginButton.setEnabled(!busy);
+        registerButton.setEnabled(!busy);
+        switchModeButton.setEnabled(!busy);
+        passwordField.setEnabled(!busy);
+        setCursor(busy ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : Cursor.getDefaultCursor());
+    }
+
+    /*
+     * Gets a finished worker's result, treating a failure as a negative answer
+     * 
+     * Input: worker - completed SwingWorker
+     * Output: the worker's result, or null if it threw (error is logged)
+     */
+    private static Boolean result(SwingWorker<Boolean, Void> worker) {
+        try {
+            return worker.get();
+        } catch (InterruptedException | ExecutionException e) {
+            System.err.println("Authentication failed: " + e.getMessage());
+            return null;
         }
     }
 }
\ No newline at end of file
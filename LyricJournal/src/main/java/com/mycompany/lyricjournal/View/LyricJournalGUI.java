@@ -16,17 +16,19 @@ import com.mycompany.lyricjournal.Controller.*;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.io.UncheckedIOException;
 
 public class LyricJournalGUI extends JFrame {
     private JTextField titleField, artistField, lyricField, noteField, searchField;
     private JTextArea displayArea;
     private User currentUser;
-    
+    private final UserDataController journals;
 
     
 
-    public LyricJournalGUI(User user) {
+    public LyricJournalGUI(User user, UserDataController journals) {
         this.currentUser = user;
+        this.journals = journals;
         setTitle("LyricJournal - " + user.getUsername());
         setSize(600, 500);
         setDefaultCloseOperation(EXIT_ON_CLOSE);
@@ -97,12 +99,17 @@ public class LyricJournalGUI extends JFrame {
         });
 
         saveButton.addActionListener(e -> {
-            UserDataController.saveUser(currentUser);
-            JOptionPane.showMessageDialog(this, "Data saved!");
+            try {
+                journals.saveUser(currentUser);
+                JOptionPane.showMessageDialog(this, "Data saved!");
+            } catch (UncheckedIOException error) {
+                JOptionPane.showMessageDialog(this, "Could not save: " + error.getCause().getMessage(),
+                    "Save Failed", JOptionPane.ERROR_MESSAGE);
+            }
         });
 
         // Load entries on startup
-        UserDataController.loadUserEntries(currentUser);
+        journals.loadUserEntries(currentUser);
         for (LyricEntry entry : currentUser.getEntries()) {
             displayArea.append(entry + "\n\n");
         }
@@ -115,7 +122,7 @@ public class LyricJournalGUI extends JFrame {
         String username = JOptionPane.showInputDialog("Enter username:");
         String password = JOptionPane.showInputDialog("Enter password:");
         User user = new User(username, password);
-        new LyricJournalGUI(user);
+        new LyricJournalGUI(user, new UserDataController(Storage.defaultRoot()));
     }
 }
 
@@ -19,9 +19,14 @@ package com.mycompany.lyricjournal.View;
 import com.mycompany.lyricjournal.Model.*;
 import com.mycompany.lyricjournal.Controller.*;
 
+import com.mycompany.lyricjournal.Diagnostics.StartupTimings;
+
 import javax.swing.*;
+import javax.swing.text.JTextComponent;
 import java.awt.*;
 import java.awt.event.*;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Main application window class - central hub for all user interactions
@@ -31,25 +36,41 @@ import java.awt.event.*;
 public class LyricJournalMainGUI extends JFrame {
     // INPUT: User session data
     private User currentUser;                       // current authenticated user with their lyric entries
+    private JournalHistory history;                 // undo/redo log for this session's changes
+    private final UserManager users;                // accounts, for returning to the login screen
+    private final UserDataController journals;      // where the user's journal is loaded and saved
     
     // UI COMPONENTS: Efficient tab-based organization
     private JTabbedPane tabbedPane;                // main container for application tabs
     private AddLyricPanel addLyricPanel;           // panel for creating new lyric entries  
-    private ViewLyricsPanel viewLyricsPanel;       // panel for viewing/editing existing entries
+    private ViewLyricsPanel viewLyricsPanel;       // panel for viewing/editing existing entries (built on first selection)
+    
+    private static final int VIEW_TAB = 1;         // index of the View Lyrics tab
 
     /**
      * Constructor: Creates main application window for authenticated user
      * INPUT: user - authenticated User object containing credentials and existing entries
+     * INPUT: users, journals - controllers for the application's storage root
      * 
      * Sets up efficient tabbed interface and loads user's existing data
      * Provides menu system for file operations and session management
+     * The user's entries are loaded in the background while the window is built,
+     * and the View Lyrics tab is only built when it is first selected
      * 
      * Example usage:
      * User authenticatedUser = new User("johnDoe", "password");
-     * new LyricJournalMainGUI(authenticatedUser); // Opens main app for user "johnDoe"
+     * new LyricJournalMainGUI(authenticatedUser, users, journals); // Opens main app for user "johnDoe"
      */
-    public LyricJournalMainGUI(User user) {
+    public LyricJournalMainGUI(User user, UserManager users, UserDataController journals) {
         this.currentUser = user;
+        this.users = users;
+        this.journals = journals;
+        this.history = new JournalHistory(user, journals);
+        
+        // load existing user data in parallel with building the window
+        CompletableFuture<Void> entriesLoaded = CompletableFuture.runAsync(() -> 
+            StartupTimings.time("journal loaded", () -> journals.loadUserEntries(currentUser)));
+        
         setTitle("LyricJournal - " + user.getUsername());    // personalized window title
         setSize(800, 600);                                
         setDefaultCloseOperation(EXIT_ON_CLOSE);
@@ -59,23 +80,42 @@ public class LyricJournalMainGUI extends JFrame {
         tabbedPane = new JTabbedPane();
         
         // initialize functional panels with user context
+        // the view panel renders every entry, so it waits until the tab is first opened
         addLyricPanel = new AddLyricPanel(currentUser, this);
-        viewLyricsPanel = new ViewLyricsPanel(currentUser);
         
         // add tabs with descriptive names for clear navigation
         tabbedPane.addTab("Add Lyric", addLyricPanel);
-        tabbedPane.addTab("View Lyrics", viewLyricsPanel);
+        tabbedPane.addTab("View Lyrics", new JPanel());    // placeholder until first selection
+        tabbedPane.addChangeListener(e -> {
+            if (tabbedPane.getSelectedIndex() == VIEW_TAB) {
+                ensureViewPanel();
+            }
+        });
         
         add(tabbedPane, BorderLayout.CENTER);
 
         //  create menu system for file operations
         setupMenuSystem();
+        StartupTimings.mark("main window built");
 
-        // load existing user data efficiently on startup
-        UserDataController.loadUserEntries(currentUser);
-        refreshViewPanel();                                  // update display with loaded data
+        // entries must be in memory before the user can add, undo or view anything
+        entriesLoaded.join();
 
         setVisible(true);
+        StartupTimings.mark("main window shown");
+    }
+
+    /*
+     * Builds the View Lyrics panel the first time it is needed
+     * Rendering every entry is the most expensive part of the window, so it is deferred
+     * until the user opens the tab (or an action switches to it)
+     */
+    private void ensureViewPanel() {
+        if (viewLyricsPanel == null) {
+            viewLyricsPanel = new ViewLyricsPanel(currentUser, history);  // renders current entries
+            tabbedPane.setComponentAt(VIEW_TAB, viewLyricsPanel);
+            StartupTimings.mark("view tab built (" + currentUser.getEntries().size() + " entries)");
+        }
     }
 
     /*
@@ -91,7 +131,7 @@ public class LyricJournalMainGUI extends JFrame {
         
         // Save all functionality
 //        saveItem.addActionListener(e -> {
-//            UserDataController.saveUser(currentUser);        // OUTPUT: Save user data to file
+//            journals.saveUser(currentUser);                  // OUTPUT: Save user data to file
 //            JOptionPane.showMessageDialog(this, "Data saved successfully!");
 //        });
         
@@ -101,9 +141,16 @@ public class LyricJournalMainGUI extends JFrame {
                 "Are you sure you want to logout?", "Logout", 
                 JOptionPane.YES_NO_OPTION);
             if (choice == JOptionPane.YES_OPTION) {
-                UserDataController.saveUser(currentUser);    // auto-save before logout
+                try {
+                    journals.saveUser(currentUser);           // auto-save before logout
+                } catch (UncheckedIOException error) {
+                    showSaveError(this, error);              // stay logged in - the changes are only in memory
+                    return;
+                }
+                currentUser.setBodySource(null);             // close the journal file, if loaded lazily
+                StartupTimings.finish();                     // the next login is not a startup
                 dispose();                                   // close main window
-                new LoginRegistrationGUI();                  // return to login screen
+                new LoginRegistrationGUI(users, journals);   // return to login screen
             }
         });
         
@@ -112,9 +159,93 @@ public class LyricJournalMainGUI extends JFrame {
 
         fileMenu.add(logoutItem);
         menuBar.add(fileMenu);
+        
+        // undo/redo for add, edit and delete - Ctrl+Z / Ctrl+Y (Cmd on macOS)
+        // the shortcuts only act on the journal, not while the user is typing (see journalMenuItem)
+        JMenu editMenu = new JMenu("Edit");
+        JMenuItem undoItem = journalMenuItem("Undo");
+        JMenuItem redoItem = journalMenuItem("Redo");
+        int shortcut = Toolkit.getDefaultToolkit().getMenuShortcutKeyMaskEx();
+        undoItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Z, shortcut));
+        redoItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Y, shortcut));
+        
+        undoItem.addActionListener(e -> {
+            try {
+                history.undo();
+            } catch (UncheckedIOException error) {
+                showSaveError(this, error);
+            }
+            refreshViewPanel();
+        });
+        redoItem.addActionListener(e -> {
+            try {
+                history.redo();
+            } catch (UncheckedIOException error) {
+                showSaveError(this, error);
+            }
+            refreshViewPanel();
+        });
+        
+        editMenu.add(undoItem);
+        editMenu.add(redoItem);
+        menuBar.add(editMenu);
         setJMenuBar(menuBar);
     }
 
+    /*
+     * Creates a menu item whose keyboard shortcut is ignored while a text component has focus
+     * Ctrl+Z in the Add Lyric form would otherwise undo a saved journal change instead of
+     * the typing; choosing the item from the menu still works everywhere
+     *
+     * Input: text - the item's label (input: String)
+     * Output: returns the menu item (output: JMenuItem)
+     */
+    private static JMenuItem journalMenuItem(String text) {
+        return new JMenuItem(text) {
+            @Override
+            protected boolean processKeyBinding(KeyStroke ks, KeyEvent e, int condition, boolean pressed) {
+                if (e.getComponent() instanceof JTextComponent) {
+                    return false;                        // leave the key to the text being edited
+                }
+                return super.processKeyBinding(ks, e, condition, pressed);
+            }
+        };
+    }
+
+    /*
+     * Gets the undo/redo history shared by the panels of this window
+     * returns the session's JournalHistory (output: non-null JournalHistory)
+     * 
+     * Example: parentFrame.getHistory().addEntry(entry); // add and make undoable
+     */
+    public JournalHistory getHistory() {
+        return history;
+    }
+
+    /*
+     * Tells the user a change could not be written to disk
+     * The change stays in memory (and undoable) and is written by the next successful save
+     * 
+     * Inputs:
+     *
+     * parent - component to show the message over (input: Component)
+     * error - the failed save (input: UncheckedIOException from UserDataController.saveUser)
+     */
+    public static void showSaveError(Component parent, UncheckedIOException error) {
+        JOptionPane.showMessageDialog(parent,
+            "Your changes could not be saved: " + error.getCause().getMessage()
+                + "\nThey are kept until the next successful save.",
+            "Save Failed", JOptionPane.ERROR_MESSAGE);
+    }
+
+    /*
+     * Gets the user signed in to this window
+     * returns the session's User with its loaded entries (output: non-null User)
+     */
+    public User getCurrentUser() {
+        return currentUser;
+    }
+
     /*
      * Refreshes the view panel to display updated lyric entries
      * Output: Updates ViewLyricsPanel with current user data
@@ -124,7 +255,10 @@ public class LyricJournalMainGUI extends JFrame {
      * Example: After adding new lyric, call refreshViewPanel() to update display
      */
     public void refreshViewPanel() {
-        viewLyricsPanel.refreshEntries();
+        // nothing to refresh until the view has been built - it renders fresh data when created
+        if (viewLyricsPanel != null) {
+            viewLyricsPanel.refreshEntries();
+        }
     }
 
     /**
@@ -137,6 +271,6 @@ public class LyricJournalMainGUI extends JFrame {
      * Example: After successfully adding lyric, switch to view tab to show new entry
      */
     public void switchToViewTab() {
-        tabbedPane.setSelectedIndex(1);                      // index 1 = View Lyrics tab
+        tabbedPane.setSelectedIndex(VIEW_TAB);               // index 1 = View Lyrics tab (built on demand)
     }
 }
\ No newline at end of file
@@ -12,7 +12,7 @@ package com.mycompany.lyricjournal.View;
 // * ViewLyricsPanel - GUI component for displaying and managing saved lyric entries
 // * 
 // * This panel provides functionality to view all saved lyric entries, search through them,
-// * and perform edit/delete operations. Uses ArrayList for data storage and
+// * and perform edit/delete operations. Shows snapshots of the user's entries with
 // * dynamic JPanel creation for scalable entry display.
 // * 
 // * Example usage:
@@ -24,19 +24,30 @@ package com.mycompany.lyricjournal.View;
 
 import com.mycompany.lyricjournal.Model.*;
 import com.mycompany.lyricjournal.Controller.*;
+import com.mycompany.lyricjournal.Diagnostics.JournalEvents;
 
 import javax.swing.*;
+import javax.swing.text.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.List;
 
 public class ViewLyricsPanel extends JPanel {
     // core data and UI components
     private User currentUser; // reference to current logged-in user
+    private JournalHistory history; // records edits and deletes so they can be undone
     private JTextField searchField; // input field for search queries
     private JPanel entriesPanel; // container for all lyric entry displays
     private JScrollPane scrollPane; // scrollable container for large entry lists
-    private ArrayList<LyricEntry> currentEntries; // currently displayed entries (all or filtered)
+    private List<LyricEntry> currentEntries; // currently displayed entries (all or filtered)
+    private JLabel rangeLabel; // describes the date range shown, empty otherwise
+    private DateBrowserDialog dateBrowser; // calendar heatmap, created when first opened
+    
+    // shared painter for search highlights - one instance for every highlighted field
+    private static final Highlighter.HighlightPainter MATCH_PAINTER =
+        new DefaultHighlighter.DefaultHighlightPainter(new Color(255, 235, 120));
 
     /*
      * Constructor - Creates and initializes the View Lyrics panel
@@ -45,14 +56,33 @@ public class ViewLyricsPanel extends JPanel {
      * Loads and displays all existing entries from the user's collection.
      * Uses BorderLayout for optimal space utilization.
      * 
-     * Example: new ViewLyricsPanel(userObject)
+     * Example: new ViewLyricsPanel(userObject, journals)
      * Creates panel showing all lyrics saved by userObject, with search functionality
      * 
-     * Input: user - The current User object whose entries to display and manage
+     * Inputs:
+     *
+     * user - The current User object whose entries to display and manage
+     * journals - where changes to the user's journal are saved
      */
-    public ViewLyricsPanel(User user) {
+    public ViewLyricsPanel(User user, UserDataController journals) {
+        this(user, new JournalHistory(user, journals));
+    }
+
+    /*
+     * Constructor - Creates the View Lyrics panel sharing a session history
+     * 
+     * Example: new ViewLyricsPanel(userObject, mainGUI.getHistory())
+     * Edits and deletes made in this panel can then be undone from the main window
+     * 
+     * Inputs:
+     *
+     * user - The current User object whose entries to display and manage
+     * history - JournalHistory used to perform and record changes
+     */
+    public ViewLyricsPanel(User user, JournalHistory history) {
         // initialize user reference
         this.currentUser = user;
+        this.history = history;
         
         // set up main panel layout with padding
         setLayout(new BorderLayout());
@@ -64,11 +94,16 @@ public class ViewLyricsPanel extends JPanel {
         searchField = new JTextField(20);  // 20 character width for search input
         JButton searchButton = new JButton("Search");
         JButton showAllButton = new JButton("Show All");
+        JButton browseDatesButton = new JButton("Browse by Date");
+        rangeLabel = new JLabel();
+        rangeLabel.setForeground(Color.GRAY);
         
         // add search components
         searchPanel.add(searchField);
         searchPanel.add(searchButton);
         searchPanel.add(showAllButton);
+        searchPanel.add(browseDatesButton);
+        searchPanel.add(rangeLabel);
 
         // create scrollable entries display area
         entriesPanel = new JPanel();
@@ -84,6 +119,7 @@ public class ViewLyricsPanel extends JPanel {
         // configure event handlers for user interactions
         searchButton.addActionListener(e -> performSearch());     // execute search on button click
         showAllButton.addActionListener(e -> showAllEntries());   // reset to show all entries
+        browseDatesButton.addActionListener(e -> openDateBrowser()); // calendar heatmap
         
         // enable Enter key for search
         searchField.addActionListener(e -> performSearch());
@@ -105,6 +141,46 @@ public class ViewLyricsPanel extends JPanel {
      */
     public void refreshEntries() {
         showAllEntries();
+        if (dateBrowser != null && dateBrowser.isVisible()) {
+            dateBrowser.refresh(); // counts changed
+        }
+    }
+
+    /*
+     * openDateBrowser - Opens the calendar heatmap of entries by date added
+     * 
+     * Example: User clicks "Browse by Date", then a day in June
+     * Result: Entries saved that day are displayed (see showDateRange)
+     */
+    private void openDateBrowser() {
+        if (dateBrowser == null) {
+            dateBrowser = new DateBrowserDialog(SwingUtilities.getWindowAncestor(this), currentUser, this::showDateRange);
+        } else {
+            dateBrowser.refresh();
+        }
+        dateBrowser.setVisible(true);
+    }
+
+    /*
+     * showDateRange - Displays the entries added between two days
+     * 
+     * Entries come from the user's DateIndex (a range lookup, no scan of the journal)
+     * and are shown oldest first.
+     * 
+     * Example: showDateRange(LocalDate.of(2024, 6, 1), LocalDate.of(2024, 8, 31))
+     * Result: Entries from last summer displayed, range shown next to the search buttons
+     * 
+     * Inputs:
+     *
+     * from - first day, inclusive (input: non-null LocalDate)
+     * to - last day, inclusive (input: non-null LocalDate)
+     */
+    public void showDateRange(java.time.LocalDate from, java.time.LocalDate to) {
+        currentEntries = currentUser.getDateIndex().entriesBetween(from, to);
+        displayEntries(currentEntries);
+        searchField.setText("");
+        rangeLabel.setText((from.equals(to) ? from.toString() : from + " to " + to)
+            + " (" + currentEntries.size() + (currentEntries.size() == 1 ? " entry)" : " entries)"));
     }
 
     /*
@@ -112,7 +188,7 @@ public class ViewLyricsPanel extends JPanel {
      * 
      * Resets any active search filters and shows all entries.
      * Clears search field and updates display with full entry collection.
-     * Uses efficient ArrayList reference assignment for performance.
+     * Takes the user's current entries as a snapshot - O(1), nothing is copied.
      * 
      * Example: User has 50 saved lyrics, clicks "Show All"
      * Result: All 50 entries displayed, search field cleared
@@ -120,14 +196,15 @@ public class ViewLyricsPanel extends JPanel {
      * Output: Complete entry list displayed, search field empty
      */
     private void showAllEntries() {
-        // get reference to user's complete entry collection
+        // snapshot of user's complete entry collection
         currentEntries = currentUser.getEntries();
         
         // update display with all entries
         displayEntries(currentEntries);
         
-        // clear search field to indicate no filter active
+        // clear search field and date range to indicate no filter active
         searchField.setText("");
+        rangeLabel.setText("");
     }
 
     /*
@@ -151,12 +228,19 @@ public class ViewLyricsPanel extends JPanel {
             showAllEntries();
             return;
         }
+        rangeLabel.setText(""); // a search covers the whole journal
         
         // use User class search method for consistent filtering logic
-        currentEntries = currentUser.searchEntries(query);
+        // results carry the match offsets found during the search pass
+        ArrayList<SearchResult> results = currentUser.searchEntriesWithMatches(query);
+        ArrayList<LyricEntry> found = new ArrayList<>(results.size());
+        for (SearchResult result : results) {
+            found.add(result.getEntry());
+        }
+        currentEntries = found;
         
-        // update display with filtered results
-        displayEntries(currentEntries);
+        // update display with filtered results and highlighted matches
+        displayEntries(currentEntries, results);
     }
 
     /*
@@ -164,13 +248,28 @@ public class ViewLyricsPanel extends JPanel {
      * 
      * Creates visual components for each entry.
      * 
-     * Example: Called with ArrayList containing 3 search results
+     * Example: Called with a list containing 3 search results
      * Result: 3 entry panels created and displayed with spacing
      * 
-     * Input: entries - ArrayList of LyricEntry objects to display
+     * Input: entries - List of LyricEntry objects to display
      * Output: Visual representation of all entries in scrollable area
      */
-    private void displayEntries(ArrayList<LyricEntry> entries) {
+    private void displayEntries(List<LyricEntry> entries) {
+        displayEntries(entries, null);
+    }
+
+    /*
+     * displayEntries - Renders list of entries with optional search highlights
+     * 
+     * Input: entries - List of LyricEntry objects to display
+     * Input: matches - search results parallel to entries (null when no search is active)
+     * Output: Visual representation of all entries, matches painted with a Highlighter
+     */
+    private void displayEntries(List<LyricEntry> entries, ArrayList<SearchResult> matches) {
+        // flight recorder event - measures rebuilding the list (see JournalEvents)
+        JournalEvents.DisplayEntries event = new JournalEvents.DisplayEntries();
+        event.begin();
+        
         // clear existing display to prevent duplicates
         entriesPanel.removeAll();
         
@@ -184,7 +283,7 @@ public class ViewLyricsPanel extends JPanel {
             // create visual panel for each entry
             for (int i = 0; i < entries.size(); i++) {
                 LyricEntry entry = entries.get(i);
-                JPanel entryPanel = createEntryPanel(entry);
+                JPanel entryPanel = createEntryPanel(entry, matches == null ? null : matches.get(i));
                 entriesPanel.add(entryPanel);
                 entriesPanel.add(Box.createVerticalStrut(10)); // add spacing between entries
             }
@@ -193,6 +292,22 @@ public class ViewLyricsPanel extends JPanel {
         // refresh display to show changes
         entriesPanel.revalidate();
         entriesPanel.repaint();
+        
+        if (event.shouldCommit()) {
+            event.entries = entries.size();
+            event.components = countComponents(entriesPanel);
+            event.searchActive = matches != null;
+            event.commit();
+        }
+    }
+    
+    // counts a container and everything inside it (only when the event is recorded)
+    private static int countComponents(Container container) {
+        int count = 1;
+        for (Component child : container.getComponents()) {
+            count += child instanceof Container ? countComponents((Container) child) : 1;
+        }
+        return count;
     }
 
     /*
@@ -205,10 +320,11 @@ public class ViewLyricsPanel extends JPanel {
      * Result: Panel with formatted title/artist header, lyric text, note, date, edit/delete buttons
      * 
      * Input: entry - LyricEntry object to create panel for
+     * Input: match - search result for this entry (null when no search is active)
      * returns JPanel containing formatted entry display with action buttons
      * Output: Complete visual representation of single lyric entry
      */
-    private JPanel createEntryPanel(LyricEntry entry) {
+    private JPanel createEntryPanel(LyricEntry entry, SearchResult match) {
         // main panel with raised border for visual separation
         JPanel panel = new JPanel(new BorderLayout());
         panel.setBorder(BorderFactory.createCompoundBorder(
@@ -218,11 +334,12 @@ public class ViewLyricsPanel extends JPanel {
         panel.setBackground(Color.WHITE);
 
         // header section with song title and artist
+        // read-only text fields styled as labels so search matches can be highlighted
         JPanel headerPanel = new JPanel(new BorderLayout());
-        JLabel titleLabel = new JLabel(entry.getSongTitle());
+        JTextField titleLabel = createHeaderField(entry.getSongTitle());
         titleLabel.setFont(new Font("Arial", Font.BOLD, 16));
 
-        JLabel artistLabel = new JLabel("by " + entry.getArtist());
+        JTextField artistLabel = createHeaderField("by " + entry.getArtist());
         artistLabel.setFont(new Font("Arial", Font.ITALIC, 12));
         artistLabel.setForeground(Color.GRAY);
         artistLabel.setBorder(BorderFactory.createEmptyBorder(0, 10, 0, 10)); // padding for spacing
@@ -238,11 +355,19 @@ public class ViewLyricsPanel extends JPanel {
         lyricArea.setFont(new Font("Arial", Font.PLAIN, 13));
         lyricArea.setBorder(BorderFactory.createEmptyBorder(10, 0, 10, 0));
         lyricArea.setBackground(panel.getBackground()); // match panel background
+        
+        // paint search matches using the offsets from the search pass (no rescan of the text)
+        if (match != null) {
+            highlightMatches(titleLabel, match.getTitleMatches(), match.getMatchLength(), 0);
+            highlightMatches(artistLabel, match.getArtistMatches(), match.getMatchLength(), 3); // skip "by "
+            highlightMatches(lyricArea, match.getLyricMatches(), match.getMatchLength(), 0);
+        }
 
         // optional user note display (only if note exists)
         JTextArea noteArea = null;
-        if (entry.getUserNote() != null && !entry.getUserNote().trim().isEmpty()) {
-            noteArea = new JTextArea("Note: " + entry.getUserNote());
+        String note = entry.getUserNote(); // decoded on every call - fetch once
+        if (note != null && !note.trim().isEmpty()) {
+            noteArea = new JTextArea("Note: " + note);
             noteArea.setEditable(false);
             noteArea.setLineWrap(true);
             noteArea.setWrapStyleWord(true);
@@ -288,6 +413,45 @@ public class ViewLyricsPanel extends JPanel {
         return panel;
     }
 
+    /*
+     * createHeaderField - Builds a read-only, borderless text field that looks like a label
+     * 
+     * Used for the title and artist so they support a Highlighter like the lyric area.
+     * 
+     * Input: text - text to display
+     * returns non-editable JTextField without border or background
+     */
+    private JTextField createHeaderField(String text) {
+        JTextField field = new JTextField(text);
+        field.setEditable(false);
+        field.setOpaque(false);
+        field.setBorder(BorderFactory.createEmptyBorder());
+        return field;
+    }
+
+    /*
+     * highlightMatches - Paints precomputed match spans on a text component
+     * 
+     * Example: starts=[4, 31], length=4 highlights characters 4-7 and 31-34
+     * 
+     * Inputs:
+     *
+     * component - text component to paint on
+     * starts - match start offsets from SearchResult (relative to the field value)
+     * length - length of every match
+     * offset - position of the field value inside the component text (e.g. 3 for "by ")
+     */
+    private void highlightMatches(JTextComponent component, int[] starts, int length, int offset) {
+        Highlighter highlighter = component.getHighlighter();
+        for (int start : starts) {
+            try {
+                highlighter.addHighlight(offset + start, offset + start + length, MATCH_PAINTER);
+            } catch (BadLocationException e) {
+                return; // text changed since the search - remaining spans are stale
+            }
+        }
+    }
+
     /*
      * editEntry - Opens edit dialog for modifying existing entry
      * 
@@ -310,11 +474,12 @@ public class ViewLyricsPanel extends JPanel {
         if (dialog.isConfirmed()) {
             LyricEntry updatedEntry = dialog.getUpdatedEntry();
             
-            // replace old entry with updated version in user's collection
-            currentUser.getEntries().set(currentUser.getEntries().indexOf(entry), updatedEntry);
-            
-            // save changes immediately
-            UserDataController.saveUser(currentUser);
+            // replace old entry with updated version (saved immediately and undoable)
+            try {
+                history.editEntry(currentUser.getEntries().indexOf(entry), updatedEntry);
+            } catch (UncheckedIOException error) {
+                LyricJournalMainGUI.showSaveError(this, error);
+            }
             
             // refresh display to show updated entry
             refreshEntries();
@@ -343,17 +508,20 @@ public class ViewLyricsPanel extends JPanel {
             
         // process deletion if user confirmed
         if (choice == JOptionPane.YES_OPTION) {
-            // remove entry from user's collection
-            currentUser.getEntries().remove(entry);
-            
-            // save changes immediately
-            UserDataController.saveUser(currentUser);
+            // remove entry from user's collection (saved immediately and undoable)
+            try {
+                history.deleteEntry(currentUser.getEntries().indexOf(entry));
+            } catch (UncheckedIOException error) {
+                refreshEntries();
+                LyricJournalMainGUI.showSaveError(this, error);
+                return;
+            }
             
             // refresh display to reflect deletion
             refreshEntries();
             
             // provide positive feedback
-            JOptionPane.showMessageDialog(this, "Entry deleted successfully.");
+            JOptionPane.showMessageDialog(this, "Entry deleted successfully.\nUse Edit > Undo (Ctrl+Z) to restore it.");
         }
     }
 }
\ No newline at end of file